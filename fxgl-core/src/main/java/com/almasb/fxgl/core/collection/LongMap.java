@@ -0,0 +1,227 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.core.collection;
+
+import java.util.Arrays;
+
+/**
+ * An unordered map with primitive long keys that uses open addressing (linear probing).
+ * Unlike HashMap&lt;Long, V&gt;, keys are never boxed, so get / put / remove do not allocate
+ * (unless the map needs to grow).
+ * Null values are not allowed.
+ *
+ * Iteration is index-based to avoid iterator allocation:
+ * <pre>
+ *     for (int i = 0; i &lt; map.capacity(); i++) {
+ *         V value = map.valueAt(i);
+ *         if (value != null) { ... }
+ *     }
+ * </pre>
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class LongMap<V> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private V[] values;
+
+    private int size = 0;
+    private int mask;
+    private int threshold;
+
+    /**
+     * Creates a map with initial capacity of 32.
+     */
+    public LongMap() {
+        this(32);
+    }
+
+    /**
+     * @param initialCapacity expected number of entries before the map grows
+     */
+    public LongMap(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Initial capacity must be >= 0: " + initialCapacity);
+
+        allocate(tableSizeFor((int) Math.ceil(initialCapacity / LOAD_FACTOR)));
+    }
+
+    /**
+     * @return number of key-value pairs
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return value mapped to key or null if no such key
+     */
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Maps key to value.
+     *
+     * @return previous value mapped to key or null if there was none
+     */
+    public V put(long key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("Null values are not allowed");
+
+        int index = slot(key);
+
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V old = values[index];
+                values[index] = value;
+                return old;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+
+        if (++size > threshold) {
+            resize(values.length << 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return removed value or null if there was no such key
+     */
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0)
+            return null;
+
+        V old = values[index];
+        values[index] = null;
+        size--;
+
+        // backward shift deletion, so that lookups never need tombstones
+        int hole = index;
+        int next = (index + 1) & mask;
+
+        while (values[next] != null) {
+            int ideal = slot(keys[next]);
+
+            // move the entry into the hole if the hole lies cyclically between its ideal slot and its current slot
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                values[next] = null;
+                hole = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        return old;
+    }
+
+    /**
+     * Removes all entries, keeping the allocated capacity.
+     */
+    public void clear() {
+        if (size == 0)
+            return;
+
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * @return the size of the internal table, used for index-based iteration
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @return value at given table index or null if the slot is empty
+     */
+    public V valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return key at given table index, only meaningful if {@link #valueAt(int)} is not null
+     */
+    public long keyAt(int index) {
+        return keys[index];
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+
+        while (values[index] != null) {
+            if (keys[index] == key)
+                return index;
+
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = slot(oldKeys[i]);
+
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = 8;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
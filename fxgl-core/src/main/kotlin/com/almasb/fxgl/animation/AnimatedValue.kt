@@ -10,16 +10,13 @@ import com.almasb.fxgl.core.math.FXGLMath
 import com.almasb.fxgl.texture.getPixel
 import com.almasb.fxgl.texture.map
 import javafx.animation.Interpolator
-import javafx.animation.PathTransition
 import javafx.geometry.Point2D
 import javafx.geometry.Point3D
 import javafx.scene.image.Image
 import javafx.scene.paint.Color
 import javafx.scene.shape.CubicCurve
 import javafx.scene.shape.QuadCurve
-import javafx.scene.shape.Rectangle
 import javafx.scene.shape.Shape
-import javafx.util.Duration
 import kotlin.math.max
 import kotlin.math.min
 
@@ -147,39 +144,16 @@ class AnimatedPath
 (val path: Shape) : AnimatedValue<Point3D>(Point3D.ZERO, Point3D.ZERO) {
 
     /**
-     * Maps reference time values [0..1] to points on path at that time.
+     * Samples points on path at constant speed.
      */
-    private val points = hashMapOf<Int, Point3D>()
+    private val sampler = PathSampler(path)
 
-    init {
-        val dummy = Rectangle()
-        val pt = PathTransition(Duration.seconds(1.0), path, dummy)
-        pt.play()
-
-        var t = 0.0
-        var percent = 0
-
-        while (t < 1.0) {
-            points[percent++] = Point3D(dummy.translateX, dummy.translateY, 0.0)
-
-            t += 0.01
-
-            pt.jumpTo(Duration.seconds(t))
-        }
-
-        pt.jumpTo(Duration.seconds(1.0))
-
-        // hack to ensure that points[0] is not (0, 0)
-        points[0] = points[1]!!
-        points[100] = Point3D(dummy.translateX, dummy.translateY, 0.0)
-    }
+    private val point = DoubleArray(2)
 
     override fun animate(val1: Point3D, val2: Point3D, progress: Double, interpolator: Interpolator): Point3D {
-        val t = interpolator.interpolate(0.0, 1.0, progress)
-
-        val key = (t * 100).toInt()
+        sampler.sample(interpolator.interpolate(0.0, 1.0, progress), point)
 
-        return points[key]!!
+        return Point3D(point[0], point[1], 0.0)
     }
 }
 
@@ -0,0 +1,357 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.animation
+
+import javafx.animation.PathTransition
+import javafx.scene.shape.*
+import javafx.util.Duration
+import kotlin.math.PI
+import kotlin.math.cos
+import kotlin.math.sin
+import kotlin.math.sqrt
+
+/**
+ * Samples points on the outline of a shape at constant speed, i.e. by distance travelled along the outline.
+ * The outline is flattened into line segments once (curves are subdivided)
+ * and a table of cumulative segment lengths (arc lengths) is used to find the segment at given distance.
+ * Sampling does not allocate.
+ *
+ * Lines, polylines, polygons, quad and cubic curves, rectangles, circles, ellipses and paths
+ * (except arcs) are flattened directly.
+ * Other shapes (e.g. SVG paths) are sampled by running a [PathTransition] along them.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class PathSampler(shape: Shape) {
+
+    companion object {
+        private const val CURVE_SEGMENTS = 32
+        private const val ELLIPSE_SEGMENTS = 64
+        private const val TRANSITION_SAMPLES = 100
+    }
+
+    private var xs = DoubleArray(16)
+    private var ys = DoubleArray(16)
+
+    /**
+     * lengths[i] is the distance along the outline from point 0 to point i.
+     */
+    private var lengths = DoubleArray(16)
+
+    private var size = 0
+
+    /**
+     * Length of the outline in pixels.
+     */
+    val length: Double
+        get() = if (size == 0) 0.0 else lengths[size - 1]
+
+    init {
+        if (flatten(shape)) {
+            applyTransform(shape)
+        } else {
+            size = 0
+            sampleTransition(shape)
+        }
+    }
+
+    /**
+     * Writes the point at [t] (0 is the start, 1 is the end of the outline) to [out] at [offset] (x) and [offset] + 1 (y).
+     */
+    @JvmOverloads fun sample(t: Double, out: DoubleArray, offset: Int = 0) {
+        if (size == 0) {
+            out[offset] = 0.0
+            out[offset + 1] = 0.0
+            return
+        }
+
+        val distance = t.coerceIn(0.0, 1.0) * length
+
+        // last point whose length is <= distance
+        var low = 0
+        var high = size - 1
+
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+
+            if (lengths[mid] <= distance) {
+                low = mid
+            } else {
+                high = mid - 1
+            }
+        }
+
+        if (low == size - 1) {
+            out[offset] = xs[low]
+            out[offset + 1] = ys[low]
+            return
+        }
+
+        val segmentLength = lengths[low + 1] - lengths[low]
+        val ratio = if (segmentLength > 0.0) (distance - lengths[low]) / segmentLength else 0.0
+
+        out[offset] = xs[low] + (xs[low + 1] - xs[low]) * ratio
+        out[offset + 1] = ys[low] + (ys[low + 1] - ys[low]) * ratio
+    }
+
+    /**
+     * @return true if the shape is supported
+     */
+    private fun flatten(shape: Shape): Boolean {
+        when (shape) {
+            is Line -> {
+                moveTo(shape.startX, shape.startY)
+                lineTo(shape.endX, shape.endY)
+            }
+
+            is Polyline -> {
+                addPoints(shape.points)
+            }
+
+            is Polygon -> {
+                addPoints(shape.points)
+
+                if (size > 0)
+                    lineTo(xs[0], ys[0])
+            }
+
+            is QuadCurve -> {
+                moveTo(shape.startX, shape.startY)
+                quadTo(shape.controlX, shape.controlY, shape.endX, shape.endY)
+            }
+
+            is CubicCurve -> {
+                moveTo(shape.startX, shape.startY)
+                cubicTo(shape.controlX1, shape.controlY1, shape.controlX2, shape.controlY2, shape.endX, shape.endY)
+            }
+
+            is Rectangle -> {
+                moveTo(shape.x, shape.y)
+                lineTo(shape.x + shape.width, shape.y)
+                lineTo(shape.x + shape.width, shape.y + shape.height)
+                lineTo(shape.x, shape.y + shape.height)
+                lineTo(shape.x, shape.y)
+            }
+
+            is Circle -> {
+                ellipse(shape.centerX, shape.centerY, shape.radius, shape.radius)
+            }
+
+            is Ellipse -> {
+                ellipse(shape.centerX, shape.centerY, shape.radiusX, shape.radiusY)
+            }
+
+            is Path -> {
+                return flattenPath(shape)
+            }
+
+            else -> return false
+        }
+
+        return true
+    }
+
+    private fun flattenPath(path: Path): Boolean {
+        var startX = 0.0
+        var startY = 0.0
+
+        // current point
+        var x = 0.0
+        var y = 0.0
+
+        for (element in path.elements) {
+            val baseX = if (element.isAbsolute) 0.0 else x
+            val baseY = if (element.isAbsolute) 0.0 else y
+
+            when (element) {
+                is MoveTo -> {
+                    x = baseX + element.x
+                    y = baseY + element.y
+                    startX = x
+                    startY = y
+
+                    moveTo(x, y)
+                }
+
+                is LineTo -> {
+                    x = baseX + element.x
+                    y = baseY + element.y
+
+                    lineTo(x, y)
+                }
+
+                is HLineTo -> {
+                    x = baseX + element.x
+
+                    lineTo(x, y)
+                }
+
+                is VLineTo -> {
+                    y = baseY + element.y
+
+                    lineTo(x, y)
+                }
+
+                is QuadCurveTo -> {
+                    quadTo(baseX + element.controlX, baseY + element.controlY, baseX + element.x, baseY + element.y)
+
+                    x = baseX + element.x
+                    y = baseY + element.y
+                }
+
+                is CubicCurveTo -> {
+                    cubicTo(baseX + element.controlX1, baseY + element.controlY1,
+                            baseX + element.controlX2, baseY + element.controlY2,
+                            baseX + element.x, baseY + element.y)
+
+                    x = baseX + element.x
+                    y = baseY + element.y
+                }
+
+                is ClosePath -> {
+                    x = startX
+                    y = startY
+
+                    lineTo(x, y)
+                }
+
+                // arcs are not flattened
+                else -> return false
+            }
+        }
+
+        return true
+    }
+
+    private fun addPoints(points: List<Double>) {
+        for (i in 0 until points.size / 2) {
+            if (i == 0) {
+                moveTo(points[0], points[1])
+            } else {
+                lineTo(points[i * 2], points[i * 2 + 1])
+            }
+        }
+    }
+
+    private fun ellipse(centerX: Double, centerY: Double, radiusX: Double, radiusY: Double) {
+        moveTo(centerX + radiusX, centerY)
+
+        for (i in 1..ELLIPSE_SEGMENTS) {
+            val angle = 2 * PI * i / ELLIPSE_SEGMENTS
+
+            lineTo(centerX + radiusX * cos(angle), centerY + radiusY * sin(angle))
+        }
+    }
+
+    private fun quadTo(controlX: Double, controlY: Double, endX: Double, endY: Double) {
+        if (size == 0)
+            moveTo(0.0, 0.0)
+
+        val x0 = xs[size - 1]
+        val y0 = ys[size - 1]
+
+        for (i in 1..CURVE_SEGMENTS) {
+            val t = i.toDouble() / CURVE_SEGMENTS
+            val u = 1 - t
+
+            lineTo(
+                    u * u * x0 + 2 * u * t * controlX + t * t * endX,
+                    u * u * y0 + 2 * u * t * controlY + t * t * endY
+            )
+        }
+    }
+
+    private fun cubicTo(controlX1: Double, controlY1: Double, controlX2: Double, controlY2: Double, endX: Double, endY: Double) {
+        if (size == 0)
+            moveTo(0.0, 0.0)
+
+        val x0 = xs[size - 1]
+        val y0 = ys[size - 1]
+
+        for (i in 1..CURVE_SEGMENTS) {
+            val t = i.toDouble() / CURVE_SEGMENTS
+            val u = 1 - t
+
+            lineTo(
+                    u * u * u * x0 + 3 * u * u * t * controlX1 + 3 * u * t * t * controlX2 + t * t * t * endX,
+                    u * u * u * y0 + 3 * u * u * t * controlY1 + 3 * u * t * t * controlY2 + t * t * t * endY
+            )
+        }
+    }
+
+    /**
+     * Jumps to given point, which does not add to the length.
+     */
+    private fun moveTo(x: Double, y: Double) {
+        addPoint(x, y, if (size == 0) 0.0 else lengths[size - 1])
+    }
+
+    private fun lineTo(x: Double, y: Double) {
+        if (size == 0) {
+            moveTo(x, y)
+            return
+        }
+
+        val dx = x - xs[size - 1]
+        val dy = y - ys[size - 1]
+
+        addPoint(x, y, lengths[size - 1] + sqrt(dx * dx + dy * dy))
+    }
+
+    private fun addPoint(x: Double, y: Double, length: Double) {
+        if (size == xs.size) {
+            xs = xs.copyOf(size * 2)
+            ys = ys.copyOf(size * 2)
+            lengths = lengths.copyOf(size * 2)
+        }
+
+        xs[size] = x
+        ys[size] = y
+        lengths[size] = length
+        size++
+    }
+
+    /**
+     * Flattened points are in shape local coordinates, so apply the shape transforms (same as [PathTransition]).
+     */
+    private fun applyTransform(shape: Shape) {
+        val transform = shape.localToParentTransform
+
+        if (transform.isIdentity)
+            return
+
+        for (i in 0 until size) {
+            val p = transform.transform(xs[i], ys[i])
+            xs[i] = p.x
+            ys[i] = p.y
+        }
+
+        // recompute lengths, since the transform may scale
+        for (i in 1 until size) {
+            val isJump = lengths[i] == lengths[i - 1]
+
+            val dx = xs[i] - xs[i - 1]
+            val dy = ys[i] - ys[i - 1]
+
+            lengths[i] = lengths[i - 1] + if (isJump) 0.0 else sqrt(dx * dx + dy * dy)
+        }
+    }
+
+    private fun sampleTransition(shape: Shape) {
+        val dummy = Rectangle()
+        val pt = PathTransition(Duration.seconds(1.0), shape, dummy)
+        pt.play()
+
+        for (i in 0..TRANSITION_SAMPLES) {
+            pt.jumpTo(Duration.seconds(i.toDouble() / TRANSITION_SAMPLES))
+
+            lineTo(dummy.translateX, dummy.translateY)
+        }
+
+        pt.stop()
+    }
+}
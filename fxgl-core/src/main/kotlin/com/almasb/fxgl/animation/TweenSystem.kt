@@ -0,0 +1,415 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.animation
+
+import com.almasb.fxgl.core.Updatable
+import javafx.animation.Interpolator
+
+/**
+ * Runs many simple tweens (translate, scale, rotate, fade, move along path) of [Animatable] targets
+ * with a shared clock, as an alternative to one [Animation] per target.
+ * Tween state is stored in primitive arrays and all active tweens are advanced in one pass per update.
+ * Values are written directly into the target properties, so, once the arrays have grown
+ * to the number of concurrent tweens, starting and running tweens does not allocate.
+ *
+ * Each tween has a duration, an optional delay, an interpolator, a number of cycles
+ * (can be [INDEFINITE]) and, if auto reverse, every other cycle runs backwards.
+ * When a tween finishes, the end value is written and its onFinished callback (if any) is run,
+ * after all tweens have been advanced.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TweenSystem
+@JvmOverloads constructor(initialCapacity: Int = 64) : Updatable {
+
+    companion object {
+        const val INDEFINITE = Int.MAX_VALUE
+
+        private const val TRANSLATE = 0
+        private const val TRANSLATE_3D = 1
+        private const val SCALE = 2
+        private const val ROTATE = 3
+        private const val ROTATE_3D = 4
+        private const val FADE = 5
+        private const val PATH = 6
+    }
+
+    private var capacity = maxOf(initialCapacity, 1)
+
+    private var targets = arrayOfNulls<Animatable>(capacity)
+    private var interpolators = arrayOfNulls<Interpolator>(capacity)
+    private var paths = arrayOfNulls<PathSampler>(capacity)
+    private var onFinished = arrayOfNulls<Runnable>(capacity)
+
+    private var kinds = IntArray(capacity)
+    private var cycles = IntArray(capacity)
+    private var isAutoReverse = BooleanArray(capacity)
+    private var isReverse = BooleanArray(capacity)
+
+    private var delays = DoubleArray(capacity)
+    private var durations = DoubleArray(capacity)
+    private var times = DoubleArray(capacity)
+
+    // 3 components (x, y, z) per tween
+    private var from = DoubleArray(capacity * 3)
+    private var to = DoubleArray(capacity * 3)
+
+    // scratch for path samples
+    private val point = DoubleArray(2)
+
+    private val finished = ArrayList<Runnable>()
+
+    /**
+     * Number of active tweens.
+     */
+    var size = 0
+        private set
+
+    /**
+     * Moves [target] from (fromX, fromY) to (toX, toY).
+     */
+    @JvmOverloads fun translate(target: Animatable, fromX: Double, fromY: Double, toX: Double, toY: Double,
+                                duration: Double, interpolator: Interpolator = Interpolator.LINEAR): TweenSystem {
+        return add(target, TRANSLATE, fromX, fromY, 0.0, toX, toY, 0.0, duration, interpolator)
+    }
+
+    /**
+     * Moves [target] from (fromX, fromY, fromZ) to (toX, toY, toZ).
+     */
+    @JvmOverloads fun translate3D(target: Animatable, fromX: Double, fromY: Double, fromZ: Double, toX: Double, toY: Double, toZ: Double,
+                                  duration: Double, interpolator: Interpolator = Interpolator.LINEAR): TweenSystem {
+        return add(target, TRANSLATE_3D, fromX, fromY, fromZ, toX, toY, toZ, duration, interpolator)
+    }
+
+    /**
+     * Moves [target] along the outline of [path] (at constant speed), the path can be shared by many tweens.
+     */
+    @JvmOverloads fun alongPath(target: Animatable, path: PathSampler,
+                                duration: Double, interpolator: Interpolator = Interpolator.LINEAR): TweenSystem {
+        add(target, PATH, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, duration, interpolator)
+        paths[size - 1] = path
+        return this
+    }
+
+    /**
+     * Scales [target] from (fromX, fromY) to (toX, toY).
+     */
+    @JvmOverloads fun scale(target: Animatable, fromX: Double, fromY: Double, toX: Double, toY: Double,
+                            duration: Double, interpolator: Interpolator = Interpolator.LINEAR): TweenSystem {
+        return add(target, SCALE, fromX, fromY, 0.0, toX, toY, 0.0, duration, interpolator)
+    }
+
+    /**
+     * Rotates [target] (2D, along the Z axis) from [fromAngle] to [toAngle].
+     */
+    @JvmOverloads fun rotate(target: Animatable, fromAngle: Double, toAngle: Double,
+                             duration: Double, interpolator: Interpolator = Interpolator.LINEAR): TweenSystem {
+        return add(target, ROTATE, 0.0, 0.0, fromAngle, 0.0, 0.0, toAngle, duration, interpolator)
+    }
+
+    /**
+     * Rotates [target] along X, Y and Z axes.
+     * Note: 3D rotations of nodes require the rotation origin to be set first (see [Animatable.setRotationOrigin]).
+     */
+    @JvmOverloads fun rotate3D(target: Animatable, fromX: Double, fromY: Double, fromZ: Double, toX: Double, toY: Double, toZ: Double,
+                               duration: Double, interpolator: Interpolator = Interpolator.LINEAR): TweenSystem {
+        return add(target, ROTATE_3D, fromX, fromY, fromZ, toX, toY, toZ, duration, interpolator)
+    }
+
+    /**
+     * Changes opacity of [target] from [fromOpacity] to [toOpacity].
+     */
+    @JvmOverloads fun fade(target: Animatable, fromOpacity: Double, toOpacity: Double,
+                           duration: Double, interpolator: Interpolator = Interpolator.LINEAR): TweenSystem {
+        return add(target, FADE, fromOpacity, 0.0, 0.0, toOpacity, 0.0, 0.0, duration, interpolator)
+    }
+
+    /**
+     * Sets the delay (in seconds) before the last added tween starts.
+     */
+    fun delay(delay: Double): TweenSystem {
+        delays[size - 1] = delay
+        return this
+    }
+
+    /**
+     * Sets the number of cycles of the last added tween.
+     */
+    fun repeat(times: Int): TweenSystem {
+        cycles[size - 1] = times
+        return this
+    }
+
+    /**
+     * Makes every other cycle of the last added tween run backwards.
+     */
+    fun autoReverse(autoReverse: Boolean): TweenSystem {
+        isAutoReverse[size - 1] = autoReverse
+        return this
+    }
+
+    /**
+     * Sets the callback for when the last added tween finishes.
+     */
+    fun onFinished(onFinished: Runnable): TweenSystem {
+        this.onFinished[size - 1] = onFinished
+        return this
+    }
+
+    /**
+     * Stops all tweens of [target], values remain as they are.
+     *
+     * @return number of stopped tweens
+     */
+    fun cancel(target: Animatable): Int {
+        val sizeBefore = size
+
+        var i = 0
+
+        while (i < size) {
+            if (targets[i] === target) {
+                removeAt(i)
+            } else {
+                i++
+            }
+        }
+
+        return sizeBefore - size
+    }
+
+    /**
+     * @return true if [target] has at least one active tween
+     */
+    fun isAnimating(target: Animatable): Boolean {
+        for (i in 0 until size) {
+            if (targets[i] === target)
+                return true
+        }
+
+        return false
+    }
+
+    /**
+     * Stops all tweens.
+     */
+    fun clear() {
+        while (size > 0) {
+            removeAt(size - 1)
+        }
+    }
+
+    override fun onUpdate(tpf: Double) {
+        var i = 0
+
+        while (i < size) {
+            if (advance(i, tpf)) {
+                onFinished[i]?.let { finished += it }
+
+                // the last tween takes the place of the finished one, so i is advanced next
+                removeAt(i)
+            } else {
+                i++
+            }
+        }
+
+        // callbacks may add or cancel tweens
+        if (finished.isNotEmpty()) {
+            for (j in finished.indices) {
+                finished[j].run()
+            }
+
+            finished.clear()
+        }
+    }
+
+    /**
+     * @return true if the tween at [i] has finished
+     */
+    private fun advance(i: Int, tpf: Double): Boolean {
+        var dt = tpf
+
+        if (delays[i] > 0.0) {
+            delays[i] -= dt
+
+            if (delays[i] > 0.0)
+                return false
+
+            // time left after the delay
+            dt = -delays[i]
+            delays[i] = 0.0
+        }
+
+        val duration = durations[i]
+
+        times[i] += dt
+
+        if (times[i] < duration) {
+            val progress = times[i] / duration
+
+            write(i, if (isReverse[i]) 1.0 - progress else progress)
+            return false
+        }
+
+        write(i, if (isReverse[i]) 0.0 else 1.0)
+
+        if (cycles[i] != INDEFINITE) {
+            cycles[i]--
+
+            if (cycles[i] <= 0)
+                return true
+        }
+
+        if (isAutoReverse[i]) {
+            isReverse[i] = !isReverse[i]
+        }
+
+        times[i] = 0.0
+        return false
+    }
+
+    /**
+     * Writes the value of tween [i] at given progress (0..1) of its cycle to its target.
+     */
+    private fun write(i: Int, progress: Double) {
+        val target = targets[i]!!
+        val interpolator = interpolators[i]!!
+
+        val base = i * 3
+
+        when (kinds[i]) {
+            TRANSLATE -> {
+                target.xProperty().set(interpolator.interpolate(from[base], to[base], progress))
+                target.yProperty().set(interpolator.interpolate(from[base + 1], to[base + 1], progress))
+            }
+
+            TRANSLATE_3D -> {
+                target.xProperty().set(interpolator.interpolate(from[base], to[base], progress))
+                target.yProperty().set(interpolator.interpolate(from[base + 1], to[base + 1], progress))
+                target.zProperty().set(interpolator.interpolate(from[base + 2], to[base + 2], progress))
+            }
+
+            PATH -> {
+                paths[i]!!.sample(interpolator.interpolate(0.0, 1.0, progress), point)
+
+                target.xProperty().set(point[0])
+                target.yProperty().set(point[1])
+            }
+
+            SCALE -> {
+                target.scaleXProperty().set(interpolator.interpolate(from[base], to[base], progress))
+                target.scaleYProperty().set(interpolator.interpolate(from[base + 1], to[base + 1], progress))
+            }
+
+            ROTATE -> {
+                target.rotationZProperty().set(interpolator.interpolate(from[base + 2], to[base + 2], progress))
+            }
+
+            ROTATE_3D -> {
+                target.rotationXProperty().set(interpolator.interpolate(from[base], to[base], progress))
+                target.rotationYProperty().set(interpolator.interpolate(from[base + 1], to[base + 1], progress))
+                target.rotationZProperty().set(interpolator.interpolate(from[base + 2], to[base + 2], progress))
+            }
+
+            FADE -> {
+                target.opacityProperty().set(interpolator.interpolate(from[base], to[base], progress))
+            }
+        }
+    }
+
+    private fun add(target: Animatable, kind: Int,
+                    fromX: Double, fromY: Double, fromZ: Double,
+                    toX: Double, toY: Double, toZ: Double,
+                    duration: Double, interpolator: Interpolator): TweenSystem {
+
+        if (size == capacity) {
+            grow()
+        }
+
+        val i = size++
+
+        targets[i] = target
+        interpolators[i] = interpolator
+        paths[i] = null
+        onFinished[i] = null
+
+        kinds[i] = kind
+        cycles[i] = 1
+        isAutoReverse[i] = false
+        isReverse[i] = false
+
+        delays[i] = 0.0
+        durations[i] = duration
+        times[i] = 0.0
+
+        val base = i * 3
+
+        from[base] = fromX
+        from[base + 1] = fromY
+        from[base + 2] = fromZ
+
+        to[base] = toX
+        to[base + 1] = toY
+        to[base + 2] = toZ
+
+        return this
+    }
+
+    /**
+     * Moves the last tween to [i], so the order of tweens is not kept.
+     */
+    private fun removeAt(i: Int) {
+        val last = size - 1
+
+        if (i != last) {
+            targets[i] = targets[last]
+            interpolators[i] = interpolators[last]
+            paths[i] = paths[last]
+            onFinished[i] = onFinished[last]
+
+            kinds[i] = kinds[last]
+            cycles[i] = cycles[last]
+            isAutoReverse[i] = isAutoReverse[last]
+            isReverse[i] = isReverse[last]
+
+            delays[i] = delays[last]
+            durations[i] = durations[last]
+            times[i] = times[last]
+
+            System.arraycopy(from, last * 3, from, i * 3, 3)
+            System.arraycopy(to, last * 3, to, i * 3, 3)
+        }
+
+        // do not hold on to removed objects
+        targets[last] = null
+        interpolators[last] = null
+        paths[last] = null
+        onFinished[last] = null
+
+        size--
+    }
+
+    private fun grow() {
+        capacity *= 2
+
+        targets = targets.copyOf(capacity)
+        interpolators = interpolators.copyOf(capacity)
+        paths = paths.copyOf(capacity)
+        onFinished = onFinished.copyOf(capacity)
+
+        kinds = kinds.copyOf(capacity)
+        cycles = cycles.copyOf(capacity)
+        isAutoReverse = isAutoReverse.copyOf(capacity)
+        isReverse = isReverse.copyOf(capacity)
+
+        delays = delays.copyOf(capacity)
+        durations = durations.copyOf(capacity)
+        times = times.copyOf(capacity)
+
+        from = from.copyOf(capacity * 3)
+        to = to.copyOf(capacity * 3)
+    }
+}
@@ -6,6 +6,7 @@
 
 package com.almasb.fxgl.input
 
+import com.almasb.fxgl.core.math.FXGLMath
 import com.almasb.fxgl.input.virtual.*
 import com.almasb.fxgl.logging.Logger
 import javafx.beans.property.ReadOnlyDoubleProperty
@@ -155,6 +156,9 @@ class Input {
     private var currentCapture: InputCapture? = null
     private val captureAppliers = arrayListOf<InputCapture.CaptureApplier>()
 
+    private var recorder: InputRecorder? = null
+    private var replay: InputReplay? = null
+
     private val eventFilters = HashMap<EventType<out Event>, MutableList<EventHandler<out Event>>>()
     private val eventHandlers = HashMap<EventType<out Event>, MutableList<EventHandler<out Event>>>()
 
@@ -271,6 +275,16 @@ class Input {
             currentCapture!!.update(tpf)
         }
 
+        // replayed events are recorded in the same frame if also recording
+        replay?.let {
+            it.onUpdate(this)
+
+            if (it.isFinished)
+                replay = null
+        }
+
+        recorder?.onUpdate()
+
         if (!processInput)
             return
 
@@ -564,6 +578,77 @@ class Input {
         captureAppliers += InputCapture.CaptureApplier(this, capture)
     }
 
+    /* RECORDING */
+
+    val isRecording: Boolean
+        get() = recorder != null
+
+    val isReplaying: Boolean
+        get() = replay != null
+
+    /**
+     * Starts recording input frame by frame into [recorder] and seeds the game random generator
+     * with the recorder seed.
+     * Calling this when already recording has no effect.
+     */
+    fun startRecording(recorder: InputRecorder) {
+        if (this.recorder != null)
+            return
+
+        this.recorder = recorder
+
+        FXGLMath.setRandom(Random(recorder.seed))
+
+        recorder.start(this)
+        addTriggerListener(recorder)
+    }
+
+    /**
+     * Stops recording and closes the recorder.
+     * Calling this without calling [startRecording] first has no effect.
+     */
+    fun stopRecording() {
+        recorder?.let {
+            removeTriggerListener(it)
+            it.close()
+        }
+
+        recorder = null
+    }
+
+    /**
+     * Starts replaying [replay], one recorded frame per [update], and seeds the game random generator
+     * with the recorded seed.
+     * The replay stops when finished or replaced by another replay.
+     */
+    fun startReplay(replay: InputReplay) {
+        this.replay = replay
+
+        FXGLMath.setRandom(Random(replay.seed))
+    }
+
+    fun stopReplay() {
+        replay = null
+    }
+
+    /**
+     * Reseeds the game random generator ([FXGLMath.getRandom]), e.g. when a new level starts.
+     * When replaying, the recorded seed is used instead of [seed],
+     * so the game must reseed at the same point in its logic as when recording.
+     * When recording, the seed used is recorded.
+     *
+     * @return the seed used
+     */
+    @JvmOverloads fun reseed(seed: Long = System.nanoTime()): Long {
+        val actualSeed = replay?.nextSeed(this) ?: seed
+
+        FXGLMath.setRandom(Random(actualSeed))
+
+        recorder?.recordSeed(actualSeed)
+
+        return actualSeed
+    }
+
     /* VIRTUAL */
 
     private val virtualButtons = hashMapOf<VirtualButton, KeyCode>()
@@ -683,6 +768,17 @@ class Input {
                 modifier == InputModifier.ALT,
                 false)
 
+    /**
+     * Mocks mouse move, which only affects game world coordinates.
+     * Mouse UI coordinates ([mouseXUI], [mouseYUI]) are not updated, since converting
+     * from game world requires the viewport, which is only known from real mouse events.
+     * Code that is driven by mocked or replayed input should therefore read world coordinates.
+     */
+    internal fun mockMouseMove(gameX: Double, gameY: Double) {
+        mouseXWorld = gameX
+        mouseYWorld = gameY
+    }
+
     /**
      * Mocks button press event. The behavior is equivalent to
      * user pressing and holding the button and the modifier at x, y.
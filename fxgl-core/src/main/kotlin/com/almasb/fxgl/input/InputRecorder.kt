@@ -0,0 +1,202 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.input
+
+import java.io.BufferedOutputStream
+import java.io.Closeable
+import java.io.DataOutputStream
+import java.io.OutputStream
+import kotlin.math.roundToLong
+
+/**
+ * Records input frame by frame (one frame is one [Input.update]) into a compact binary stream,
+ * which can be replayed deterministically by [InputReplay], provided that the game runs with fixed [tpf]
+ * and uses the recorded random seeds (see [Input.startRecording] and [Input.reseed]).
+ *
+ * Only changes are recorded: key and button presses / releases, mouse position (world) when it changes
+ * and random seeds. Each record starts with the number of frames since the previous record,
+ * so a run of frames without input costs nothing and a typical record takes 2-3 bytes.
+ * Mouse positions are stored as deltas in 1/16 of a pixel if that is exact, otherwise as raw values.
+ * Records are streamed (buffered and flushed every [FLUSH_FRAMES] frames) to the output as they happen.
+ *
+ * Format: header (magic, version, seed, tpf), then records (frame delta, tag, payload),
+ * the last record has tag [END].
+ * Keys and buttons are stored by ordinal, so recordings are tied to the JavaFX version of the game build.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class InputRecorder
+@JvmOverloads constructor(output: OutputStream,
+
+                          /**
+                           * Random seed the recording starts with.
+                           */
+                          val seed: Long = System.nanoTime(),
+
+                          /**
+                           * Fixed time per frame the recorded game runs at.
+                           */
+                          val tpf: Double = 1.0 / 60) : TriggerListener(), Closeable {
+
+    companion object {
+        internal const val MAGIC = 0x46584952 // FXIR
+        internal const val VERSION = 1
+
+        internal const val KEY_PRESS = 0
+        internal const val KEY_RELEASE = 1
+        internal const val BUTTON_PRESS = 2
+        internal const val BUTTON_RELEASE = 3
+        internal const val MOUSE_MOVE = 4
+        internal const val MOUSE_MOVE_EXACT = 5
+        internal const val SEED = 6
+        internal const val END = 7
+
+        internal const val POSITION_SCALE = 16.0
+
+        private const val FLUSH_FRAMES = 60
+
+        internal fun quantize(value: Double) = (value * POSITION_SCALE).roundToLong()
+
+        internal fun zigZag(value: Long) = (value shl 1) xor (value shr 63)
+    }
+
+    private val out = DataOutputStream(BufferedOutputStream(output))
+
+    /**
+     * Number of frames recorded so far.
+     */
+    var frame = 0L
+        private set
+
+    private var lastRecordFrame = 0L
+
+    private var mouseX = 0.0
+    private var mouseY = 0.0
+
+    var isClosed = false
+        private set
+
+    private var input: Input? = null
+
+    init {
+        out.writeInt(MAGIC)
+        out.writeByte(VERSION)
+        out.writeLong(seed)
+        out.writeDouble(tpf)
+    }
+
+    internal fun start(input: Input) {
+        this.input = input
+    }
+
+    /**
+     * Called by input when the game reseeds (see [Input.reseed]).
+     */
+    internal fun recordSeed(seed: Long) {
+        writeHeader(SEED)
+        out.writeLong(seed)
+    }
+
+    /**
+     * Called by input at the start of each update, after input events of the frame.
+     */
+    internal fun onUpdate() {
+        recordMouse()
+
+        frame++
+
+        if (frame % FLUSH_FRAMES == 0L) {
+            out.flush()
+        }
+    }
+
+    override fun onActionBegin(trigger: Trigger) {
+        if (trigger is KeyTrigger) {
+            writeHeader(KEY_PRESS)
+            writeVarLong(trigger.key.ordinal.toLong())
+        } else if (trigger is MouseTrigger) {
+            recordMouse()
+
+            writeHeader(BUTTON_PRESS)
+            writeVarLong(trigger.button.ordinal.toLong())
+        }
+    }
+
+    override fun onActionEnd(trigger: Trigger) {
+        if (trigger is KeyTrigger) {
+            writeHeader(KEY_RELEASE)
+            writeVarLong(trigger.key.ordinal.toLong())
+        } else if (trigger is MouseTrigger) {
+            recordMouse()
+
+            writeHeader(BUTTON_RELEASE)
+            writeVarLong(trigger.button.ordinal.toLong())
+        }
+    }
+
+    private fun recordMouse() {
+        val input = input ?: return
+
+        val x = input.mouseXWorld
+        val y = input.mouseYWorld
+
+        if (x == mouseX && y == mouseY)
+            return
+
+        val qx = quantize(x)
+        val qy = quantize(y)
+
+        if (qx / POSITION_SCALE == x && qy / POSITION_SCALE == y) {
+            writeHeader(MOUSE_MOVE)
+            writeVarLong(zigZag(qx - quantize(mouseX)))
+            writeVarLong(zigZag(qy - quantize(mouseY)))
+        } else {
+            writeHeader(MOUSE_MOVE_EXACT)
+            out.writeDouble(x)
+            out.writeDouble(y)
+        }
+
+        mouseX = x
+        mouseY = y
+    }
+
+    private fun writeHeader(tag: Int) {
+        check(!isClosed) { "Recorder is closed" }
+
+        writeVarLong(frame - lastRecordFrame)
+        out.writeByte(tag)
+
+        lastRecordFrame = frame
+    }
+
+    private fun writeVarLong(value: Long) {
+        var v = value
+
+        while (v and 0x7FL.inv() != 0L) {
+            out.writeByte(((v and 0x7F) or 0x80).toInt())
+            v = v ushr 7
+        }
+
+        out.writeByte(v.toInt())
+    }
+
+    /**
+     * Writes the end record and closes the output.
+     * Calling this when already closed has no effect.
+     */
+    override fun close() {
+        if (isClosed)
+            return
+
+        writeHeader(END)
+
+        isClosed = true
+        input = null
+
+        out.close()
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.input
+
+import com.almasb.fxgl.core.Updatable
+import com.almasb.fxgl.core.math.FXGLMath
+import com.almasb.fxgl.input.InputRecorder.Companion.BUTTON_PRESS
+import com.almasb.fxgl.input.InputRecorder.Companion.BUTTON_RELEASE
+import com.almasb.fxgl.input.InputRecorder.Companion.END
+import com.almasb.fxgl.input.InputRecorder.Companion.KEY_PRESS
+import com.almasb.fxgl.input.InputRecorder.Companion.KEY_RELEASE
+import com.almasb.fxgl.input.InputRecorder.Companion.MAGIC
+import com.almasb.fxgl.input.InputRecorder.Companion.MOUSE_MOVE
+import com.almasb.fxgl.input.InputRecorder.Companion.MOUSE_MOVE_EXACT
+import com.almasb.fxgl.input.InputRecorder.Companion.POSITION_SCALE
+import com.almasb.fxgl.input.InputRecorder.Companion.SEED
+import com.almasb.fxgl.input.InputRecorder.Companion.VERSION
+import com.almasb.fxgl.input.InputRecorder.Companion.quantize
+import javafx.scene.input.KeyCode
+import javafx.scene.input.MouseButton
+import java.io.*
+import java.util.*
+
+/**
+ * Replays a recording made by [InputRecorder] (see [Input.startReplay]).
+ * Records are read from the stream as they are needed, so recordings of any length can be replayed.
+ * Each [Input.update] replays one recorded frame, regardless of the tpf it is called with,
+ * so a headless game can replay faster than real time (see [play]).
+ *
+ * A truncated recording (e.g. the recorded game crashed) is replayed up to its last complete record.
+ * Mouse moves are replayed in game world coordinates only (see [Input.mockMouseMove]).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class InputReplay(input: InputStream) : Closeable {
+
+    private val stream = DataInputStream(BufferedInputStream(input))
+
+    /**
+     * Random seed the recording started with.
+     */
+    val seed: Long
+
+    /**
+     * Fixed time per frame the recorded game ran at.
+     */
+    val tpf: Double
+
+    /**
+     * Number of frames replayed so far.
+     */
+    var frame = 0L
+        private set
+
+    /**
+     * Frame of the next record.
+     */
+    private var recordFrame = 0L
+    private var recordTag = END
+
+    private var endFrame = -1L
+
+    val isFinished: Boolean
+        get() = endFrame in 0..frame
+
+    private var mouseX = 0.0
+    private var mouseY = 0.0
+
+    /**
+     * Modifier keys that are currently held down.
+     */
+    private val heldModifiers = EnumSet.noneOf(InputModifier::class.java)
+
+    /**
+     * Same priority as [InputModifier.from] when several modifier keys are held.
+     */
+    private val modifier: InputModifier
+        get() = when {
+            InputModifier.CTRL in heldModifiers -> InputModifier.CTRL
+            InputModifier.SHIFT in heldModifiers -> InputModifier.SHIFT
+            InputModifier.ALT in heldModifiers -> InputModifier.ALT
+            else -> InputModifier.NONE
+        }
+
+    private val keys = KeyCode.values()
+    private val buttons = MouseButton.values()
+
+    init {
+        if (stream.readInt() != MAGIC)
+            throw IOException("Not an input recording")
+
+        val version = stream.readUnsignedByte()
+
+        if (version != VERSION)
+            throw IOException("Unsupported input recording version: $version")
+
+        seed = stream.readLong()
+        tpf = stream.readDouble()
+
+        readRecordHeader()
+    }
+
+    /**
+     * Called by input at the start of each update, applies records of the current frame.
+     */
+    internal fun onUpdate(input: Input) {
+        if (isFinished)
+            return
+
+        applyRecords(input, stopAtSeed = false)
+
+        frame++
+    }
+
+    /**
+     * Called by input when the game reseeds (see [Input.reseed]).
+     * Records that precede the seed in the recording are applied first, since they happened before it.
+     *
+     * @return recorded seed, or null if the recording has no seed at this point
+     */
+    internal fun nextSeed(input: Input): Long? {
+        if (isFinished)
+            return null
+
+        return applyRecords(input, stopAtSeed = true)
+    }
+
+    /**
+     * Applies records up to the current frame.
+     * A seed record that was not taken by [nextSeed] is applied when its frame is updated.
+     *
+     * @return seed of the first seed record if [stopAtSeed], otherwise null
+     */
+    private fun applyRecords(input: Input, stopAtSeed: Boolean): Long? {
+        while (endFrame < 0 && recordFrame <= frame) {
+            try {
+                if (stopAtSeed && recordTag == SEED) {
+                    val seed = stream.readLong()
+
+                    readRecordHeader()
+
+                    return seed
+                }
+
+                applyRecord(input)
+            } catch (e: EOFException) {
+                endFrame = frame
+                break
+            }
+
+            readRecordHeader()
+        }
+
+        return null
+    }
+
+    /**
+     * Starts this replay on [input] and runs [step] with [tpf] until the replay is finished,
+     * as fast as possible.
+     * The [step] must update the [input], e.g. by updating the scene that owns it.
+     *
+     * @return number of replayed frames
+     */
+    fun play(input: Input, step: Updatable): Long {
+        input.startReplay(this)
+
+        while (!isFinished) {
+            val frameBefore = frame
+
+            step.onUpdate(tpf)
+
+            check(frame > frameBefore) { "Input was not updated by step" }
+        }
+
+        return frame
+    }
+
+    private fun applyRecord(input: Input) {
+        when (recordTag) {
+            KEY_PRESS -> {
+                val key = keys[readVarLong().toInt()]
+
+                input.mockKeyPress(key, modifier)
+
+                updateModifier(key, isPressed = true)
+            }
+
+            KEY_RELEASE -> {
+                val key = keys[readVarLong().toInt()]
+
+                updateModifier(key, isPressed = false)
+
+                input.mockKeyRelease(key, modifier)
+            }
+
+            BUTTON_PRESS -> {
+                input.mockButtonPress(buttons[readVarLong().toInt()], mouseX, mouseY, modifier)
+            }
+
+            BUTTON_RELEASE -> {
+                input.mockButtonRelease(buttons[readVarLong().toInt()], mouseX, mouseY, modifier)
+            }
+
+            MOUSE_MOVE -> {
+                val qx = quantize(mouseX) + unZigZag(readVarLong())
+                val qy = quantize(mouseY) + unZigZag(readVarLong())
+
+                mouseX = qx / POSITION_SCALE
+                mouseY = qy / POSITION_SCALE
+
+                input.mockMouseMove(mouseX, mouseY)
+            }
+
+            MOUSE_MOVE_EXACT -> {
+                mouseX = stream.readDouble()
+                mouseY = stream.readDouble()
+
+                input.mockMouseMove(mouseX, mouseY)
+            }
+
+            SEED -> {
+                FXGLMath.setRandom(Random(stream.readLong()))
+            }
+
+            else -> throw IOException("Unknown input record: $recordTag")
+        }
+    }
+
+    /**
+     * Live key and button events carry the modifier keys that are held, replayed events need the same.
+     */
+    private fun updateModifier(key: KeyCode, isPressed: Boolean) {
+        val keyModifier = when (key) {
+            KeyCode.CONTROL -> InputModifier.CTRL
+            KeyCode.SHIFT -> InputModifier.SHIFT
+            KeyCode.ALT -> InputModifier.ALT
+            else -> return
+        }
+
+        if (isPressed) {
+            heldModifiers += keyModifier
+        } else {
+            heldModifiers -= keyModifier
+        }
+    }
+
+    private fun readRecordHeader() {
+        try {
+            recordFrame += readVarLong()
+            recordTag = stream.readUnsignedByte()
+        } catch (e: EOFException) {
+            // truncated, so replay up to the last record
+            endFrame = maxOf(recordFrame, frame)
+            return
+        }
+
+        if (recordTag == END) {
+            endFrame = recordFrame
+        }
+    }
+
+    private fun readVarLong(): Long {
+        var result = 0L
+        var shift = 0
+
+        while (true) {
+            val b = stream.readUnsignedByte()
+
+            result = result or ((b and 0x7F).toLong() shl shift)
+
+            if (b and 0x80 == 0)
+                return result
+
+            shift += 7
+
+            if (shift > 63)
+                throw IOException("Malformed input record")
+        }
+    }
+
+    private fun unZigZag(value: Long) = (value ushr 1) xor -(value and 1)
+
+    override fun close() {
+        stream.close()
+    }
+}
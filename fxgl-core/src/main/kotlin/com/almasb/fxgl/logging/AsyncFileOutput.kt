@@ -0,0 +1,421 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.logging
+
+import java.io.BufferedWriter
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZoneId
+import java.time.format.DateTimeFormatter
+import java.time.format.DateTimeParseException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+import java.util.stream.Collectors
+
+/**
+ * Writes messages to log files on a background thread.
+ * Messages are passed to the writer thread through a bounded lock-free ring buffer,
+ * so the logging thread neither blocks on I/O nor formats messages logged via [Logger].
+ * The writer thread writes messages in batches and flushes at least every [flushIntervalMillis],
+ * and immediately after a FATAL message, so that a crash loses at most the last interval of logs.
+ * Once a log file exceeds [maxFileSize], a new file is started.
+ * If writing fails (e.g. the disk is full), the failure is kept in [failure], all later messages are dropped
+ * and counted in [numDropped]. The failure is reported through the other logger outputs (or the console if there are none)
+ * by the next thread that logs to this output, or on [close].
+ * Only log files of this output (with the same base file name) count towards [maxLogFiles],
+ * the oldest are found by the timestamp in their name.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AsyncFileOutput
+@JvmOverloads constructor(
+
+        /**
+         * Base log file name without extension.
+         */
+        private val baseFileName: String,
+
+        /**
+         * The directory in which the log is to be saved.
+         */
+        private val logDirectory: String = "logs/",
+
+        /**
+         * Maximum number of log files to keep in the given directory.
+         */
+        private val maxLogFiles: Int = 10,
+
+        /**
+         * Approximate max size of a log file in bytes.
+         */
+        private val maxFileSize: Long = 10L * 1024 * 1024,
+
+        /**
+         * Max number of messages waiting to be written, rounded up to a power of 2.
+         */
+        capacity: Int = 8192,
+
+        private val flushIntervalMillis: Long = 1000L,
+
+        /**
+         * What to do with a new message if [capacity] messages are already waiting.
+         */
+        private val overflowPolicy: OverflowPolicy = OverflowPolicy.DROP) : RecordOutput {
+
+    enum class OverflowPolicy {
+
+        /**
+         * The new message is dropped, and the number of dropped messages is written to the log later.
+         * Logging never waits for the writer thread.
+         */
+        DROP,
+
+        /**
+         * The logging thread waits until the writer thread frees space.
+         * No messages are lost, but logging may stall the calling thread if the disk is slow.
+         */
+        BLOCK
+    }
+
+    companion object {
+
+        /**
+         * How long the writer thread sleeps when there are no messages.
+         */
+        private val IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5)
+
+        /**
+         * Max messages written between checks for flush and rotation.
+         */
+        private const val BATCH_SIZE = 512
+
+        private val FILE_STAMP_FORMATTER = DateTimeFormatter.ofPattern("dd-MMM-yyyy-HH.mm.ss")
+    }
+
+    private val queue = RingBuffer<Any>(capacity)
+
+    private val droppedCount = AtomicLong()
+
+    @Volatile
+    private var isClosed = false
+
+    @Volatile
+    private var isFlushRequested = false
+
+    /**
+     * The error that stopped the writer thread, or null if writing has not failed.
+     * Once set, no more messages are accepted.
+     */
+    @Volatile
+    var failure: Throwable? = null
+        private set
+
+    /**
+     * Set by the first thread that reports [failure], since the writer thread must not access other outputs.
+     */
+    private val isFailureReported = AtomicBoolean(false)
+
+    private val writerThread = Thread(this::writeLoop, "FXGL Log Writer").also { it.isDaemon = true }
+
+    // accessed only by the writer thread
+    private var writer: BufferedWriter? = null
+    private var fileSize = 0L
+    private var fileIndex = 0
+    private var fileStamp = ""
+
+    /**
+     * Number of messages dropped since this output was created,
+     * because the queue was full or because writing has failed (see [failure]).
+     */
+    val numDropped: Long
+        get() = droppedCount.get()
+
+    init {
+        val logDir = getOrCreateLogDir()
+
+        cleanOldLogs(logDir)
+
+        writerThread.start()
+    }
+
+    override fun append(message: String) {
+        enqueue(message)
+    }
+
+    /**
+     * The message is formatted on the writer thread.
+     */
+    override fun append(record: LogRecord) {
+        enqueue(record)
+
+        if (record.level == LoggerLevel.FATAL) {
+            isFlushRequested = true
+        }
+    }
+
+    private fun enqueue(item: Any) {
+        if (isClosed)
+            return
+
+        if (failure != null) {
+            droppedCount.incrementAndGet()
+            reportFailure()
+            return
+        }
+
+        if (queue.offer(item))
+            return
+
+        when (overflowPolicy) {
+            OverflowPolicy.DROP -> {
+                droppedCount.incrementAndGet()
+            }
+
+            OverflowPolicy.BLOCK -> {
+                LockSupport.unpark(writerThread)
+
+                while (!queue.offer(item)) {
+                    if (isClosed)
+                        return
+
+                    if (failure != null || !writerThread.isAlive) {
+                        droppedCount.incrementAndGet()
+                        return
+                    }
+
+                    LockSupport.parkNanos(50_000)
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all messages appended so far and stops the writer thread.
+     * If writing has failed, reports the [failure] and the number of dropped messages instead.
+     */
+    override fun close() {
+        if (isClosed)
+            return
+
+        isClosed = true
+
+        LockSupport.unpark(writerThread)
+
+        writerThread.join(TimeUnit.SECONDS.toMillis(5))
+
+        failure?.let {
+            // messages that were queued while the writer thread was failing
+            dropQueued()
+
+            // a single report that includes the number of dropped messages
+            isFailureReported.set(true)
+
+            Logger.reportOutputFailure(this, "Log writer ($baseFileName) failed with $it, ${droppedCount.get()} log messages dropped")
+        }
+    }
+
+    private fun reportFailure() {
+        val e = failure ?: return
+
+        if (isFailureReported.compareAndSet(false, true)) {
+            Logger.reportOutputFailure(this, "Log writer ($baseFileName) failed with $e, later log messages are dropped")
+        }
+    }
+
+    private fun dropQueued() {
+        while (queue.poll() != null) {
+            droppedCount.incrementAndGet()
+        }
+    }
+
+    private fun writeLoop() {
+        var lastFlushTime = System.nanoTime()
+        var lastDropped = 0L
+        var hasUnflushed = false
+
+        try {
+            while (true) {
+                // read before draining, so that messages appended before close are written
+                val isClosing = isClosed
+
+                var count = 0
+
+                while (count < BATCH_SIZE) {
+                    val item = queue.poll() ?: break
+
+                    try {
+                        write(if (item is LogRecord) item.format() else item as String)
+                    } catch (e: Exception) {
+                        // the message was taken from the queue, but not written
+                        droppedCount.incrementAndGet()
+                        throw e
+                    }
+
+                    count++
+                }
+
+                val dropped = droppedCount.get()
+
+                if (dropped != lastDropped) {
+                    write("${dropped - lastDropped} log messages dropped, queue was full")
+                    lastDropped = dropped
+                }
+
+                hasUnflushed = hasUnflushed || count > 0
+
+                val now = System.nanoTime()
+
+                if (hasUnflushed && (isFlushRequested || isClosing || now - lastFlushTime >= TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis))) {
+                    isFlushRequested = false
+
+                    writer?.flush()
+                    lastFlushTime = now
+                    hasUnflushed = false
+                }
+
+                if (count == 0) {
+                    if (isClosing)
+                        break
+
+                    LockSupport.parkNanos(IDLE_PARK_NANOS)
+                }
+            }
+
+            writer?.close()
+        } catch (e: Exception) {
+            // set first, so that no more messages are queued
+            failure = e
+
+            runCatching { writer?.close() }
+
+            dropQueued()
+        }
+    }
+
+    private fun write(message: String) {
+        val out = writer ?: openNextFile()
+
+        out.write(message)
+        out.newLine()
+
+        // approximate, UTF-8 size of non-ASCII text is larger
+        fileSize += message.length + 1
+
+        if (fileSize >= maxFileSize) {
+            out.close()
+            writer = null
+
+            cleanOldLogs(Paths.get(logDirectory))
+        }
+    }
+
+    private fun openNextFile(): BufferedWriter {
+        val stamp = LocalDateTime.now().format(FILE_STAMP_FORMATTER)
+
+        // several files may be started within the same second
+        fileIndex = if (stamp == fileStamp) fileIndex + 1 else 0
+        fileStamp = stamp
+
+        val suffix = if (fileIndex == 0) "" else "-$fileIndex"
+        val file = Paths.get("$logDirectory$baseFileName-$stamp$suffix.log")
+
+        val out = Files.newBufferedWriter(file)
+        writer = out
+        fileSize = 0L
+
+        return out
+    }
+
+    private fun getOrCreateLogDir(): Path {
+        val logDir = Paths.get(logDirectory)
+        if (!Files.exists(logDir)) {
+            Files.createDirectories(logDir)
+        }
+
+        return logDir
+    }
+
+    private fun cleanOldLogs(logDir: Path) {
+        // modification times change when files are copied or touched, names of log files do not
+        val logs = Files.list(logDir).use { it.collect(Collectors.toList<Path>()) }
+                .filter { Files.isRegularFile(it) }
+                .mapNotNull { file -> parseFileTime(file.fileName.toString())?.let { file to it } }
+                .sortedWith(compareBy<Pair<Path, Pair<LocalDateTime, Int>>>({ it.second.first }, { it.second.second }))
+                .map { it.first }
+
+        val logSize = logs.size
+        if (logSize >= maxLogFiles) {
+            for (i in 0 until logSize + 1 - maxLogFiles) {
+                Files.delete(logs[i])
+            }
+        }
+    }
+
+    /**
+     * @return timestamp and index of a log file of this output from its [fileName], or null if not a log file of this output
+     */
+    private fun parseFileTime(fileName: String): Pair<LocalDateTime, Int>? {
+        val prefix = "$baseFileName-"
+
+        if (!fileName.startsWith(prefix) || !fileName.endsWith(".log"))
+            return null
+
+        val name = fileName.substring(prefix.length, fileName.length - ".log".length)
+
+        parseStamp(name)?.let { return it to 0 }
+
+        // files started within the same second end with -index
+        val dash = name.lastIndexOf('-')
+        val index = name.substring(dash + 1).toIntOrNull() ?: return null
+
+        return parseStamp(name.substring(0, maxOf(dash, 0)))?.let { it to index }
+    }
+
+    private fun parseStamp(stamp: String): LocalDateTime? {
+        return try {
+            LocalDateTime.parse(stamp, FILE_STAMP_FORMATTER)
+        } catch (e: DateTimeParseException) {
+            null
+        }
+    }
+}
+
+/**
+ * Parts of a logged message, captured on the logging thread, to be formatted later.
+ */
+class LogRecord
+internal constructor(
+        private val timeMillis: Long,
+        private val threadName: String,
+        val level: LoggerLevel,
+        private val loggerName: String,
+        private val message: String,
+        private val config: LoggerConfig) {
+
+    /**
+     * Created on first [format], shared by all outputs that format the record.
+     */
+    @Volatile
+    private var formatted: String? = null
+
+    /**
+     * @return the message formatted according to the logger config
+     */
+    fun format(): String {
+        formatted?.let { return it }
+
+        val time = LocalTime.ofInstant(Instant.ofEpochMilli(timeMillis), ZoneId.systemDefault()).format(config.dateTimeFormatter)
+
+        return config.messageFormatter.makeMessage(time, threadName, "$level", loggerName, message).also { formatted = it }
+    }
+}
@@ -123,24 +123,40 @@ private constructor(private val name: String) {
         }
 
         private fun doLog(loggerName: String, loggerMessage: String, level: LoggerLevel) {
-            val message = lazy { makeMessage(loggerName, loggerMessage, level) }
+            val levelOutputs = when(level) {
+                LoggerLevel.DEBUG -> debug
+                LoggerLevel.INFO -> info
+                LoggerLevel.WARN -> warning
+                LoggerLevel.FATAL -> fatal
+            }
 
-            when(level) {
-                LoggerLevel.DEBUG -> {
-                    debug.forEach { it.append(message.value) }
-                }
+            if (levelOutputs.isEmpty())
+                return
 
-                LoggerLevel.INFO -> {
-                    info.forEach { it.append(message.value) }
-                }
+            val record = LogRecord(System.currentTimeMillis(), Thread.currentThread().name, level, loggerName, loggerMessage, config)
 
-                LoggerLevel.WARN -> {
-                    warning.forEach { it.append(message.value) }
+            levelOutputs.forEach {
+                if (it is RecordOutput) {
+                    it.append(record)
+                } else {
+                    it.append(record.format())
                 }
+            }
+        }
 
-                LoggerLevel.FATAL -> {
-                    fatal.forEach { it.append(message.value) }
-                }
+        /**
+         * Logs a WARN message about [failedOutput] to all other WARN outputs,
+         * or to the console if there are none, since the failed output can no longer log it.
+         */
+        internal fun reportOutputFailure(failedOutput: LoggerOutput, loggerMessage: String) {
+            val message = makeMessage("Logger", loggerMessage, LoggerLevel.WARN)
+
+            val others = warning.filter { it !== failedOutput }
+
+            if (others.isEmpty()) {
+                ConsoleOutput().append(message)
+            } else {
+                others.forEach { it.append(message) }
             }
         }
 
@@ -0,0 +1,22 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.logging
+
+/**
+ * An output that receives messages logged via [Logger] as records,
+ * so that it can format them later, e.g. on another thread.
+ * Other outputs receive messages formatted on the logging thread (once for all outputs).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+interface RecordOutput : LoggerOutput {
+
+    /**
+     * Called instead of append(message: String) when a new message is being logged via [Logger].
+     */
+    fun append(record: LogRecord)
+}
@@ -0,0 +1,98 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.logging
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * A bounded lock-free queue for many producers and a single consumer.
+ * Each slot has a sequence number, which tells whether the slot is free for the producer
+ * that claimed the position, or holds an element for the consumer (D. Vyukov's bounded queue).
+ * Producers only contend on a single CAS to claim a position.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class RingBuffer<T : Any>(requestedCapacity: Int) {
+
+    val capacity = Integer.highestOneBit(maxOf(2, requestedCapacity - 1)) shl 1
+
+    private val mask = capacity - 1L
+
+    private val elements = AtomicReferenceArray<T>(capacity)
+    private val sequences = AtomicLongArray(capacity)
+
+    private val tail = AtomicLong()
+
+    /**
+     * Only accessed by the consumer.
+     */
+    private var head = 0L
+
+    init {
+        for (i in 0 until capacity) {
+            sequences.set(i, i.toLong())
+        }
+    }
+
+    /**
+     * Approximate number of elements, since producers may be adding concurrently.
+     */
+    val size: Int
+        get() = (tail.get() - head).coerceIn(0, capacity.toLong()).toInt()
+
+    /**
+     * Can be called from any thread.
+     *
+     * @return false if full
+     */
+    fun offer(element: T): Boolean {
+        while (true) {
+            val pos = tail.get()
+            val index = (pos and mask).toInt()
+            val diff = sequences.get(index) - pos
+
+            if (diff == 0L) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.lazySet(index, element)
+
+                    // publishes the element to the consumer
+                    sequences.set(index, pos + 1)
+                    return true
+                }
+            } else if (diff < 0L) {
+                // the slot still holds an element from the previous lap
+                return false
+            }
+
+            // else another producer claimed this position, retry with the new tail
+        }
+    }
+
+    /**
+     * Must only be called from the consumer thread.
+     *
+     * @return next element or null if empty
+     */
+    fun poll(): T? {
+        val pos = head
+        val index = (pos and mask).toInt()
+
+        if (sequences.get(index) != pos + 1)
+            return null
+
+        val element = elements.get(index)
+        elements.lazySet(index, null)
+
+        // frees the slot for producers of the next lap
+        sequences.set(index, pos + capacity)
+        head = pos + 1
+
+        return element
+    }
+}
@@ -8,17 +8,20 @@ package com.almasb.fxgl.time
 
 import javafx.beans.property.ReadOnlyBooleanProperty
 import javafx.util.Duration
-import java.util.concurrent.CopyOnWriteArrayList
 
 /**
  * Timer that supports running actions at an interval and with a delay.
  * Runs on the same thread that updates the timer.
+ * Actions are kept in a hierarchical timing wheel, so scheduling and cancelling (expiring) an action is O(1)
+ * and each update only touches actions that are due.
+ * An action is due once the timer has advanced by its interval since it was scheduled (or last run),
+ * not counting the time it was paused.
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 class Timer {
 
-    private val timerActions = CopyOnWriteArrayList<TimerAction>()
+    private val wheel = TimingWheel()
 
     /**
      * @return time in seconds accumulated by this timer
@@ -26,6 +29,12 @@ class Timer {
     var now = 0.0
         private set
 
+    /**
+     * @return number of scheduled (incl. paused) actions
+     */
+    val numActions: Int
+        get() = wheel.size
+
     /**
      * Call this to drive (advance) the timer.
      *
@@ -34,11 +43,12 @@ class Timer {
     fun update(tpf: Double) {
         now += tpf
 
-        timerActions.forEach {
-            it.update(tpf)
+        wheel.update(now)
+    }
 
-            if (it.isExpired)
-                timerActions.remove(it)
+    private fun schedule(act: TimerAction) {
+        if (!act.isExpired) {
+            wheel.schedule(act, now + act.interval)
         }
     }
 
@@ -64,7 +74,7 @@ class Timer {
      */
     fun runAtInterval(action: Runnable, interval: Duration, limit: Int): TimerAction {
         val act = TimerAction(interval, action, limit)
-        timerActions.add(act)
+        schedule(act)
         return act
     }
 
@@ -85,7 +95,7 @@ class Timer {
         }
 
         val act = TimerAction(interval, action)
-        timerActions.add(act)
+        schedule(act)
 
         whileCondition.addListener { _, _, isTrue ->
             if (!isTrue)
@@ -119,7 +129,7 @@ class Timer {
      * Remove all scheduled actions.
      */
     fun clear() {
-        timerActions.clear()
+        wheel.clear()
     }
 
     /**
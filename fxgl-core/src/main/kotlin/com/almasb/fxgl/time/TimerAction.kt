@@ -34,7 +34,7 @@ internal constructor(
          */
         private val limit: Int = Int.MAX_VALUE) {
 
-    private val interval = interval.toSeconds()
+    internal val interval = interval.toSeconds()
 
     /**
      * @return true if the timer has expired, false if active
@@ -50,6 +50,12 @@ internal constructor(
 
     private var timesFired = 0
 
+    /**
+     * The wheel that schedules this action, null if not scheduled by a [Timer].
+     */
+    internal var wheel: TimingWheel? = null
+    internal var entry: TimingWheel.Entry? = null
+
     /**
      * Updates the state of this timer action.
      * If the difference between current time
@@ -66,22 +72,38 @@ internal constructor(
         currentTime += tpf
 
         if (currentTime - lastFired >= interval) {
-            action.run()
-            timesFired++
             lastFired = currentTime
 
-            if (timesFired == limit) {
-                expire()
-            }
+            run()
+        }
+    }
+
+    /**
+     * Executes the action and expires if the limit has been reached.
+     */
+    internal fun run() {
+        action.run()
+        timesFired++
+
+        if (timesFired == limit) {
+            expire()
         }
     }
 
     fun pause() {
+        if (isPaused)
+            return
+
         isPaused = true
+        wheel?.pause(this)
     }
 
     fun resume() {
+        if (!isPaused)
+            return
+
         isPaused = false
+        wheel?.resume(this)
     }
 
     /**
@@ -89,6 +111,10 @@ internal constructor(
      * be executed.
      */
     fun expire() {
+        if (isExpired)
+            return
+
         isExpired = true
+        wheel?.cancel(this)
     }
 }
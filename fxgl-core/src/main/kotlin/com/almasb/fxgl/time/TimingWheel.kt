@@ -0,0 +1,385 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.time
+
+import com.almasb.fxgl.core.pool.Pool
+import com.almasb.fxgl.core.pool.Poolable
+import kotlin.math.floor
+
+/**
+ * Hierarchical timing wheel that schedules timer actions by due time.
+ * Time is split into ticks of 1 / [TICKS_PER_SECOND] seconds.
+ * Level 0 has a slot per tick for the next [SLOTS] ticks, each level above covers [SLOTS] times longer per slot.
+ * Entries of a higher level slot are moved (cascaded) to lower levels when that slot is reached,
+ * entries beyond the top level are kept in the overflow list.
+ * Entries of a tick that has been reached, but are not yet due, are kept in the near list until they are.
+ *
+ * Schedule and cancel are O(1), update only touches due entries (and cascaded entries, at most once per level).
+ * Entries are doubly-linked and pooled, so scheduling does not allocate in the steady state.
+ * Timer actions are not pooled, since callers keep them to cancel later.
+ *
+ * Actions scheduled during update (including repeating actions that have just run)
+ * are kept in the pending list and inserted after the update,
+ * so an action runs at most once per update and never in the update it was scheduled in.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class TimingWheel {
+
+    companion object {
+        const val TICKS_PER_SECOND = 1024.0
+
+        private const val SLOT_BITS = 6
+        private const val SLOTS = 1 shl SLOT_BITS
+        private const val SLOT_MASK = SLOTS - 1L
+        private const val LEVELS = 4
+
+        // list indices after the wheel slots
+        private const val NEAR = LEVELS * SLOTS
+        private const val OVERFLOW = NEAR + 1
+        private const val PENDING = NEAR + 2
+        private const val PAUSED = NEAR + 3
+        private const val PROCESSING = NEAR + 4
+
+        private const val NUM_LISTS = NEAR + 5
+    }
+
+    internal class Entry : Poolable {
+        var action: TimerAction? = null
+
+        /**
+         * Due time in seconds, or time remaining if paused.
+         */
+        var due = 0.0
+        var tick = 0L
+
+        var prev: Entry? = null
+        var next: Entry? = null
+        var list = -1
+
+        override fun reset() {
+            action = null
+            prev = null
+            next = null
+            list = -1
+        }
+    }
+
+    private val pool = object : Pool<Entry>() {
+        override fun newObject() = Entry()
+    }
+
+    private val heads = arrayOfNulls<Entry>(NUM_LISTS)
+
+    /**
+     * Number of entries in each level, the overflow list counts as level [LEVELS].
+     */
+    private val levelSizes = IntArray(LEVELS + 1)
+
+    /**
+     * The next tick whose level 0 slot will be processed.
+     */
+    private var nextTick = 1L
+
+    private var now = 0.0
+
+    private var isUpdating = false
+
+    /**
+     * Number of scheduled (including paused) actions.
+     */
+    var size = 0
+        private set
+
+    fun schedule(action: TimerAction, due: Double) {
+        val e = obtain(action)
+        e.due = due
+
+        if (isUpdating) {
+            link(e, PENDING)
+        } else {
+            insert(e)
+        }
+    }
+
+    fun cancel(action: TimerAction) {
+        val e = action.entry ?: return
+
+        action.entry = null
+        unlink(e)
+        free(e)
+    }
+
+    fun pause(action: TimerAction) {
+        val e = action.entry
+
+        if (e == null) {
+            // paused while running, so the full interval remains
+            if (!action.isExpired) {
+                obtain(action).due = action.interval
+                link(action.entry!!, PAUSED)
+            }
+
+            return
+        }
+
+        if (e.list == PAUSED)
+            return
+
+        unlink(e)
+        e.due -= now
+        link(e, PAUSED)
+    }
+
+    fun resume(action: TimerAction) {
+        val e = action.entry ?: return
+
+        if (e.list != PAUSED)
+            return
+
+        unlink(e)
+        e.due += now
+
+        if (isUpdating) {
+            link(e, PENDING)
+        } else {
+            insert(e)
+        }
+    }
+
+    /**
+     * Advances to given [time] (in seconds) and runs all actions due by then.
+     */
+    fun update(time: Double) {
+        now = time
+        isUpdating = true
+
+        // entries of ticks already reached
+        process(NEAR)
+
+        val target = tickOf(now)
+
+        while (nextTick <= target) {
+            val t = nextActiveTick(target)
+
+            if (t > target)
+                break
+
+            nextTick = t
+
+            cascade(t)
+            process(t.and(SLOT_MASK).toInt())
+
+            nextTick = t + 1
+        }
+
+        nextTick = maxOf(nextTick, target + 1)
+
+        isUpdating = false
+
+        transfer(PENDING, PROCESSING)
+
+        while (true) {
+            val e = heads[PROCESSING] ?: break
+            unlink(e)
+            insert(e)
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    fun clear() {
+        for (i in 0 until NUM_LISTS) {
+            while (true) {
+                val e = heads[i] ?: break
+
+                e.action!!.entry = null
+                e.action!!.wheel = null
+
+                unlink(e)
+                free(e)
+            }
+        }
+    }
+
+    /**
+     * @return the first tick in [nextTick, target] at which an entry may need to move or run,
+     * or a tick past [target] if there is none
+     */
+    private fun nextActiveTick(target: Long): Long {
+        if (levelSizes[0] > 0)
+            return nextTick
+
+        for (level in 1..LEVELS) {
+            if (levelSizes[level] > 0) {
+                // entries of this level move at the next multiple of the level span
+                val shift = SLOT_BITS * level
+                return ((nextTick + (1L shl shift) - 1) shr shift) shl shift
+            }
+        }
+
+        return target + 1
+    }
+
+    /**
+     * Moves entries of higher levels whose slot has been reached at tick [t] to lower levels.
+     */
+    private fun cascade(t: Long) {
+        for (level in 1..LEVELS) {
+            val shift = SLOT_BITS * level
+
+            if (t and ((1L shl shift) - 1) != 0L)
+                return
+
+            val list = if (level == LEVELS) OVERFLOW else level * SLOTS + (t shr shift).and(SLOT_MASK).toInt()
+
+            transfer(list, PROCESSING)
+
+            while (true) {
+                val e = heads[PROCESSING] ?: break
+                unlink(e)
+                insert(e)
+            }
+        }
+    }
+
+    /**
+     * Runs due entries of the [list], the rest are moved to the near list.
+     */
+    private fun process(list: Int) {
+        transfer(list, PROCESSING)
+
+        while (true) {
+            val e = heads[PROCESSING] ?: break
+            unlink(e)
+
+            if (e.due <= now) {
+                run(e)
+            } else {
+                link(e, NEAR)
+            }
+        }
+    }
+
+    private fun run(e: Entry) {
+        val action = e.action!!
+
+        action.entry = null
+        free(e)
+
+        action.run()
+
+        // the action may have been expired, paused or cleared while running
+        if (!action.isExpired && action.entry == null && action.wheel === this) {
+            schedule(action, now + action.interval)
+        }
+    }
+
+    private fun insert(e: Entry) {
+        e.tick = tickOf(e.due)
+
+        val delta = e.tick - nextTick
+
+        val list = when {
+            e.tick < nextTick -> NEAR
+            delta < SLOTS -> e.tick.and(SLOT_MASK).toInt()
+            else -> {
+                var level = 1
+
+                while (level < LEVELS && delta >= 1L shl (SLOT_BITS * (level + 1))) {
+                    level++
+                }
+
+                if (level == LEVELS) OVERFLOW else level * SLOTS + (e.tick shr (SLOT_BITS * level)).and(SLOT_MASK).toInt()
+            }
+        }
+
+        link(e, list)
+    }
+
+    private fun tickOf(time: Double): Long {
+        // NaN maps to 0, infinity to Long.MAX_VALUE
+        return floor(time * TICKS_PER_SECOND).toLong()
+    }
+
+    private fun obtain(action: TimerAction): Entry {
+        val e = pool.obtain()
+        e.action = action
+
+        action.wheel = this
+        action.entry = e
+
+        size++
+
+        return e
+    }
+
+    private fun free(e: Entry) {
+        size--
+        pool.free(e)
+    }
+
+    private fun link(e: Entry, list: Int) {
+        val head = heads[list]
+
+        e.prev = null
+        e.next = head
+        head?.prev = e
+
+        heads[list] = e
+        e.list = list
+
+        val level = levelOf(list)
+
+        if (level >= 0)
+            levelSizes[level]++
+    }
+
+    private fun unlink(e: Entry) {
+        val list = e.list
+
+        if (e.prev == null) {
+            heads[list] = e.next
+        } else {
+            e.prev!!.next = e.next
+        }
+
+        e.next?.prev = e.prev
+
+        e.prev = null
+        e.next = null
+        e.list = -1
+
+        val level = levelOf(list)
+
+        if (level >= 0)
+            levelSizes[level]--
+    }
+
+    /**
+     * Moves all entries of [from] to [to].
+     */
+    private fun transfer(from: Int, to: Int) {
+        while (true) {
+            val e = heads[from] ?: break
+            unlink(e)
+            link(e, to)
+        }
+    }
+
+    /**
+     * @return level of the [list], or -1 if it is not part of the wheel
+     */
+    private fun levelOf(list: Int): Int {
+        return when {
+            list < NEAR -> list / SLOTS
+            list == OVERFLOW -> LEVELS
+            else -> -1
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.core.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongMapTest {
+
+    @Test
+    public void put_get_remove() {
+        LongMap<String> map = new LongMap<>();
+
+        assertTrue(map.isEmpty());
+
+        assertThat(map.put(5L, "Five"), nullValue());
+        assertThat(map.put(-3L, "MinusThree"), nullValue());
+        assertThat(map.put(Long.MAX_VALUE, "Max"), nullValue());
+
+        assertThat(map.size(), is(3));
+        assertThat(map.get(5L), is("Five"));
+        assertThat(map.get(-3L), is("MinusThree"));
+        assertThat(map.get(Long.MAX_VALUE), is("Max"));
+        assertThat(map.get(6L), nullValue());
+
+        assertThat(map.put(5L, "FiveAgain"), is("Five"));
+        assertThat(map.size(), is(3));
+
+        assertThat(map.remove(5L), is("FiveAgain"));
+        assertThat(map.remove(5L), nullValue());
+        assertFalse(map.containsKey(5L));
+        assertThat(map.size(), is(2));
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertThat(map.get(-3L), nullValue());
+    }
+
+    @Test
+    public void null_values_are_not_allowed() {
+        LongMap<String> map = new LongMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, null));
+    }
+
+    @Test
+    public void index_based_iteration_visits_all_values() {
+        LongMap<Long> map = new LongMap<>(4);
+
+        for (long i = 0; i < 100; i++) {
+            map.put(i, i * 2);
+        }
+
+        long sum = 0;
+        int count = 0;
+
+        for (int i = 0; i < map.capacity(); i++) {
+            Long value = map.valueAt(i);
+            if (value != null) {
+                assertThat(value, is(map.keyAt(i) * 2));
+                sum += value;
+                count++;
+            }
+        }
+
+        assertThat(count, is(100));
+        assertThat(sum, is(9900L));
+    }
+
+    @Test
+    public void behaves_same_as_HashMap_after_random_operations() {
+        LongMap<Long> map = new LongMap<>(2);
+        HashMap<Long, Long> expected = new HashMap<>();
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(2000) - 1000;
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, key * 3), map.put(key, key * 3));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+            }
+
+            assertThat(map.size(), is(expected.size()));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.animation
+
+import com.almasb.fxgl.test.RunWithFX
+import javafx.scene.shape.*
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.closeTo
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import kotlin.math.PI
+
+/**
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+@ExtendWith(RunWithFX::class)
+class PathSamplerTest {
+
+    private val point = DoubleArray(2)
+
+    @Test
+    fun `Line`() {
+        val sampler = PathSampler(Line(0.0, 0.0, 30.0, 40.0))
+
+        assertThat(sampler.length, closeTo(50.0, 0.001))
+
+        assertPoint(sampler, 0.0, 0.0, 0.0)
+        assertPoint(sampler, 0.5, 15.0, 20.0)
+        assertPoint(sampler, 1.0, 30.0, 40.0)
+    }
+
+    @Test
+    fun `Rectangle is sampled at constant speed`() {
+        val sampler = PathSampler(Rectangle(10.0, 20.0, 160.0, 50.0))
+
+        assertThat(sampler.length, closeTo(420.0, 0.001))
+
+        assertPoint(sampler, 0.0, 10.0, 20.0)
+        // 80 px along the top edge
+        assertPoint(sampler, 80.0 / 420, 90.0, 20.0)
+        // 25 px down the right edge
+        assertPoint(sampler, 185.0 / 420, 170.0, 45.0)
+        assertPoint(sampler, 0.5, 170.0, 70.0)
+        assertPoint(sampler, 1.0, 10.0, 20.0)
+    }
+
+    @Test
+    fun `Polyline and polygon`() {
+        val polyline = PathSampler(Polyline(0.0, 0.0, 10.0, 0.0, 10.0, 10.0))
+
+        assertThat(polyline.length, closeTo(20.0, 0.001))
+        assertPoint(polyline, 1.0, 10.0, 10.0)
+
+        val polygon = PathSampler(Polygon(0.0, 0.0, 10.0, 0.0, 10.0, 10.0, 0.0, 10.0))
+
+        assertThat(polygon.length, closeTo(40.0, 0.001))
+        assertPoint(polygon, 1.0, 0.0, 0.0)
+    }
+
+    @Test
+    fun `Circle`() {
+        val sampler = PathSampler(Circle(100.0, 100.0, 50.0))
+
+        // flattened, so slightly shorter
+        assertThat(sampler.length, closeTo(2 * PI * 50, 0.5))
+
+        assertPoint(sampler, 0.0, 150.0, 100.0)
+        assertPoint(sampler, 0.5, 50.0, 100.0)
+    }
+
+    @Test
+    fun `Curves`() {
+        val quad = PathSampler(QuadCurve(0.0, 0.0, 50.0, 100.0, 100.0, 0.0))
+
+        assertPoint(quad, 0.0, 0.0, 0.0)
+        assertPoint(quad, 0.5, 50.0, 50.0)
+        assertPoint(quad, 1.0, 100.0, 0.0)
+
+        val cubic = PathSampler(CubicCurve(0.0, 0.0, 0.0, 100.0, 100.0, 100.0, 100.0, 0.0))
+
+        assertPoint(cubic, 0.5, 50.0, 75.0)
+        assertPoint(cubic, 1.0, 100.0, 0.0)
+    }
+
+    @Test
+    fun `Path with relative elements`() {
+        val path = Path(
+                MoveTo(10.0, 10.0),
+                HLineTo(50.0),
+                LineTo(0.0, 40.0).also { it.isAbsolute = false },
+                VLineTo(10.0),
+                ClosePath()
+        )
+
+        val sampler = PathSampler(path)
+
+        assertThat(sampler.length, closeTo(160.0, 0.001))
+
+        assertPoint(sampler, 40.0 / 160, 50.0, 10.0)
+        assertPoint(sampler, 60.0 / 160, 50.0, 30.0)
+        assertPoint(sampler, 1.0, 10.0, 10.0)
+    }
+
+    @Test
+    fun `Shape transforms are applied`() {
+        val line = Line(0.0, 0.0, 10.0, 0.0)
+        line.translateX = 5.0
+        line.scaleX = 2.0
+
+        val sampler = PathSampler(line)
+
+        assertThat(sampler.length, closeTo(20.0, 0.001))
+        assertPoint(sampler, 0.0, 0.0, 0.0)
+        assertPoint(sampler, 1.0, 20.0, 0.0)
+    }
+
+    @Test
+    fun `Sample writes at offset`() {
+        val sampler = PathSampler(Line(0.0, 0.0, 10.0, 0.0))
+
+        val out = DoubleArray(4)
+        sampler.sample(1.0, out, 2)
+
+        assertThat(out[2], closeTo(10.0, 0.001))
+        assertThat(out[3], closeTo(0.0, 0.001))
+    }
+
+    private fun assertPoint(sampler: PathSampler, t: Double, x: Double, y: Double) {
+        sampler.sample(t, point)
+
+        assertThat(point[0], closeTo(x, 0.001))
+        assertThat(point[1], closeTo(y, 0.001))
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.animation
+
+import com.almasb.fxgl.test.RunWithFX
+import javafx.beans.property.DoubleProperty
+import javafx.beans.property.SimpleDoubleProperty
+import javafx.geometry.Point3D
+import javafx.scene.shape.Rectangle
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.closeTo
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+
+/**
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+@ExtendWith(RunWithFX::class)
+class TweenSystemTest {
+
+    private lateinit var tweens: TweenSystem
+
+    @BeforeEach
+    fun setUp() {
+        tweens = TweenSystem(2)
+    }
+
+    @Test
+    fun `Translate`() {
+        val target = TestAnimatable()
+
+        tweens.translate(target, 0.0, 0.0, 100.0, 50.0, 1.0)
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target.x.value, closeTo(50.0, 0.001))
+        assertThat(target.y.value, closeTo(25.0, 0.001))
+
+        tweens.onUpdate(0.6)
+
+        assertThat(target.x.value, `is`(100.0))
+        assertThat(target.y.value, `is`(50.0))
+        assertThat(tweens.size, `is`(0))
+    }
+
+    @Test
+    fun `Translate 3D`() {
+        val target = TestAnimatable()
+
+        tweens.translate3D(target, 0.0, 0.0, 0.0, 10.0, 20.0, 30.0, 1.0)
+
+        tweens.onUpdate(1.0)
+
+        assertThat(target.x.value, `is`(10.0))
+        assertThat(target.y.value, `is`(20.0))
+        assertThat(target.z.value, `is`(30.0))
+    }
+
+    @Test
+    fun `Scale rotate and fade`() {
+        val target = TestAnimatable()
+
+        tweens.scale(target, 1.0, 1.0, 2.0, 3.0, 1.0)
+        tweens.rotate(target, 0.0, 90.0, 1.0)
+        tweens.rotate3D(target, 0.0, 0.0, 0.0, 10.0, 20.0, 0.0, 1.0)
+        tweens.fade(target, 1.0, 0.0, 1.0)
+
+        assertThat(tweens.size, `is`(4))
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target.scaleX.value, closeTo(1.5, 0.001))
+        assertThat(target.scaleY.value, closeTo(2.0, 0.001))
+        assertThat(target.rotationX.value, closeTo(5.0, 0.001))
+        assertThat(target.rotationY.value, closeTo(10.0, 0.001))
+        assertThat(target.opacity.value, closeTo(0.5, 0.001))
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target.scaleX.value, `is`(2.0))
+        assertThat(target.scaleY.value, `is`(3.0))
+        assertThat(target.opacity.value, `is`(0.0))
+        assertThat(tweens.size, `is`(0))
+    }
+
+    @Test
+    fun `Rotate`() {
+        val target = TestAnimatable()
+
+        tweens.rotate(target, 0.0, 90.0, 1.0)
+
+        tweens.onUpdate(1.0)
+
+        assertThat(target.rotationZ.value, `is`(90.0))
+    }
+
+    @Test
+    fun `Interpolator is used`() {
+        val target = TestAnimatable()
+
+        tweens.translate(target, 0.0, 0.0, 100.0, 0.0, 1.0, Interpolators.EXPONENTIAL.EASE_IN())
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target.x.value, closeTo(Interpolators.EXPONENTIAL.EASE_IN().interpolate(0.0, 100.0, 0.5), 0.001))
+    }
+
+    @Test
+    fun `Along path`() {
+        val target = TestAnimatable()
+
+        val path = PathSampler(Rectangle(160.0, 50.0))
+
+        tweens.alongPath(target, path, 1.0)
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target.x.value, closeTo(160.0, 0.001))
+        assertThat(target.y.value, closeTo(50.0, 0.001))
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target.x.value, closeTo(0.0, 0.001))
+        assertThat(target.y.value, closeTo(0.0, 0.001))
+    }
+
+    @Test
+    fun `Delay`() {
+        val target = TestAnimatable()
+
+        tweens.fade(target, 1.0, 0.0, 1.0).delay(0.5)
+
+        tweens.onUpdate(0.4)
+
+        assertThat(target.opacity.value, `is`(1.0))
+
+        // 0.1 is left of delay, so 0.5 of the tween is done
+        tweens.onUpdate(0.6)
+
+        assertThat(target.opacity.value, closeTo(0.5, 0.001))
+    }
+
+    @Test
+    fun `Cycles and auto reverse`() {
+        val target = TestAnimatable()
+
+        tweens.translate(target, 0.0, 0.0, 100.0, 0.0, 1.0)
+                .repeat(3)
+                .autoReverse(true)
+
+        tweens.onUpdate(1.0)
+        assertThat(target.x.value, `is`(100.0))
+
+        tweens.onUpdate(0.25)
+        assertThat(target.x.value, closeTo(75.0, 0.001))
+
+        tweens.onUpdate(0.75)
+        assertThat(target.x.value, `is`(0.0))
+
+        assertThat(tweens.size, `is`(1))
+
+        tweens.onUpdate(1.0)
+        assertThat(target.x.value, `is`(100.0))
+
+        assertThat(tweens.size, `is`(0))
+    }
+
+    @Test
+    fun `Indefinite cycles`() {
+        val target = TestAnimatable()
+
+        tweens.fade(target, 0.0, 1.0, 1.0).repeat(TweenSystem.INDEFINITE)
+
+        repeat(100) {
+            tweens.onUpdate(1.0)
+        }
+
+        assertThat(tweens.size, `is`(1))
+    }
+
+    @Test
+    fun `On finished is called once after all tweens are updated`() {
+        val target1 = TestAnimatable()
+        val target2 = TestAnimatable()
+
+        var count = 0
+
+        tweens.fade(target1, 1.0, 0.0, 1.0).onFinished(Runnable {
+            count++
+
+            // the other tween has already been updated in this frame
+            assertThat(target2.opacity.value, closeTo(0.5, 0.001))
+        })
+
+        tweens.fade(target2, 1.0, 0.0, 2.0)
+
+        tweens.onUpdate(1.0)
+        tweens.onUpdate(1.0)
+
+        assertThat(count, `is`(1))
+    }
+
+    @Test
+    fun `Tween can be added from on finished`() {
+        val target = TestAnimatable()
+
+        tweens.translate(target, 0.0, 0.0, 100.0, 0.0, 1.0).onFinished(Runnable {
+            tweens.translate(target, 100.0, 0.0, 0.0, 0.0, 1.0)
+        })
+
+        tweens.onUpdate(1.0)
+
+        assertThat(tweens.size, `is`(1))
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target.x.value, closeTo(50.0, 0.001))
+    }
+
+    @Test
+    fun `Cancel by target`() {
+        val target1 = TestAnimatable()
+        val target2 = TestAnimatable()
+
+        tweens.translate(target1, 0.0, 0.0, 100.0, 0.0, 1.0)
+        tweens.fade(target2, 1.0, 0.0, 1.0)
+        tweens.fade(target1, 1.0, 0.0, 1.0)
+
+        assertThat(tweens.isAnimating(target1), `is`(true))
+        assertThat(tweens.cancel(target1), `is`(2))
+        assertThat(tweens.isAnimating(target1), `is`(false))
+        assertThat(tweens.isAnimating(target2), `is`(true))
+
+        tweens.onUpdate(0.5)
+
+        assertThat(target1.x.value, `is`(0.0))
+        assertThat(target2.opacity.value, closeTo(0.5, 0.001))
+
+        tweens.clear()
+
+        assertThat(tweens.size, `is`(0))
+    }
+
+    @Test
+    fun `Many tweens`() {
+        val targets = Array(1000) { TestAnimatable() }
+
+        targets.forEachIndexed { i, target ->
+            tweens.translate(target, 0.0, 0.0, i.toDouble(), 0.0, 1.0 + i % 10)
+        }
+
+        assertThat(tweens.size, `is`(1000))
+
+        repeat(10) {
+            tweens.onUpdate(1.0)
+        }
+
+        assertThat(tweens.size, `is`(0))
+
+        targets.forEachIndexed { i, target ->
+            assertThat(target.x.value, `is`(i.toDouble()))
+        }
+    }
+
+    private class TestAnimatable : Animatable {
+        val x = SimpleDoubleProperty()
+        val y = SimpleDoubleProperty()
+        val z = SimpleDoubleProperty()
+        val scaleX = SimpleDoubleProperty(1.0)
+        val scaleY = SimpleDoubleProperty(1.0)
+        val scaleZ = SimpleDoubleProperty(1.0)
+        val rotationX = SimpleDoubleProperty()
+        val rotationY = SimpleDoubleProperty()
+        val rotationZ = SimpleDoubleProperty()
+        val opacity = SimpleDoubleProperty(1.0)
+
+        override fun xProperty(): DoubleProperty = x
+        override fun yProperty(): DoubleProperty = y
+        override fun zProperty(): DoubleProperty = z
+        override fun scaleXProperty(): DoubleProperty = scaleX
+        override fun scaleYProperty(): DoubleProperty = scaleY
+        override fun scaleZProperty(): DoubleProperty = scaleZ
+        override fun rotationXProperty(): DoubleProperty = rotationX
+        override fun rotationYProperty(): DoubleProperty = rotationY
+        override fun rotationZProperty(): DoubleProperty = rotationZ
+        override fun opacityProperty(): DoubleProperty = opacity
+
+        override fun setScaleOrigin(pivotPoint: Point3D) { }
+        override fun setRotationOrigin(pivotPoint: Point3D) { }
+    }
+}
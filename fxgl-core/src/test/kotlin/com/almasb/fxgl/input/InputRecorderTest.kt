@@ -0,0 +1,285 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.input
+
+import com.almasb.fxgl.core.Updatable
+import com.almasb.fxgl.core.math.FXGLMath
+import javafx.scene.input.KeyCode
+import javafx.scene.input.MouseButton
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+
+/**
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class InputRecorderTest {
+
+    private lateinit var input: Input
+
+    /**
+     * Frame numbers at which actions began, ended and were clicked.
+     */
+    private lateinit var log: MutableList<String>
+
+    private var frame = 0
+
+    @BeforeEach
+    fun setUp() {
+        input = Input()
+        log = arrayListOf()
+        frame = 0
+
+        input.addAction(object : UserAction("Jump") {
+            override fun onActionBegin() {
+                log += "jump begin $frame"
+            }
+
+            override fun onActionEnd() {
+                log += "jump end $frame"
+            }
+        }, KeyCode.SPACE)
+
+        input.addAction(object : UserAction("Dash") {
+            override fun onActionBegin() {
+                log += "dash begin $frame"
+            }
+        }, KeyCode.D, InputModifier.SHIFT)
+
+        input.addAction(object : UserAction("Shoot") {
+            override fun onActionBegin() {
+                log += "shoot ${input.mouseXWorld} ${input.mouseYWorld} ${FXGLMath.random(0, 1000)} $frame"
+            }
+        }, MouseButton.PRIMARY)
+    }
+
+    @Test
+    fun `Replay reproduces recorded input frame by frame`() {
+        val out = ByteArrayOutputStream()
+
+        input.startRecording(InputRecorder(out, 42L))
+
+        assertThat(input.isRecording, `is`(true))
+
+        runFrames(5)
+        input.mockKeyPress(KeyCode.SPACE)
+        runFrames(3)
+        input.mockKeyRelease(KeyCode.SPACE)
+        runFrames(100)
+
+        input.mockButtonPress(MouseButton.PRIMARY, 10.5, 20.0)
+        input.mockButtonRelease(MouseButton.PRIMARY, 10.5, 20.0)
+        runFrames(1)
+
+        // not representable in 1/16 of a pixel
+        input.mockButtonPress(MouseButton.PRIMARY, 0.1, 200.0)
+        input.mockButtonRelease(MouseButton.PRIMARY, 0.1, 200.0)
+        runFrames(1)
+
+        input.mockKeyPress(KeyCode.SHIFT)
+        input.mockKeyPress(KeyCode.D, InputModifier.SHIFT)
+        runFrames(1)
+        input.mockKeyRelease(KeyCode.D, InputModifier.SHIFT)
+        input.mockKeyRelease(KeyCode.SHIFT)
+        runFrames(10)
+
+        input.stopRecording()
+
+        assertThat(input.isRecording, `is`(false))
+
+        val recorded = log.toList()
+
+        assertThat(recorded.size, `is`(5))
+
+        // replay in a new input
+        setUp()
+
+        val replay = InputReplay(ByteArrayInputStream(out.toByteArray()))
+
+        assertThat(replay.seed, `is`(42L))
+        assertThat(replay.tpf, `is`(1.0 / 60))
+
+        val frames = replay.play(input, Updatable { tpf ->
+            input.update(tpf)
+            frame++
+        })
+
+        assertThat(frames, `is`(121L))
+        assertThat(log, `is`(recorded))
+        assertThat(input.isReplaying, `is`(false))
+    }
+
+    @Test
+    fun `Replay keeps modifier while another modifier is released`() {
+        val out = ByteArrayOutputStream()
+
+        input.startRecording(InputRecorder(out))
+
+        input.mockKeyPress(KeyCode.SHIFT)
+        input.mockKeyPress(KeyCode.CONTROL, InputModifier.SHIFT)
+        runFrames(1)
+        input.mockKeyRelease(KeyCode.CONTROL, InputModifier.SHIFT)
+        runFrames(1)
+        input.mockKeyPress(KeyCode.D, InputModifier.SHIFT)
+        runFrames(1)
+        input.mockKeyRelease(KeyCode.D, InputModifier.SHIFT)
+        input.mockKeyRelease(KeyCode.SHIFT)
+        runFrames(1)
+
+        input.stopRecording()
+
+        assertThat(log, `is`(listOf("dash begin 2")))
+
+        setUp()
+
+        input.startReplay(InputReplay(ByteArrayInputStream(out.toByteArray())))
+
+        runFrames(5)
+
+        assertThat(log, `is`(listOf("dash begin 2")))
+    }
+
+    @Test
+    fun `Recording is compact`() {
+        val out = ByteArrayOutputStream()
+
+        input.startRecording(InputRecorder(out))
+
+        repeat(1000) {
+            input.mockKeyPress(KeyCode.SPACE)
+            runFrames(10)
+            input.mockKeyRelease(KeyCode.SPACE)
+            runFrames(10)
+        }
+
+        input.stopRecording()
+
+        // header is 21 bytes, each press or release is 3 bytes (frame delta, tag, key), end is 2 bytes
+        assertThat(out.size(), `is`(21 + 2000 * 3 + 2))
+    }
+
+    @Test
+    fun `Seeds are recorded`() {
+        val out = ByteArrayOutputStream()
+
+        input.startRecording(InputRecorder(out, 1L))
+
+        runFrames(2)
+
+        assertThat(input.reseed(7L), `is`(7L))
+        val expected = FXGLMath.random(0, 1000)
+
+        runFrames(2)
+
+        input.stopRecording()
+
+        FXGLMath.setRandom(java.util.Random(0))
+
+        input.startReplay(InputReplay(ByteArrayInputStream(out.toByteArray())))
+
+        runFrames(2)
+
+        // the recorded seed is used instead
+        assertThat(input.reseed(99L), `is`(7L))
+        assertThat(FXGLMath.random(0, 1000), `is`(expected))
+    }
+
+    @Test
+    fun `Reseed inside an update is replayed in the same frame`() {
+        val out = ByteArrayOutputStream()
+
+        input.startRecording(InputRecorder(out))
+
+        runFrames(3)
+        input.mockKeyPress(KeyCode.SPACE)
+        runFramesWithReseed(5, reseedFrame = 3)
+        input.mockKeyRelease(KeyCode.SPACE)
+        runFrames(1)
+
+        input.stopRecording()
+
+        val recorded = log.toList()
+
+        setUp()
+
+        input.startReplay(InputReplay(ByteArrayInputStream(out.toByteArray())))
+
+        runFrames(3)
+        runFramesWithReseed(5, reseedFrame = 3)
+        runFrames(2)
+
+        assertThat(log, `is`(recorded))
+    }
+
+    @Test
+    fun `Truncated recording is replayed up to last record`() {
+        val out = ByteArrayOutputStream()
+
+        val recorder = InputRecorder(out)
+
+        input.startRecording(recorder)
+
+        runFrames(59)
+        input.mockKeyPress(KeyCode.SPACE)
+
+        // flushed every 60 frames
+        runFrames(1)
+        runFrames(30)
+
+        // do not close, as if the game crashed
+        val bytes = out.toByteArray()
+
+        setUp()
+
+        val replay = InputReplay(ByteArrayInputStream(bytes))
+
+        input.startReplay(replay)
+
+        runFrames(100)
+
+        assertThat(replay.isFinished, `is`(true))
+        assertThat(log, `is`(listOf("jump begin 59")))
+    }
+
+    @Test
+    fun `Throw if not a recording`() {
+        assertThrows<IOException> {
+            InputReplay(ByteArrayInputStream(ByteArray(32)))
+        }
+    }
+
+    private fun runFrames(num: Int) {
+        repeat(num) {
+            input.update(1.0 / 60)
+            frame++
+        }
+    }
+
+    /**
+     * Runs frames with game logic that reseeds in [reseedFrame] and uses random values in each frame.
+     */
+    private fun runFramesWithReseed(num: Int, reseedFrame: Int) {
+        repeat(num) {
+            input.update(1.0 / 60)
+
+            log += "random ${FXGLMath.random(0, 1000)} $frame"
+
+            if (frame == reseedFrame) {
+                input.reseed()
+            }
+
+            log += "random ${FXGLMath.random(0, 1000)} $frame"
+
+            frame++
+        }
+    }
+}
@@ -11,12 +11,17 @@ import org.hamcrest.CoreMatchers.containsString
 import org.hamcrest.MatcherAssert.assertThat
 import org.junit.jupiter.api.AfterAll
 import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTimeoutPreemptively
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeAll
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertDoesNotThrow
 import java.nio.file.Files
 import java.nio.file.Paths
+import java.nio.file.attribute.FileTime
+import java.time.Duration
+import java.time.LocalDateTime
+import java.time.format.DateTimeFormatter
 
 /**
  *
@@ -218,4 +223,148 @@ class LoggerTest {
         assertThat(lines[0], `is`("Hello Test World"))
         assertThat(lines[1], `is`("Hello Test World 2"))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Test AsyncFileOutput`() {
+        val logDir = Paths.get("testAsyncDir")
+
+        try {
+            val output = AsyncFileOutput("test", "testAsyncDir/", 5)
+
+            assertTrue(Files.exists(logDir))
+
+            output.append("Hello Test World")
+
+            Logger.addOutput(output, LoggerLevel.INFO)
+
+            Logger.get("test").info("Hello Test World 2")
+            Logger.get("test").debug("Not logged")
+
+            Logger.removeOutput(output, LoggerLevel.INFO)
+
+            // writes remaining messages
+            output.close()
+
+            val lines = Files.list(logDir).use { it.toList() }.flatMap { Files.readAllLines(it) }
+
+            assertThat(lines.size, `is`(2))
+            assertThat(lines[0], `is`("Hello Test World"))
+            assertThat(lines[1], containsString("INFO"))
+            assertThat(lines[1].substringAfter("- "), `is`("Hello Test World 2"))
+            assertThat(output.numDropped, `is`(0L))
+        } finally {
+            logDir.toFile().deleteRecursively()
+        }
+    }
+
+    @Test
+    fun `AsyncFileOutput rotates files by size`() {
+        val logDir = Paths.get("testAsyncRotationDir")
+
+        try {
+            val output = AsyncFileOutput("test", "testAsyncRotationDir/", maxLogFiles = 3, maxFileSize = 100)
+
+            repeat(30) {
+                output.append("Message %02d of some length".format(it))
+            }
+
+            output.close()
+
+            val files = Files.list(logDir).use { it.toList() }
+
+            // each file takes 4 messages of 26 chars (including new line) before rotation, older files are deleted
+            assertThat(files.size, `is`(3))
+
+            files.forEach {
+                assertTrue(Files.size(it) <= 100 + 26)
+            }
+
+            // most recent messages are kept
+            val lines = files.flatMap { Files.readAllLines(it) }
+
+            assertTrue("Message 29 of some length" in lines)
+        } finally {
+            logDir.toFile().deleteRecursively()
+        }
+    }
+
+    @Test
+    fun `AsyncFileOutput deletes oldest logs by file name`() {
+        val logDir = Paths.get("testAsyncCleanDir")
+
+        try {
+            Files.createDirectories(logDir)
+
+            val formatter = DateTimeFormatter.ofPattern("dd-MMM-yyyy-HH.mm.ss")
+            val time = LocalDateTime.of(2020, 1, 1, 12, 0, 0)
+
+            val oldest = logDir.resolve("test-${time.format(formatter)}.log")
+            val older = logDir.resolve("test-${time.format(formatter)}-1.log")
+            val newest = logDir.resolve("test-${time.plusDays(1).format(formatter)}.log")
+            val other = logDir.resolve("notes.txt")
+
+            listOf(oldest, older, newest, other).forEachIndexed { i, file ->
+                Files.createFile(file)
+
+                // modification times are in reverse order of the names
+                Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000L - i * 1000L))
+            }
+
+            val output = AsyncFileOutput("test", "testAsyncCleanDir/", maxLogFiles = 3)
+            output.close()
+
+            assertFalse(Files.exists(oldest))
+            assertTrue(Files.exists(older))
+            assertTrue(Files.exists(newest))
+            assertTrue(Files.exists(other))
+        } finally {
+            logDir.toFile().deleteRecursively()
+        }
+    }
+
+    @Test
+    fun `AsyncFileOutput reports failure and drops later messages`() {
+        val logDir = Paths.get("testAsyncFailureDir")
+
+        val reported = arrayListOf<String>()
+
+        val reportOutput = object : LoggerOutput {
+            override fun append(message: String) {
+                reported += message
+            }
+
+            override fun close() { }
+        }
+
+        Logger.addOutput(reportOutput, LoggerLevel.WARN)
+
+        try {
+            val output = AsyncFileOutput("test", "testAsyncFailureDir/", overflowPolicy = AsyncFileOutput.OverflowPolicy.BLOCK)
+
+            // the log file is created on first write, which then fails
+            logDir.toFile().deleteRecursively()
+
+            output.append("Lost 1")
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5)) {
+                while (output.failure == null) {
+                    Thread.sleep(5)
+                }
+            }
+
+            // does not block
+            output.append("Lost 2")
+
+            output.close()
+
+            assertThat(output.numDropped, `is`(2L))
+            assertThat(reported.size, `is`(2))
+            assertThat(reported[0], containsString("failed"))
+            assertThat(reported[1], containsString("2 log messages dropped"))
+        } finally {
+            Logger.removeOutput(reportOutput, LoggerLevel.WARN)
+
+            logDir.toFile().deleteRecursively()
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.logging
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+/**
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class RingBufferTest {
+
+    @Test
+    fun `Capacity is rounded up to power of 2`() {
+        assertThat(RingBuffer<String>(8).capacity, `is`(8))
+        assertThat(RingBuffer<String>(9).capacity, `is`(16))
+        assertThat(RingBuffer<String>(1000).capacity, `is`(1024))
+    }
+
+    @Test
+    fun `Offer and poll in order until full`() {
+        val buffer = RingBuffer<Int>(4)
+
+        repeat(4) {
+            assertTrue(buffer.offer(it))
+        }
+
+        assertFalse(buffer.offer(4))
+        assertThat(buffer.size, `is`(4))
+
+        assertThat(buffer.poll(), `is`(0))
+        assertThat(buffer.poll(), `is`(1))
+
+        // wraps around
+        assertTrue(buffer.offer(5))
+        assertTrue(buffer.offer(6))
+
+        assertThat(buffer.poll(), `is`(2))
+        assertThat(buffer.poll(), `is`(3))
+        assertThat(buffer.poll(), `is`(5))
+        assertThat(buffer.poll(), `is`(6))
+        assertThat(buffer.poll(), `is`(nullValue()))
+    }
+
+    @Test
+    fun `Concurrent producers do not lose elements`() {
+        val buffer = RingBuffer<Int>(1024)
+
+        val numProducers = 4
+        val numPerProducer = 2000
+
+        val producers = (0 until numProducers).map { p ->
+            Thread {
+                for (i in 0 until numPerProducer) {
+                    while (!buffer.offer(p * numPerProducer + i)) {
+                        Thread.yield()
+                    }
+                }
+            }
+        }
+
+        producers.forEach { it.start() }
+
+        val seen = BooleanArray(numProducers * numPerProducer)
+        val lastOfProducer = IntArray(numProducers) { -1 }
+        var count = 0
+
+        while (count < seen.size) {
+            val value = buffer.poll()
+
+            if (value == null) {
+                Thread.yield()
+                continue
+            }
+
+            assertFalse(seen[value])
+            seen[value] = true
+
+            // elements of each producer arrive in order
+            val p = value / numPerProducer
+            assertTrue(value > lastOfProducer[p])
+            lastOfProducer[p] = value
+
+            count++
+        }
+
+        producers.forEach { it.join() }
+
+        assertThat(buffer.poll(), `is`(nullValue()))
+    }
+}
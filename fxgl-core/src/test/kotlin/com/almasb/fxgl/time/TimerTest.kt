@@ -123,6 +123,101 @@ class TimerTest {
         assertThat(count, `is`(0))
     }
 
+    @Test
+    fun `Expired action is removed and does not run`() {
+        var count = 0
+
+        val action = timer.runOnceAfter(Runnable { count++ }, Duration.seconds(1.0))
+        timer.runOnceAfter(Runnable { count++ }, Duration.seconds(2.0))
+
+        assertThat(timer.numActions, `is`(2))
+
+        action.expire()
+
+        assertThat(timer.numActions, `is`(1))
+
+        timer.update(1.0)
+        assertThat(count, `is`(0))
+
+        timer.update(1.0)
+        assertThat(count, `is`(1))
+        assertThat(timer.numActions, `is`(0))
+    }
+
+    @Test
+    fun `Paused time does not count towards interval`() {
+        var count = 0
+
+        val action = timer.runAtInterval(Runnable { count++ }, Duration.seconds(1.0))
+
+        timer.update(0.5)
+        action.pause()
+
+        timer.update(5.0)
+        assertThat(count, `is`(0))
+
+        action.resume()
+
+        timer.update(0.25)
+        assertThat(count, `is`(0))
+
+        timer.update(0.25)
+        assertThat(count, `is`(1))
+    }
+
+    @Test
+    fun `Action runs at most once per update`() {
+        var count = 0
+
+        timer.runAtInterval(Runnable { count++ }, Duration.seconds(0.1))
+
+        timer.update(1.0)
+        assertThat(count, `is`(1))
+
+        timer.update(0.05)
+        assertThat(count, `is`(1))
+
+        timer.update(0.05)
+        assertThat(count, `is`(2))
+    }
+
+    @Test
+    fun `Action scheduled from an action does not run in the same update`() {
+        var count = 0
+
+        timer.runOnceAfter({
+            timer.runOnceAfter({ count++ }, Duration.ZERO)
+        }, Duration.seconds(1.0))
+
+        timer.update(1.0)
+        assertThat(count, `is`(0))
+
+        timer.update(0.016)
+        assertThat(count, `is`(1))
+    }
+
+    @Test
+    fun `Many one-shot actions with different delays`() {
+        val counts = IntArray(10000)
+
+        for (i in counts.indices) {
+            // up to ~2.8 hours, so all levels of the wheel are used
+            timer.runOnceAfter(Runnable { counts[i]++ }, Duration.seconds(i * i / 10000.0))
+        }
+
+        var steps = 0
+
+        while (timer.numActions > 0) {
+            timer.update(0.5 + steps % 7)
+            steps++
+
+            // every action whose delay has passed has run exactly once
+            assertTrue(counts.indices.all { i -> counts[i] == (if (i * i / 10000.0 <= timer.now) 1 else 0) })
+        }
+
+        assertTrue(counts.all { it == 1 })
+    }
+
     @Test
     fun `Now value`() {
         timer.update(2.0)
@@ -0,0 +1,160 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A live, read-only view of world entities that match a query (e.g. type or component class).
+ * The view is maintained incrementally by {@link GameWorld}, so obtaining and iterating it does not allocate:
+ *
+ * <pre>
+ *     var enemies = world.getTypeView(EntityType.ENEMY);
+ *
+ *     for (int i = 0; i &lt; enemies.size(); i++) {
+ *         Entity e = enemies.get(i);
+ *     }
+ * </pre>
+ *
+ * Entities are kept in the same order as {@link GameWorld#getEntities()}.
+ * Do not add entities to or remove entities from the world while iterating,
+ * unless iterating backwards (or use {@link #toList()}).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class EntityView {
+
+    private Entity[] entities = new Entity[16];
+
+    /**
+     * World insertion order of each entity, sorted ascending.
+     */
+    private long[] orders = new long[16];
+
+    private int size = 0;
+
+    EntityView() { }
+
+    /**
+     * @return number of entities in this view
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isNotEmpty() {
+        return size > 0;
+    }
+
+    /**
+     * @return entity at given index
+     */
+    public Entity get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+
+        return entities[index];
+    }
+
+    /**
+     * @return first entity in this view or null if view is empty
+     */
+    public Entity firstOrNull() {
+        return size == 0 ? null : entities[0];
+    }
+
+    public boolean contains(Entity entity) {
+        for (int i = 0; i < size; i++) {
+            if (entities[i] == entity)
+                return true;
+        }
+
+        return false;
+    }
+
+    public void forEach(Consumer<Entity> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(entities[i]);
+        }
+    }
+
+    /**
+     * @return a new list containing entities of this view
+     */
+    public List<Entity> toList() {
+        var list = new ArrayList<Entity>(size);
+        addTo(list);
+        return list;
+    }
+
+    /**
+     * Adds all entities of this view to given list.
+     */
+    public void addTo(List<Entity> list) {
+        for (int i = 0; i < size; i++) {
+            list.add(entities[i]);
+        }
+    }
+
+    long orderAt(int index) {
+        return orders[index];
+    }
+
+    void add(Entity entity, long order) {
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            orders = Arrays.copyOf(orders, size * 2);
+        }
+
+        // entities are mostly appended, since new entities get the largest order
+        int index = size;
+        if (size > 0 && orders[size - 1] >= order) {
+            int found = Arrays.binarySearch(orders, 0, size, order);
+
+            // already in this view
+            if (found >= 0)
+                return;
+
+            index = -(found + 1);
+        }
+
+        System.arraycopy(entities, index, entities, index + 1, size - index);
+        System.arraycopy(orders, index, orders, index + 1, size - index);
+
+        entities[index] = entity;
+        orders[index] = order;
+        size++;
+    }
+
+    void remove(long order) {
+        int index = Arrays.binarySearch(orders, 0, size, order);
+        if (index < 0)
+            return;
+
+        System.arraycopy(entities, index + 1, entities, index, size - index - 1);
+        System.arraycopy(orders, index + 1, orders, index, size - index - 1);
+
+        entities[--size] = null;
+    }
+
+    void clear() {
+        Arrays.fill(entities, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityView(size=" + size + ")";
+    }
+}
@@ -0,0 +1,684 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity;
+
+import com.almasb.fxgl.core.collection.LongMap;
+import com.almasb.fxgl.core.collection.UnorderedArray;
+import com.almasb.fxgl.entity.components.BoundingBoxComponent;
+import com.almasb.fxgl.entity.components.TransformComponent;
+import com.almasb.fxgl.physics.Box3DShapeData;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Uniform hash grid of entities, used by {@link GameWorld} to answer spatial queries
+ * (range, point, colliding, nearest) without scanning every entity.
+ *
+ * Each entity is stored in every cell covered by its world bounding box
+ * (extended to include its transform position and, if rotated, the area swept by the rotation).
+ * The index is kept in sync incrementally: change listeners of transform and bbox only mark the entity as dirty,
+ * and dirty entities are re-inserted lazily before the next query, so an update only touches entities that moved.
+ *
+ * Query results are reported in the order entities were added to the index.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class SpatialIndex {
+
+    public static final double DEFAULT_CELL_SIZE = 128.0;
+
+    private static final Comparator<Entry> BY_ORDER = Comparator.comparingLong(e -> e.order);
+
+    private final double cellSize;
+    private final double invCellSize;
+
+    private final LongMap<UnorderedArray<Entry>> cells = new LongMap<>(256);
+    private final UnorderedArray<UnorderedArray<Entry>> freeCells = new UnorderedArray<>(64);
+
+    private final Map<Entity, Entry> entries = new IdentityHashMap<>();
+    private final UnorderedArray<Entry> dirty = new UnorderedArray<>(64);
+
+    /**
+     * Extent (in cells) of all cells that have ever been occupied since the last clear.
+     */
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    private long nextOrder = 0;
+    private int queryStamp = 0;
+
+    private Entry[] candidates = new Entry[64];
+    private int numCandidates = 0;
+
+    private final NearestBuffer nearestBuffer = new NearestBuffer();
+
+    /**
+     * Greater than 0 while a nearest query is running (its filter may query the index again).
+     */
+    private int nearestQueryDepth = 0;
+
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param cellSize size of a single grid cell in pixels,
+     *                 ideally close to the typical size of entities being queried
+     */
+    public SpatialIndex(double cellSize) {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be > 0: " + cellSize);
+
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0 / cellSize;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return number of entities in the index
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of non-empty cells
+     */
+    public int getNumCells() {
+        return cells.size();
+    }
+
+    public boolean contains(Entity entity) {
+        return entries.containsKey(entity);
+    }
+
+    public void add(Entity entity) {
+        if (entries.containsKey(entity))
+            return;
+
+        var entry = new Entry(entity, nextOrder++);
+        entries.put(entity, entry);
+
+        entry.listen();
+        entry.computeBounds();
+        insert(entry);
+    }
+
+    public void remove(Entity entity) {
+        var entry = entries.remove(entity);
+        if (entry == null)
+            return;
+
+        entry.unlisten();
+
+        if (entry.isDirty) {
+            dirty.removeValueByIdentity(entry);
+            entry.isDirty = false;
+        }
+
+        erase(entry);
+    }
+
+    /**
+     * Removes all entities from the index.
+     */
+    public void clear() {
+        for (var entry : entries.values()) {
+            entry.unlisten();
+        }
+
+        entries.clear();
+        dirty.clear();
+
+        for (int i = 0; i < cells.capacity(); i++) {
+            var cell = cells.valueAt(i);
+            if (cell != null) {
+                cell.clear();
+                freeCells.add(cell);
+            }
+        }
+
+        cells.clear();
+
+        minCellX = Integer.MAX_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Re-inserts all entities whose transform or bbox changed since the last update.
+     * This is called automatically by each query.
+     */
+    public void update() {
+        // cells must not change while a nearest query is iterating them
+        if (nearestQueryDepth > 0)
+            return;
+
+        for (int i = 0; i < dirty.size(); i++) {
+            var entry = dirty.get(i);
+            entry.isDirty = false;
+
+            int oldMinX = entry.minCX;
+            int oldMinY = entry.minCY;
+            int oldMaxX = entry.maxCX;
+            int oldMaxY = entry.maxCY;
+
+            entry.computeBounds();
+
+            if (oldMinX != entry.minCX || oldMinY != entry.minCY || oldMaxX != entry.maxCX || oldMaxY != entry.maxCY) {
+                eraseCells(entry, oldMinX, oldMinY, oldMaxX, oldMaxY);
+                insert(entry);
+            }
+        }
+
+        dirty.clear();
+    }
+
+    /**
+     * Adds to result all entities whose (conservative) bounds overlap given rectangle and which satisfy the filter.
+     */
+    public void queryRange(double minX, double minY, double maxX, double maxY, Predicate<Entity> filter, List<Entity> result) {
+        update();
+        collectRange(minX, minY, maxX, maxY);
+        emitCandidates(filter, result);
+    }
+
+    /**
+     * Adds to result all entities whose transform position is exactly (x, y) and which satisfy the filter.
+     */
+    public void queryPoint(double x, double y, Predicate<Entity> filter, List<Entity> result) {
+        update();
+
+        numCandidates = 0;
+
+        var cell = cells.get(key(cellOf(x), cellOf(y)));
+        if (cell != null) {
+            for (int i = 0; i < cell.size(); i++) {
+                var entry = cell.get(i);
+                if (entry.x == x && entry.y == y) {
+                    addCandidate(entry);
+                }
+            }
+
+            sortCandidates();
+        }
+
+        emitCandidates(filter, result);
+    }
+
+    /**
+     * Adds to result all entities whose (conservative) bounds overlap the bounds of given entity,
+     * excluding the entity itself, and which satisfy the filter.
+     */
+    public void queryOverlapping(Entity entity, Predicate<Entity> filter, List<Entity> result) {
+        update();
+
+        Predicate<Entity> notSelf = e -> e != entity && filter.test(e);
+
+        var entry = entries.get(entity);
+
+        if (entry != null) {
+            queryRange(entry.minX, entry.minY, entry.maxX, entry.maxY, notSelf, result);
+        } else {
+            var bbox = entity.getBoundingBoxComponent();
+            queryRange(bbox.getMinXWorld(), bbox.getMinYWorld(), bbox.getMaxXWorld(), bbox.getMaxYWorld(), notSelf, result);
+        }
+    }
+
+    /**
+     * Finds up to k entities closest to (x, y), measured from their transform position,
+     * and adds them to result in ascending order of distance.
+     * Ties are resolved in favour of the entity added to the index first.
+     * Does not allocate, provided result has enough capacity.
+     *
+     * @param exclude entity to ignore (may be null)
+     */
+    public void queryNearest(double x, double y, int k, Entity exclude, Predicate<Entity> filter, List<Entity> result) {
+        if (k <= 0)
+            return;
+
+        update();
+
+        if (entries.isEmpty())
+            return;
+
+        // the filter is allowed to run another nearest query, which then gets its own buffer
+        var buffer = nearestQueryDepth == 0 ? nearestBuffer : new NearestBuffer();
+        buffer.reset(k);
+
+        nearestQueryDepth++;
+
+        try {
+            int cx = cellOf(x);
+            int cy = cellOf(y);
+
+            int maxRing = Math.max(
+                    Math.max(Math.abs(cx - minCellX), Math.abs(maxCellX - cx)),
+                    Math.max(Math.abs(cy - minCellY), Math.abs(maxCellY - cy))
+            );
+
+            for (int ring = 0; ring <= maxRing; ring++) {
+                if (ring == 0) {
+                    visitNearest(cx, cy, x, y, exclude, filter, buffer);
+                } else {
+                    for (int i = -ring; i <= ring; i++) {
+                        visitNearest(cx + i, cy - ring, x, y, exclude, filter, buffer);
+                        visitNearest(cx + i, cy + ring, x, y, exclude, filter, buffer);
+                    }
+
+                    for (int j = -ring + 1; j <= ring - 1; j++) {
+                        visitNearest(cx - ring, cy + j, x, y, exclude, filter, buffer);
+                        visitNearest(cx + ring, cy + j, x, y, exclude, filter, buffer);
+                    }
+                }
+
+                // any entity not yet visited has its position in a cell at least this far away
+                double minUnvisitedDist = ring * cellSize;
+
+                if (buffer.isFull() && buffer.maxDist() <= minUnvisitedDist * minUnvisitedDist)
+                    break;
+
+                long numCellsInNextRange = (2L * ring + 3) * (2L * ring + 3);
+
+                // the next ring would cover more cells than there are entities, so just check remaining entities
+                if (ring < maxRing && numCellsInNextRange > entries.size()) {
+                    visitNearestOutside(cx, cy, ring, x, y, exclude, filter, buffer);
+                    break;
+                }
+            }
+        } finally {
+            nearestQueryDepth--;
+        }
+
+        buffer.drainTo(result);
+    }
+
+    private void visitNearest(int cx, int cy, double x, double y, Entity exclude, Predicate<Entity> filter, NearestBuffer buffer) {
+        if (cx < minCellX || cx > maxCellX || cy < minCellY || cy > maxCellY)
+            return;
+
+        var cell = cells.get(key(cx, cy));
+        if (cell == null)
+            return;
+
+        for (int i = 0; i < cell.size(); i++) {
+            var entry = cell.get(i);
+
+            // each entry is only considered in the cell of its position, so it is visited once
+            if (entry.pointCX != cx || entry.pointCY != cy)
+                continue;
+
+            if (entry.entity == exclude || !filter.test(entry.entity))
+                continue;
+
+            double dx = entry.x - x;
+            double dy = entry.y - y;
+
+            buffer.offer(entry, dx * dx + dy * dy);
+        }
+    }
+
+    /**
+     * Visits entries whose position is in a cell outside the given ring around (cx, cy).
+     */
+    private void visitNearestOutside(int cx, int cy, int ring, double x, double y, Entity exclude, Predicate<Entity> filter, NearestBuffer buffer) {
+        for (var entry : entries.values()) {
+            if (Math.abs(entry.pointCX - cx) <= ring && Math.abs(entry.pointCY - cy) <= ring)
+                continue;
+
+            if (entry.entity == exclude || !filter.test(entry.entity))
+                continue;
+
+            double dx = entry.x - x;
+            double dy = entry.y - y;
+
+            buffer.offer(entry, dx * dx + dy * dy);
+        }
+    }
+
+    /**
+     * Moves candidates to result and only then applies the filter,
+     * so that the filter may safely query this index again.
+     */
+    private void emitCandidates(Predicate<Entity> filter, List<Entity> result) {
+        int start = result.size();
+
+        for (int i = 0; i < numCandidates; i++) {
+            result.add(candidates[i].entity);
+            candidates[i] = null;
+        }
+
+        numCandidates = 0;
+
+        int end = result.size();
+        int index = start;
+
+        for (int i = start; i < end; i++) {
+            var entity = result.get(i);
+
+            if (filter.test(entity)) {
+                result.set(index++, entity);
+            }
+        }
+
+        for (int i = end - 1; i >= index; i--) {
+            result.remove(i);
+        }
+    }
+
+    /**
+     * Populates candidates with unique entries that overlap given rectangle, sorted by insertion order.
+     */
+    private void collectRange(double minX, double minY, double maxX, double maxY) {
+        numCandidates = 0;
+
+        if (entries.isEmpty())
+            return;
+
+        int minCX = Math.max(cellOf(minX), minCellX);
+        int minCY = Math.max(cellOf(minY), minCellY);
+        int maxCX = Math.min(cellOf(maxX), maxCellX);
+        int maxCY = Math.min(cellOf(maxY), maxCellY);
+
+        if (minCX > maxCX || minCY > maxCY)
+            return;
+
+        long numCellsInRange = (long) (maxCX - minCX + 1) * (maxCY - minCY + 1);
+
+        // the range covers more cells than there are entities, so just check every entity
+        if (numCellsInRange > entries.size()) {
+            for (var entry : entries.values()) {
+                if (entry.overlaps(minX, minY, maxX, maxY)) {
+                    addCandidate(entry);
+                }
+            }
+        } else {
+            queryStamp++;
+
+            for (int cy = minCY; cy <= maxCY; cy++) {
+                for (int cx = minCX; cx <= maxCX; cx++) {
+                    var cell = cells.get(key(cx, cy));
+                    if (cell == null)
+                        continue;
+
+                    for (int i = 0; i < cell.size(); i++) {
+                        var entry = cell.get(i);
+
+                        if (entry.stamp == queryStamp)
+                            continue;
+
+                        entry.stamp = queryStamp;
+
+                        if (entry.overlaps(minX, minY, maxX, maxY)) {
+                            addCandidate(entry);
+                        }
+                    }
+                }
+            }
+        }
+
+        sortCandidates();
+    }
+
+    private void addCandidate(Entry entry) {
+        if (numCandidates == candidates.length) {
+            candidates = Arrays.copyOf(candidates, candidates.length * 2);
+        }
+
+        candidates[numCandidates++] = entry;
+    }
+
+    private void sortCandidates() {
+        if (numCandidates > 1) {
+            Arrays.sort(candidates, 0, numCandidates, BY_ORDER);
+        }
+    }
+
+    private void insert(Entry entry) {
+        for (int cy = entry.minCY; cy <= entry.maxCY; cy++) {
+            for (int cx = entry.minCX; cx <= entry.maxCX; cx++) {
+                long key = key(cx, cy);
+
+                var cell = cells.get(key);
+                if (cell == null) {
+                    cell = freeCells.isEmpty() ? new UnorderedArray<>(8) : freeCells.pop();
+                    cells.put(key, cell);
+                }
+
+                cell.add(entry);
+            }
+        }
+
+        minCellX = Math.min(minCellX, entry.minCX);
+        minCellY = Math.min(minCellY, entry.minCY);
+        maxCellX = Math.max(maxCellX, entry.maxCX);
+        maxCellY = Math.max(maxCellY, entry.maxCY);
+    }
+
+    private void erase(Entry entry) {
+        eraseCells(entry, entry.minCX, entry.minCY, entry.maxCX, entry.maxCY);
+    }
+
+    private void eraseCells(Entry entry, int minCX, int minCY, int maxCX, int maxCY) {
+        for (int cy = minCY; cy <= maxCY; cy++) {
+            for (int cx = minCX; cx <= maxCX; cx++) {
+                long key = key(cx, cy);
+
+                var cell = cells.get(key);
+                if (cell == null)
+                    continue;
+
+                cell.removeValueByIdentity(entry);
+
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                    freeCells.add(cell);
+                }
+            }
+        }
+    }
+
+    private void markDirty(Entry entry) {
+        if (!entry.isDirty) {
+            entry.isDirty = true;
+            dirty.add(entry);
+        }
+    }
+
+    private int cellOf(double value) {
+        return (int) Math.floor(value * invCellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private final class Entry implements Runnable {
+        private final Entity entity;
+        private final long order;
+
+        private final TransformComponent transform;
+        private final BoundingBoxComponent bbox;
+
+        private boolean isDirty = false;
+        private int stamp = 0;
+
+        // transform position at the time of last update
+        private double x;
+        private double y;
+
+        // conservative world bounds at the time of last update
+        private double minX;
+        private double minY;
+        private double maxX;
+        private double maxY;
+
+        private int minCX;
+        private int minCY;
+        private int maxCX;
+        private int maxCY;
+
+        // cell that contains the transform position
+        private int pointCX;
+        private int pointCY;
+
+        Entry(Entity entity, long order) {
+            this.entity = entity;
+            this.order = order;
+
+            transform = entity.getTransformComponent();
+            bbox = entity.getBoundingBoxComponent();
+        }
+
+        void listen() {
+            // world bounds depend on the transform and on local bounds of the bbox
+            transform.addChangeListener(this);
+            bbox.addChangeListener(this);
+        }
+
+        void unlisten() {
+            transform.removeChangeListener(this);
+            bbox.removeChangeListener(this);
+        }
+
+        @Override
+        public void run() {
+            markDirty(this);
+        }
+
+        /**
+         * Reads current values through plain getters, no properties are observed.
+         */
+        void computeBounds() {
+            x = transform.getX();
+            y = transform.getY();
+
+            double bMinX = bbox.getMinXWorld();
+            double bMinY = bbox.getMinYWorld();
+            double bMaxX = bbox.getMaxXWorld();
+            double bMaxY = bbox.getMaxYWorld();
+
+            minX = Math.min(bMinX, x);
+            minY = Math.min(bMinY, y);
+            maxX = Math.max(bMaxX, x);
+            maxY = Math.max(bMaxY, y);
+
+            var hitBoxes = bbox.hitBoxesProperty();
+            for (int i = 0; i < hitBoxes.size(); i++) {
+                // 3D boxes are checked as centered around the transform position
+                if (hitBoxes.get(i).getShape() instanceof Box3DShapeData) {
+                    var shape = (Box3DShapeData) hitBoxes.get(i).getShape();
+
+                    minX = Math.min(minX, x - shape.getWidth() / 2.0);
+                    minY = Math.min(minY, y - shape.getHeight() / 2.0);
+                    maxX = Math.max(maxX, x + shape.getWidth() / 2.0);
+                    maxY = Math.max(maxY, y + shape.getHeight() / 2.0);
+                }
+            }
+
+            double angle = transform.getAngle();
+            double originX = transform.getRotationOriginX();
+            double originY = transform.getRotationOriginY();
+
+            if (angle != 0.0) {
+                // hit boxes rotate around the rotation origin, so include the circle they can sweep
+                double cx = x + originX;
+                double cy = y + originY;
+
+                double dx = Math.max(Math.abs(bMinX - cx), Math.abs(bMaxX - cx));
+                double dy = Math.max(Math.abs(bMinY - cy), Math.abs(bMaxY - cy));
+                double r = Math.sqrt(dx * dx + dy * dy);
+
+                minX = Math.min(minX, cx - r);
+                minY = Math.min(minY, cy - r);
+                maxX = Math.max(maxX, cx + r);
+                maxY = Math.max(maxY, cy + r);
+            }
+
+            minCX = cellOf(minX);
+            minCY = cellOf(minY);
+            maxCX = cellOf(maxX);
+            maxCY = cellOf(maxY);
+
+            pointCX = cellOf(x);
+            pointCY = cellOf(y);
+        }
+
+        boolean overlaps(double minX, double minY, double maxX, double maxY) {
+            return this.maxX >= minX && this.minX <= maxX && this.maxY >= minY && this.minY <= maxY;
+        }
+    }
+
+    /**
+     * Up to k closest entries seen so far, sorted by distance.
+     */
+    private static final class NearestBuffer {
+        private Entry[] entries = new Entry[8];
+        private double[] distances = new double[8];
+        private int size = 0;
+        private int k = 0;
+
+        void reset(int k) {
+            if (entries.length < k) {
+                int capacity = Math.max(k, entries.length * 2);
+                entries = new Entry[capacity];
+                distances = new double[capacity];
+            }
+
+            this.k = k;
+            size = 0;
+        }
+
+        boolean isFull() {
+            return size == k;
+        }
+
+        double maxDist() {
+            return distances[size - 1];
+        }
+
+        void offer(Entry entry, double dist) {
+            if (size == k && !isCloser(dist, entry, distances[k - 1], entries[k - 1]))
+                return;
+
+            int index = size == k ? k - 1 : size++;
+
+            while (index > 0 && isCloser(dist, entry, distances[index - 1], entries[index - 1])) {
+                entries[index] = entries[index - 1];
+                distances[index] = distances[index - 1];
+                index--;
+            }
+
+            entries[index] = entry;
+            distances[index] = dist;
+        }
+
+        void drainTo(List<Entity> result) {
+            for (int i = 0; i < size; i++) {
+                result.add(entries[i].entity);
+                entries[i] = null;
+            }
+
+            size = 0;
+        }
+
+        private static boolean isCloser(double dist1, Entry e1, double dist2, Entry e2) {
+            return dist1 < dist2 || (dist1 == dist2 && e1.order < e2.order);
+        }
+    }
+}
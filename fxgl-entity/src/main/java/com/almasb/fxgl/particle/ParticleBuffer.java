@@ -0,0 +1,549 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+package com.almasb.fxgl.particle;
+
+import javafx.animation.Interpolator;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Stores particles of an emitter in primitive arrays, one array per particle property,
+ * and draws them with a single {@link GraphicsContext} instead of a scene graph node per particle.
+ * Particles move, scale and fade the same way as {@link Particle}.
+ * Settings shared by particles of the same emission (colors, image, interpolator, etc.) are stored once per emission.
+ *
+ * Control and on-remove functions receive a single reused {@link Particle},
+ * whose position, velocity and acceleration are those of the current particle.
+ * Changes to velocity and acceleration made by a control function are kept.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class ParticleBuffer {
+
+    /**
+     * Number of precomputed colors between start and end color.
+     */
+    private static final int NUM_COLOR_STEPS = 64;
+
+    private int size = 0;
+    private int capacity;
+
+    private double[] startX;
+    private double[] startY;
+    private double[] x;
+    private double[] y;
+    private double[] velocityX;
+    private double[] velocityY;
+    private double[] accelerationX;
+    private double[] accelerationY;
+    private double[] radiusX;
+    private double[] radiusY;
+    private double[] scaleX;
+    private double[] scaleY;
+    private double[] scaleOriginX;
+    private double[] scaleOriginY;
+    private double[] entityScaleX;
+    private double[] entityScaleY;
+    private double[] life;
+    private double[] initialLife;
+
+    /**
+     * Top left of the particle view, as layout X, Y of the view of {@link Particle}.
+     */
+    private double[] viewX;
+    private double[] viewY;
+    private double[] rotation;
+
+    private Emission[] emissions;
+
+    private Emission currentEmission = null;
+
+    private double minX = 0.0;
+    private double minY = 0.0;
+    private double maxX = 0.0;
+    private double maxY = 0.0;
+
+    private final Particle particle = new Particle();
+
+    public ParticleBuffer() {
+        this(256);
+    }
+
+    public ParticleBuffer(int initialCapacity) {
+        capacity = Math.max(1, initialCapacity);
+
+        startX = new double[capacity];
+        startY = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        accelerationX = new double[capacity];
+        accelerationY = new double[capacity];
+        radiusX = new double[capacity];
+        radiusY = new double[capacity];
+        scaleX = new double[capacity];
+        scaleY = new double[capacity];
+        scaleOriginX = new double[capacity];
+        scaleOriginY = new double[capacity];
+        entityScaleX = new double[capacity];
+        entityScaleY = new double[capacity];
+        life = new double[capacity];
+        initialLife = new double[capacity];
+        viewX = new double[capacity];
+        viewY = new double[capacity];
+        rotation = new double[capacity];
+        emissions = new Emission[capacity];
+    }
+
+    /**
+     * @return number of live particles
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getLife(int index) {
+        return life[index];
+    }
+
+    /**
+     * Bounds of particle views, as of last {@link #update(double, Consumer)}.
+     */
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Removes all particles.
+     */
+    public void clear() {
+        Arrays.fill(emissions, 0, size, null);
+        size = 0;
+        currentEmission = null;
+    }
+
+    /**
+     * Sets up settings for particles added until next call.
+     */
+    void beginEmission(Consumer<Particle> control,
+                       Image image,
+                       Paint startColor,
+                       Paint endColor,
+                       BlendMode blendMode,
+                       Interpolator interpolator,
+                       boolean allowRotation,
+                       Function<Double, Point2D> equation) {
+
+        if (currentEmission != null && currentEmission.isSame(control, image, startColor, endColor, blendMode, interpolator, allowRotation, equation))
+            return;
+
+        currentEmission = new Emission(control, image, startColor, endColor, blendMode, interpolator, allowRotation, equation);
+    }
+
+    /**
+     * Adds a particle with settings of current emission, same arguments as {@link Particle#init}.
+     */
+    void add(double posX, double posY,
+             Point2D velocity,
+             Point2D acceleration,
+             double radius,
+             Point2D scaleOrigin,
+             Point2D scale,
+             Point2D entityScale,
+             double expireSeconds) {
+
+        if (size == capacity) {
+            grow();
+        }
+
+        int i = size++;
+
+        startX[i] = posX;
+        startY[i] = posY;
+        x[i] = posX;
+        y[i] = posY;
+        velocityX[i] = velocity.getX();
+        velocityY[i] = velocity.getY();
+        accelerationX[i] = acceleration.getX();
+        accelerationY[i] = acceleration.getY();
+        radiusX[i] = radius;
+        radiusY[i] = radius;
+        scaleX[i] = scale.getX();
+        scaleY[i] = scale.getY();
+        scaleOriginX[i] = scaleOrigin.getX();
+        scaleOriginY[i] = scaleOrigin.getY();
+        entityScaleX[i] = entityScale.getX();
+        entityScaleY[i] = entityScale.getY();
+        life[i] = expireSeconds;
+        initialLife[i] = expireSeconds;
+        viewX[i] = posX;
+        viewY[i] = posY;
+        rotation[i] = 0.0;
+        emissions[i] = currentEmission;
+    }
+
+    private void grow() {
+        capacity *= 2;
+
+        startX = Arrays.copyOf(startX, capacity);
+        startY = Arrays.copyOf(startY, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        accelerationX = Arrays.copyOf(accelerationX, capacity);
+        accelerationY = Arrays.copyOf(accelerationY, capacity);
+        radiusX = Arrays.copyOf(radiusX, capacity);
+        radiusY = Arrays.copyOf(radiusY, capacity);
+        scaleX = Arrays.copyOf(scaleX, capacity);
+        scaleY = Arrays.copyOf(scaleY, capacity);
+        scaleOriginX = Arrays.copyOf(scaleOriginX, capacity);
+        scaleOriginY = Arrays.copyOf(scaleOriginY, capacity);
+        entityScaleX = Arrays.copyOf(entityScaleX, capacity);
+        entityScaleY = Arrays.copyOf(entityScaleY, capacity);
+        life = Arrays.copyOf(life, capacity);
+        initialLife = Arrays.copyOf(initialLife, capacity);
+        viewX = Arrays.copyOf(viewX, capacity);
+        viewY = Arrays.copyOf(viewY, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+        emissions = Arrays.copyOf(emissions, capacity);
+    }
+
+    /**
+     * Moves all particles and removes dead ones.
+     * The order of particles is not preserved.
+     *
+     * @param onRemove called for each removed particle
+     */
+    public void update(double tpf, Consumer<Particle> onRemove) {
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+
+        int i = 0;
+
+        while (i < size) {
+            if (updateParticle(i, tpf)) {
+                loadParticle(i);
+                onRemove.accept(particle);
+
+                remove(i);
+            } else {
+                minX = Math.min(minX, viewX[i]);
+                minY = Math.min(minY, viewY[i]);
+                maxX = Math.max(maxX, viewX[i] + radiusX[i] * 2);
+                maxY = Math.max(maxY, viewY[i] + radiusY[i] * 2);
+
+                i++;
+            }
+        }
+
+        if (size == 0) {
+            minX = 0.0;
+            minY = 0.0;
+            maxX = 0.0;
+            maxY = 0.0;
+        }
+    }
+
+    /**
+     * Same as {@link Particle#update(double)}.
+     *
+     * @return true if particle died
+     */
+    private boolean updateParticle(int i, double tpf) {
+        Emission emission = emissions[i];
+
+        double progress = 1 - life[i] / initialLife[i];
+
+        // interpolate time based on progress
+        double t = emission.interpolator.interpolate(0, initialLife[i], progress);
+
+        double newX;
+        double newY;
+
+        if (emission.control != null) {
+            loadParticle(i);
+            emission.control.accept(particle);
+
+            velocityX[i] = particle.velocity.x + particle.acceleration.x;
+            velocityY[i] = particle.velocity.y + particle.acceleration.y;
+            accelerationX[i] = particle.acceleration.x;
+            accelerationY[i] = particle.acceleration.y;
+
+            newX = particle.position.x + velocityX[i];
+            newY = particle.position.y + velocityY[i];
+
+        } else {
+            if (emission.equation == null) {
+                // s = s0 + v0*t + 0.5*a*t^2
+                newX = startX[i] + velocityX[i] * t + 0.5 * accelerationX[i] * t * t;
+                newY = startY[i] + velocityY[i] * t + 0.5 * accelerationY[i] * t * t;
+            } else {
+                Point2D newPos = emission.equation.apply(t);
+                newX = startX[i] + newPos.getX();
+                newY = startY[i] + newPos.getY();
+            }
+        }
+
+        double moveX = newX - x[i];
+        double moveY = newY - y[i];
+
+        x[i] = newX;
+        y[i] = newY;
+
+        radiusX[i] += scaleX[i];
+        radiusY[i] += scaleY[i];
+
+        life[i] -= tpf;
+
+        boolean dead = life[i] <= 0 || radiusX[i] <= 0 || radiusY[i] <= 0;
+
+        if (!dead) {
+            // x = S(x - c) + c = Sx + (c - Sc), as in Particle
+            viewX[i] = (scaleOriginX[i] + newX - entityScaleX[i] * (scaleOriginX[i] + newX)) + entityScaleY[i] * newX;
+            viewY[i] = (scaleOriginY[i] + newY - entityScaleY[i] * (scaleOriginY[i] + newY)) + entityScaleY[i] * newY;
+
+            if (emission.allowRotation) {
+                rotation[i] = Math.toDegrees(Math.atan2(moveY, moveX));
+            }
+        }
+
+        return dead;
+    }
+
+    private void loadParticle(int i) {
+        particle.position.set((float) x[i], (float) y[i]);
+        particle.velocity.set((float) velocityX[i], (float) velocityY[i]);
+        particle.acceleration.set((float) accelerationX[i], (float) accelerationY[i]);
+        particle.life = life[i];
+    }
+
+    /**
+     * Moves the last particle to index i.
+     */
+    private void remove(int i) {
+        int last = --size;
+
+        startX[i] = startX[last];
+        startY[i] = startY[last];
+        x[i] = x[last];
+        y[i] = y[last];
+        velocityX[i] = velocityX[last];
+        velocityY[i] = velocityY[last];
+        accelerationX[i] = accelerationX[last];
+        accelerationY[i] = accelerationY[last];
+        radiusX[i] = radiusX[last];
+        radiusY[i] = radiusY[last];
+        scaleX[i] = scaleX[last];
+        scaleY[i] = scaleY[last];
+        scaleOriginX[i] = scaleOriginX[last];
+        scaleOriginY[i] = scaleOriginY[last];
+        entityScaleX[i] = entityScaleX[last];
+        entityScaleY[i] = entityScaleY[last];
+        life[i] = life[last];
+        initialLife[i] = initialLife[last];
+        viewX[i] = viewX[last];
+        viewY[i] = viewY[last];
+        rotation[i] = rotation[last];
+        emissions[i] = emissions[last];
+
+        emissions[last] = null;
+    }
+
+    /**
+     * Draws all particles, with (originX, originY) drawn at (0, 0) of the graphics context.
+     * Graphics context state is restored before returning.
+     */
+    public void render(GraphicsContext g, double originX, double originY) {
+        g.save();
+
+        Emission lastEmission = null;
+        Paint lastFill = null;
+
+        for (int i = 0; i < size; i++) {
+            Emission emission = emissions[i];
+
+            if (emission != lastEmission) {
+                g.setGlobalBlendMode(emission.blendMode);
+                lastEmission = emission;
+            }
+
+            double progress = 1 - life[i] / initialLife[i];
+            double width = radiusX[i] * 2;
+            double height = radiusY[i] * 2;
+            double drawX = viewX[i] - originX;
+            double drawY = viewY[i] - originY;
+
+            g.setGlobalAlpha(life[i] / initialLife[i]);
+
+            boolean isRotated = emission.allowRotation && rotation[i] != 0.0;
+
+            if (isRotated) {
+                // node rotation is around the center of its bounds
+                g.save();
+                g.translate(drawX + width / 2, drawY + height / 2);
+                g.rotate(rotation[i]);
+                drawX = -width / 2;
+                drawY = -height / 2;
+            }
+
+            if (emission.image != null) {
+                g.drawImage(emission.image, drawX, drawY, width, height);
+            } else {
+                Paint fill = emission.getColor(progress);
+
+                if (fill != lastFill) {
+                    g.setFill(fill);
+                    lastFill = fill;
+                }
+
+                g.fillOval(drawX, drawY, width, height);
+            }
+
+            if (isRotated) {
+                g.restore();
+
+                // restore() also resets fill and blend mode
+                lastFill = null;
+                lastEmission = null;
+            }
+        }
+
+        g.restore();
+    }
+
+    /**
+     * Settings shared by all particles of an emission.
+     */
+    private static final class Emission {
+        final Consumer<Particle> control;
+        final Image image;
+        final Paint startColor;
+        final Paint endColor;
+        final BlendMode blendMode;
+        final Interpolator interpolator;
+        final boolean allowRotation;
+        final Function<Double, Point2D> equation;
+
+        /**
+         * Precomputed colors from start to end, or null if start or end is not a color.
+         */
+        private final Color[] colors;
+
+        Emission(Consumer<Particle> control,
+                 Image image,
+                 Paint startColor,
+                 Paint endColor,
+                 BlendMode blendMode,
+                 Interpolator interpolator,
+                 boolean allowRotation,
+                 Function<Double, Point2D> equation) {
+
+            this.control = control;
+            this.image = image;
+            this.startColor = startColor;
+            this.endColor = endColor;
+            this.blendMode = blendMode;
+            this.interpolator = interpolator;
+            this.allowRotation = allowRotation;
+            this.equation = equation;
+
+            if (startColor instanceof Color && endColor instanceof Color) {
+                colors = new Color[NUM_COLOR_STEPS];
+
+                for (int i = 0; i < NUM_COLOR_STEPS; i++) {
+                    colors[i] = interpolate((Color) startColor, (Color) endColor, i / (NUM_COLOR_STEPS - 1.0), interpolator);
+                }
+            } else {
+                colors = null;
+            }
+        }
+
+        boolean isSame(Consumer<Particle> control,
+                       Image image,
+                       Paint startColor,
+                       Paint endColor,
+                       BlendMode blendMode,
+                       Interpolator interpolator,
+                       boolean allowRotation,
+                       Function<Double, Point2D> equation) {
+
+            return this.control == control
+                    && this.image == image
+                    && Objects.equals(this.startColor, startColor)
+                    && Objects.equals(this.endColor, endColor)
+                    && this.blendMode == blendMode
+                    && this.interpolator == interpolator
+                    && this.allowRotation == allowRotation
+                    && this.equation == equation;
+        }
+
+        Paint getColor(double progress) {
+            if (colors == null)
+                return startColor;
+
+            int index = (int) (clamp(progress) * (NUM_COLOR_STEPS - 1) + 0.5);
+
+            return colors[index];
+        }
+
+        /**
+         * Same as {@link com.almasb.fxgl.animation.AnimatedColor}.
+         */
+        private static Color interpolate(Color from, Color to, double progress, Interpolator interpolator) {
+            return Color.color(
+                    clamp(interpolator.interpolate(from.getRed(), to.getRed(), progress)),
+                    clamp(interpolator.interpolate(from.getGreen(), to.getGreen(), progress)),
+                    clamp(interpolator.interpolate(from.getBlue(), to.getBlue(), progress)),
+                    clamp(interpolator.interpolate(from.getOpacity(), to.getOpacity(), progress))
+            );
+        }
+
+        private static double clamp(double value) {
+            return Math.max(0.0, Math.min(1.0, value));
+        }
+    }
+}
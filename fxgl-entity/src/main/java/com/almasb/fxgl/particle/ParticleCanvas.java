@@ -0,0 +1,64 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+package com.almasb.fxgl.particle;
+
+import javafx.scene.canvas.Canvas;
+
+/**
+ * A single node that draws all particles of a {@link ParticleBuffer}.
+ * The canvas moves and resizes itself to cover the particles,
+ * so its parent should not be transformed.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class ParticleCanvas extends Canvas {
+
+    /**
+     * Maximum width and height of the canvas, particles outside are not drawn.
+     */
+    public static final int MAX_SIZE = 8192;
+
+    /**
+     * Canvas size is rounded up to a multiple of this, so that it is not resized every frame.
+     */
+    private static final int SIZE_STEP = 64;
+
+    /**
+     * Draws particles as of last update of the buffer.
+     */
+    public void draw(ParticleBuffer buffer) {
+        var g = getGraphicsContext2D();
+
+        if (buffer.isEmpty()) {
+            g.clearRect(0, 0, getWidth(), getHeight());
+            return;
+        }
+
+        double minX = Math.floor(buffer.getMinX());
+        double minY = Math.floor(buffer.getMinY());
+
+        setWidth(newSize(getWidth(), Math.ceil(buffer.getMaxX()) - minX));
+        setHeight(newSize(getHeight(), Math.ceil(buffer.getMaxY()) - minY));
+        setLayoutX(minX);
+        setLayoutY(minY);
+
+        g.clearRect(0, 0, getWidth(), getHeight());
+
+        buffer.render(g, minX, minY);
+    }
+
+    /**
+     * Grows when particles do not fit and shrinks when they take much less space.
+     */
+    private static double newSize(double currentSize, double requiredSize) {
+        requiredSize = Math.min(MAX_SIZE, requiredSize);
+
+        if (requiredSize <= currentSize && requiredSize > currentSize / 4)
+            return currentSize;
+
+        return Math.min(MAX_SIZE, Math.ceil(Math.max(1.0, requiredSize) / SIZE_STEP) * SIZE_STEP);
+    }
+}
@@ -409,15 +409,10 @@ public final class ParticleEmitter {
      * @implNote cached array is used, do not obtain ownership
      */
     Array<Particle> emit(double x, double y) {
-        double rate = getEmissionRate();
-
-        rateAC += rate;
-        if (rateAC < 1 || rate == 0 || isPaused || isFinished()) {
+        if (!isReadyToEmit()) {
             return Array.empty();
         }
 
-        rateAC = 0;
-        emissions++;
         emissionParticles.clear();
 
         int num = getNumParticles();
@@ -429,6 +424,66 @@ public final class ParticleEmitter {
         return emissionParticles;
     }
 
+    /**
+     * Emits {@link #numParticles} particles at x, y into given buffer,
+     * same as {@link #emit(double, double)} but without particle objects.
+     *
+     * @param buffer particle storage
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return number of particles spawned
+     */
+    int emit(ParticleBuffer buffer, double x, double y) {
+        if (!isReadyToEmit()) {
+            return 0;
+        }
+
+        buffer.beginEmission(getControl(),
+                sourceImage,
+                getStartColor(),
+                getEndColor(),
+                getBlendMode(),
+                getInterpolator(),
+                isAllowParticleRotation(),
+                getParametricEquation());
+
+        int num = getNumParticles();
+
+        for (int i = 0; i < num; i++) {
+            Point2D spawnPoint = spawnPointFunction.apply(i);
+
+            buffer.add(spawnPoint.getX() + x,
+                    spawnPoint.getY() + y,
+                    velocityFunction.apply(i),
+                    accelerationFunction.get(),
+                    getRandomSize(),
+                    scaleOriginFunction.apply(i),
+                    scaleFunction.apply(i),
+                    entityScaleFunction.get(),
+                    expireFunction.apply(i).toSeconds());
+        }
+
+        return num;
+    }
+
+    /**
+     * Advances the emission rate accumulator.
+     *
+     * @return true if particles should be emitted this frame
+     */
+    private boolean isReadyToEmit() {
+        double rate = getEmissionRate();
+
+        rateAC += rate;
+        if (rateAC < 1 || rate == 0 || isPaused || isFinished()) {
+            return false;
+        }
+
+        rateAC = 0;
+        emissions++;
+        return true;
+    }
+
     /**
      * Emits a single particle with index i.
      * X and Y are coordinates of the particle entity this emitter is attached to.
@@ -12,6 +12,7 @@ import com.almasb.fxgl.core.util.LazyValue;
 import com.almasb.fxgl.entity.component.Component;
 import com.almasb.fxgl.entity.component.Required;
 import com.almasb.fxgl.pathfinding.CellMoveComponent;
+import com.almasb.fxgl.pathfinding.Pathfinder;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.beans.value.ChangeListener;
@@ -29,7 +30,19 @@ public final class AStarMoveComponent<T extends AStarCell> extends Component {
 
     private CellMoveComponent moveComponent;
 
-    private LazyValue<AStarPathfinder<T>> pathfinder;
+    private LazyValue<TraversableGrid<T>> grid;
+    private LazyValue<Pathfinder<T>> pathfinder;
+
+    /**
+     * If not null, paths are requested from it instead of the pathfinder.
+     */
+    private AsyncPathfinderComponent<T> asyncPathfinder = null;
+
+    /**
+     * Id of the latest async request, so that results of older requests are ignored.
+     */
+    private int pathRequestId = 0;
+    private boolean isWaitingForPath = false;
 
     private List<T> path = new ArrayList<>();
 
@@ -52,6 +65,7 @@ public final class AStarMoveComponent<T extends AStarCell> extends Component {
      * This ctor is for cases when the grid has not been constructed yet.
      */
     public AStarMoveComponent(LazyValue<TraversableGrid<T>> grid) {
+        this.grid = grid;
         pathfinder = new LazyValue<>(() -> new AStarPathfinder<>(grid.get()));
     }
 
@@ -59,9 +73,30 @@ public final class AStarMoveComponent<T extends AStarCell> extends Component {
      * This ctor is for cases when using a pre-built pathfinder.
      */
     public AStarMoveComponent(AStarPathfinder<T> pathfinderValue) {
+        this(pathfinderValue.getGrid(), pathfinderValue);
+    }
+
+    /**
+     * This ctor is for cases when using a different pathfinder on the grid,
+     * e.g. {@link JumpPointPathfinder} or {@link HierarchicalPathfinder} for large grids.
+     * The pathfinder must return paths of adjacent cells.
+     */
+    public AStarMoveComponent(TraversableGrid<T> grid, Pathfinder<T> pathfinderValue) {
+        this.grid = new LazyValue<>(() -> grid);
         pathfinder = new LazyValue<>(() -> pathfinderValue);
     }
 
+    /**
+     * This ctor is for cases when many entities request paths at the same time.
+     * Paths are computed asynchronously, so the entity starts moving a few frames after
+     * a move is requested.
+     */
+    public AStarMoveComponent(AsyncPathfinderComponent<T> asyncPathfinder) {
+        this.asyncPathfinder = asyncPathfinder;
+        grid = new LazyValue<>(asyncPathfinder::getGrid);
+        pathfinder = new LazyValue<>(() -> new AStarPathfinder<>(asyncPathfinder.getGrid()));
+    }
+
     @Override
     public void onAdded() {
         moveComponent = entity.getComponent(CellMoveComponent.class);
@@ -94,7 +129,7 @@ public final class AStarMoveComponent<T extends AStarCell> extends Component {
     }
 
     public TraversableGrid<T> getGrid() {
-        return pathfinder.get().getGrid();
+        return grid.get();
     }
 
     /**
@@ -113,6 +148,11 @@ public final class AStarMoveComponent<T extends AStarCell> extends Component {
 
     public void stopMovementAt(int cellX, int cellY) {
         path.clear();
+
+        // ignore the path of a pending async request
+        pathRequestId++;
+        isWaitingForPath = false;
+
         moveComponent.setPositionToCell(cellX, cellY);
 
         isAtDestinationProp.set(true);
@@ -173,15 +213,34 @@ public final class AStarMoveComponent<T extends AStarCell> extends Component {
         isAtDestinationProp.set(false);
 
         if (moveComponent.isAtDestination()) {
-            path = pathfinder.get().findPath(startX, startY, targetX, targetY);
+            calculatePath(startX, startY, targetX, targetY);
         } else {
-            delayedPathCalc = () -> path = pathfinder.get().findPath(moveComponent.getCellX(), moveComponent.getCellY(), targetX, targetY);
+            delayedPathCalc = () -> calculatePath(moveComponent.getCellX(), moveComponent.getCellY(), targetX, targetY);
+        }
+    }
+
+    private void calculatePath(int startX, int startY, int targetX, int targetY) {
+        if (asyncPathfinder == null) {
+            path = pathfinder.get().findPath(startX, startY, targetX, targetY);
+            return;
         }
+
+        int requestId = ++pathRequestId;
+        isWaitingForPath = true;
+        path = new ArrayList<>();
+
+        asyncPathfinder.request(startX, startY, targetX, targetY, result -> {
+            if (requestId != pathRequestId)
+                return;
+
+            path = result;
+            isWaitingForPath = false;
+        });
     }
 
     @Override
     public void onUpdate(double tpf) {
-        if (!isAtDestination() && !isMoving() && isPathEmpty()) {
+        if (!isAtDestination() && !isMoving() && isPathEmpty() && !isWaitingForPath) {
             isAtDestinationProp.set(true);
         }
 
@@ -6,7 +6,6 @@
 
 package com.almasb.fxgl.pathfinding.astar;
 
-import com.almasb.fxgl.core.collection.grid.Cell;
 import com.almasb.fxgl.core.collection.grid.NeighborDirection;
 import static com.almasb.fxgl.core.collection.grid.NeighborDirection.*;
 import com.almasb.fxgl.pathfinding.CellState;
@@ -28,8 +27,15 @@ public final class AStarPathfinder<T extends AStarCell> implements Pathfinder<T>
     private final Heuristic<T> defaultHeuristic;
     private final DiagonalHeuristic<T> diagonalHeuristic;
 
+    private final SearchSpace space;
+
     private boolean isCachingPaths = false;
-    private Map<CacheKey, List<T>> cache = new HashMap<>();
+    private final PathCache<T> cache = new PathCache<>(PathCache.DEFAULT_CAPACITY);
+
+    /**
+     * Created on first search, since it allocates state for every cell of the grid.
+     */
+    private AStarSearch search;
 
     public AStarPathfinder(TraversableGrid<T> grid) {
         this(grid, new ManhattanDistance<>(), new OctileDistance<>());
@@ -39,6 +45,8 @@ public final class AStarPathfinder<T extends AStarCell> implements Pathfinder<T>
         this.grid = grid;
         this.defaultHeuristic = defaultHeuristic;
         this.diagonalHeuristic = diagonalHeuristic;
+
+        space = SearchSpace.of(grid);
     }
 
     public TraversableGrid<T> getGrid() {
@@ -57,6 +65,39 @@ public final class AStarPathfinder<T extends AStarCell> implements Pathfinder<T>
         return isCachingPaths;
     }
 
+    /**
+     * Sets the maximum number of cached paths.
+     * When full, the least recently used path is evicted.
+     * Default is 256.
+     */
+    public void setCacheCapacity(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Cache capacity must be non-negative: " + capacity);
+
+        cache.setCapacity(capacity);
+    }
+
+    public int getCacheCapacity() {
+        return cache.getCapacity();
+    }
+
+    /**
+     * Call this when the state or movement cost of cell (x, y) changes,
+     * so that cached paths that pass through the cell are discarded.
+     * Cached paths that do not pass through the cell are kept,
+     * even if the change opened a shorter path.
+     */
+    public void onCellChanged(int x, int y) {
+        cache.invalidate(x, y);
+    }
+
+    /**
+     * Discards all cached paths.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
     @Override
     public List<T> findPath(int sourceX, int sourceY, int targetX, int targetY) {
         return findPath(grid.getData(), grid.get(sourceX, sourceY), grid.get(targetX, targetY));
@@ -81,11 +122,12 @@ public final class AStarPathfinder<T extends AStarCell> implements Pathfinder<T>
      * Since the equality check is based on references,
      * start and target must be elements of the array.
      *
-     * @param grid      the grid of nodes
+     * @param grid      the grid of nodes, i.e. data of the grid of this pathfinder
      * @param start     starting node
      * @param target    target node
      * @param busyNodes busy "unwalkable" nodes
      * @return          path as list of nodes from start (excl) to target (incl) or empty list if no path found
+     * @throws IllegalArgumentException if grid is not the data of the grid of this pathfinder
      */
     public List<T> findPath(T[][] grid, T start, T target, T... busyNodes) {
         return findPath(grid, start, target, NeighborDirection.FOUR_DIRECTIONS, busyNodes);
@@ -94,99 +136,51 @@ public final class AStarPathfinder<T extends AStarCell> implements Pathfinder<T>
     /**
      * Since the equality check is based on references,
      * start and target must be elements of the array.
+     * The search itself does not modify cells, but if a path is found,
+     * G, H costs and parent of start and of each cell of the path are set,
+     * so that the path can be followed from target to start via parents.
      *
-     * @param grid      the grid of nodes
+     * @param grid      the grid of nodes, i.e. data of the grid of this pathfinder
      * @param start     starting node
      * @param target    target node
      * @param busyNodes busy "unwalkable" nodes
      * @return          path as list of nodes from start (excl) to target (incl) or empty list if no path found
+     * @throws IllegalArgumentException if grid is not the data of the grid of this pathfinder
      */
     public List<T> findPath(T[][] grid, T start, T target, NeighborDirection neighborDirection, AStarCell... busyNodes) {
+        if (grid != this.grid.getData())
+            throw new IllegalArgumentException("Grid array must be the data of the grid of this pathfinder");
+
         if (start == target || target.getState() == CellState.NOT_WALKABLE)
             return Collections.emptyList();
 
-        var cacheKey = new CacheKey(start.getX(), start.getY(), target.getX(), target.getY());
+        Heuristic<T> heuristic = (neighborDirection == FOUR_DIRECTIONS) ? defaultHeuristic : diagonalHeuristic;
+
+        var cacheKey = new CacheKey(start.getX(), start.getY(), target.getX(), target.getY(), neighborDirection);
 
         if (isCachingPaths) {
             var path = cache.get(cacheKey);
 
             if (path != null) {
+                setCosts(start, target, path, heuristic);
                 return new ArrayList<>(path);
             }
         }
 
-        Heuristic<T> heuristic = (neighborDirection == FOUR_DIRECTIONS) ? defaultHeuristic : diagonalHeuristic;
-
-        // reset grid cells data
-        for (int y = 0; y < grid[0].length; y++) {
-            for (int x = 0; x < grid.length; x++) {
-                grid[x][y].setHCost(heuristic.getCost(x, y, target.getX(), target.getY()));
-                grid[x][y].setParent(null);
-                grid[x][y].setGCost(0);
-            }
+        if (search == null) {
+            search = new AStarSearch(this.grid.getWidth(), this.grid.getHeight());
         }
 
-        Set<T> open = new HashSet<>();
-        Set<T> closed = new HashSet<>();
-
-        T current = start;
-
-        boolean found = false;
-
-        while (!found && !closed.contains(target)) {
-            for (T neighbor : getValidNeighbors(current, neighborDirection, busyNodes)) {
-                if (neighbor == target) {
-                    target.setParent(current);
-                    found = true;
-                    closed.add(target);
-                    break;
-                }
-
-                if (!closed.contains(neighbor)) {
-                    int gCost = isDiagonal(current, neighbor)
-                            ? diagonalHeuristic.getDiagonalWeight()
-                            : defaultHeuristic.getWeight();
-
-                    gCost *= neighbor.getMovementCost();
-
-                    int newGCost = current.getGCost() + gCost;
-
-                    if (open.contains(neighbor)) {
-                        if (newGCost < neighbor.getGCost()) {
-                            neighbor.setParent(current);
-                            neighbor.setGCost(newGCost);
-                        }
-                    } else {
-                        neighbor.setParent(current);
-                        neighbor.setGCost(newGCost);
-                        open.add(neighbor);
-                    }
-                }
-            }
-
-            if (!found) {
-                closed.add(current);
-                open.remove(current);
-
-                if (open.isEmpty())
-                    return Collections.emptyList();
-
-                T acc = null;
-
-                for (T a : open) {
-                    if (acc == null) {
-                        acc = a;
-                        continue;
-                    }
+        int[] nodes = search.findPath(space,
+                start.getX(), start.getY(), target.getX(), target.getY(),
+                neighborDirection, heuristic, defaultHeuristic, diagonalHeuristic, busyNodes);
 
-                    acc = a.getFCost() < acc.getFCost() ? a : acc;
-                }
+        if (nodes.length == 0)
+            return Collections.emptyList();
 
-                current = acc;
-            }
-        }
+        var path = AStarSearch.toCells(nodes, this.grid.getData(), this.grid.getWidth());
 
-        var path = buildPath(start, target);
+        setCosts(start, target, path, heuristic);
 
         if (isCachingPaths) {
             cache.put(cacheKey, path);
@@ -195,32 +189,27 @@ public final class AStarPathfinder<T extends AStarCell> implements Pathfinder<T>
         return new ArrayList<>(path);
     }
 
-    private List<T> buildPath(T start, T target) {
-        List<T> path = new ArrayList<>();
+    /**
+     * Sets G, H costs and parent of start and path cells, same as the previous (cell-based) search did.
+     * This only touches cells of the path, the search state of other cells is kept by {@link AStarSearch}.
+     */
+    private void setCosts(T start, T target, List<T> path, Heuristic<T> heuristic) {
+        start.setParent(null);
+        start.setGCost(0);
+        start.setHCost(heuristic.getCost(start.getX(), start.getY(), target.getX(), target.getY()));
 
-        T tmp = target;
-        do {
-            path.add(tmp);
-            tmp = (T) tmp.getParent();
-        } while (tmp != start);
+        T prev = start;
 
-        Collections.reverse(path);
-        return path;
-    }
+        for (T cell : path) {
+            int cost = (prev.getX() != cell.getX() && prev.getY() != cell.getY())
+                    ? diagonalHeuristic.getDiagonalWeight()
+                    : defaultHeuristic.getWeight();
 
-    /**
-     * @param node the A* node
-     * @param busyNodes nodes which are busy, i.e. walkable but have a temporary obstacle
-     * @return neighbors of the node
-     */
-    private List<T> getValidNeighbors(T node, NeighborDirection neighborDirection, AStarCell... busyNodes) {
-        var result = grid.getNeighbors(node.getX(), node.getY(), neighborDirection);
-        result.removeAll(Arrays.asList(busyNodes));
-        result.removeIf(cell -> !grid.isTraversableInSingleMove(node, cell));
-        return result;
-    }
+            cell.setParent(prev);
+            cell.setGCost(prev.getGCost() + cost * cell.getMovementCost());
+            cell.setHCost(heuristic.getCost(cell.getX(), cell.getY(), target.getX(), target.getY()));
 
-    private boolean isDiagonal(Cell current, Cell neighbor) {
-        return neighbor.getX() - current.getX() != 0 && neighbor.getY() - current.getY() != 0;
+            prev = cell;
+        }
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection;
+import com.almasb.fxgl.pathfinding.heuristic.DiagonalHeuristic;
+import com.almasb.fxgl.pathfinding.heuristic.Heuristic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.almasb.fxgl.pathfinding.astar.SearchState.NONE;
+
+/**
+ * A* search over a {@link SearchSpace}.
+ * Node state is kept in {@link SearchState}, indexed by y * width + x, rather than in cells,
+ * so no per-search reset of the grid is needed and cells themselves are not modified.
+ *
+ * Not thread-safe: concurrent searches need their own instance.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class AStarSearch {
+
+    private static final int[] EMPTY_PATH = new int[0];
+
+    /**
+     * Offsets in the order used by {@link TraversableGrid#getNeighbors(int, int, NeighborDirection)}:
+     * left, up, right, down, up-left, up-right, down-right, down-left.
+     */
+    static final int[] DX = { -1, 0, 1, 0, -1, 1, 1, -1 };
+    static final int[] DY = { 0, -1, 0, 1, -1, -1, 1, 1 };
+
+    private final int width;
+    private final int height;
+
+    private final SearchState state;
+
+    AStarSearch(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        state = new SearchState(width * height);
+    }
+
+    /**
+     * @param space grid to search, same size as this search
+     * @return indices (y * width + x) of cells from start (excl) to target (incl) or empty array if no path found
+     */
+    int[] findPath(SearchSpace space,
+                   int startX, int startY, int targetX, int targetY,
+                   NeighborDirection neighborDirection,
+                   Heuristic<?> heuristic,
+                   Heuristic<?> defaultHeuristic,
+                   DiagonalHeuristic<?> diagonalHeuristic,
+                   AStarCell... busyNodes) {
+
+        state.newSearch();
+
+        for (AStarCell busy : busyNodes) {
+            if (busy.getX() >= 0 && busy.getY() >= 0 && busy.getX() < width && busy.getY() < height) {
+                state.setBusy(index(busy.getX(), busy.getY()));
+            }
+        }
+
+        int targetIndex = index(targetX, targetY);
+
+        int numDirections = neighborDirection == NeighborDirection.EIGHT_DIRECTIONS ? 8 : 4;
+
+        int current = index(startX, startY);
+        state.seen(current, 0, heuristic.getCost(startX, startY, targetX, targetY), NONE);
+
+        while (true) {
+            int cx = current % width;
+            int cy = current / width;
+
+            for (int dir = 0; dir < numDirections; dir++) {
+                int nx = cx + DX[dir];
+                int ny = cy + DY[dir];
+
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height)
+                    continue;
+
+                int neighbor = index(nx, ny);
+
+                if (state.isBusy(neighbor))
+                    continue;
+
+                if (!space.isTraversable(cx, cy, dir))
+                    continue;
+
+                if (neighbor == targetIndex) {
+                    state.setParent(neighbor, current);
+                    return buildPath(targetIndex);
+                }
+
+                if (state.isClosed(neighbor))
+                    continue;
+
+                int cost = dir >= 4
+                        ? diagonalHeuristic.getDiagonalWeight()
+                        : defaultHeuristic.getWeight();
+
+                int newGCost = state.getGCost(current) + cost * space.getMovementCost(nx, ny);
+
+                if (state.isSeen(neighbor)) {
+                    if (newGCost < state.getGCost(neighbor)) {
+                        state.decreaseCost(neighbor, newGCost, current);
+                    }
+                } else {
+                    state.open(neighbor, newGCost, heuristic.getCost(nx, ny, targetX, targetY), current);
+                }
+            }
+
+            state.close(current);
+
+            if (state.isOpenEmpty())
+                return EMPTY_PATH;
+
+            current = state.pollOpen();
+        }
+    }
+
+    private int[] buildPath(int target) {
+        int length = 0;
+
+        // start has no parent
+        for (int node = target; state.getParent(node) != NONE; node = state.getParent(node)) {
+            length++;
+        }
+
+        int[] path = new int[length];
+
+        for (int node = target; state.getParent(node) != NONE; node = state.getParent(node)) {
+            path[--length] = node;
+        }
+
+        return path;
+    }
+
+    /**
+     * @return cells of given grid data at given indices
+     */
+    static <T> List<T> toCells(int[] path, T[][] data, int width) {
+        List<T> cells = new ArrayList<>(path.length);
+
+        for (int node : path) {
+            cells.add(data[node % width][node / width]);
+        }
+
+        return cells;
+    }
+
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection;
+import com.almasb.fxgl.core.concurrent.Async;
+import com.almasb.fxgl.entity.component.Component;
+import com.almasb.fxgl.logging.Logger;
+import com.almasb.fxgl.pathfinding.CellState;
+import com.almasb.fxgl.pathfinding.heuristic.DiagonalHeuristic;
+import com.almasb.fxgl.pathfinding.heuristic.Heuristic;
+import com.almasb.fxgl.pathfinding.heuristic.ManhattanDistance;
+import com.almasb.fxgl.pathfinding.heuristic.OctileDistance;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.almasb.fxgl.core.collection.grid.NeighborDirection.FOUR_DIRECTIONS;
+
+/**
+ * Finds A* paths on worker threads, so that many agents requesting paths do not stall the game thread.
+ * Add this component to an entity in the game world, so that it is updated every frame.
+ *
+ * Each frame, at most maxSearchesPerFrame queued requests are dispatched to the executor.
+ * Searches read an immutable snapshot of the grid, not the grid itself,
+ * so changes to the grid must be reported via {@link #onCellChanged(int, int)}.
+ * Requests with the same start, target and direction are merged into a single search.
+ * Results are delivered on the game thread during a subsequent update, never during {@link #request}.
+ * Found paths are kept in a bounded cache, which is invalidated by reported cell changes.
+ *
+ * Heuristics are called from multiple threads, so they must be thread-safe.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class AsyncPathfinderComponent<T extends AStarCell> extends Component {
+
+    private static final Logger log = Logger.get(AsyncPathfinderComponent.class);
+
+    public static final int DEFAULT_MAX_SEARCHES_PER_FRAME = 32;
+
+    private final TraversableGrid<T> grid;
+
+    private final Heuristic<T> defaultHeuristic;
+    private final DiagonalHeuristic<T> diagonalHeuristic;
+
+    private final int maxSearchesPerFrame;
+    private final int parallelism;
+    private final Executor executor;
+
+    /**
+     * Requests that are queued or being searched, so that identical requests can join them.
+     */
+    private final Map<CacheKey, Request<T>> requests = new HashMap<>();
+
+    private final ArrayDeque<Request<T>> queued = new ArrayDeque<>();
+
+    /**
+     * Requests answered without a search, e.g. from cache.
+     */
+    private final List<Request<T>> ready = new ArrayList<>();
+
+    private final Queue<Request<T>> completed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Results delivered in the current frame, reused to avoid allocating a list per frame.
+     */
+    private final List<Request<T>> results = new ArrayList<>();
+
+    private final Queue<AStarSearch> searches = new ConcurrentLinkedQueue<>();
+
+    private final PathCache<T> cache = new PathCache<>(PathCache.DEFAULT_CAPACITY);
+
+    /**
+     * Built on first dispatch and then updated from changed cells.
+     */
+    private GridSnapshot snapshot = null;
+    private int snapshotVersion = 0;
+
+    private final BitSet changedCells = new BitSet();
+
+    /**
+     * Number of dispatched tasks that have not finished, while non-zero the snapshot must not be modified.
+     */
+    private final AtomicInteger numTasksInFlight = new AtomicInteger(0);
+
+    public AsyncPathfinderComponent(TraversableGrid<T> grid) {
+        this(grid, DEFAULT_MAX_SEARCHES_PER_FRAME, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), Async.INSTANCE);
+    }
+
+    /**
+     * @param maxSearchesPerFrame maximum number of searches dispatched each frame
+     * @param parallelism maximum number of tasks the searches of a frame are split into
+     * @param executor runs the search tasks
+     */
+    public AsyncPathfinderComponent(TraversableGrid<T> grid, int maxSearchesPerFrame, int parallelism, Executor executor) {
+        this(grid, new ManhattanDistance<>(), new OctileDistance<>(), maxSearchesPerFrame, parallelism, executor);
+    }
+
+    public AsyncPathfinderComponent(TraversableGrid<T> grid,
+                                    Heuristic<T> defaultHeuristic,
+                                    DiagonalHeuristic<T> diagonalHeuristic,
+                                    int maxSearchesPerFrame,
+                                    int parallelism,
+                                    Executor executor) {
+
+        if (maxSearchesPerFrame < 1)
+            throw new IllegalArgumentException("Max searches per frame must be positive: " + maxSearchesPerFrame);
+
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        this.grid = grid;
+        this.defaultHeuristic = defaultHeuristic;
+        this.diagonalHeuristic = diagonalHeuristic;
+        this.maxSearchesPerFrame = maxSearchesPerFrame;
+        this.parallelism = parallelism;
+        this.executor = executor;
+    }
+
+    public TraversableGrid<T> getGrid() {
+        return grid;
+    }
+
+    public int getMaxSearchesPerFrame() {
+        return maxSearchesPerFrame;
+    }
+
+    /**
+     * @return number of requests waiting to be dispatched
+     */
+    public int getNumQueued() {
+        return queued.size();
+    }
+
+    /**
+     * Sets the maximum number of cached paths, 0 disables caching.
+     * Default is 256.
+     */
+    public void setCacheCapacity(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Cache capacity must be non-negative: " + capacity);
+
+        cache.setCapacity(capacity);
+    }
+
+    public int getCacheCapacity() {
+        return cache.getCapacity();
+    }
+
+    /**
+     * Requests a path from source (excl) to target (incl).
+     * The callback is called on the game thread with a new list, which is empty if no path found.
+     */
+    public void request(int sourceX, int sourceY, int targetX, int targetY, Consumer<List<T>> callback) {
+        request(sourceX, sourceY, targetX, targetY, FOUR_DIRECTIONS, callback);
+    }
+
+    /**
+     * Requests a path from source (excl) to target (incl).
+     * The callback is called on the game thread with a new list, which is empty if no path found.
+     */
+    public void request(int sourceX, int sourceY, int targetX, int targetY, NeighborDirection neighborDirection, Consumer<List<T>> callback) {
+        var key = new CacheKey(sourceX, sourceY, targetX, targetY, neighborDirection);
+
+        var request = requests.get(key);
+
+        if (request != null) {
+            request.callbacks.add(callback);
+            return;
+        }
+
+        request = new Request<>(key);
+        request.callbacks.add(callback);
+        requests.put(key, request);
+
+        T start = grid.get(sourceX, sourceY);
+        T target = grid.get(targetX, targetY);
+
+        if (start == target || target.getState() == CellState.NOT_WALKABLE) {
+            request.path = Collections.emptyList();
+            ready.add(request);
+            return;
+        }
+
+        var path = cache.get(key);
+
+        if (path != null) {
+            request.path = path;
+            ready.add(request);
+            return;
+        }
+
+        queued.addLast(request);
+    }
+
+    /**
+     * Call this when the state or movement cost of cell (x, y) changes.
+     * The change is visible to searches dispatched from the next update.
+     */
+    public void onCellChanged(int x, int y) {
+        changedCells.set(y * grid.getWidth() + x);
+        cache.invalidate(x, y);
+    }
+
+    /**
+     * Discards the grid snapshot and cached paths, e.g. after most cells changed.
+     * The snapshot is rebuilt from the grid on next dispatch.
+     */
+    public void rebuild() {
+        snapshot = null;
+        snapshotVersion++;
+        changedCells.clear();
+        cache.clear();
+    }
+
+    @Override
+    public void onUpdate(double tpf) {
+        deliverResults();
+        applyChangedCells();
+        dispatchSearches();
+    }
+
+    @Override
+    public void onRemoved() {
+        requests.clear();
+        queued.clear();
+        ready.clear();
+        completed.clear();
+    }
+
+    private void deliverResults() {
+        // callbacks may add new ready requests, so the ones of this frame are moved out
+        results.clear();
+        results.addAll(ready);
+        ready.clear();
+
+        Request<T> request;
+        while ((request = completed.poll()) != null) {
+            request.path = AStarSearch.toCells(request.nodes, grid.getData(), grid.getWidth());
+
+            if (request.snapshotVersion == snapshotVersion && !request.path.isEmpty()) {
+                cache.put(request.key, request.path);
+            }
+
+            results.add(request);
+        }
+
+        for (var result : results) {
+            // callbacks may request the same path again, which is then a new request
+            requests.remove(result.key, result);
+
+            for (var callback : result.callbacks) {
+                callback.accept(new ArrayList<>(result.path));
+            }
+        }
+
+        results.clear();
+    }
+
+    private void applyChangedCells() {
+        if (changedCells.isEmpty())
+            return;
+
+        if (snapshot != null) {
+            // searches in flight still read the current snapshot
+            if (numTasksInFlight.get() > 0) {
+                snapshot = snapshot.copy();
+            }
+
+            int width = grid.getWidth();
+
+            for (int i = changedCells.nextSetBit(0); i >= 0; i = changedCells.nextSetBit(i + 1)) {
+                snapshot.updateCell(grid, i % width, i / width);
+            }
+        }
+
+        changedCells.clear();
+        snapshotVersion++;
+    }
+
+    private void dispatchSearches() {
+        if (queued.isEmpty())
+            return;
+
+        if (snapshot == null) {
+            snapshot = GridSnapshot.of(grid);
+        }
+
+        int numSearches = Math.min(maxSearchesPerFrame, queued.size());
+
+        List<Request<T>> batch = new ArrayList<>(numSearches);
+
+        for (int i = 0; i < numSearches; i++) {
+            var request = queued.pollFirst();
+            request.snapshotVersion = snapshotVersion;
+            batch.add(request);
+        }
+
+        int numTasks = Math.min(parallelism, numSearches);
+
+        numTasksInFlight.addAndGet(numTasks);
+
+        var space = snapshot;
+
+        for (int task = 0; task < numTasks; task++) {
+            int firstIndex = task;
+
+            executor.execute(() -> {
+                try {
+                    for (int i = firstIndex; i < batch.size(); i += numTasks) {
+                        search(space, batch.get(i));
+                    }
+                } finally {
+                    numTasksInFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void search(SearchSpace space, Request<T> request) {
+        var search = searches.poll();
+        if (search == null) {
+            search = new AStarSearch(space.getWidth(), space.getHeight());
+        }
+
+        var key = request.key;
+
+        try {
+            Heuristic<T> heuristic = key.getNeighborDirection() == FOUR_DIRECTIONS ? defaultHeuristic : diagonalHeuristic;
+
+            request.nodes = search.findPath(space,
+                    key.getStartX(), key.getStartY(), key.getEndX(), key.getEndY(),
+                    key.getNeighborDirection(), heuristic, defaultHeuristic, diagonalHeuristic);
+
+        } catch (Exception e) {
+            log.warning("Path search failed: " + key, e);
+            request.nodes = new int[0];
+        } finally {
+            searches.add(search);
+        }
+
+        completed.add(request);
+    }
+
+    private static final class Request<T> {
+        final CacheKey key;
+
+        /**
+         * Only accessed on the game thread.
+         */
+        final List<Consumer<List<T>>> callbacks = new ArrayList<>(1);
+
+        int snapshotVersion;
+
+        /**
+         * Search result, written by a worker and published to the game thread via the completed queue.
+         */
+        int[] nodes;
+
+        List<T> path;
+
+        Request(CacheKey key) {
+            this.key = key;
+        }
+    }
+}
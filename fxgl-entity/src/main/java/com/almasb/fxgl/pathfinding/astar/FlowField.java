@@ -0,0 +1,376 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection;
+import com.almasb.fxgl.pathfinding.heuristic.DiagonalHeuristic;
+import com.almasb.fxgl.pathfinding.heuristic.Heuristic;
+import com.almasb.fxgl.pathfinding.heuristic.ManhattanDistance;
+import com.almasb.fxgl.pathfinding.heuristic.OctileDistance;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+
+import static com.almasb.fxgl.pathfinding.astar.SearchState.NONE;
+
+/**
+ * Shortest moves from every cell of a grid to a single target, so any number of agents
+ * heading to the same target can share it, with O(1) cost per step instead of a search per agent.
+ *
+ * The field consists of the cost of the cheapest path from each cell to the target (integration field),
+ * computed by Dijkstra's algorithm from the target, and the direction of the first move on that path.
+ * Moves and costs are the same as those of {@link AStarPathfinder}.
+ *
+ * Changes to the grid must be reported via {@link #onCellChanged(int, int)}.
+ * Only the cells whose path is affected by the changes are recomputed, on the next query.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class FlowField<T extends AStarCell> {
+
+    /**
+     * Cost of cells from which the target cannot be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final TraversableGrid<T> grid;
+    private final SearchSpace space;
+
+    private final NeighborDirection neighborDirection;
+    private final int numDirections;
+
+    private final int straightWeight;
+    private final int diagonalWeight;
+
+    private final int width;
+    private final int height;
+
+    private int targetX;
+    private int targetY;
+
+    private final int[] costs;
+
+    /**
+     * Direction index of the first move of each cell, see {@link AStarSearch#DX}.
+     */
+    private final byte[] directions;
+
+    /**
+     * Used as the open set, with H = 0.
+     */
+    private final SearchState state;
+
+    private boolean isRebuildRequired = true;
+    private final BitSet changedCells = new BitSet();
+
+    private final int[] dirtyNodes;
+    private final int[] dirtyGen;
+    private int dirtyGeneration = 0;
+
+    public FlowField(TraversableGrid<T> grid, int targetX, int targetY) {
+        this(grid, targetX, targetY, NeighborDirection.FOUR_DIRECTIONS);
+    }
+
+    public FlowField(TraversableGrid<T> grid, int targetX, int targetY, NeighborDirection neighborDirection) {
+        this(grid, targetX, targetY, neighborDirection, new ManhattanDistance<>(), new OctileDistance<>());
+    }
+
+    /**
+     * Only the weights of the heuristics are used, since the search has no single start.
+     */
+    public FlowField(TraversableGrid<T> grid,
+                     int targetX, int targetY,
+                     NeighborDirection neighborDirection,
+                     Heuristic<T> defaultHeuristic,
+                     DiagonalHeuristic<T> diagonalHeuristic) {
+
+        checkBounds(grid, targetX, targetY);
+
+        this.grid = grid;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.neighborDirection = neighborDirection;
+
+        numDirections = neighborDirection == NeighborDirection.EIGHT_DIRECTIONS ? 8 : 4;
+        straightWeight = defaultHeuristic.getWeight();
+        diagonalWeight = diagonalHeuristic.getDiagonalWeight();
+
+        width = grid.getWidth();
+        height = grid.getHeight();
+
+        space = SearchSpace.of(grid);
+
+        costs = new int[width * height];
+        directions = new byte[width * height];
+        state = new SearchState(width * height);
+
+        dirtyNodes = new int[width * height];
+        dirtyGen = new int[width * height];
+    }
+
+    public TraversableGrid<T> getGrid() {
+        return grid;
+    }
+
+    public NeighborDirection getNeighborDirection() {
+        return neighborDirection;
+    }
+
+    public int getTargetX() {
+        return targetX;
+    }
+
+    public int getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * Sets a new target, which requires the whole field to be recomputed on the next query.
+     */
+    public void setTarget(int targetX, int targetY) {
+        checkBounds(grid, targetX, targetY);
+
+        if (this.targetX == targetX && this.targetY == targetY)
+            return;
+
+        this.targetX = targetX;
+        this.targetY = targetY;
+
+        isRebuildRequired = true;
+    }
+
+    /**
+     * Call this when the state or movement cost of cell (x, y) changes.
+     */
+    public void onCellChanged(int x, int y) {
+        changedCells.set(y * width + x);
+    }
+
+    /**
+     * @return cost of the cheapest path from cell (x, y) to target, 0 for the target itself,
+     * or {@link #UNREACHABLE}
+     */
+    public int getCost(int x, int y) {
+        update();
+
+        return costs[y * width + x];
+    }
+
+    public boolean isReachable(int x, int y) {
+        return getCost(x, y) != UNREACHABLE;
+    }
+
+    /**
+     * @return the next cell on a shortest path from cell (x, y) to target,
+     * or empty if (x, y) is the target or the target is unreachable
+     */
+    public Optional<T> getNext(int x, int y) {
+        update();
+
+        int dir = directions[y * width + x];
+
+        if (dir == NONE)
+            return Optional.empty();
+
+        return Optional.of(grid.get(x + AStarSearch.DX[dir], y + AStarSearch.DY[dir]));
+    }
+
+    private void update() {
+        if (isRebuildRequired) {
+            rebuild();
+        } else if (!changedCells.isEmpty()) {
+            repair();
+        }
+
+        isRebuildRequired = false;
+        changedCells.clear();
+    }
+
+    private void rebuild() {
+        Arrays.fill(costs, UNREACHABLE);
+        Arrays.fill(directions, (byte) NONE);
+
+        state.newSearch();
+
+        int target = targetY * width + targetX;
+        costs[target] = 0;
+        state.open(target, 0, 0, NONE);
+
+        integrate();
+    }
+
+    /**
+     * Recomputes cells whose shortest path passes through or next to a changed cell,
+     * then propagates cheaper paths through changed cells to the rest of the field.
+     */
+    private void repair() {
+        int numDirty = markDirty();
+
+        state.newSearch();
+
+        for (int i = 0; i < numDirty; i++) {
+            int node = dirtyNodes[i];
+            costs[node] = UNREACHABLE;
+            directions[node] = NONE;
+        }
+
+        int target = targetY * width + targetX;
+
+        for (int i = 0; i < numDirty; i++) {
+            int node = dirtyNodes[i];
+
+            if (node == target) {
+                costs[node] = 0;
+                state.open(node, 0, 0, NONE);
+                continue;
+            }
+
+            int x = node % width;
+            int y = node / width;
+
+            for (int dir = 0; dir < numDirections; dir++) {
+                int nx = x + AStarSearch.DX[dir];
+                int ny = y + AStarSearch.DY[dir];
+
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height)
+                    continue;
+
+                int next = ny * width + nx;
+
+                if (costs[next] == UNREACHABLE || !space.isTraversable(x, y, dir))
+                    continue;
+
+                int cost = costs[next] + moveCost(dir, nx, ny);
+
+                if (cost < costs[node]) {
+                    costs[node] = cost;
+                    directions[node] = (byte) dir;
+                }
+            }
+
+            if (costs[node] != UNREACHABLE) {
+                state.open(node, costs[node], 0, NONE);
+            }
+        }
+
+        integrate();
+    }
+
+    /**
+     * Marks changed cells, their neighbors (whose moves may depend on the changed cell)
+     * and all cells whose first move leads to a marked cell.
+     *
+     * @return number of marked cells in dirtyNodes
+     */
+    private int markDirty() {
+        dirtyGeneration++;
+
+        int numDirty = 0;
+
+        for (int i = changedCells.nextSetBit(0); i >= 0; i = changedCells.nextSetBit(i + 1)) {
+            int x = i % width;
+            int y = i / width;
+
+            numDirty = markDirty(i, numDirty);
+
+            for (int dir = 0; dir < AStarSearch.DX.length; dir++) {
+                int nx = x + AStarSearch.DX[dir];
+                int ny = y + AStarSearch.DY[dir];
+
+                if (nx >= 0 && ny >= 0 && nx < width && ny < height) {
+                    numDirty = markDirty(ny * width + nx, numDirty);
+                }
+            }
+        }
+
+        // dirtyNodes also serves as the queue of nodes whose dependents are yet to be marked
+        for (int i = 0; i < numDirty; i++) {
+            int node = dirtyNodes[i];
+            int x = node % width;
+            int y = node / width;
+
+            for (int dir = 0; dir < numDirections; dir++) {
+                int px = x - AStarSearch.DX[dir];
+                int py = y - AStarSearch.DY[dir];
+
+                if (px < 0 || py < 0 || px >= width || py >= height)
+                    continue;
+
+                int prev = py * width + px;
+
+                if (directions[prev] == dir) {
+                    numDirty = markDirty(prev, numDirty);
+                }
+            }
+        }
+
+        return numDirty;
+    }
+
+    private int markDirty(int node, int numDirty) {
+        if (dirtyGen[node] == dirtyGeneration)
+            return numDirty;
+
+        dirtyGen[node] = dirtyGeneration;
+        dirtyNodes[numDirty] = node;
+        return numDirty + 1;
+    }
+
+    /**
+     * Dijkstra's algorithm from open nodes along reversed moves.
+     */
+    private void integrate() {
+        while (!state.isOpenEmpty()) {
+            int node = state.pollOpen();
+            state.close(node);
+
+            int x = node % width;
+            int y = node / width;
+
+            // check each cell (px, py) that can move into this one
+            for (int dir = 0; dir < numDirections; dir++) {
+                int px = x - AStarSearch.DX[dir];
+                int py = y - AStarSearch.DY[dir];
+
+                if (px < 0 || py < 0 || px >= width || py >= height)
+                    continue;
+
+                int prev = py * width + px;
+
+                if (state.isClosed(prev) || !space.isTraversable(px, py, dir))
+                    continue;
+
+                int cost = costs[node] + moveCost(dir, x, y);
+
+                if (cost >= costs[prev])
+                    continue;
+
+                costs[prev] = cost;
+                directions[prev] = (byte) dir;
+
+                if (state.isSeen(prev)) {
+                    state.decreaseCost(prev, cost, NONE);
+                } else {
+                    state.open(prev, cost, 0, NONE);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return cost of moving in given direction into cell (x, y)
+     */
+    private int moveCost(int dir, int x, int y) {
+        return (dir >= 4 ? diagonalWeight : straightWeight) * space.getMovementCost(x, y);
+    }
+
+    private static void checkBounds(TraversableGrid<?> grid, int x, int y) {
+        if (!grid.isWithin(x, y))
+            throw new IllegalArgumentException("Target is outside of grid: " + x + "," + y);
+    }
+}
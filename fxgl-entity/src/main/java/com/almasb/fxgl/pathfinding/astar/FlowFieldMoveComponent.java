@@ -0,0 +1,90 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import com.almasb.fxgl.entity.component.Component;
+import com.almasb.fxgl.entity.component.Required;
+import com.almasb.fxgl.pathfinding.CellMoveComponent;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+/**
+ * Moves the entity cell by cell to the target of a {@link FlowField},
+ * which can be shared by any number of entities heading to the same target.
+ * The entity stops if the target is unreachable from its current cell.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+@Required(CellMoveComponent.class)
+public final class FlowFieldMoveComponent<T extends AStarCell> extends Component {
+
+    private CellMoveComponent moveComponent;
+
+    private FlowField<T> flowField;
+
+    private ReadOnlyBooleanWrapper isAtDestinationProp = new ReadOnlyBooleanWrapper(false);
+
+    public FlowFieldMoveComponent(FlowField<T> flowField) {
+        this.flowField = flowField;
+    }
+
+    @Override
+    public void onAdded() {
+        moveComponent = entity.getComponent(CellMoveComponent.class);
+    }
+
+    public FlowField<T> getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * Sets a flow field, e.g. of a different target, to follow after the current move to an adjacent cell.
+     */
+    public void setFlowField(FlowField<T> flowField) {
+        this.flowField = flowField;
+
+        isAtDestinationProp.set(false);
+    }
+
+    public boolean isMoving() {
+        return moveComponent.isMoving();
+    }
+
+    public ReadOnlyBooleanProperty atDestinationProperty() {
+        return isAtDestinationProp.getReadOnlyProperty();
+    }
+
+    /**
+     * @return true when the entity is at the flow field target, or the target is unreachable,
+     * and the entity is no longer moving
+     */
+    public boolean isAtDestination() {
+        return isAtDestinationProp.get();
+    }
+
+    @Override
+    public void onUpdate(double tpf) {
+        if (!moveComponent.isAtDestination())
+            return;
+
+        flowField.getNext(moveComponent.getCellX(), moveComponent.getCellY())
+                .ifPresentOrElse(
+                        next -> {
+                            isAtDestinationProp.set(false);
+
+                            // move to next adjacent cell
+                            moveComponent.moveToCell(next.getX(), next.getY());
+                        },
+                        () -> isAtDestinationProp.set(true)
+                );
+    }
+
+    @Override
+    public boolean isComponentInjectionRequired() {
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+/**
+ * A copy of what {@link AStarSearch} reads from a grid: for each cell,
+ * a bit mask of directions in which a single move is possible and the movement cost.
+ * Once published to other threads, a snapshot must not be modified, so updates are made on a {@link #copy()}.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class GridSnapshot implements SearchSpace {
+
+    private final int width;
+    private final int height;
+
+    private final byte[] moves;
+    private final int[] movementCosts;
+
+    private GridSnapshot(int width, int height, byte[] moves, int[] movementCosts) {
+        this.width = width;
+        this.height = height;
+        this.moves = moves;
+        this.movementCosts = movementCosts;
+    }
+
+    static <T extends AStarCell> GridSnapshot of(TraversableGrid<T> grid) {
+        var snapshot = new GridSnapshot(grid.getWidth(), grid.getHeight(),
+                new byte[grid.getWidth() * grid.getHeight()],
+                new int[grid.getWidth() * grid.getHeight()]
+        );
+
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                snapshot.update(grid, x, y);
+            }
+        }
+
+        return snapshot;
+    }
+
+    GridSnapshot copy() {
+        return new GridSnapshot(width, height, moves.clone(), movementCosts.clone());
+    }
+
+    /**
+     * Updates cell (x, y) and moves of its neighbors into it.
+     */
+    <T extends AStarCell> void updateCell(TraversableGrid<T> grid, int x, int y) {
+        update(grid, x, y);
+
+        for (int dir = 0; dir < AStarSearch.DX.length; dir++) {
+            int nx = x + AStarSearch.DX[dir];
+            int ny = y + AStarSearch.DY[dir];
+
+            if (nx >= 0 && ny >= 0 && nx < width && ny < height) {
+                update(grid, nx, ny);
+            }
+        }
+    }
+
+    private <T extends AStarCell> void update(TraversableGrid<T> grid, int x, int y) {
+        T[][] data = grid.getData();
+        T cell = data[x][y];
+
+        int mask = 0;
+
+        for (int dir = 0; dir < AStarSearch.DX.length; dir++) {
+            int nx = x + AStarSearch.DX[dir];
+            int ny = y + AStarSearch.DY[dir];
+
+            if (nx >= 0 && ny >= 0 && nx < width && ny < height && grid.isTraversableInSingleMove(cell, data[nx][ny])) {
+                mask |= 1 << dir;
+            }
+        }
+
+        moves[y * width + x] = (byte) mask;
+        movementCosts[y * width + x] = cell.getMovementCost();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean isTraversable(int x, int y, int direction) {
+        return (moves[y * width + x] & (1 << direction)) != 0;
+    }
+
+    @Override
+    public int getMovementCost(int x, int y) {
+        return movementCosts[y * width + x];
+    }
+}
@@ -0,0 +1,837 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection;
+import com.almasb.fxgl.pathfinding.CellState;
+import com.almasb.fxgl.pathfinding.Pathfinder;
+import com.almasb.fxgl.pathfinding.heuristic.DiagonalHeuristic;
+import com.almasb.fxgl.pathfinding.heuristic.Heuristic;
+import com.almasb.fxgl.pathfinding.heuristic.ManhattanDistance;
+import com.almasb.fxgl.pathfinding.heuristic.OctileDistance;
+
+import java.util.*;
+
+import static com.almasb.fxgl.pathfinding.astar.SearchState.NONE;
+
+/**
+ * Hierarchical pathfinding (HPA*) for large grids.
+ * The grid is split into square clusters. Transitions between clusters are placed on each entrance,
+ * i.e. a run of open cells along a cluster border, and transitions of the same cluster are connected
+ * by their shortest path within that cluster. A search first finds a route in this (much smaller) abstract graph,
+ * then refines each leg of the route with A* restricted to a single cluster.
+ * Paths are near-optimal and are returned cell by cell, so they can be used with {@link AStarMoveComponent}.
+ *
+ * The abstract graph is built on first search with a given {@link NeighborDirection}.
+ * When the state or movement cost of a cell changes, call {@link #onCellChanged(int, int)},
+ * so that only the cluster of that cell and its neighbors are rebuilt on next search.
+ *
+ * Busy cells are only considered during refinement.
+ * If no route is found in the abstract graph or refinement fails due to busy cells,
+ * the search falls back to A* over the whole grid.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class HierarchicalPathfinder<T extends AStarCell> implements Pathfinder<T> {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    /**
+     * Entrances narrower than this have a single transition in the middle,
+     * wider entrances have a transition at each end.
+     */
+    private static final int MAX_SINGLE_TRANSITION_WIDTH = 6;
+
+    private final TraversableGrid<T> grid;
+    private final int clusterSize;
+
+    private final Heuristic<T> defaultHeuristic;
+    private final DiagonalHeuristic<T> diagonalHeuristic;
+
+    private final int numClustersX;
+    private final int numClustersY;
+
+    private final Map<NeighborDirection, AbstractGraph> graphs = new EnumMap<>(NeighborDirection.class);
+
+    private final ClusterSearch clusterSearch;
+
+    /**
+     * Created on first fallback search, since it allocates state for every cell of the grid.
+     */
+    private AStarSearch gridSearch;
+
+    public HierarchicalPathfinder(TraversableGrid<T> grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathfinder(TraversableGrid<T> grid, int clusterSize) {
+        this(grid, clusterSize, new ManhattanDistance<>(), new OctileDistance<>());
+    }
+
+    public HierarchicalPathfinder(TraversableGrid<T> grid, int clusterSize, Heuristic<T> defaultHeuristic, DiagonalHeuristic<T> diagonalHeuristic) {
+        if (clusterSize < 2)
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+
+        this.grid = grid;
+        this.clusterSize = clusterSize;
+        this.defaultHeuristic = defaultHeuristic;
+        this.diagonalHeuristic = diagonalHeuristic;
+
+        numClustersX = (grid.getWidth() + clusterSize - 1) / clusterSize;
+        numClustersY = (grid.getHeight() + clusterSize - 1) / clusterSize;
+
+        clusterSearch = new ClusterSearch();
+    }
+
+    public TraversableGrid<T> getGrid() {
+        return grid;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Marks the cluster of cell (x, y) as changed, so it is repaired on next search.
+     * Call this after changing the state or movement cost of the cell.
+     */
+    public void onCellChanged(int x, int y) {
+        int index = (y / clusterSize) * numClustersX + x / clusterSize;
+
+        for (AbstractGraph graph : graphs.values()) {
+            graph.markDirty(graph.clusters[index]);
+        }
+    }
+
+    /**
+     * Discards abstract graphs, so they are fully rebuilt on next search.
+     * Call this after changing many cells of the grid.
+     */
+    public void rebuild() {
+        graphs.clear();
+    }
+
+    @Override
+    public List<T> findPath(int sourceX, int sourceY, int targetX, int targetY) {
+        return findPath(sourceX, sourceY, targetX, targetY, NeighborDirection.FOUR_DIRECTIONS, Collections.emptyList());
+    }
+
+    @Override
+    public List<T> findPath(int sourceX, int sourceY, int targetX, int targetY, NeighborDirection neighborDirection) {
+        return findPath(sourceX, sourceY, targetX, targetY, neighborDirection, Collections.emptyList());
+    }
+
+    @Override
+    public List<T> findPath(int sourceX, int sourceY, int targetX, int targetY, List<T> busyCells) {
+        return findPath(sourceX, sourceY, targetX, targetY, NeighborDirection.FOUR_DIRECTIONS, busyCells);
+    }
+
+    @Override
+    public List<T> findPath(int sourceX, int sourceY, int targetX, int targetY, NeighborDirection neighborDirection, List<T> busyCells) {
+        T start = grid.get(sourceX, sourceY);
+        T target = grid.get(targetX, targetY);
+
+        if (start == target || target.getState() == CellState.NOT_WALKABLE)
+            return Collections.emptyList();
+
+        AbstractGraph graph = graphs.computeIfAbsent(neighborDirection, AbstractGraph::new);
+        graph.repair();
+
+        Cluster startCluster = graph.clusterAt(sourceX, sourceY);
+        Cluster targetCluster = graph.clusterAt(targetX, targetY);
+
+        List<T> path = new ArrayList<>();
+
+        // a path within the cluster may still be longer than a path that leaves the cluster
+        List<T> localPath = null;
+        int maxCost = Integer.MAX_VALUE;
+
+        if (startCluster == targetCluster
+                && clusterSearch.findPath(graph, startCluster, sourceX, sourceY, targetX, targetY, busyCells, path)) {
+            localPath = path;
+            maxCost = clusterSearch.getPathCost();
+            path = new ArrayList<>();
+        }
+
+        if (graph.findPath(startCluster, targetCluster, sourceX, sourceY, targetX, targetY, maxCost, busyCells, path))
+            return path;
+
+        if (localPath != null)
+            return localPath;
+
+        if (gridSearch == null) {
+            gridSearch = new AStarSearch(grid.getWidth(), grid.getHeight());
+        }
+
+        Heuristic<T> heuristic = neighborDirection == NeighborDirection.FOUR_DIRECTIONS ? defaultHeuristic : diagonalHeuristic;
+
+        int[] nodes = gridSearch.findPath(SearchSpace.of(grid),
+                sourceX, sourceY, targetX, targetY,
+                neighborDirection, heuristic, defaultHeuristic, diagonalHeuristic, busyCells.toArray(new AStarCell[0]));
+
+        return AStarSearch.toCells(nodes, grid.getData(), grid.getWidth());
+    }
+
+    private int moveWeight(int dir) {
+        return dir >= 4 ? diagonalHeuristic.getDiagonalWeight() : defaultHeuristic.getWeight();
+    }
+
+    private static final class Cluster {
+        final int minX;
+        final int minY;
+        final int maxX;
+        final int maxY;
+
+        final List<Node> nodes = new ArrayList<>();
+
+        /**
+         * Pairs of nodes (this cluster, other cluster) of transitions to the cluster on the right / below.
+         */
+        final List<Node> eastTransitions = new ArrayList<>();
+        final List<Node> southTransitions = new ArrayList<>();
+
+        boolean isDirty = false;
+        int repairStamp = 0;
+
+        Cluster(int minX, int minY, int maxX, int maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+
+    private static final class Node {
+        final int id;
+        final int x;
+        final int y;
+        final Cluster cluster;
+
+        final List<Edge> edges = new ArrayList<>();
+
+        /**
+         * Number of transitions this node is part of, the node is removed when there are none.
+         */
+        int numTransitions = 0;
+
+        /**
+         * Cost from this node to the target of the search with given stamp.
+         */
+        int targetCost;
+        int targetStamp = 0;
+
+        Node(int id, int x, int y, Cluster cluster) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.cluster = cluster;
+        }
+    }
+
+    private static final class Edge {
+        final Node target;
+        final int cost;
+        final boolean isIntraCluster;
+
+        Edge(Node target, int cost, boolean isIntraCluster) {
+            this.target = target;
+            this.cost = cost;
+            this.isIntraCluster = isIntraCluster;
+        }
+    }
+
+    /**
+     * Clusters, transitions and their connections for a single neighbor direction.
+     */
+    private final class AbstractGraph {
+
+        final int numDirections;
+
+        final Cluster[] clusters;
+
+        /**
+         * Nodes by id, null for free ids.
+         */
+        final List<Node> nodes = new ArrayList<>();
+        final Deque<Integer> freeIds = new ArrayDeque<>();
+        final Map<Integer, Node> nodesByCell = new HashMap<>();
+
+        final List<Cluster> dirtyClusters = new ArrayList<>();
+
+        final SearchState state = new SearchState(64);
+
+        /**
+         * Lowest movement cost in the grid, so that heuristic stays a lower bound of the path cost.
+         */
+        int minMovementCost = Integer.MAX_VALUE;
+
+        int repairStamp = 0;
+        int searchStamp = 0;
+
+        AbstractGraph(NeighborDirection neighborDirection) {
+            numDirections = neighborDirection == NeighborDirection.EIGHT_DIRECTIONS ? 8 : 4;
+
+            clusters = new Cluster[numClustersX * numClustersY];
+
+            for (int cy = 0; cy < numClustersY; cy++) {
+                for (int cx = 0; cx < numClustersX; cx++) {
+                    int minX = cx * clusterSize;
+                    int minY = cy * clusterSize;
+
+                    clusters[cy * numClustersX + cx] = new Cluster(minX, minY,
+                            Math.min(minX + clusterSize, grid.getWidth()) - 1,
+                            Math.min(minY + clusterSize, grid.getHeight()) - 1
+                    );
+                }
+            }
+
+            for (Cluster cluster : clusters) {
+                updateMinMovementCost(cluster);
+                buildBorder(cluster, true);
+                buildBorder(cluster, false);
+            }
+
+            for (Cluster cluster : clusters) {
+                connectNodes(cluster);
+            }
+        }
+
+        Cluster clusterAt(int x, int y) {
+            return clusters[(y / clusterSize) * numClustersX + x / clusterSize];
+        }
+
+        private Cluster cluster(int cx, int cy) {
+            if (cx < 0 || cy < 0 || cx >= numClustersX || cy >= numClustersY)
+                return null;
+
+            return clusters[cy * numClustersX + cx];
+        }
+
+        void markDirty(Cluster cluster) {
+            if (!cluster.isDirty) {
+                cluster.isDirty = true;
+                dirtyClusters.add(cluster);
+            }
+        }
+
+        /**
+         * Rebuilds transitions on the borders of dirty clusters and reconnects nodes of dirty clusters
+         * and their neighbors, since their transitions may have changed.
+         */
+        void repair() {
+            if (dirtyClusters.isEmpty())
+                return;
+
+            repairStamp++;
+
+            List<Cluster> affected = new ArrayList<>();
+
+            for (Cluster cluster : dirtyClusters) {
+                int cx = cluster.minX / clusterSize;
+                int cy = cluster.minY / clusterSize;
+
+                Cluster west = cluster(cx - 1, cy);
+                Cluster north = cluster(cx, cy - 1);
+
+                rebuildBorder(cluster, true);
+                rebuildBorder(cluster, false);
+
+                if (west != null)
+                    rebuildBorder(west, true);
+
+                if (north != null)
+                    rebuildBorder(north, false);
+
+                updateMinMovementCost(cluster);
+
+                addAffected(affected, cluster);
+                addAffected(affected, west);
+                addAffected(affected, north);
+                addAffected(affected, cluster(cx + 1, cy));
+                addAffected(affected, cluster(cx, cy + 1));
+
+                cluster.isDirty = false;
+            }
+
+            dirtyClusters.clear();
+
+            for (Cluster cluster : affected) {
+                connectNodes(cluster);
+            }
+        }
+
+        private void addAffected(List<Cluster> affected, Cluster cluster) {
+            if (cluster != null && cluster.repairStamp != repairStamp) {
+                cluster.repairStamp = repairStamp;
+                affected.add(cluster);
+            }
+        }
+
+        private void updateMinMovementCost(Cluster cluster) {
+            T[][] data = grid.getData();
+
+            for (int x = cluster.minX; x <= cluster.maxX; x++) {
+                for (int y = cluster.minY; y <= cluster.maxY; y++) {
+                    minMovementCost = Math.min(minMovementCost, data[x][y].getMovementCost());
+                }
+            }
+        }
+
+        int heuristicCost(Heuristic<T> heuristic, int x, int y, int targetX, int targetY) {
+            return heuristic.getCost(x, y, targetX, targetY) * minMovementCost;
+        }
+
+        private void rebuildBorder(Cluster cluster, boolean isEast) {
+            List<Node> transitions = isEast ? cluster.eastTransitions : cluster.southTransitions;
+
+            for (int i = 0; i < transitions.size(); i += 2) {
+                Node node1 = transitions.get(i);
+                Node node2 = transitions.get(i + 1);
+
+                removeTransitionEdge(node1, node2);
+                removeTransitionEdge(node2, node1);
+
+                release(node1);
+                release(node2);
+            }
+
+            transitions.clear();
+
+            buildBorder(cluster, isEast);
+        }
+
+        /**
+         * Places transitions on entrances between given cluster and the cluster on the right (east) or below.
+         */
+        private void buildBorder(Cluster cluster, boolean isEast) {
+            Cluster other = isEast
+                    ? cluster(cluster.minX / clusterSize + 1, cluster.minY / clusterSize)
+                    : cluster(cluster.minX / clusterSize, cluster.minY / clusterSize + 1);
+
+            if (other == null)
+                return;
+
+            int length = isEast
+                    ? cluster.maxY - cluster.minY + 1
+                    : cluster.maxX - cluster.minX + 1;
+
+            int runStart = -1;
+
+            for (int i = 0; i <= length; i++) {
+                boolean isOpen = i < length && isOpen(cluster, isEast, i);
+
+                if (isOpen && runStart == -1) {
+                    runStart = i;
+                } else if (!isOpen && runStart != -1) {
+                    int runEnd = i - 1;
+
+                    if (runEnd - runStart + 1 < MAX_SINGLE_TRANSITION_WIDTH) {
+                        addTransition(cluster, other, isEast, (runStart + runEnd) / 2);
+                    } else {
+                        addTransition(cluster, other, isEast, runStart);
+                        addTransition(cluster, other, isEast, runEnd);
+                    }
+
+                    runStart = -1;
+                }
+            }
+        }
+
+        private T borderCell(Cluster cluster, boolean isEast, int i, boolean isOtherSide) {
+            int offset = isOtherSide ? 1 : 0;
+
+            return isEast
+                    ? grid.get(cluster.maxX + offset, cluster.minY + i)
+                    : grid.get(cluster.minX + i, cluster.maxY + offset);
+        }
+
+        private boolean isOpen(Cluster cluster, boolean isEast, int i) {
+            T cell1 = borderCell(cluster, isEast, i, false);
+            T cell2 = borderCell(cluster, isEast, i, true);
+
+            return isTransition(cell1, cell2) || isTransition(cell2, cell1);
+        }
+
+        /**
+         * The source is checked too, since only the target of a move is checked by the grid
+         * and a search can only be in the source if it was entered.
+         */
+        private boolean isTransition(T source, T target) {
+            return source.isWalkable() && grid.isTraversableInSingleMove(source, target);
+        }
+
+        private void addTransition(Cluster cluster, Cluster other, boolean isEast, int i) {
+            T cell1 = borderCell(cluster, isEast, i, false);
+            T cell2 = borderCell(cluster, isEast, i, true);
+
+            Node node1 = obtainNode(cell1, cluster);
+            Node node2 = obtainNode(cell2, other);
+
+            if (isTransition(cell1, cell2))
+                node1.edges.add(new Edge(node2, defaultHeuristic.getWeight() * cell2.getMovementCost(), false));
+
+            if (isTransition(cell2, cell1))
+                node2.edges.add(new Edge(node1, defaultHeuristic.getWeight() * cell1.getMovementCost(), false));
+
+            node1.numTransitions++;
+            node2.numTransitions++;
+
+            List<Node> transitions = isEast ? cluster.eastTransitions : cluster.southTransitions;
+            transitions.add(node1);
+            transitions.add(node2);
+        }
+
+        private Node obtainNode(T cell, Cluster cluster) {
+            int cellIndex = cell.getY() * grid.getWidth() + cell.getX();
+
+            Node node = nodesByCell.get(cellIndex);
+
+            if (node == null) {
+                int id;
+
+                if (freeIds.isEmpty()) {
+                    id = nodes.size();
+                    nodes.add(null);
+                } else {
+                    id = freeIds.pop();
+                }
+
+                node = new Node(id, cell.getX(), cell.getY(), cluster);
+
+                nodes.set(id, node);
+                nodesByCell.put(cellIndex, node);
+                cluster.nodes.add(node);
+            }
+
+            return node;
+        }
+
+        private void release(Node node) {
+            node.numTransitions--;
+
+            if (node.numTransitions == 0) {
+                nodes.set(node.id, null);
+                freeIds.push(node.id);
+                nodesByCell.remove(node.y * grid.getWidth() + node.x);
+                node.cluster.nodes.remove(node);
+            }
+        }
+
+        private void removeTransitionEdge(Node from, Node to) {
+            for (int i = 0; i < from.edges.size(); i++) {
+                Edge edge = from.edges.get(i);
+
+                if (!edge.isIntraCluster && edge.target == to) {
+                    from.edges.remove(i);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Replaces intra-cluster edges of nodes of given cluster with their shortest paths in the cluster.
+         */
+        private void connectNodes(Cluster cluster) {
+            for (Node node : cluster.nodes) {
+                node.edges.removeIf(e -> e.isIntraCluster);
+            }
+
+            for (Node node : cluster.nodes) {
+                clusterSearch.computeCosts(this, cluster, node.x, node.y, false, Collections.emptyList());
+
+                for (Node other : cluster.nodes) {
+                    if (other == node)
+                        continue;
+
+                    int cost = clusterSearch.getCost(other.x, other.y);
+
+                    if (cost != NONE) {
+                        node.edges.add(new Edge(other, cost, true));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finds a route in the abstract graph and refines it into cells.
+         *
+         * @param maxCost only routes cheaper than this are considered
+         * @return true if path was found and added to given list
+         */
+        boolean findPath(Cluster startCluster, Cluster targetCluster,
+                         int sourceX, int sourceY, int targetX, int targetY,
+                         int maxCost, List<T> busyCells, List<T> path) {
+
+            searchStamp++;
+
+            Heuristic<T> heuristic = numDirections == 4 ? defaultHeuristic : diagonalHeuristic;
+
+            // the start and target are temporary nodes with ids after all other nodes
+            int startId = nodes.size();
+            int targetId = startId + 1;
+
+            state.ensureCapacity(startId + 2);
+            state.newSearch();
+
+            clusterSearch.computeCosts(this, targetCluster, targetX, targetY, true, busyCells);
+
+            for (Node node : targetCluster.nodes) {
+                int cost = clusterSearch.getCost(node.x, node.y);
+
+                if (cost != NONE) {
+                    node.targetCost = cost;
+                    node.targetStamp = searchStamp;
+                }
+            }
+
+            clusterSearch.computeCosts(this, startCluster, sourceX, sourceY, false, busyCells);
+
+            state.seen(startId, 0, heuristicCost(heuristic, sourceX, sourceY, targetX, targetY), NONE);
+            state.close(startId);
+
+            for (Node node : startCluster.nodes) {
+                int cost = clusterSearch.getCost(node.x, node.y);
+
+                if (cost != NONE) {
+                    relax(node.id, cost, startId, heuristicCost(heuristic, node.x, node.y, targetX, targetY));
+                }
+            }
+
+            while (!state.isOpenEmpty()) {
+                int current = state.pollOpen();
+
+                if (state.getGCost(current) + state.getHCost(current) >= maxCost)
+                    return false;
+
+                if (current == targetId)
+                    return refine(startId, targetId, sourceX, sourceY, targetX, targetY, busyCells, path);
+
+                state.close(current);
+
+                Node node = nodes.get(current);
+                int gCost = state.getGCost(current);
+
+                for (Edge edge : node.edges) {
+                    Node next = edge.target;
+
+                    relax(next.id, gCost + edge.cost, current, heuristicCost(heuristic, next.x, next.y, targetX, targetY));
+                }
+
+                if (node.targetStamp == searchStamp) {
+                    relax(targetId, gCost + node.targetCost, current, 0);
+                }
+            }
+
+            return false;
+        }
+
+        private void relax(int id, int gCost, int parent, int hCost) {
+            if (state.isClosed(id))
+                return;
+
+            if (!state.isSeen(id)) {
+                state.open(id, gCost, hCost, parent);
+            } else if (gCost < state.getGCost(id)) {
+                state.decreaseCost(id, gCost, parent);
+            }
+        }
+
+        private boolean refine(int startId, int targetId,
+                               int sourceX, int sourceY, int targetX, int targetY,
+                               List<T> busyCells, List<T> path) {
+
+            List<Node> route = new ArrayList<>();
+
+            for (int id = state.getParent(targetId); id != startId; id = state.getParent(id)) {
+                route.add(nodes.get(id));
+            }
+
+            Collections.reverse(route);
+
+            int x = sourceX;
+            int y = sourceY;
+            Cluster cluster = route.get(0).cluster;
+
+            for (Node node : route) {
+                if (node.cluster == cluster) {
+                    if (!clusterSearch.findPath(this, cluster, x, y, node.x, node.y, busyCells, path))
+                        return false;
+                } else {
+                    // transition to adjacent cell in the next cluster
+                    T cell = grid.get(node.x, node.y);
+
+                    if (busyCells.contains(cell))
+                        return false;
+
+                    path.add(cell);
+                }
+
+                x = node.x;
+                y = node.y;
+                cluster = node.cluster;
+            }
+
+            return clusterSearch.findPath(this, cluster, x, y, targetX, targetY, busyCells, path);
+        }
+    }
+
+    /**
+     * Searches restricted to a single cluster, with state indexed by position within the cluster.
+     */
+    private final class ClusterSearch {
+
+        final SearchState state = new SearchState(clusterSize * clusterSize);
+
+        Cluster cluster;
+
+        int pathCost = 0;
+
+        /**
+         * Computes costs from (x, y) to all cells of given cluster, or from all cells to (x, y) if reverse.
+         * Costs are then available via {@link #getCost(int, int)}.
+         */
+        void computeCosts(AbstractGraph graph, Cluster cluster, int x, int y, boolean isReverse, List<? extends AStarCell> busyCells) {
+            begin(cluster, busyCells);
+
+            state.open(index(x, y), 0, 0, NONE);
+
+            while (!state.isOpenEmpty()) {
+                int current = state.pollOpen();
+                state.close(current);
+
+                expand(graph, current, isReverse, null, 0, 0);
+            }
+        }
+
+        /**
+         * @return cost computed by last {@link #computeCosts} or NONE if cell is unreachable
+         */
+        int getCost(int x, int y) {
+            int index = index(x, y);
+
+            return state.isClosed(index) ? state.getGCost(index) : NONE;
+        }
+
+        /**
+         * @return cost of the path found by last {@link #findPath}
+         */
+        int getPathCost() {
+            return pathCost;
+        }
+
+        /**
+         * Adds path from (sourceX, sourceY) (excl) to (targetX, targetY) (incl) within given cluster to given list.
+         *
+         * @return true if path was found
+         */
+        boolean findPath(AbstractGraph graph, Cluster cluster,
+                         int sourceX, int sourceY, int targetX, int targetY,
+                         List<? extends AStarCell> busyCells, List<T> path) {
+
+            if (sourceX == targetX && sourceY == targetY) {
+                pathCost = 0;
+                return true;
+            }
+
+            Heuristic<T> heuristic = graph.numDirections == 4 ? defaultHeuristic : diagonalHeuristic;
+
+            begin(cluster, busyCells);
+
+            int target = index(targetX, targetY);
+
+            state.open(index(sourceX, sourceY), 0, graph.heuristicCost(heuristic, sourceX, sourceY, targetX, targetY), NONE);
+
+            while (!state.isOpenEmpty()) {
+                int current = state.pollOpen();
+
+                if (current == target) {
+                    pathCost = state.getGCost(target);
+
+                    int start = path.size();
+
+                    for (int node = target; state.getParent(node) != NONE; node = state.getParent(node)) {
+                        path.add(grid.get(cluster.minX + node % clusterSize, cluster.minY + node / clusterSize));
+                    }
+
+                    Collections.reverse(path.subList(start, path.size()));
+                    return true;
+                }
+
+                state.close(current);
+
+                expand(graph, current, false, heuristic, targetX, targetY);
+            }
+
+            return false;
+        }
+
+        private void begin(Cluster cluster, List<? extends AStarCell> busyCells) {
+            this.cluster = cluster;
+
+            state.newSearch();
+
+            for (AStarCell cell : busyCells) {
+                if (cell.getX() >= cluster.minX && cell.getX() <= cluster.maxX
+                        && cell.getY() >= cluster.minY && cell.getY() <= cluster.maxY) {
+                    state.setBusy(index(cell.getX(), cell.getY()));
+                }
+            }
+        }
+
+        private void expand(AbstractGraph graph, int current, boolean isReverse, Heuristic<T> heuristic, int targetX, int targetY) {
+            T[][] data = grid.getData();
+
+            int x = cluster.minX + current % clusterSize;
+            int y = cluster.minY + current / clusterSize;
+
+            T cell = data[x][y];
+
+            for (int dir = 0; dir < graph.numDirections; dir++) {
+                int nx = x + AStarSearch.DX[dir];
+                int ny = y + AStarSearch.DY[dir];
+
+                if (nx < cluster.minX || ny < cluster.minY || nx > cluster.maxX || ny > cluster.maxY)
+                    continue;
+
+                int next = index(nx, ny);
+
+                if (state.isClosed(next) || state.isBusy(next))
+                    continue;
+
+                T nextCell = data[nx][ny];
+
+                int moveCost;
+
+                if (isReverse) {
+                    if (!grid.isTraversableInSingleMove(nextCell, cell))
+                        continue;
+
+                    moveCost = moveWeight(dir) * cell.getMovementCost();
+                } else {
+                    if (!grid.isTraversableInSingleMove(cell, nextCell))
+                        continue;
+
+                    moveCost = moveWeight(dir) * nextCell.getMovementCost();
+                }
+
+                int gCost = state.getGCost(current) + moveCost;
+
+                if (!state.isSeen(next)) {
+                    int hCost = heuristic == null ? 0 : graph.heuristicCost(heuristic, nx, ny, targetX, targetY);
+
+                    state.open(next, gCost, hCost, current);
+                } else if (gCost < state.getGCost(next)) {
+                    state.decreaseCost(next, gCost, current);
+                }
+            }
+        }
+
+        private int index(int x, int y) {
+            return (y - cluster.minY) * clusterSize + (x - cluster.minX);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection;
+import com.almasb.fxgl.pathfinding.CellState;
+import com.almasb.fxgl.pathfinding.Pathfinder;
+import com.almasb.fxgl.pathfinding.heuristic.DiagonalHeuristic;
+import com.almasb.fxgl.pathfinding.heuristic.Heuristic;
+import com.almasb.fxgl.pathfinding.heuristic.ManhattanDistance;
+import com.almasb.fxgl.pathfinding.heuristic.OctileDistance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.almasb.fxgl.pathfinding.astar.SearchState.NONE;
+
+/**
+ * Jump Point Search (JPS) for uniform-cost grids.
+ * Instead of adding every neighbor to the open set, the search "jumps" along straight and diagonal lines
+ * and only stops at cells where the optimal path may change direction,
+ * which on large open maps visits orders of magnitude fewer nodes than A*.
+ *
+ * Only cell states are considered: all walkable cells are assumed to have the same movement cost.
+ * As with {@link AStarPathfinder}, diagonal moves are allowed next to unwalkable cells.
+ * Returned paths contain every cell, not just the jump points, so they can be used with {@link AStarMoveComponent}.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class JumpPointPathfinder implements Pathfinder<AStarCell> {
+
+    private final AStarGrid grid;
+    private final int width;
+    private final int height;
+
+    private final Heuristic<AStarCell> defaultHeuristic;
+    private final DiagonalHeuristic<AStarCell> diagonalHeuristic;
+
+    /**
+     * Created on first search, since it allocates state for every cell of the grid.
+     */
+    private SearchState state;
+
+    private int targetIndex;
+
+    public JumpPointPathfinder(AStarGrid grid) {
+        this(grid, new ManhattanDistance<>(), new OctileDistance<>());
+    }
+
+    public JumpPointPathfinder(AStarGrid grid, Heuristic<AStarCell> defaultHeuristic, DiagonalHeuristic<AStarCell> diagonalHeuristic) {
+        this.grid = grid;
+        this.defaultHeuristic = defaultHeuristic;
+        this.diagonalHeuristic = diagonalHeuristic;
+
+        width = grid.getWidth();
+        height = grid.getHeight();
+    }
+
+    public AStarGrid getGrid() {
+        return grid;
+    }
+
+    @Override
+    public List<AStarCell> findPath(int sourceX, int sourceY, int targetX, int targetY) {
+        return findPath(sourceX, sourceY, targetX, targetY, NeighborDirection.FOUR_DIRECTIONS, Collections.emptyList());
+    }
+
+    @Override
+    public List<AStarCell> findPath(int sourceX, int sourceY, int targetX, int targetY, NeighborDirection neighborDirection) {
+        return findPath(sourceX, sourceY, targetX, targetY, neighborDirection, Collections.emptyList());
+    }
+
+    @Override
+    public List<AStarCell> findPath(int sourceX, int sourceY, int targetX, int targetY, List<AStarCell> busyCells) {
+        return findPath(sourceX, sourceY, targetX, targetY, NeighborDirection.FOUR_DIRECTIONS, busyCells);
+    }
+
+    @Override
+    public List<AStarCell> findPath(int sourceX, int sourceY, int targetX, int targetY, NeighborDirection neighborDirection, List<AStarCell> busyCells) {
+        var start = grid.get(sourceX, sourceY);
+        var target = grid.get(targetX, targetY);
+
+        if (start == target || target.getState() == CellState.NOT_WALKABLE)
+            return Collections.emptyList();
+
+        if (state == null) {
+            state = new SearchState(width * height);
+        }
+
+        state.newSearch();
+
+        for (AStarCell busy : busyCells) {
+            if (grid.isWithin(busy.getX(), busy.getY())) {
+                state.setBusy(index(busy.getX(), busy.getY()));
+            }
+        }
+
+        boolean isDiagonal = neighborDirection == NeighborDirection.EIGHT_DIRECTIONS;
+        Heuristic<AStarCell> heuristic = isDiagonal ? diagonalHeuristic : defaultHeuristic;
+
+        targetIndex = index(targetX, targetY);
+
+        state.open(index(sourceX, sourceY), 0, heuristic.getCost(sourceX, sourceY, targetX, targetY), NONE);
+
+        while (!state.isOpenEmpty()) {
+            int node = state.pollOpen();
+
+            if (node == targetIndex)
+                return buildPath(node);
+
+            state.close(node);
+
+            int x = node % width;
+            int y = node / width;
+
+            int dx = 0;
+            int dy = 0;
+
+            int parent = state.getParent(node);
+            if (parent != NONE) {
+                dx = Integer.signum(x - parent % width);
+                dy = Integer.signum(y - parent / width);
+            }
+
+            if (isDiagonal) {
+                identifyDiagonalSuccessors(node, x, y, dx, dy, heuristic, targetX, targetY);
+            } else {
+                identifyStraightSuccessors(node, x, y, dx, dy, heuristic, targetX, targetY);
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Successors with diagonal moves allowed.
+     * (dx, dy) is the direction of travel into (x, y), (0, 0) for the start node.
+     */
+    private void identifyDiagonalSuccessors(int node, int x, int y, int dx, int dy, Heuristic<AStarCell> heuristic, int targetX, int targetY) {
+        if (dx == 0 && dy == 0) {
+            for (int i = 0; i < 8; i++) {
+                addSuccessor(node, x, y, AStarSearch.DX[i], AStarSearch.DY[i], true, heuristic, targetX, targetY);
+            }
+            return;
+        }
+
+        if (dx != 0 && dy != 0) {
+            addSuccessor(node, x, y, 0, dy, true, heuristic, targetX, targetY);
+            addSuccessor(node, x, y, dx, 0, true, heuristic, targetX, targetY);
+            addSuccessor(node, x, y, dx, dy, true, heuristic, targetX, targetY);
+
+            // forced neighbors
+            if (!isWalkable(x - dx, y))
+                addSuccessor(node, x, y, -dx, dy, true, heuristic, targetX, targetY);
+
+            if (!isWalkable(x, y - dy))
+                addSuccessor(node, x, y, dx, -dy, true, heuristic, targetX, targetY);
+
+        } else if (dx != 0) {
+            addSuccessor(node, x, y, dx, 0, true, heuristic, targetX, targetY);
+
+            if (!isWalkable(x, y + 1))
+                addSuccessor(node, x, y, dx, 1, true, heuristic, targetX, targetY);
+
+            if (!isWalkable(x, y - 1))
+                addSuccessor(node, x, y, dx, -1, true, heuristic, targetX, targetY);
+
+        } else {
+            addSuccessor(node, x, y, 0, dy, true, heuristic, targetX, targetY);
+
+            if (!isWalkable(x + 1, y))
+                addSuccessor(node, x, y, 1, dy, true, heuristic, targetX, targetY);
+
+            if (!isWalkable(x - 1, y))
+                addSuccessor(node, x, y, -1, dy, true, heuristic, targetX, targetY);
+        }
+    }
+
+    /**
+     * Successors with only horizontal and vertical moves.
+     * (dx, dy) is the direction of travel into (x, y), (0, 0) for the start node.
+     */
+    private void identifyStraightSuccessors(int node, int x, int y, int dx, int dy, Heuristic<AStarCell> heuristic, int targetX, int targetY) {
+        if (dx == 0 && dy == 0) {
+            for (int i = 0; i < 4; i++) {
+                addSuccessor(node, x, y, AStarSearch.DX[i], AStarSearch.DY[i], false, heuristic, targetX, targetY);
+            }
+            return;
+        }
+
+        if (dx != 0) {
+            addSuccessor(node, x, y, dx, 0, false, heuristic, targetX, targetY);
+            addSuccessor(node, x, y, 0, 1, false, heuristic, targetX, targetY);
+            addSuccessor(node, x, y, 0, -1, false, heuristic, targetX, targetY);
+        } else {
+            addSuccessor(node, x, y, 0, dy, false, heuristic, targetX, targetY);
+            addSuccessor(node, x, y, 1, 0, false, heuristic, targetX, targetY);
+            addSuccessor(node, x, y, -1, 0, false, heuristic, targetX, targetY);
+        }
+    }
+
+    private void addSuccessor(int node, int x, int y, int dx, int dy, boolean isDiagonal,
+                              Heuristic<AStarCell> heuristic, int targetX, int targetY) {
+
+        int jumpPoint = isDiagonal ? jumpEightDirections(x, y, dx, dy) : jumpFourDirections(x, y, dx, dy);
+
+        if (jumpPoint == NONE || state.isClosed(jumpPoint))
+            return;
+
+        int jx = jumpPoint % width;
+        int jy = jumpPoint / width;
+
+        int gCost = state.getGCost(node) + distance(x, y, jx, jy);
+
+        if (!state.isSeen(jumpPoint)) {
+            state.open(jumpPoint, gCost, heuristic.getCost(jx, jy, targetX, targetY), node);
+        } else if (gCost < state.getGCost(jumpPoint)) {
+            state.decreaseCost(jumpPoint, gCost, node);
+        }
+    }
+
+    /**
+     * Moves from (x, y) in direction (dx, dy) with diagonal moves allowed.
+     *
+     * @return index of the next jump point or NONE if there is none in this direction
+     */
+    private int jumpEightDirections(int x, int y, int dx, int dy) {
+        while (true) {
+            x += dx;
+            y += dy;
+
+            if (!isWalkable(x, y))
+                return NONE;
+
+            int node = index(x, y);
+
+            if (node == targetIndex)
+                return node;
+
+            if (dx != 0 && dy != 0) {
+                if ((isWalkable(x - dx, y + dy) && !isWalkable(x - dx, y))
+                        || (isWalkable(x + dx, y - dy) && !isWalkable(x, y - dy)))
+                    return node;
+
+                // a diagonal move stops if a straight move from it can reach a jump point
+                if (jumpEightDirections(x, y, dx, 0) != NONE || jumpEightDirections(x, y, 0, dy) != NONE)
+                    return node;
+
+            } else if (dx != 0) {
+                if ((isWalkable(x + dx, y + 1) && !isWalkable(x, y + 1))
+                        || (isWalkable(x + dx, y - 1) && !isWalkable(x, y - 1)))
+                    return node;
+
+            } else {
+                if ((isWalkable(x + 1, y + dy) && !isWalkable(x + 1, y))
+                        || (isWalkable(x - 1, y + dy) && !isWalkable(x - 1, y)))
+                    return node;
+            }
+        }
+    }
+
+    /**
+     * Moves from (x, y) in direction (dx, dy) with only horizontal and vertical moves.
+     *
+     * @return index of the next jump point or NONE if there is none in this direction
+     */
+    private int jumpFourDirections(int x, int y, int dx, int dy) {
+        while (true) {
+            x += dx;
+            y += dy;
+
+            if (!isWalkable(x, y))
+                return NONE;
+
+            int node = index(x, y);
+
+            if (node == targetIndex)
+                return node;
+
+            if (dx != 0) {
+                if ((isWalkable(x, y - 1) && !isWalkable(x - dx, y - 1))
+                        || (isWalkable(x, y + 1) && !isWalkable(x - dx, y + 1)))
+                    return node;
+
+            } else {
+                if ((isWalkable(x - 1, y) && !isWalkable(x - 1, y - dy))
+                        || (isWalkable(x + 1, y) && !isWalkable(x + 1, y - dy)))
+                    return node;
+
+                // a vertical move stops if a horizontal move from it can reach a jump point
+                if (jumpFourDirections(x, y, 1, 0) != NONE || jumpFourDirections(x, y, -1, 0) != NONE)
+                    return node;
+            }
+        }
+    }
+
+    private boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height
+                && grid.getData()[x][y].isWalkable()
+                && !state.isBusy(index(x, y));
+    }
+
+    /**
+     * @return cost of moving between two cells on a straight or diagonal line
+     */
+    private int distance(int x1, int y1, int x2, int y2) {
+        int dx = Math.abs(x2 - x1);
+        int dy = Math.abs(y2 - y1);
+
+        return Math.min(dx, dy) * diagonalHeuristic.getDiagonalWeight() + Math.abs(dx - dy) * defaultHeuristic.getWeight();
+    }
+
+    /**
+     * Expands jump points into cells, since consecutive jump points lie on a straight or diagonal line.
+     */
+    private List<AStarCell> buildPath(int target) {
+        var data = grid.getData();
+
+        List<AStarCell> path = new ArrayList<>();
+
+        int node = target;
+
+        while (state.getParent(node) != NONE) {
+            int parent = state.getParent(node);
+
+            int x = node % width;
+            int y = node / width;
+            int px = parent % width;
+            int py = parent / width;
+
+            int dx = Integer.signum(px - x);
+            int dy = Integer.signum(py - y);
+
+            while (x != px || y != py) {
+                path.add(data[x][y]);
+                x += dx;
+                y += dy;
+            }
+
+            node = parent;
+        }
+
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of paths, which evicts the least recently used path when full.
+ * When a cell changes, paths that start at or pass through that cell are removed.
+ * Paths that do not pass through the cell remain valid, but may no longer be the shortest,
+ * e.g. if the cell became walkable.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class PathCache<T extends AStarCell> {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private int capacity;
+
+    private final Map<CacheKey, List<T>> paths = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, List<T>> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    PathCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+
+        var it = paths.entrySet().iterator();
+
+        while (paths.size() > capacity) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    int size() {
+        return paths.size();
+    }
+
+    /**
+     * @return cached path or null, the returned list must not be modified
+     */
+    List<T> get(CacheKey key) {
+        return paths.get(key);
+    }
+
+    /**
+     * The given list must not be modified after this call.
+     */
+    void put(CacheKey key, List<T> path) {
+        paths.put(key, path);
+    }
+
+    /**
+     * Removes paths that start at or pass through cell (x, y).
+     */
+    void invalidate(int x, int y) {
+        paths.entrySet().removeIf(entry -> {
+            var key = entry.getKey();
+
+            if (key.getStartX() == x && key.getStartY() == y)
+                return true;
+
+            for (T cell : entry.getValue()) {
+                if (cell.getX() == x && cell.getY() == y)
+                    return true;
+            }
+
+            return false;
+        });
+    }
+
+    void clear() {
+        paths.clear();
+    }
+}
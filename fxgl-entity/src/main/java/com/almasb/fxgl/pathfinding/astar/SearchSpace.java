@@ -0,0 +1,58 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+/**
+ * Cells and moves of a grid as seen by {@link AStarSearch}.
+ * Directions are indices into {@link AStarSearch#DX} and {@link AStarSearch#DY}.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+interface SearchSpace {
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * The target cell of the move is within the grid.
+     *
+     * @return true if a single move from (x, y) in given direction is possible
+     */
+    boolean isTraversable(int x, int y, int direction);
+
+    int getMovementCost(int x, int y);
+
+    /**
+     * @return search space that reads the live state of given grid
+     */
+    static <T extends AStarCell> SearchSpace of(TraversableGrid<T> grid) {
+        return new SearchSpace() {
+            private final T[][] data = grid.getData();
+
+            @Override
+            public int getWidth() {
+                return grid.getWidth();
+            }
+
+            @Override
+            public int getHeight() {
+                return grid.getHeight();
+            }
+
+            @Override
+            public boolean isTraversable(int x, int y, int direction) {
+                return grid.isTraversableInSingleMove(data[x][y], data[x + AStarSearch.DX[direction]][y + AStarSearch.DY[direction]]);
+            }
+
+            @Override
+            public int getMovementCost(int x, int y) {
+                return data[x][y].getMovementCost();
+            }
+        };
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.pathfinding.astar;
+
+import java.util.Arrays;
+
+/**
+ * Per-node state of a best-first search over nodes identified by int index in [0, capacity).
+ * State of a node is only valid if it was seen in the current search generation,
+ * so starting a new search is O(1) instead of resetting every node.
+ * The open set is an indexed binary heap ordered by F (G + H), then by H.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class SearchState {
+
+    static final int NONE = -1;
+
+    private int capacity;
+
+    private int[] gCost;
+    private int[] hCost;
+    private int[] parent;
+
+    private int[] seenGen;
+    private int[] closedGen;
+    private int[] busyGen;
+
+    /**
+     * Position of node in the heap, valid only if node is open.
+     */
+    private int[] heapPos;
+    private int[] heap;
+    private int heapSize = 0;
+
+    private int generation = 0;
+
+    SearchState(int capacity) {
+        this.capacity = capacity;
+
+        gCost = new int[capacity];
+        hCost = new int[capacity];
+        parent = new int[capacity];
+        seenGen = new int[capacity];
+        closedGen = new int[capacity];
+        busyGen = new int[capacity];
+        heapPos = new int[capacity];
+        heap = new int[capacity];
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Grows to at least given capacity, keeping the state of the current search.
+     */
+    void ensureCapacity(int newCapacity) {
+        if (newCapacity <= capacity)
+            return;
+
+        newCapacity = Math.max(newCapacity, capacity * 2);
+
+        gCost = Arrays.copyOf(gCost, newCapacity);
+        hCost = Arrays.copyOf(hCost, newCapacity);
+        parent = Arrays.copyOf(parent, newCapacity);
+        seenGen = Arrays.copyOf(seenGen, newCapacity);
+        closedGen = Arrays.copyOf(closedGen, newCapacity);
+        busyGen = Arrays.copyOf(busyGen, newCapacity);
+        heapPos = Arrays.copyOf(heapPos, newCapacity);
+        heap = Arrays.copyOf(heap, newCapacity);
+
+        capacity = newCapacity;
+    }
+
+    /**
+     * Invalidates the state of all nodes.
+     */
+    void newSearch() {
+        generation++;
+        heapSize = 0;
+
+        // practically never happens, but stale stamps must not match after overflow
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seenGen, 0);
+            Arrays.fill(closedGen, 0);
+            Arrays.fill(busyGen, 0);
+            generation = 1;
+        }
+    }
+
+    int getGCost(int node) {
+        return gCost[node];
+    }
+
+    int getHCost(int node) {
+        return hCost[node];
+    }
+
+    int getParent(int node) {
+        return parent[node];
+    }
+
+    void setParent(int node, int parentNode) {
+        parent[node] = parentNode;
+    }
+
+    boolean isSeen(int node) {
+        return seenGen[node] == generation;
+    }
+
+    boolean isClosed(int node) {
+        return closedGen[node] == generation;
+    }
+
+    void close(int node) {
+        closedGen[node] = generation;
+    }
+
+    boolean isBusy(int node) {
+        return busyGen[node] == generation;
+    }
+
+    void setBusy(int node) {
+        busyGen[node] = generation;
+    }
+
+    /**
+     * Marks node as seen without adding it to the open set, e.g. the start node.
+     */
+    void seen(int node, int g, int h, int parentNode) {
+        seenGen[node] = generation;
+        gCost[node] = g;
+        hCost[node] = h;
+        parent[node] = parentNode;
+    }
+
+    /**
+     * Marks node as seen and adds it to the open set.
+     */
+    void open(int node, int g, int h, int parentNode) {
+        seen(node, g, h, parentNode);
+
+        heap[heapSize] = node;
+        heapPos[node] = heapSize;
+        heapSize++;
+
+        siftUp(heapSize - 1);
+    }
+
+    /**
+     * Updates G cost and parent of an open node with a cheaper G cost.
+     */
+    void decreaseCost(int node, int g, int parentNode) {
+        gCost[node] = g;
+        parent[node] = parentNode;
+
+        siftUp(heapPos[node]);
+    }
+
+    boolean isOpenEmpty() {
+        return heapSize == 0;
+    }
+
+    /**
+     * Removes and returns the open node with lowest F cost.
+     */
+    int pollOpen() {
+        int top = heap[0];
+
+        heapSize--;
+
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPos[heap[0]] = 0;
+            siftDown(0);
+        }
+
+        return top;
+    }
+
+    private boolean less(int node1, int node2) {
+        int f1 = gCost[node1] + hCost[node1];
+        int f2 = gCost[node2] + hCost[node2];
+
+        return f1 < f2 || (f1 == f2 && hCost[node1] < hCost[node2]);
+    }
+
+    private void siftUp(int pos) {
+        int node = heap[pos];
+
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parentNode = heap[parentPos];
+
+            if (!less(node, parentNode))
+                break;
+
+            heap[pos] = parentNode;
+            heapPos[parentNode] = pos;
+            pos = parentPos;
+        }
+
+        heap[pos] = node;
+        heapPos[node] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int node = heap[pos];
+
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize)
+                break;
+
+            if (child + 1 < heapSize && less(heap[child + 1], heap[child]))
+                child++;
+
+            if (!less(heap[child], node))
+                break;
+
+            heap[pos] = heap[child];
+            heapPos[heap[pos]] = pos;
+            pos = child;
+        }
+
+        heap[pos] = node;
+        heapPos[node] = pos;
+    }
+}
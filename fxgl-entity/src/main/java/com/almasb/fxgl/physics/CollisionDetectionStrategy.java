@@ -7,8 +7,22 @@
 package com.almasb.fxgl.physics;
 
 /**
+ * Defines how collisions between entities without PhysicsComponent are detected.
+ * <ul>
+ *     <li>BRUTE_FORCE: every pair of collidable entities is checked</li>
+ *     <li>GRID_INDEXING: only entities that share a grid cell are checked;
+ *     the cell size is given to {@link PhysicsWorld} and should be close to the typical size of collidable entities</li>
+ *     <li>DYNAMIC_TREE: entities are kept in a dynamic AABB tree between frames and only entities whose bounds overlap are checked;
+ *     does not need tuning and suits large numbers of entities of varying sizes</li>
+ * </ul>
+ *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 public enum CollisionDetectionStrategy {
-    BRUTE_FORCE, GRID_INDEXING
+    BRUTE_FORCE, GRID_INDEXING, DYNAMIC_TREE;
+
+    /**
+     * Default cell size in pixels used by {@link #GRID_INDEXING}.
+     */
+    public static final int DEFAULT_GRID_CELL_SIZE = 64;
 }
@@ -12,6 +12,11 @@ final class CollisionPair extends Pair<Entity> implements Poolable {
 
     private CollisionHandler handler;
 
+    /**
+     * Collision frame in which this pair was last found to be colliding.
+     */
+    private long checkedFrame = -1;
+
     CollisionPair() {
         super(null, null);
     }
@@ -33,6 +38,14 @@ final class CollisionPair extends Pair<Entity> implements Poolable {
         }
     }
 
+    long getCheckedFrame() {
+        return checkedFrame;
+    }
+
+    void setCheckedFrame(long checkedFrame) {
+        this.checkedFrame = checkedFrame;
+    }
+
     void collisionBegin() {
         handler.onCollisionBegin(getA(), getB());
     }
@@ -48,6 +61,7 @@ final class CollisionPair extends Pair<Entity> implements Poolable {
     @Override
     public void reset() {
         handler = null;
+        checkedFrame = -1;
         setA(null);
         setB(null);
     }
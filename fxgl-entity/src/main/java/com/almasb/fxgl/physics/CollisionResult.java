@@ -15,9 +15,23 @@ public final class CollisionResult {
     private HitBox boxA;
     private HitBox boxB;
 
+    private float normalX;
+    private float normalY;
+    private float depth;
+
     public void init(HitBox boxA, HitBox boxB) {
         this.boxA = boxA;
         this.boxB = boxB;
+
+        normalX = 0f;
+        normalY = 0f;
+        depth = 0f;
+    }
+
+    void setContact(float normalX, float normalY, float depth) {
+        this.normalX = normalX;
+        this.normalY = normalY;
+        this.depth = depth;
     }
 
     public HitBox getBoxA() {
@@ -27,4 +41,27 @@ public final class CollisionResult {
     public HitBox getBoxB() {
         return boxB;
     }
+
+    /**
+     * Contact data is only computed by {@link Narrowphase}, otherwise the normal and depth are 0.
+     *
+     * @return x of the unit contact normal, pointing from box A to box B
+     */
+    public float getNormalX() {
+        return normalX;
+    }
+
+    /**
+     * @return y of the unit contact normal, pointing from box A to box B
+     */
+    public float getNormalY() {
+        return normalY;
+    }
+
+    /**
+     * @return how far box B needs to move along the normal to stop overlapping box A
+     */
+    public float getDepth() {
+        return depth;
+    }
 }
\ No newline at end of file
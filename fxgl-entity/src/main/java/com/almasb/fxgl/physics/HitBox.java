@@ -9,9 +9,6 @@ import com.almasb.fxgl.core.math.Vec2;
 import com.almasb.fxgl.entity.components.BoundingBoxComponent;
 import com.almasb.fxgl.entity.components.TransformComponent;
 import com.almasb.fxgl.physics.box2d.collision.shapes.Shape;
-import javafx.beans.binding.Bindings;
-import javafx.beans.property.DoubleProperty;
-import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
@@ -53,6 +50,15 @@ public final class HitBox implements Serializable {
      */
     Vec2[] corners = new Vec2[4];
 
+    /**
+     * Shape in world coordinates, as used by {@link Narrowphase}: the shape is all points
+     * within coreRadius of the convex hull of the core vertices (or of each chain segment).
+     * Box: 4 corners, circle: center, capsule: segment between the centers of the semicircles,
+     * polygon and chain: their points.
+     */
+    Vec2[] coreVertices;
+    float coreRadius = 0f;
+
     /**
      * Creates a hit box with the given shape.
      * The name of the {@code {@link HitBox}} will be auto generated
@@ -106,6 +112,31 @@ public final class HitBox implements Serializable {
         for (int i = 0; i < 4; i++) {
             corners[i] = new Vec2();
         }
+
+        coreVertices = createCoreVertices(shape);
+    }
+
+    private Vec2[] createCoreVertices(BoundingShape shape) {
+        Vec2[] vertices;
+
+        if (shape instanceof CircleShapeData) {
+            vertices = new Vec2[1];
+        } else if (shape instanceof CapsuleShapeData) {
+            vertices = new Vec2[2];
+        } else if (shape instanceof PolygonShapeData) {
+            vertices = new Vec2[((PolygonShapeData) shape).getPoints().length];
+        } else if (shape instanceof ChainShapeData) {
+            vertices = new Vec2[((ChainShapeData) shape).getPoints().length];
+        } else {
+            // boxes share the corners
+            return corners;
+        }
+
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vec2();
+        }
+
+        return vertices;
     }
 //
 //    private void writeObject(java.io.ObjectOutputStream out) throws IOException {
@@ -234,89 +265,77 @@ public final class HitBox implements Serializable {
      * bbox data in the world coord space.
      * Otherwise these would have to be recomputed every time
      * this hit box is used for collision detection.
+     * The cache is valid as long as the transform version has not changed.
      */
-    private transient DoubleProperty minXWorld = new SimpleDoubleProperty();
-    private transient DoubleProperty maxXWorld = new SimpleDoubleProperty();
-    private transient DoubleProperty minYWorld = new SimpleDoubleProperty();
-    private transient DoubleProperty maxYWorld = new SimpleDoubleProperty();
+    private transient TransformComponent boundTransform;
+    private transient long worldVersion = -1L;
+    private transient double minXWorld;
+    private transient double maxXWorld;
+    private transient double minYWorld;
+    private transient double maxYWorld;
 
     /**
      * Bind to x property of entity.
      */
     public void bindXY(TransformComponent transform) {
+        boundTransform = transform;
+        worldVersion = -1L;
+    }
 
-        // compute local min and max, then convert to world coord
-        // var minXWorldNew1 = center1.x - (center1.x - box1.minX) * transform1.scaleX + transform1.x;
-        // var maxXWorldNew1 = center1.x - (center1.x - box1.maxX) * transform1.scaleX + transform1.x;
-
-        var x1 = Bindings.createDoubleBinding(() ->
-                        transform.getScaleOrigin().getX() - (transform.getScaleOrigin().getX() - getMinX()) * transform.getScaleX() + transform.getX(),
-                // dependencies
-                transform.scaleOriginXProperty(), transform.scaleXProperty(), transform.xProperty()
-        );
+    /**
+     * Unbind the hit box.
+     * World values remain as they were last computed.
+     */
+    public void unbind() {
+        updateWorld();
 
-        var x2 = Bindings.createDoubleBinding(() ->
-                        transform.getScaleOrigin().getX() - (transform.getScaleOrigin().getX() - getMaxX()) * transform.getScaleX() + transform.getX(),
-                // dependencies
-                transform.scaleOriginXProperty(), transform.scaleXProperty(), transform.xProperty()
-        );
+        boundTransform = null;
+    }
 
-        var y1 = Bindings.createDoubleBinding(() ->
-                        transform.getScaleOrigin().getY() - (transform.getScaleOrigin().getY() - getMinY()) * transform.getScaleY() + transform.getY(),
-                // dependencies
-                transform.scaleOriginYProperty(), transform.scaleYProperty(), transform.yProperty()
-        );
+    private void updateWorld() {
+        var transform = boundTransform;
 
-        var y2 = Bindings.createDoubleBinding(() ->
-                        transform.getScaleOrigin().getY() - (transform.getScaleOrigin().getY() - getMaxY()) * transform.getScaleY() + transform.getY(),
-                // dependencies
-                transform.scaleOriginYProperty(), transform.scaleYProperty(), transform.yProperty()
-        );
+        if (transform == null || transform.getVersion() == worldVersion)
+            return;
 
-        var isX1GreaterX2 = x1.greaterThan(x2);
-        var isY1GreaterY2 = y1.greaterThan(y2);
+        worldVersion = transform.getVersion();
 
-        minXWorld.bind(
-                Bindings.when(isX1GreaterX2).then(x2).otherwise(x1)
-        );
+        // compute local min and max, then convert to world coord
+        // var minXWorldNew1 = center1.x - (center1.x - box1.minX) * transform1.scaleX + transform1.x;
+        // var maxXWorldNew1 = center1.x - (center1.x - box1.maxX) * transform1.scaleX + transform1.x;
 
-        maxXWorld.bind(
-                Bindings.when(isX1GreaterX2).then(x1).otherwise(x2)
-        );
+        double originX = transform.getScaleOriginX();
+        double originY = transform.getScaleOriginY();
 
-        minYWorld.bind(
-                Bindings.when(isY1GreaterY2).then(y2).otherwise(y1)
-        );
+        double x1 = originX - (originX - getMinX()) * transform.getScaleX() + transform.getX();
+        double x2 = originX - (originX - getMaxX()) * transform.getScaleX() + transform.getX();
+        double y1 = originY - (originY - getMinY()) * transform.getScaleY() + transform.getY();
+        double y2 = originY - (originY - getMaxY()) * transform.getScaleY() + transform.getY();
 
-        maxYWorld.bind(
-                Bindings.when(isY1GreaterY2).then(y1).otherwise(y2)
-        );
-    }
-
-    /**
-     * Unbind the hit box.
-     */
-    public void unbind() {
-        minXWorld.unbind();
-        maxXWorld.unbind();
-        minYWorld.unbind();
-        maxYWorld.unbind();
+        minXWorld = Math.min(x1, x2);
+        maxXWorld = Math.max(x1, x2);
+        minYWorld = Math.min(y1, y2);
+        maxYWorld = Math.max(y1, y2);
     }
 
     public double getMinXWorld() {
-        return minXWorld.get();
+        updateWorld();
+        return minXWorld;
     }
 
     public double getMaxXWorld() {
-        return maxXWorld.get();
+        updateWorld();
+        return maxXWorld;
     }
 
     public double getMinYWorld() {
-        return minYWorld.get();
+        updateWorld();
+        return minYWorld;
     }
 
     public double getMaxYWorld() {
-        return maxYWorld.get();
+        updateWorld();
+        return maxYWorld;
     }
 
     public Point2D getCenterWorld() {
@@ -405,20 +424,24 @@ public final class HitBox implements Serializable {
         // bot left
         corners[3].set(fastMinX, fastMaxY);
 
+        if (coreVertices != corners) {
+            computeCore(transform);
+        }
+
         // if the angle is 0 then rotation and its origin do not matter
         if (angle != 0.0) {
             // rotate
             var origin = transform.getRotationOrigin();
 
             // origin in world coord
-            double originX = origin.getX() + transform.getX();
-            double originY = origin.getY() + transform.getY();
+            float originX = (float) (origin.getX() + transform.getX());
+            float originY = (float) (origin.getY() + transform.getY());
 
             // min, max are already scaled, so we just need to rotate them
-            for (Vec2 v : corners) {
-                v.subLocal(originX, originY);
-                v.set(v.x * cos - v.y * sin, v.x * sin + v.y * cos);
-                v.addLocal(originX, originY);
+            rotate(corners, originX, originY, cos, sin);
+
+            if (coreVertices != corners) {
+                rotate(coreVertices, originX, originY, cos, sin);
             }
         }
 
@@ -426,6 +449,63 @@ public final class HitBox implements Serializable {
         SAT.computeMinMax(corners, axes[1], axis2MinMax);
     }
 
+    /**
+     * Computes scaled and translated core vertices, same as fast min and max above.
+     */
+    private void computeCore(TransformComponent transform) {
+        if (shape instanceof CircleShapeData) {
+            coreVertices[0].set((fastMinX + fastMaxX) / 2, (fastMinY + fastMaxY) / 2);
+
+            // same as the radius of the Box2D circle
+            coreRadius = (fastMaxX - fastMinX) / 2;
+
+        } else if (shape instanceof CapsuleShapeData) {
+            float width = fastMaxX - fastMinX;
+            float height = fastMaxY - fastMinY;
+            float centerX = (fastMinX + fastMaxX) / 2;
+            float centerY = (fastMinY + fastMaxY) / 2;
+
+            coreRadius = Math.min(width, height) / 2;
+
+            if (width >= height) {
+                float halfLength = width / 2 - coreRadius;
+
+                coreVertices[0].set(centerX - halfLength, centerY);
+                coreVertices[1].set(centerX + halfLength, centerY);
+            } else {
+                float halfLength = height / 2 - coreRadius;
+
+                coreVertices[0].set(centerX, centerY - halfLength);
+                coreVertices[1].set(centerX, centerY + halfLength);
+            }
+
+        } else {
+            Point2D[] points = shape instanceof PolygonShapeData
+                    ? ((PolygonShapeData) shape).getPoints()
+                    : ((ChainShapeData) shape).getPoints();
+
+            double scaleOriginX = transform.getScaleOrigin().getX();
+            double scaleOriginY = transform.getScaleOrigin().getY();
+
+            for (int i = 0; i < points.length; i++) {
+                double x = scaleOriginX - (scaleOriginX - (getMinX() + points[i].getX())) * transform.getScaleX() + transform.getX();
+                double y = scaleOriginY - (scaleOriginY - (getMinY() + points[i].getY())) * transform.getScaleY() + transform.getY();
+
+                coreVertices[i].set((float) x, (float) y);
+            }
+
+            coreRadius = 0f;
+        }
+    }
+
+    private static void rotate(Vec2[] vertices, float originX, float originY, float cos, float sin) {
+        for (Vec2 v : vertices) {
+            v.subLocal(originX, originY);
+            v.set(v.x * cos - v.y * sin, v.x * sin + v.y * cos);
+            v.addLocal(originX, originY);
+        }
+    }
+
     @Override
     public String toString() {
         return "HitBox(" + name + "," + shape + ")";
@@ -0,0 +1,310 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.physics;
+
+import com.almasb.fxgl.core.math.Vec2;
+import com.almasb.fxgl.physics.box2d.collision.ConvexDistance;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Shape-accurate collision check between two hit boxes, which also computes the contact normal and depth.
+ * Circles, boxes, capsules and (convex) polygons are tested with GJK ({@link ConvexDistance}),
+ * chains are tested segment by segment.
+ * If the shapes are closer than the sum of their radii, the contact normal is along their closest points.
+ * If their cores overlap, the contact normal is the axis of minimum overlap (SAT) over the edge normals.
+ * Concave polygons are treated as their convex hull, same as Box2D does.
+ *
+ * Hit boxes must have their transform applied ({@link HitBox#applyTransform}) before they are tested.
+ * Scratch objects are kept per thread, so hit box pairs can be tested concurrently.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class Narrowphase {
+
+    private static final ThreadLocal<Narrowphase> LOCAL = ThreadLocal.withInitial(Narrowphase::new);
+
+    /**
+     * Max pairs tested by a single task in {@link #collideAll(List, boolean[], ForkJoinPool)}.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * If cores (in pixels) are closer than this, the closest points do not give a reliable normal.
+     */
+    private static final float CORE_TOLERANCE = 0.01f;
+
+    private final ConvexDistance gjk = new ConvexDistance();
+
+    private final Vec2[] segmentA = { new Vec2(), new Vec2() };
+    private final Vec2[] segmentB = { new Vec2(), new Vec2() };
+
+    // contact of the last test
+    private float normalX;
+    private float normalY;
+    private float depth;
+
+    private Narrowphase() { }
+
+    /**
+     * Thread-safe and GC-friendly, as long as the hit boxes are not transformed concurrently.
+     *
+     * @param box1 hit box 1
+     * @param box2 hit box 2
+     * @param result populated with the hit boxes and contact only if they collide
+     * @return true if two hit boxes are colliding
+     */
+    public static boolean collide(HitBox box1, HitBox box2, CollisionResult result) {
+        return LOCAL.get().test(box1, box2, result);
+    }
+
+    /**
+     * Tests each pair of hit boxes (A and B of a result) in parallel, using the common pool.
+     *
+     * @param pairs candidate pairs, e.g. from a broadphase, contact is populated if colliding
+     * @param hits hits[i] is set to true if pair i is colliding
+     */
+    public static void collideAll(List<CollisionResult> pairs, boolean[] hits) {
+        collideAll(pairs, hits, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Tests each pair of hit boxes (A and B of a result) in parallel.
+     * Few pairs are tested on the calling thread.
+     *
+     * @param pairs candidate pairs, e.g. from a broadphase, contact is populated if colliding
+     * @param hits hits[i] is set to true if pair i is colliding
+     * @param pool the pool to run the tests in
+     */
+    public static void collideAll(List<CollisionResult> pairs, boolean[] hits, ForkJoinPool pool) {
+        if (hits.length < pairs.size())
+            throw new IllegalArgumentException("Hits array is smaller than number of pairs: " + hits.length + " < " + pairs.size());
+
+        if (pairs.size() <= BATCH_SIZE) {
+            LOCAL.get().testAll(pairs, hits, 0, pairs.size());
+        } else {
+            pool.invoke(new CollideAction(pairs, hits, 0, pairs.size()));
+        }
+    }
+
+    private void testAll(List<CollisionResult> pairs, boolean[] hits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            CollisionResult pair = pairs.get(i);
+
+            HitBox box1 = pair.getBoxA();
+            HitBox box2 = pair.getBoxB();
+
+            hits[i] = test(box1, box2, pair);
+
+            if (!hits[i]) {
+                // clear contact from the previous frame
+                pair.init(box1, box2);
+            }
+        }
+    }
+
+    private boolean test(HitBox box1, HitBox box2, CollisionResult result) {
+        // oriented boxes are cheaper to test than the shapes they bound
+        if (!SAT.isColliding(box1, box2))
+            return false;
+
+        Vec2[] vertices1 = box1.coreVertices;
+        Vec2[] vertices2 = box2.coreVertices;
+
+        boolean isChain1 = box1.getShape() instanceof ChainShapeData;
+        boolean isChain2 = box2.getShape() instanceof ChainShapeData;
+
+        int parts1 = isChain1 ? numSegments(vertices1) : 1;
+        int parts2 = isChain2 ? numSegments(vertices2) : 1;
+
+        boolean isColliding = false;
+        float bestNormalX = 0f;
+        float bestNormalY = 0f;
+        float bestDepth = 0f;
+
+        for (int i = 0; i < parts1; i++) {
+            Vec2[] a = isChain1 ? segment(vertices1, i, segmentA) : vertices1;
+
+            for (int j = 0; j < parts2; j++) {
+                Vec2[] b = isChain2 ? segment(vertices2, j, segmentB) : vertices2;
+
+                if (!testConvex(a, box1.coreRadius, b, box2.coreRadius))
+                    continue;
+
+                // a chain may touch the other shape with several segments, keep the deepest
+                if (!isColliding || depth > bestDepth) {
+                    bestNormalX = normalX;
+                    bestNormalY = normalY;
+                    bestDepth = depth;
+                }
+
+                isColliding = true;
+            }
+        }
+
+        if (isColliding) {
+            result.init(box1, box2);
+            result.setContact(bestNormalX, bestNormalY, bestDepth);
+        }
+
+        return isColliding;
+    }
+
+    /**
+     * Chains are closed, same as their Box2D shapes.
+     */
+    private static int numSegments(Vec2[] chain) {
+        return chain.length == 2 ? 1 : chain.length;
+    }
+
+    private static Vec2[] segment(Vec2[] chain, int index, Vec2[] out) {
+        out[0].set(chain[index]);
+        out[1].set(chain[index + 1 == chain.length ? 0 : index + 1]);
+        return out;
+    }
+
+    /**
+     * Tests two convex shapes, each defined by the convex hull of its vertices (the core), expanded by a radius.
+     * Populates the contact if colliding.
+     *
+     * @return true if colliding
+     */
+    private boolean testConvex(Vec2[] a, float radiusA, Vec2[] b, float radiusB) {
+        float distance = gjk.distance(a, a.length, b, b.length);
+        float radius = radiusA + radiusB;
+
+        if (distance > radius)
+            return false;
+
+        boolean isPointPair = a.length == 1 && b.length == 1;
+
+        if (distance > CORE_TOLERANCE || (isPointPair && distance > 0f)) {
+            Vec2 pointA = gjk.getPointA();
+            Vec2 pointB = gjk.getPointB();
+
+            normalX = (pointB.x - pointA.x) / distance;
+            normalY = (pointB.y - pointA.y) / distance;
+            depth = radius - distance;
+            return true;
+        }
+
+        // cores overlap, or are too close to have a reliable normal
+        depth = Float.MAX_VALUE;
+
+        testEdgeNormals(a, a, b);
+        testEdgeNormals(b, a, b);
+
+        if (depth == Float.MAX_VALUE) {
+            // two points at the same position (concentric circles), any direction separates them
+            normalX = 0f;
+            normalY = -1f;
+            depth = 0f;
+        }
+
+        depth += radius;
+        return true;
+    }
+
+    /**
+     * Projects a and b onto each edge normal of the given polygon (or segment)
+     * and keeps the axis with the smallest overlap.
+     */
+    private void testEdgeNormals(Vec2[] polygon, Vec2[] a, Vec2[] b) {
+        int count = polygon.length;
+
+        if (count < 2)
+            return;
+
+        int numEdges = count == 2 ? 1 : count;
+
+        for (int i = 0; i < numEdges; i++) {
+            Vec2 v1 = polygon[i];
+            Vec2 v2 = polygon[i + 1 == count ? 0 : i + 1];
+
+            float axisX = v2.y - v1.y;
+            float axisY = v1.x - v2.x;
+
+            float length = (float) Math.sqrt(axisX * axisX + axisY * axisY);
+
+            // duplicate points
+            if (length < CORE_TOLERANCE)
+                continue;
+
+            axisX /= length;
+            axisY /= length;
+
+            float minA = Float.MAX_VALUE;
+            float maxA = -Float.MAX_VALUE;
+
+            for (Vec2 v : a) {
+                float value = v.x * axisX + v.y * axisY;
+                minA = Math.min(minA, value);
+                maxA = Math.max(maxA, value);
+            }
+
+            float minB = Float.MAX_VALUE;
+            float maxB = -Float.MAX_VALUE;
+
+            for (Vec2 v : b) {
+                float value = v.x * axisX + v.y * axisY;
+                minB = Math.min(minB, value);
+                maxB = Math.max(maxB, value);
+            }
+
+            // how far b moves along the axis, or against it, to stop overlapping a
+            float overlapAlong = maxA - minB;
+            float overlapAgainst = maxB - minA;
+
+            if (overlapAlong <= overlapAgainst) {
+                if (overlapAlong < depth) {
+                    depth = overlapAlong;
+                    normalX = axisX;
+                    normalY = axisY;
+                }
+            } else {
+                if (overlapAgainst < depth) {
+                    depth = overlapAgainst;
+                    normalX = -axisX;
+                    normalY = -axisY;
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests pairs in [from, to).
+     */
+    private static final class CollideAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<CollisionResult> pairs;
+        private final boolean[] hits;
+        private final int from;
+        private final int to;
+
+        CollideAction(List<CollisionResult> pairs, boolean[] hits, int from, int to) {
+            this.pairs = pairs;
+            this.hits = hits;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                LOCAL.get().testAll(pairs, hits, from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+
+            invokeAll(new CollideAction(pairs, hits, from, mid), new CollideAction(pairs, hits, mid, to));
+        }
+    }
+}
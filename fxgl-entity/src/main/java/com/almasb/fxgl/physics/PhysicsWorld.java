@@ -58,6 +58,17 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
 
     private CollisionDetectionStrategy strategy;
 
+    private CollisionGrid collisionGrid;
+
+    private CollisionTree collisionTree = new CollisionTree();
+
+    private CollisionHandlerMatrix handlerMatrix = new CollisionHandlerMatrix(collisionHandlers);
+
+    /**
+     * Incremented every time collisions are checked.
+     */
+    private long collisionFrame = 0;
+
     private int appHeight;
 
     public PhysicsWorld(int appHeight, double ppm) {
@@ -65,8 +76,16 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
     }
 
     public PhysicsWorld(int appHeight, double ppm, CollisionDetectionStrategy strategy) {
+        this(appHeight, ppm, strategy, CollisionDetectionStrategy.DEFAULT_GRID_CELL_SIZE);
+    }
+
+    /**
+     * @param gridCellSize cell size in pixels, only used by {@link CollisionDetectionStrategy#GRID_INDEXING}
+     */
+    public PhysicsWorld(int appHeight, double ppm, CollisionDetectionStrategy strategy, int gridCellSize) {
         this.appHeight = appHeight;
         this.strategy = strategy;
+        this.collisionGrid = new CollisionGrid(gridCellSize, gridCellSize);
 
         PIXELS_PER_METER = ppm;
         METERS_PER_PIXELS = 1 / PIXELS_PER_METER;
@@ -79,7 +98,7 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
 
         log.debugf("Physics world initialized: appHeight=%d, physics.ppm=%.1f",
                 appHeight, ppm);
-        log.debug("Using strategy: " + strategy);
+        log.debug("Using strategy: " + strategy + (strategy == CollisionDetectionStrategy.GRID_INDEXING ? ", cell size: " + gridCellSize : ""));
     }
 
     private void initCollisionPool() {
@@ -201,10 +220,12 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
 
         entities.clear();
         collisionsMap.clear();
+        collisionTree.clear();
     }
 
     public void clearCollisionHandlers() {
         collisionHandlers.clear();
+        handlerMatrix.invalidate();
     }
 
     @Override
@@ -285,10 +306,7 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
         return isCollidable(e1) && isCollidable(e2);
     }
 
-    @SuppressWarnings("PMD.UselessParentheses")
     private boolean needManualCheck(Entity e1, Entity e2) {
-        // if no physics -> check manually
-
         BodyType type1 = e1.getComponentOptional(PhysicsComponent.class)
                 .map(p -> p.body.getType())
                 .orElse(null);
@@ -300,7 +318,18 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
                 .map(p -> p.body.getType())
                 .orElse(null);
 
-        if (type2 == null)
+        return needManualCheck(type1, type2);
+    }
+
+    /**
+     * @param type1 body type of entity 1 or null if entity has no PhysicsComponent
+     * @param type2 body type of entity 2 or null if entity has no PhysicsComponent
+     */
+    @SuppressWarnings("PMD.UselessParentheses")
+    private boolean needManualCheck(BodyType type1, BodyType type2) {
+        // if no physics -> check manually
+
+        if (type1 == null || type2 == null)
             return true;
 
         // if one is kinematic and the other is static -> check manually
@@ -337,10 +366,9 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
     public void postSolve(Contact contact, ContactImpulse impulse) { }
 
     private Array<Entity> collidables = new UnorderedArray<>(128);
+    private Array<TreeProxy> treeCandidates = new UnorderedArray<>(32);
     private CollisionResult collisionResult = new CollisionResult();
 
-    private CollisionGrid collisionGrid = new CollisionGrid(64, 64);
-
     /**
      * Perform collision detection for all entities that have
      * setCollidable(true) and if at least one entity does not have PhysicsComponent.
@@ -348,6 +376,8 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
      * setCollidable(true).
      */
     private void checkCollisions() {
+        collisionFrame++;
+
         if (strategy == CollisionDetectionStrategy.GRID_INDEXING) {
             for (Entity e : entities) {
                 if (isCollidable(e)) {
@@ -356,11 +386,38 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
                 }
             }
 
-            collisionGrid.getCells().forEach((p, cell) -> {
-                checkCollisionsInGroup(cell.getEntities());
-            });
+            checkCollisionsInGrid();
+
+            collisionGrid.clear();
+
+            endUncheckedCollisions();
+
+        } else if (strategy == CollisionDetectionStrategy.DYNAMIC_TREE) {
+            collisionTree.beginFrame();
+
+            for (Entity e : entities) {
+                if (!e.isActive() || !e.hasComponent(CollidableComponent.class))
+                    continue;
+
+                CollidableComponent collidable = e.getComponent(CollidableComponent.class);
+                if (!collidable.getValue())
+                    continue;
+
+                e.getBoundingBoxComponent().applyTransformToHitBoxes$fxgl_entity();
+
+                TreeProxy proxy = collisionTree.insert(e);
+                if (proxy != null) {
+                    proxy.setTypeId(handlerMatrix.typeId(e.getType()));
+                    proxy.setBodyType(e.hasComponent(PhysicsComponent.class) ? e.getComponent(PhysicsComponent.class).body.getType() : null);
+                    proxy.setCollidable(collidable);
+                }
+            }
+
+            collisionTree.removeStale();
+
+            checkCollisionsInTree();
 
-            collisionGrid.getCells().clear();
+            endUncheckedCollisions();
 
         } else {
             for (Entity e : entities) {
@@ -383,33 +440,109 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
             for (int j = i + 1; j < group.size(); j++) {
                 Entity e2 = group.get(j);
 
-                CollisionHandler handler = getHandler(e1, e2);
+                checkCollision(e1, e2);
+            }
+        }
+    }
+
+    private void checkCollisionsInGrid() {
+        Array<CollisionCell> cells = collisionGrid.getActiveCells();
 
-                // if no handler registered, no need to check for this pair
-                if (handler == null)
-                    continue;
+        for (int c = 0; c < cells.size(); c++) {
+            CollisionCell cell = cells.get(c);
+            Array<CollisionProxy> proxies = cell.getProxies();
 
-                // if no need for manual check, let jbox handle it
-                if (!needManualCheck(e1, e2)) {
-                    continue;
-                }
+            for (int i = 0; i < proxies.size(); i++) {
+                CollisionProxy p1 = proxies.get(i);
 
-                // check if e1 ignores e2, or e2 ignores e1
-                if (isIgnored(e1, e2))
-                    continue;
+                for (int j = i + 1; j < proxies.size(); j++) {
+                    CollisionProxy p2 = proxies.get(j);
 
-                // check if colliding
-                var collision = e1.getBoundingBoxComponent().checkCollisionPAT(e2.getBoundingBoxComponent(), collisionResult);
+                    // pairs that share several cells are only checked in one of them
+                    if (!collisionGrid.isOwner(cell, p1, p2))
+                        continue;
 
-                if (collision) {
-                    collisionBeginFor(handler, e1, e2, collisionResult.getBoxA(), collisionResult.getBoxB());
-                } else {
-                    collisionEndFor(e1, e2);
+                    checkCollision(p1.getEntity(), p2.getEntity());
                 }
             }
         }
     }
 
+    private void checkCollisionsInTree() {
+        Array<TreeProxy> proxies = collisionTree.getActiveProxies();
+
+        for (int i = 0; i < proxies.size(); i++) {
+            TreeProxy p1 = proxies.get(i);
+
+            collisionTree.query(p1, treeCandidates);
+
+            for (int j = 0; j < treeCandidates.size(); j++) {
+                checkCollision(p1, treeCandidates.get(j));
+            }
+
+            treeCandidates.clear();
+        }
+    }
+
+    /**
+     * Same as {@link #checkCollision(Entity, Entity)} but uses data cached in proxies for this frame.
+     */
+    private void checkCollision(TreeProxy p1, TreeProxy p2) {
+        Entity e1 = p1.getEntity();
+        Entity e2 = p2.getEntity();
+
+        // a handler may have removed either entity earlier in this pass
+        if (!e1.isActive() || !e2.isActive())
+            return;
+
+        CollisionHandler handler = handlerMatrix.get(p1.getTypeId(), p2.getTypeId());
+
+        if (handler == null)
+            return;
+
+        if (!needManualCheck(p1.getBodyType(), p2.getBodyType()))
+            return;
+
+        // most entities do not ignore any types
+        boolean mayIgnore = !p1.getCollidable().getIgnoredTypes().isEmpty()
+                || !p2.getCollidable().getIgnoredTypes().isEmpty();
+
+        if (mayIgnore && isIgnored(e1, e2))
+            return;
+
+        checkCollisionPAT(handler, e1, e2);
+    }
+
+    private void checkCollision(Entity e1, Entity e2) {
+        CollisionHandler handler = getHandler(e1, e2);
+
+        // if no handler registered, no need to check for this pair
+        if (handler == null)
+            return;
+
+        // if no need for manual check, let jbox handle it
+        if (!needManualCheck(e1, e2)) {
+            return;
+        }
+
+        // check if e1 ignores e2, or e2 ignores e1
+        if (isIgnored(e1, e2))
+            return;
+
+        checkCollisionPAT(handler, e1, e2);
+    }
+
+    private void checkCollisionPAT(CollisionHandler handler, Entity e1, Entity e2) {
+        // check if colliding
+        var collision = e1.getBoundingBoxComponent().checkCollisionPAT(e2.getBoundingBoxComponent(), collisionResult);
+
+        if (collision) {
+            collisionBeginFor(handler, e1, e2, collisionResult.getBoxA(), collisionResult.getBoxB());
+        } else {
+            collisionEndFor(e1, e2);
+        }
+    }
+
     private boolean isIgnored(Entity e1, Entity e2) {
         if (!e1.hasComponent(CollidableComponent.class) || !e2.hasComponent(CollidableComponent.class))
             return false;
@@ -452,6 +585,37 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
             );
             pair.collisionBegin();
         }
+
+        pair.setCheckedFrame(collisionFrame);
+    }
+
+    /**
+     * Broadphase strategies do not check pairs whose bounds no longer overlap,
+     * so collisions of such pairs are ended here.
+     */
+    private void endUncheckedCollisions() {
+        for (Iterator<CollisionPair> it = collisionsMap.getValues().iterator(); it.hasNext(); ) {
+            CollisionPair pair = it.next();
+
+            if (pair.getCheckedFrame() == collisionFrame)
+                continue;
+
+            Entity e1 = pair.getA();
+            Entity e2 = pair.getB();
+
+            // non-collidable pairs are removed in notifyCollisions()
+            if (!isCollidable(e1) || !isCollidable(e2))
+                continue;
+
+            // pairs that would not have been checked manually keep their state, e.g. jbox2d contacts
+            if (getHandler(e1, e2) == null || !needManualCheck(e1, e2) || isIgnored(e1, e2))
+                continue;
+
+            it.remove();
+
+            pair.collisionEnd();
+            Pools.free(pair);
+        }
     }
 
     private void collisionEndFor(Entity e1, Entity e2) {
@@ -513,6 +677,7 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
      */
     public void addCollisionHandler(CollisionHandler handler) {
         collisionHandlers.put(handler.getA(), handler.getB(), handler);
+        handlerMatrix.addHandlerTypes(handler.getA(), handler.getB());
     }
 
     /**
@@ -522,6 +687,7 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener,
      */
     public void removeCollisionHandler(CollisionHandler handler) {
         collisionHandlers.remove(handler.getA(), handler.getB());
+        handlerMatrix.invalidate();
     }
 
     /**
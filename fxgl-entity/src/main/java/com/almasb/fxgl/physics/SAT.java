@@ -18,13 +18,8 @@ public final class SAT {
 
     private SAT() {}
 
-    private static final MinMax box2axis1 = new MinMax();
-    private static final MinMax box2axis2 = new MinMax();
-    private static final MinMax box1axis3 = new MinMax();
-    private static final MinMax box1axis4 = new MinMax();
-
     /**
-     * Note: NOT thread-safe but GC-friendly.
+     * Note: the angles and transforms are not used, since hit boxes already have their transforms applied.
      *
      * @param box1 hit box 1
      * @param box2 hit box 2
@@ -36,33 +31,43 @@ public final class SAT {
      */
     public static boolean isColliding(HitBox box1, HitBox box2, double angle1, double angle2,
                                       TransformComponent t1, TransformComponent t2) {
+        return isColliding(box1, box2);
+    }
 
-        Vec2 axis1 = box1.axes[0];
-        Vec2 axis2 = box1.axes[1];
-        Vec2 axis3 = box2.axes[0];
-        Vec2 axis4 = box2.axes[1];
-
-        computeMinMax(box2.corners, axis1, box2axis1);
-
-        if (box1.axis1MinMax.isSeparated(box2axis1))
-            return false;
-
-        computeMinMax(box2.corners, axis2, box2axis2);
-
-        if (box1.axis2MinMax.isSeparated(box2axis2))
-            return false;
+    /**
+     * Thread-safe and GC-friendly, as long as the hit boxes are not transformed concurrently.
+     *
+     * @param box1 hit box 1
+     * @param box2 hit box 2
+     * @return true if oriented boxes of two hit boxes are colliding
+     */
+    public static boolean isColliding(HitBox box1, HitBox box2) {
+        return !isSeparated(box1.axis1MinMax, box2.corners, box1.axes[0])
+                && !isSeparated(box1.axis2MinMax, box2.corners, box1.axes[1])
+                && !isSeparated(box2.axis1MinMax, box1.corners, box2.axes[0])
+                && !isSeparated(box2.axis2MinMax, box1.corners, box2.axes[1]);
+    }
 
-        computeMinMax(box1.corners, axis3, box1axis3);
+    /**
+     * @param minMax projection of a box to the axis
+     * @param corners corners of the other box
+     * @param axis the axis on which to project corners
+     * @return true if projection of corners is separated from minMax
+     */
+    private static boolean isSeparated(MinMax minMax, Vec2[] corners, Vec2 axis) {
+        float value = Vec2.dot(corners[0], axis);
 
-        if (box2.axis1MinMax.isSeparated(box1axis3))
-            return false;
+        float min = value;
+        float max = value;
 
-        computeMinMax(box1.corners, axis4, box1axis4);
+        for (int i = 1; i < 4; i++) {
+            value = Vec2.dot(corners[i], axis);
 
-        if (box2.axis2MinMax.isSeparated(box1axis4))
-            return false;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
 
-        return true;
+        return minMax.max < min || max < minMax.min;
     }
 
     /**
@@ -95,13 +100,5 @@ public final class SAT {
     public static class MinMax {
         private float min = 0;
         private float max = 0;
-
-        /**
-         * @param other another min-max (assumed on the same axis)
-         * @return true if this min-max is separated from other
-         */
-        private boolean isSeparated(MinMax other) {
-            return max < other.min || other.max < min;
-        }
     }
 }
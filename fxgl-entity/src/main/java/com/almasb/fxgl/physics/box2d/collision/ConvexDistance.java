@@ -0,0 +1,63 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.physics.box2d.collision;
+
+import com.almasb.fxgl.core.math.Vec2;
+
+/**
+ * Computes the distance between two convex vertex sets given in the same coordinate system
+ * with the GJK algorithm ({@link Distance}).
+ * Unlike {@link GenericCollision}, each instance has its own scratch objects,
+ * so separate instances can be used concurrently, e.g. one per thread.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class ConvexDistance {
+
+    private final Distance distance = new Distance();
+    private final DistanceInput input = new DistanceInput();
+    private final Distance.SimplexCache cache = new Distance.SimplexCache();
+    private final DistanceOutput output = new DistanceOutput();
+
+    public ConvexDistance() {
+        // vertices are already in the same coordinate system
+        input.transformA.setIdentity();
+        input.transformB.setIdentity();
+        input.useRadii = false;
+    }
+
+    /**
+     * Vertex sets are treated as their convex hulls.
+     * A set of 1 vertex is a point, of 2 vertices a segment.
+     *
+     * @return distance between the vertex sets, 0 if they overlap
+     */
+    public float distance(Vec2[] verticesA, int countA, Vec2[] verticesB, int countB) {
+        input.proxyA.set(verticesA, countA, 0f);
+        input.proxyB.set(verticesB, countB, 0f);
+
+        cache.count = 0;
+
+        distance.distance(output, cache, input);
+
+        return output.distance;
+    }
+
+    /**
+     * @return closest point on vertex set A, computed by the last call to distance()
+     */
+    public Vec2 getPointA() {
+        return output.pointA;
+    }
+
+    /**
+     * @return closest point on vertex set B, computed by the last call to distance()
+     */
+    public Vec2 getPointB() {
+        return output.pointB;
+    }
+}
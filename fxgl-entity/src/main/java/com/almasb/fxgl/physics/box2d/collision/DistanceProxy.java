@@ -17,7 +17,7 @@ import com.almasb.fxgl.physics.box2d.common.JBoxSettings;
  * @author daniel
  */
 final class DistanceProxy {
-    private final Vec2[] vertices = new Vec2[JBoxSettings.maxPolygonVertices];
+    private Vec2[] vertices = new Vec2[JBoxSettings.maxPolygonVertices];
     private final Vec2[] buffer = new Vec2[2];
     private int count = 0;
     private float radius = 0f;
@@ -79,6 +79,30 @@ final class DistanceProxy {
         }
     }
 
+    /**
+     * Initialize the proxy using the given convex vertex set (e.g. a hull, a segment or a point) and radius.
+     * The vertices are copied, so they do not need to remain in scope.
+     */
+    void set(Vec2[] vertices, int count, float radius) {
+        if (count > this.vertices.length) {
+            Vec2[] newVertices = new Vec2[count];
+            System.arraycopy(this.vertices, 0, newVertices, 0, this.vertices.length);
+
+            for (int i = this.vertices.length; i < count; i++) {
+                newVertices[i] = new Vec2();
+            }
+
+            this.vertices = newVertices;
+        }
+
+        for (int i = 0; i < count; i++) {
+            this.vertices[i].set(vertices[i]);
+        }
+
+        this.count = count;
+        this.radius = radius;
+    }
+
     /**
      * @return the supporting vertex index in the given direction
      */
@@ -206,8 +206,22 @@ class Island {
     private final SolverData solverData = new SolverData();
     private final ContactSolverDef solverDef = new ContactSolverDef();
 
+    private float stepDt;
+    private boolean positionSolved;
+
     void solve(TimeStep step, Vec2 gravity, boolean allowSleep) {
+        prepareSolve(step, gravity);
+        solveConstraints(step);
+        finishSolve(allowSleep);
+    }
+
+    /**
+     * Reads body state into island buffers and initializes constraints.
+     * Reads body island indices, so it must be called before bodies are added to another island.
+     */
+    void prepareSolve(TimeStep step, Vec2 gravity) {
         float h = step.dt;
+        stepDt = h;
 
         // Integrate velocities and apply damping. Initialize the body state.
         for (int i = 0; i < bodyCount; ++i) {
@@ -272,6 +286,15 @@ class Island {
         for (int i = 0; i < jointCount; ++i) {
             joints[i].initVelocityConstraints(solverData);
         }
+    }
+
+    /**
+     * Solves velocity and position constraints.
+     * Only island buffers are modified, so if the island has no joints,
+     * this can run concurrently with other islands.
+     */
+    void solveConstraints(TimeStep step) {
+        float h = step.dt;
 
         // Solve velocity constraints
         for (int i = 0; i < step.velocityIterations; ++i) {
@@ -317,7 +340,7 @@ class Island {
         }
 
         // Solve position constraints
-        boolean positionSolved = false;
+        positionSolved = false;
         for (int i = 0; i < step.positionIterations; ++i) {
             boolean contactsOkay = contactSolver.solvePositionConstraints();
 
@@ -333,6 +356,13 @@ class Island {
                 break;
             }
         }
+    }
+
+    /**
+     * Copies island buffers back to the bodies, reports impulses to the listener and puts the island to sleep if possible.
+     */
+    void finishSolve(boolean allowSleep) {
+        float h = stepDt;
 
         // Copy state buffers back to the bodies
         for (int i = 0; i < bodyCount; ++i) {
@@ -498,6 +528,35 @@ class Island {
         joints[jointCount++] = joint;
     }
 
+    /**
+     * Adds bodies, contacts and joints of given island to this island, in the same order.
+     */
+    void addAll(Island other) {
+        for (int i = 0; i < other.bodyCount; ++i) {
+            add(other.bodies[i]);
+        }
+
+        for (int i = 0; i < other.contactCount; ++i) {
+            add(other.contacts[i]);
+        }
+
+        for (int i = 0; i < other.jointCount; ++i) {
+            add(other.joints[i]);
+        }
+    }
+
+    int getBodyCount() {
+        return bodyCount;
+    }
+
+    int getContactCount() {
+        return contactCount;
+    }
+
+    int getJointCount() {
+        return jointCount;
+    }
+
     boolean isBodyCountEqualToCapacity() {
         return bodyCount == bodyCapacity;
     }
@@ -31,6 +31,9 @@ import com.almasb.fxgl.physics.box2d.particle.*;
 import com.almasb.fxgl.physics.box2d.pooling.DefaultWorldPool;
 import com.almasb.fxgl.physics.box2d.pooling.IWorldPool;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * The world class manages all physics entities, dynamic simulation, and asynchronous queries.
  * The world also contains efficient memory management facilities.
@@ -60,6 +63,9 @@ public final class World {
 
     private boolean subStepping = false;
 
+    private boolean parallelSolve = false;
+    private ForkJoinPool solvePool = ForkJoinPool.commonPool();
+
     private boolean stepComplete = true;
 
     private Array<Body> bodies = new Array<>(WORLD_POOL_SIZE);
@@ -297,6 +303,17 @@ public final class World {
     private final Island island = new Island();
     private Body[] stack = new Body[10];
 
+    /**
+     * Islands collected in the current step that are solved in parallel.
+     */
+    private final Array<Island> parallelIslands = new Array<>();
+
+    /**
+     * All islands collected in the current step (with or without joints), in the order they were built.
+     */
+    private final Array<Island> finishIslands = new Array<>();
+    private final Array<Island> freeIslands = new Array<>();
+
     private void solve(TimeStep step) {
         // update previous transforms
         for (Body b : bodies) {
@@ -420,11 +437,35 @@ public final class World {
                     other.setIslandFlag(true);
                 }
             }
-            island.solve(step, gravity, allowSleep);
+            if (parallelSolve) {
+                Island copy = freeIslands.isEmpty() ? new Island() : freeIslands.pop();
+                copy.init(island.getBodyCount(), island.getContactCount(), island.getJointCount(), contactManager.getContactListener());
+                copy.addAll(island);
+
+                // reads island indices of bodies, which static bodies in the next islands will overwrite
+                copy.prepareSolve(step, gravity);
+
+                if (island.getJointCount() == 0) {
+                    parallelIslands.add(copy);
+                } else {
+                    // joints use the world pool, so islands with joints are solved on this thread
+                    copy.solveConstraints(step);
+                }
+
+                // all islands are finished later in the order they were built,
+                // so listener callbacks are made in the same order as in sequential solve
+                finishIslands.add(copy);
+            } else {
+                island.solve(step, gravity, allowSleep);
+            }
 
             island.postSolveCleanup();
         }
 
+        if (!finishIslands.isEmpty()) {
+            solveParallelIslands(step);
+        }
+
         // Synchronize fixtures, check for out of range bodies.
         for (Body b : bodies) {
             // If a body was not in an island then it did not move.
@@ -444,6 +485,53 @@ public final class World {
         contactManager.findNewContacts();
     }
 
+    private void solveParallelIslands(TimeStep step) {
+        if (parallelIslands.size() == 1) {
+            parallelIslands.get(0).solveConstraints(step);
+        } else if (parallelIslands.size() > 1) {
+            solvePool.invoke(new SolveIslandsAction(step, 0, parallelIslands.size()));
+        }
+
+        // body write back and listener callbacks happen on this thread, in the order islands were built
+        for (Island finishIsland : finishIslands) {
+            finishIsland.finishSolve(allowSleep);
+
+            freeIslands.add(finishIsland);
+        }
+
+        parallelIslands.clear();
+        finishIslands.clear();
+    }
+
+    /**
+     * Solves constraints of parallel islands in [from, to).
+     */
+    private final class SolveIslandsAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TimeStep step;
+        private final int from;
+        private final int to;
+
+        SolveIslandsAction(TimeStep step, int from, int to) {
+            this.step = step;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                parallelIslands.get(from).solveConstraints(step);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+
+            invokeAll(new SolveIslandsAction(step, from, mid), new SolveIslandsAction(step, mid, to));
+        }
+    }
+
     private final Island toiIsland = new Island();
     private final TOIInput toiInput = new TOIInput();
     private final TOIOutput toiOutput = new TOIOutput();
@@ -1236,6 +1324,33 @@ public final class World {
         return subStepping;
     }
 
+    /**
+     * @return true if independent islands are solved in parallel
+     */
+    public boolean isParallelSolve() {
+        return parallelSolve;
+    }
+
+    /**
+     * If true, constraints of islands without joints are solved in parallel, which benefits
+     * scenes with many independent groups of bodies, e.g. debris piles.
+     * Islands with joints are solved on the calling thread.
+     * Contact listener callbacks are still made on the thread that calls {@link #step(float, int, int)},
+     * in the same order as with sequential solve.
+     * Default: false.
+     */
+    public void setParallelSolve(boolean parallelSolve) {
+        this.parallelSolve = parallelSolve;
+    }
+
+    /**
+     * Set the pool used to solve islands in parallel.
+     * Default: {@link ForkJoinPool#commonPool()}.
+     */
+    public void setParallelSolvePool(ForkJoinPool solvePool) {
+        this.solvePool = solvePool;
+    }
+
     public ParticleSystem getParticleSystem() {
         return particleSystem;
     }
@@ -0,0 +1,230 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity
+
+import com.almasb.fxgl.core.collection.LongMap
+import com.almasb.fxgl.entity.component.Component
+import com.almasb.fxgl.entity.component.ComponentListener
+import com.almasb.fxgl.entity.components.IDComponent
+import com.almasb.fxgl.entity.components.TypeComponent
+import javafx.beans.value.ChangeListener
+import javafx.beans.value.ObservableValue
+import java.io.Serializable
+import java.util.*
+
+/**
+ * Maintains per-type and per-component class views of world entities,
+ * as well as IDComponent (name, id) to entity lookup.
+ * The index is kept in sync via type property and component listeners of each entity.
+ * Untyped entities (see [TypeComponent.isUntyped]) are not indexed by type,
+ * since each of them has its own type object.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class EntityIndex {
+
+    private val entries = IdentityHashMap<Entity, Entry>()
+
+    private val typeViews = hashMapOf<Any, EntityView>()
+    private val componentViews = hashMapOf<Class<out Component>, EntityView>()
+
+    /**
+     * IDComponent name -> (id -> entities with that name and id).
+     */
+    private val ids = hashMapOf<String, LongMap<IDSlot>>()
+
+    private var nextOrder = 0L
+
+    fun add(entity: Entity) {
+        if (entity in entries)
+            return
+
+        val entry = Entry(entity, nextOrder++)
+        entries[entity] = entry
+
+        entity.type?.let { addToTypeView(entry, it) }
+
+        entity.components.forEach { onComponentAdded(entry, it) }
+
+        entity.typeProperty().addListener(entry)
+        entity.addComponentListener(entry)
+    }
+
+    fun remove(entity: Entity) {
+        val entry = entries.remove(entity) ?: return
+
+        entity.typeProperty().removeListener(entry)
+        entity.removeComponentListener(entry)
+
+        entity.type?.let { removeFromTypeView(entry, it) }
+
+        entity.components.forEach { onComponentRemoved(entry, it) }
+    }
+
+    fun clear() {
+        entries.values.forEach {
+            it.entity.typeProperty().removeListener(it)
+            it.entity.removeComponentListener(it)
+        }
+
+        entries.clear()
+
+        // views are live, so they are cleared rather than discarded
+        typeViews.values.forEach { it.clear() }
+        componentViews.values.forEach { it.clear() }
+        ids.clear()
+    }
+
+    fun typeView(type: Any): EntityView = typeViews.getOrPut(type) { EntityView() }
+
+    fun componentView(type: Class<out Component>): EntityView = componentViews.getOrPut(type) { EntityView() }
+
+    /**
+     * @return entities of any of given types, in world order
+     */
+    fun getByTypes(types: kotlin.Array<out Any>): List<Entity> {
+        if (types.size == 1) {
+            return typeViews[types[0]]?.toList() ?: ArrayList()
+        }
+
+        val views = types.distinct().mapNotNull { typeViews[it] }
+
+        val result = ArrayList<Entity>(views.sumOf { it.size() })
+
+        // k-way merge by world order
+        val indices = IntArray(views.size)
+
+        while (true) {
+            var next = -1
+
+            for (i in views.indices) {
+                if (indices[i] < views[i].size()) {
+                    if (next == -1 || views[i].orderAt(indices[i]) < views[next].orderAt(indices[next])) {
+                        next = i
+                    }
+                }
+            }
+
+            if (next == -1)
+                break
+
+            result += views[next].get(indices[next]++)
+        }
+
+        return result
+    }
+
+    fun getByID(name: String, id: Int): Entity? {
+        return ids[name]?.get(id.toLong())?.first?.entity
+    }
+
+    private fun addToTypeView(entry: Entry, type: Any) {
+        if (!TypeComponent.isUntyped(type)) {
+            typeView(type).add(entry.entity, entry.order)
+        }
+    }
+
+    private fun removeFromTypeView(entry: Entry, type: Any) {
+        typeViews[type]?.remove(entry.order)
+    }
+
+    private fun onComponentAdded(entry: Entry, component: Component) {
+        componentView(component.javaClass).add(entry.entity, entry.order)
+
+        if (component is IDComponent) {
+            // remember the key, so that the entry can be found on removal
+            entry.idName = component.name
+            entry.id = component.id
+
+            val idMap = ids.getOrPut(component.name) { LongMap() }
+            val slot = idMap.get(component.id.toLong())
+
+            if (slot == null) {
+                idMap.put(component.id.toLong(), IDSlot(entry))
+                return
+            }
+
+            val others = slot.others ?: ArrayList<Entry>(2).also { slot.others = it }
+
+            // if multiple entities have same name and id, the first one in world order is returned
+            if (entry.order < slot.first.order) {
+                others += slot.first
+                slot.first = entry
+            } else {
+                others += entry
+            }
+        }
+    }
+
+    private fun onComponentRemoved(entry: Entry, component: Component) {
+        componentViews[component.javaClass]?.remove(entry.order)
+
+        if (component is IDComponent) {
+            val name = entry.idName ?: return
+            entry.idName = null
+
+            val idMap = ids[name] ?: return
+            val slot = idMap.get(entry.id.toLong()) ?: return
+
+            if (slot.first !== entry) {
+                slot.others?.remove(entry)
+                return
+            }
+
+            val others = slot.others
+
+            if (others == null || others.isEmpty()) {
+                idMap.remove(entry.id.toLong())
+
+                if (idMap.isEmpty)
+                    ids.remove(name)
+
+                return
+            }
+
+            var next = 0
+
+            for (i in 1 until others.size) {
+                if (others[i].order < others[next].order) {
+                    next = i
+                }
+            }
+
+            slot.first = others.removeAt(next)
+        }
+    }
+
+    /**
+     * Entities with the same IDComponent name and id.
+     * Duplicates are rare, so the list of others is only created when needed.
+     */
+    private class IDSlot(var first: Entry) {
+        var others: ArrayList<Entry>? = null
+    }
+
+    private inner class Entry(val entity: Entity, val order: Long) : ComponentListener, ChangeListener<Serializable> {
+
+        /**
+         * IDComponent name and id as indexed, null if not indexed by id.
+         */
+        var idName: String? = null
+        var id = 0
+
+        override fun onAdded(component: Component) {
+            onComponentAdded(this, component)
+        }
+
+        override fun onRemoved(component: Component) {
+            onComponentRemoved(this, component)
+        }
+
+        override fun changed(observable: ObservableValue<out Serializable>, oldType: Serializable?, newType: Serializable?) {
+            oldType?.let { removeFromTypeView(this, it) }
+            newType?.let { addToTypeView(this, it) }
+        }
+    }
+}
@@ -29,10 +29,13 @@ import kotlin.collections.ArrayList
 /**
  * Represents pure logical state of the game.
  * Manages all entities and allows queries.
+ * Spatial queries (range, point, colliding, closest) are served by a [SpatialIndex]
+ * with given cell size, which should be close to the typical entity size.
  *
  * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
  */
-class GameWorld {
+class GameWorld
+@JvmOverloads constructor(spatialIndexCellSize: Double = SpatialIndex.DEFAULT_CELL_SIZE) {
 
     companion object {
         private val log = Logger.get("GameWorld")
@@ -62,6 +65,16 @@ class GameWorld {
 
     private val pool = EntityPool()
 
+    /**
+     * Incrementally maintained grid of world entities, used by spatial queries.
+     */
+    private val spatialIndex = SpatialIndex(spatialIndexCellSize)
+
+    /**
+     * Incrementally maintained per-type, per-component and ID views of world entities.
+     */
+    private val entityIndex = EntityIndex()
+
     init {
         log.debug("Game world initialized")
     }
@@ -81,6 +94,8 @@ class GameWorld {
             waitingList.add(entity)
 
         entities.add(entity)
+        spatialIndex.add(entity)
+        entityIndex.add(entity)
 
         add(entity)
     }
@@ -116,6 +131,8 @@ class GameWorld {
         }
 
         entities.remove(entity)
+        spatialIndex.remove(entity)
+        entityIndex.remove(entity)
 
         entity.markForRemoval()
         notifyEntityRemoved(entity)
@@ -214,6 +231,8 @@ class GameWorld {
 
         properties.clear()
         entities.clear()
+        spatialIndex.clear()
+        entityIndex.clear()
         entityFactories.clear()
         entitySpawners.clear()
         worldListeners.clear()
@@ -289,6 +308,8 @@ class GameWorld {
                 e.clean()
 
                 it.remove()
+                spatialIndex.remove(e)
+                entityIndex.remove(e)
             }
         }
     }
@@ -431,7 +452,7 @@ class GameWorld {
     /* QUERIES */
 
     fun getSingleton(type: Enum<*>): Entity {
-        return getSingleton(Predicate { it.isType(type) })
+        return entityIndex.typeView(type).firstOrNull() ?: throw NoSuchElementException("No entity found with type: $type")
     }
 
     fun getSingleton(predicate: Predicate<Entity>): Entity {
@@ -444,7 +465,7 @@ class GameWorld {
      * @return first occurrence matching given type
      */
     fun getSingletonOptional(type: Enum<*>): Optional<Entity> {
-        return getSingletonOptional(Predicate { it.isType(type) })
+        return Optional.ofNullable(entityIndex.typeView(type).firstOrNull())
     }
 
     /**
@@ -471,7 +492,7 @@ class GameWorld {
      * @return array of entities that have given component
      */
     fun getEntitiesByComponent(type: Class<out Component>): List<Entity> {
-        return entities.filter { it.hasComponent(type) }
+        return entityIndex.componentView(type).toList()
     }
 
     /**
@@ -479,7 +500,40 @@ class GameWorld {
      * @return entities that have given component mapped to component instance
      */
     fun <T : Component> getEntitiesByComponentMapped(type: Class<T>): Map<Entity, T> {
-        return entities.filter { it.hasComponent(type) }.associateWith { it.getComponent(type) }
+        val view = entityIndex.componentView(type)
+
+        val map = LinkedHashMap<Entity, T>(view.size() * 2)
+
+        for (i in 0 until view.size()) {
+            val e = view.get(i)
+            map[e] = e.getComponent(type)
+        }
+
+        return map
+    }
+
+    /**
+     * Returns a live view of entities that have given component.
+     * The view is updated as entities are added / removed and as components are added / removed,
+     * so it can be obtained once and iterated (by index) every frame without allocations.
+     *
+     * @param type component type
+     * @return live view of entities that have given component
+     */
+    fun getComponentView(type: Class<out Component>): EntityView {
+        return entityIndex.componentView(type)
+    }
+
+    /**
+     * Returns a live view of entities with given type.
+     * The view is updated as entities are added / removed and as entity types change,
+     * so it can be obtained once and iterated (by index) every frame without allocations.
+     *
+     * @param type entity type
+     * @return live view of entities with given type
+     */
+    fun getTypeView(type: Any): EntityView {
+        return entityIndex.typeView(type)
     }
 
     /**
@@ -503,11 +557,7 @@ class GameWorld {
         if (types.isEmpty())
             return entitiesCopy
 
-        return entities.filter { isOneOfTypes(it, *types) }
-    }
-
-    private fun isOneOfTypes(entity: Entity, vararg types: Enum<*>): Boolean {
-        return types.any { entity.isType(it) }
+        return entityIndex.getByTypes(types)
     }
 
     /**
@@ -520,7 +570,12 @@ class GameWorld {
      * @return new list containing entities that satisfy query filters
      */
     fun getEntitiesInRange(selection: Rectangle2D): List<Entity> {
-        return entities.filter { it.boundingBoxComponent.isWithin(selection) }
+        val result = ArrayList<Entity>()
+
+        spatialIndex.queryRange(selection.minX, selection.minY, selection.maxX, selection.maxY,
+                Predicate { it.boundingBoxComponent.isWithin(selection) }, result)
+
+        return result
     }
 
     /**
@@ -533,7 +588,11 @@ class GameWorld {
      * @return new list containing entities that satisfy query filters
      */
     fun getCollidingEntities(entity: Entity): List<Entity> {
-        return entities.filter { it.isColliding(entity) && it !== entity }
+        val result = ArrayList<Entity>()
+
+        spatialIndex.queryOverlapping(entity, Predicate { it.isColliding(entity) }, result)
+
+        return result
     }
 
     /**
@@ -544,7 +603,11 @@ class GameWorld {
      * @return entities at given point
      */
     fun getEntitiesAt(position: Point2D): List<Entity> {
-        return entities.filter { it.position == position }
+        val result = ArrayList<Entity>()
+
+        spatialIndex.queryPoint(position.x, position.y, Predicate { true }, result)
+
+        return result
     }
 
     /**
@@ -560,11 +623,41 @@ class GameWorld {
      * @return closest entity to selected entity with type
      */
     fun getClosestEntity(entity: Entity, filter: Predicate<Entity>): Optional<Entity> {
-        return Optional.ofNullable(
-                entities.filter { filter.test(it) && it !== entity }
-                        .sortedBy { entity.distance(it) }
-                        .firstOrNull()
-        )
+        val result = closestBuffer
+
+        spatialIndex.queryNearest(entity.x, entity.y, 1, entity, filter, result)
+
+        val closest = result.firstOrNull()
+        result.clear()
+
+        return Optional.ofNullable(closest)
+    }
+
+    private val closestBuffer = ArrayList<Entity>(1)
+
+    /**
+     * Finds up to [k] entities closest to the given entity that satisfy given filter
+     * and adds them to [result] in ascending order of distance.
+     * The given entity itself is never added.
+     * Distance is measured between transform positions, same as [Entity.distance].
+     * This query does not allocate, provided [result] has enough capacity.
+     *
+     * @param entity selected entity
+     * @param k max number of entities to find
+     * @param filter requirements
+     * @param result list to add found entities to
+     */
+    fun getClosestEntities(entity: Entity, k: Int, filter: Predicate<Entity>, result: MutableList<Entity>) {
+        spatialIndex.queryNearest(entity.x, entity.y, k, entity, filter, result)
+    }
+
+    /**
+     * Finds up to [k] entities closest to given point that satisfy given filter
+     * and adds them to [result] in ascending order of distance.
+     * This query does not allocate, provided [result] has enough capacity.
+     */
+    fun getClosestEntities(x: Double, y: Double, k: Int, filter: Predicate<Entity>, result: MutableList<Entity>) {
+        spatialIndex.queryNearest(x, y, k, null, filter, result)
     }
 
     /**
@@ -573,19 +666,14 @@ class GameWorld {
      *
      * Returns [Optional.empty] if no entity was found with such combination.
      * This query only works on entities with IDComponent.
+     * Name and id are indexed when the component is added, so they should not change afterwards.
      *
      * @param name entity name
      * @param id entity id
      * @return entity that matches the query or [Optional.empty]
      */
     fun getEntityByID(name: String, id: Int): Optional<Entity> {
-        return Optional.ofNullable(
-                getEntitiesByComponent(IDComponent::class.java).find {
-                    val idComponent = it.getComponent(IDComponent::class.java)
-
-                    return@find idComponent.name == name && idComponent.id == id
-                }
-        )
+        return Optional.ofNullable(entityIndex.getByID(name, id))
     }
 
     /**
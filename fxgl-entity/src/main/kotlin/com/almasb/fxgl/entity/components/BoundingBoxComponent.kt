@@ -11,15 +11,16 @@ import com.almasb.fxgl.entity.component.Component
 import com.almasb.fxgl.entity.component.CoreComponent
 import com.almasb.fxgl.entity.component.SerializableComponent
 import com.almasb.fxgl.physics.Box3DShapeData
+import com.almasb.fxgl.physics.BoxShapeData
 import com.almasb.fxgl.physics.CollisionResult
 import com.almasb.fxgl.physics.HitBox
+import com.almasb.fxgl.physics.Narrowphase
 import com.almasb.fxgl.physics.SAT
 import javafx.beans.property.ReadOnlyDoubleProperty
 import javafx.beans.property.ReadOnlyDoubleWrapper
 import javafx.collections.FXCollections
 import javafx.collections.ListChangeListener
 import javafx.collections.ObservableList
-import javafx.geometry.BoundingBox
 import javafx.geometry.Point2D
 import javafx.geometry.Rectangle2D
 
@@ -48,10 +49,20 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
     private val minXLocal = ReadOnlyDoubleWrapper()
     private val minYLocal = ReadOnlyDoubleWrapper()
 
-    private val minXWorld = ReadOnlyDoubleWrapper()
-    private val minYWorld = ReadOnlyDoubleWrapper()
-    private val maxXWorld = ReadOnlyDoubleWrapper()
-    private val maxYWorld = ReadOnlyDoubleWrapper()
+    /**
+     * World bounds as properties are only created (and bound) when requested,
+     * since most entities only query them via getters, e.g. [getMinXWorld].
+     */
+    private var worldBounds: WorldBounds? = null
+
+    private var isAdded = false
+
+    private class WorldBounds {
+        val minX = ReadOnlyDoubleWrapper()
+        val minY = ReadOnlyDoubleWrapper()
+        val maxX = ReadOnlyDoubleWrapper()
+        val maxY = ReadOnlyDoubleWrapper()
+    }
 
     /**
      * Note: same as width, unless specified otherwise.
@@ -104,13 +115,30 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
      */
     fun getMinYLocal(): Double = minYLocal.value
 
-    fun minXWorldProperty(): ReadOnlyDoubleProperty = minXWorld.readOnlyProperty
+    fun minXWorldProperty(): ReadOnlyDoubleProperty = worldBounds().minX.readOnlyProperty
 
-    fun minYWorldProperty(): ReadOnlyDoubleProperty = minYWorld.readOnlyProperty
+    fun minYWorldProperty(): ReadOnlyDoubleProperty = worldBounds().minY.readOnlyProperty
+
+    fun maxXWorldProperty(): ReadOnlyDoubleProperty = worldBounds().maxX.readOnlyProperty
+
+    fun maxYWorldProperty(): ReadOnlyDoubleProperty = worldBounds().maxY.readOnlyProperty
+
+    private fun worldBounds(): WorldBounds {
+        return worldBounds ?: WorldBounds().also {
+            worldBounds = it
+
+            if (isAdded)
+                bindWorldBounds(it)
+        }
+    }
 
-    fun maxXWorldProperty(): ReadOnlyDoubleProperty = maxXWorld.readOnlyProperty
+    private fun bindWorldBounds(bounds: WorldBounds) {
+        bounds.minX.bind(minXLocal.add(transform.xProperty()))
+        bounds.minY.bind(minYLocal.add(transform.yProperty()))
 
-    fun maxYWorldProperty(): ReadOnlyDoubleProperty = maxYWorld.readOnlyProperty
+        bounds.maxX.bind(bounds.minX.add(width))
+        bounds.maxY.bind(bounds.minY.add(height))
+    }
 
     /**
      * @return min x in world coordinate system
@@ -132,12 +160,37 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
      */
     fun getMaxYWorld() = transform.y + getMinYLocal() + getHeight()
 
+    /**
+     * Created when the first change listener is added.
+     */
+    private var changeListeners: MutableList<Runnable>? = null
+
+    /**
+     * Adds a listener that is notified each time hit boxes are added or removed, i.e. local bounds change.
+     * World bounds also change with the transform, see [TransformComponent.addChangeListener].
+     */
+    fun addChangeListener(listener: Runnable) {
+        val listeners = changeListeners ?: ArrayList<Runnable>().also { changeListeners = it }
+
+        listeners += listener
+    }
+
+    fun removeChangeListener(listener: Runnable) {
+        changeListeners?.remove(listener)
+    }
+
     private val onHitBoxChange = ListChangeListener<HitBox> { c ->
         minXLocal.set(computeMinXLocal())
         minYLocal.set(computeMinYLocal())
         width.set(computeWidth())
         height.set(computeHeight())
 
+        changeListeners?.let { listeners ->
+            for (i in listeners.indices) {
+                listeners[i].run()
+            }
+        }
+
         while (c.next()) {
             if (c.wasAdded()) {
                 c.addedSubList.forEach { it.bindXY(transform) }
@@ -159,12 +212,9 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
 
     override fun onAdded() {
         transform = entity.transformComponent
+        isAdded = true
 
-        minXWorld.bind(minXLocal.add(transform.xProperty()))
-        minYWorld.bind(minYLocal.add(transform.yProperty()))
-
-        maxXWorld.bind(minXWorld.add(width))
-        maxYWorld.bind(minYWorld.add(height))
+        worldBounds?.let { bindWorldBounds(it) }
 
         hitBoxes.forEach { it.bindXY(transform) }
     }
@@ -173,11 +223,15 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
         hitBoxes.removeListener(onHitBoxChange)
         hitBoxes.forEach { it.unbind() }
 
-        minXWorld.unbind()
-        minYWorld.unbind()
+        isAdded = false
+
+        worldBounds?.let {
+            it.minX.unbind()
+            it.minY.unbind()
 
-        maxXWorld.unbind()
-        maxYWorld.unbind()
+            it.maxX.unbind()
+            it.maxY.unbind()
+        }
     }
 
     /**
@@ -296,6 +350,8 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
 
     /**
      * Check collision with pre-applied transforms (called with [applyTransformToHitBoxes]).
+     * Pairs of box hit boxes are checked as (oriented) boxes,
+     * other pairs are checked with their exact shapes by [Narrowphase].
      */
     fun checkCollisionPAT(other: BoundingBoxComponent, result: CollisionResult): Boolean {
         for (i in hitBoxes.indices) {
@@ -304,6 +360,13 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
             for (j in other.hitBoxes.indices) {
                 val box2 = other.hitBoxes[j]
 
+                if (!isBoxPair(box1, box2)) {
+                    if (Narrowphase.collide(box1, box2, result))
+                        return true
+
+                    continue
+                }
+
                 val collision: Boolean
 
                 val angle1 = getEntity().rotation
@@ -312,7 +375,7 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
                 if (angle1 == 0.0 && angle2 == 0.0) {
                     collision = checkCollisionPAT(box1, box2, transform, other.transform)
                 } else {
-                    collision = checkCollision(box1, box2, angle1, angle2, transform, other.transform)
+                    collision = SAT.isColliding(box1, box2)
                 }
 
                 if (collision) {
@@ -325,6 +388,15 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
         return false
     }
 
+    /**
+     * @return true if both hit boxes are boxes, or either is a 3D box
+     */
+    private fun isBoxPair(box1: HitBox, box2: HitBox): Boolean {
+        return (box1.shape is BoxShapeData && box2.shape is BoxShapeData)
+                || box1.shape is Box3DShapeData
+                || box2.shape is Box3DShapeData
+    }
+
     /**
      * Internal GC-friendly (and has fewer checks than JavaFX's BoundingBox)
      * check for collision between two hit boxes.
@@ -338,21 +410,16 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
     private fun checkCollisionPAT(box1: HitBox, box2: HitBox,
                                t1: TransformComponent, t2: TransformComponent): Boolean {
         if (box1.shape is Box3DShapeData && box2.shape is Box3DShapeData) {
-            // perform 3D collision check
+            // perform 3D collision check, same as javafx.geometry.BoundingBox.intersects()
             val shape1 = box1.shape as Box3DShapeData
             val shape2 = box2.shape as Box3DShapeData
 
-            val bbox1 = BoundingBox(
-                    t1.x - shape1.width / 2.0, t1.y - shape1.height / 2.0, t1.z - shape1.depth / 2.0,
-                    shape1.width, shape1.height, shape1.depth
-            )
-
-            val bbox2 = BoundingBox(
-                    t2.x - shape2.width / 2.0, t2.y - shape2.height / 2.0, t2.z - shape2.depth / 2.0,
-                    shape2.width, shape2.height, shape2.depth
-            )
-
-            return bbox1.intersects(bbox2)
+            return t1.x + shape1.width / 2.0 >= t2.x - shape2.width / 2.0 &&
+                    t1.y + shape1.height / 2.0 >= t2.y - shape2.height / 2.0 &&
+                    t1.z + shape1.depth / 2.0 >= t2.z - shape2.depth / 2.0 &&
+                    t1.x - shape1.width / 2.0 <= t2.x + shape2.width / 2.0 &&
+                    t1.y - shape1.height / 2.0 <= t2.y + shape2.height / 2.0 &&
+                    t1.z - shape1.depth / 2.0 <= t2.z + shape2.depth / 2.0
         }
 
         return box2.fastMaxX >= box1.fastMinX &&
@@ -361,11 +428,6 @@ class BoundingBoxComponent(vararg boxes: HitBox) :
                 box2.fastMinY <= box1.fastMaxY
     }
 
-    private fun checkCollision(box1: HitBox, box2: HitBox, angle1: Double, angle2: Double,
-                               t1: TransformComponent, t2: TransformComponent): Boolean {
-        return SAT.isColliding(box1, box2, angle1, angle2, t1, t2)
-    }
-
     /**
      * @param bounds a rectangular box that represents bounds
      * @return true iff entity is partially or entirely within given bounds
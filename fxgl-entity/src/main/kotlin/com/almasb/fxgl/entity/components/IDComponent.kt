@@ -19,6 +19,8 @@ class IDComponent
 /**
  * Constructs ID component with given entity name and id.
  * The combination of name and id must be unique.
+ * Name and id are indexed by the game world when the component (or its entity) is added,
+ * so they must not be changed while the entity is in the world.
  *
  * @param name string representation of entity name
  * @param id numeric id that uniquely identifies the entity with given name
@@ -39,8 +41,7 @@ class IDComponent
     }
 
     override fun equals(other: Any?): Boolean {
-        // just assume it's IDComponent
-        return (other as IDComponent).fullID == fullID
+        return other is IDComponent && other.fullID == fullID
     }
 
     override fun toString(): String {
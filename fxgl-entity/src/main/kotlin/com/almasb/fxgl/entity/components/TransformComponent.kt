@@ -31,70 +31,87 @@ class TransformComponent(x: Double, y: Double, angle: Double, scaleX: Double, sc
     constructor(p: Point2D) : this(p.x, p.y, 0.0, 1.0, 1.0)
     constructor() : this(0.0, 0.0, 0.0, 1.0, 1.0)
 
-    private val propX: DoubleProperty = SimpleDoubleProperty(x)
-    private val propY: DoubleProperty = SimpleDoubleProperty(y)
-    private val propZ: DoubleProperty = SimpleDoubleProperty(0.0)
+    /**
+     * Current values, used until a property for the value is requested.
+     * Once created, the property holds the value instead (so it can be bound).
+     */
+    private val values = doubleArrayOf(
+            x, y, 0.0,
+            scaleX, scaleY, 1.0,
+            0.0, 0.0, 0.0,
+            0.0, 0.0, 0.0,
+            0.0, 0.0, 0.0,
+            0.0, 0.0, angle
+    )
 
-    private val propScaleX: DoubleProperty = SimpleDoubleProperty(scaleX)
-    private val propScaleY: DoubleProperty = SimpleDoubleProperty(scaleY)
-    private val propScaleZ: DoubleProperty = SimpleDoubleProperty(1.0)
+    private var properties: Array<DoubleProperty?>? = null
 
-    private val propPositionOriginX = SimpleDoubleProperty(0.0)
-    private val propPositionOriginY = SimpleDoubleProperty(0.0)
-    private val propPositionOriginZ = SimpleDoubleProperty(0.0)
+    /**
+     * Incremented each time any of the values (or properties) of this transform changes.
+     * Consumers that cache data computed from this transform can compare it with the version
+     * they have last seen, instead of listening to each property.
+     */
+    var version = 0L
+        private set
 
-    private val propScaleOriginX = SimpleDoubleProperty(0.0)
-    private val propScaleOriginY = SimpleDoubleProperty(0.0)
-    private val propScaleOriginZ = SimpleDoubleProperty(0.0)
+    /**
+     * If true, the view of the entity is not bound to the transform properties,
+     * but updated from the transform values once per frame, only if they have changed
+     * (see [ViewComponent.syncTransform]).
+     * This avoids creating the properties altogether, unless they are explicitly requested.
+     */
+    var isLightweight = isLightweightByDefault
 
-    private val propRotationOriginX = SimpleDoubleProperty(0.0)
-    private val propRotationOriginY = SimpleDoubleProperty(0.0)
-    private val propRotationOriginZ = SimpleDoubleProperty(0.0)
+    /**
+     * Created when the first change listener is added.
+     */
+    private var changeListeners: MutableList<Runnable>? = null
 
-    private val propRotationX = SimpleDoubleProperty(0.0)
-    private val propRotationY = SimpleDoubleProperty(0.0)
-    private val propRotationZ = SimpleDoubleProperty(angle)
+    /**
+     * Adds a listener that is notified each time any of the values (or properties) of this transform changes.
+     * A single listener covers all values, so consumers that cache data computed from the transform
+     * (e.g. world bounds) do not need to listen to each property.
+     */
+    fun addChangeListener(listener: Runnable) {
+        val listeners = changeListeners ?: ArrayList<Runnable>().also { changeListeners = it }
 
-    init {
-        propRotationX.addListener { _, _, _ ->
-            updateDirection()
-        }
+        listeners += listener
+    }
 
-        propRotationY.addListener { _, _, _ ->
-            updateDirection()
-        }
+    fun removeChangeListener(listener: Runnable) {
+        changeListeners?.remove(listener)
     }
 
     var x: Double
-        get() = propX.value
-        set(value) { propX.value = value }
+        get() = getValue(X)
+        set(value) { setValue(X, value) }
 
     var y: Double
-        get() = propY.value
-        set(value) { propY.value = value }
+        get() = getValue(Y)
+        set(value) { setValue(Y, value) }
 
     var z: Double
-        get() = propZ.value
-        set(value) { propZ.value = value }
+        get() = getValue(Z)
+        set(value) { setValue(Z, value) }
 
     /**
      * Rotation angle in 2D (along the Z axis).
      */
     var angle: Double
-        get() = propRotationZ.value
-        set(value) { propRotationZ.value = value }
+        get() = getValue(ROTATION_Z)
+        set(value) { setValue(ROTATION_Z, value) }
 
     var scaleX: Double
-        get() = propScaleX.value
-        set(value) { propScaleX.value = value }
+        get() = getValue(SCALE_X)
+        set(value) { setValue(SCALE_X, value) }
 
     var scaleY: Double
-        get() = propScaleY.value
-        set(value) { propScaleY.value = value }
+        get() = getValue(SCALE_Y)
+        set(value) { setValue(SCALE_Y, value) }
 
     var scaleZ: Double
-        get() = propScaleZ.value
-        set(value) { propScaleZ.value = value }
+        get() = getValue(SCALE_Z)
+        set(value) { setValue(SCALE_Z, value) }
 
     var position: Point2D
         get() = Point2D(x, y)
@@ -105,75 +122,159 @@ class TransformComponent(x: Double, y: Double, angle: Double, scaleX: Double, sc
         set(value) { setPosition3D(value.x, value.y, value.z) }
 
     var rotationX: Double
-        get() = propRotationX.value
-        set(value) { propRotationX.value = value }
+        get() = getValue(ROTATION_X)
+        set(value) { setValue(ROTATION_X, value) }
 
     var rotationY: Double
-        get() = propRotationY.value
-        set(value) { propRotationY.value = value }
+        get() = getValue(ROTATION_Y)
+        set(value) { setValue(ROTATION_Y, value) }
 
     var rotationZ: Double
-        get() = propRotationZ.value
-        set(value) { propRotationZ.value = value }
+        get() = getValue(ROTATION_Z)
+        set(value) { setValue(ROTATION_Z, value) }
+
+    var positionOriginX: Double
+        get() = getValue(POSITION_ORIGIN_X)
+        set(value) { setValue(POSITION_ORIGIN_X, value) }
+
+    var positionOriginY: Double
+        get() = getValue(POSITION_ORIGIN_Y)
+        set(value) { setValue(POSITION_ORIGIN_Y, value) }
+
+    var positionOriginZ: Double
+        get() = getValue(POSITION_ORIGIN_Z)
+        set(value) { setValue(POSITION_ORIGIN_Z, value) }
+
+    var scaleOriginX: Double
+        get() = getValue(SCALE_ORIGIN_X)
+        set(value) { setValue(SCALE_ORIGIN_X, value) }
+
+    var scaleOriginY: Double
+        get() = getValue(SCALE_ORIGIN_Y)
+        set(value) { setValue(SCALE_ORIGIN_Y, value) }
+
+    var scaleOriginZ: Double
+        get() = getValue(SCALE_ORIGIN_Z)
+        set(value) { setValue(SCALE_ORIGIN_Z, value) }
+
+    var rotationOriginX: Double
+        get() = getValue(ROTATION_ORIGIN_X)
+        set(value) { setValue(ROTATION_ORIGIN_X, value) }
+
+    var rotationOriginY: Double
+        get() = getValue(ROTATION_ORIGIN_Y)
+        set(value) { setValue(ROTATION_ORIGIN_Y, value) }
+
+    var rotationOriginZ: Double
+        get() = getValue(ROTATION_ORIGIN_Z)
+        set(value) { setValue(ROTATION_ORIGIN_Z, value) }
 
     var scaleOrigin: Point2D
-        get() = Point2D(propScaleOriginX.value, propScaleOriginY.value)
+        get() = Point2D(scaleOriginX, scaleOriginY)
         set(value) {
-            propScaleOriginX.value = value.x
-            propScaleOriginY.value = value.y
+            scaleOriginX = value.x
+            scaleOriginY = value.y
         }
 
     var scaleOrigin3D: Point3D
-        get() = Point3D(propScaleOriginX.value, propScaleOriginY.value, propScaleOriginZ.value)
+        get() = Point3D(scaleOriginX, scaleOriginY, scaleOriginZ)
         set(value) {
-            propScaleOriginX.value = value.x
-            propScaleOriginY.value = value.y
-            propScaleOriginZ.value = value.z
+            scaleOriginX = value.x
+            scaleOriginY = value.y
+            scaleOriginZ = value.z
         }
 
     var rotationOrigin: Point2D
-        get() = Point2D(propRotationOriginX.value, propRotationOriginY.value)
+        get() = Point2D(rotationOriginX, rotationOriginY)
         set(value) {
-            propRotationOriginX.value = value.x
-            propRotationOriginY.value = value.y
+            rotationOriginX = value.x
+            rotationOriginY = value.y
         }
 
     var rotationOrigin3D: Point3D
-        get() = Point3D(propRotationOriginX.value, propRotationOriginY.value, propRotationOriginZ.value)
+        get() = Point3D(rotationOriginX, rotationOriginY, rotationOriginZ)
         set(value) {
-            propRotationOriginX.value = value.x
-            propRotationOriginY.value = value.y
-            propRotationOriginZ.value = value.z
+            rotationOriginX = value.x
+            rotationOriginY = value.y
+            rotationOriginZ = value.z
         }
 
-    fun xProperty() = propX
-    fun yProperty() = propY
-    fun zProperty() = propZ
+    private fun getValue(index: Int): Double {
+        val property = properties?.get(index)
 
-    fun scaleXProperty() = propScaleX
-    fun scaleYProperty() = propScaleY
-    fun scaleZProperty() = propScaleZ
+        return if (property != null) property.get() else values[index]
+    }
+
+    private fun setValue(index: Int, value: Double) {
+        val property = properties?.get(index)
+
+        if (property != null) {
+            property.set(value)
+            return
+        }
+
+        if (values[index] != value) {
+            values[index] = value
+            onChanged(index)
+        }
+    }
+
+    private fun onChanged(index: Int) {
+        version++
+
+        if (index == ROTATION_X || index == ROTATION_Y) {
+            updateDirection()
+        }
+
+        val listeners = changeListeners ?: return
+
+        for (i in listeners.indices) {
+            listeners[i].run()
+        }
+    }
+
+    /**
+     * Properties are created on first request, initialized with the current value.
+     */
+    private fun property(index: Int): DoubleProperty {
+        val props = properties ?: arrayOfNulls<DoubleProperty>(NUM_VALUES).also { properties = it }
+
+        return props[index] ?: SimpleDoubleProperty(values[index]).also {
+            // a change listener (unlike invalidation) keeps bound properties valid,
+            // so each change of a bound value is observed, even if nobody reads it
+            it.addListener { _, _, _ -> onChanged(index) }
+            props[index] = it
+        }
+    }
+
+    fun xProperty() = property(X)
+    fun yProperty() = property(Y)
+    fun zProperty() = property(Z)
+
+    fun scaleXProperty() = property(SCALE_X)
+    fun scaleYProperty() = property(SCALE_Y)
+    fun scaleZProperty() = property(SCALE_Z)
 
     /**
      * @return angle for 2D rotations (along Z axis)
      */
-    fun angleProperty() = propRotationZ
+    fun angleProperty() = property(ROTATION_Z)
 
-    fun positionOriginXProperty() = propPositionOriginX
-    fun positionOriginYProperty() = propPositionOriginY
-    fun positionOriginZProperty() = propPositionOriginZ
+    fun positionOriginXProperty() = property(POSITION_ORIGIN_X)
+    fun positionOriginYProperty() = property(POSITION_ORIGIN_Y)
+    fun positionOriginZProperty() = property(POSITION_ORIGIN_Z)
 
-    fun scaleOriginXProperty() = propScaleOriginX
-    fun scaleOriginYProperty() = propScaleOriginY
-    fun scaleOriginZProperty() = propScaleOriginY
+    fun scaleOriginXProperty() = property(SCALE_ORIGIN_X)
+    fun scaleOriginYProperty() = property(SCALE_ORIGIN_Y)
+    fun scaleOriginZProperty() = property(SCALE_ORIGIN_Z)
 
-    fun rotationOriginXProperty() = propRotationOriginX
-    fun rotationOriginYProperty() = propRotationOriginY
-    fun rotationOriginZProperty() = propRotationOriginZ
+    fun rotationOriginXProperty() = property(ROTATION_ORIGIN_X)
+    fun rotationOriginYProperty() = property(ROTATION_ORIGIN_Y)
+    fun rotationOriginZProperty() = property(ROTATION_ORIGIN_Z)
 
-    fun rotationXProperty() = propRotationX
-    fun rotationYProperty() = propRotationY
-    fun rotationZProperty() = propRotationZ
+    fun rotationXProperty() = property(ROTATION_X)
+    fun rotationYProperty() = property(ROTATION_Y)
+    fun rotationZProperty() = property(ROTATION_Z)
 
     fun setPosition(x: Double, y: Double) {
         this.x = x
@@ -279,7 +380,7 @@ class TransformComponent(x: Double, y: Double, angle: Double, scaleX: Double, sc
      * @param byAngle rotation angle in degrees
      */
     fun rotateBy(byAngle: Double) {
-        propRotationZ.value += byAngle
+        angle += byAngle
     }
 
     /**
@@ -293,7 +394,7 @@ class TransformComponent(x: Double, y: Double, angle: Double, scaleX: Double, sc
      * @param vector the rotation vector / velocity vector
      */
     fun rotateToVector(vector: Point2D) {
-        propRotationZ.value = Math.toDegrees(Math.atan2(vector.y, vector.x))
+        angle = Math.toDegrees(Math.atan2(vector.y, vector.x))
     }
 
     /**
@@ -497,4 +598,33 @@ class TransformComponent(x: Double, y: Double, angle: Double, scaleX: Double, sc
     }
 
     override fun isComponentInjectionRequired(): Boolean = false
+
+    companion object {
+        private const val X = 0
+        private const val Y = 1
+        private const val Z = 2
+        private const val SCALE_X = 3
+        private const val SCALE_Y = 4
+        private const val SCALE_Z = 5
+        private const val POSITION_ORIGIN_X = 6
+        private const val POSITION_ORIGIN_Y = 7
+        private const val POSITION_ORIGIN_Z = 8
+        private const val SCALE_ORIGIN_X = 9
+        private const val SCALE_ORIGIN_Y = 10
+        private const val SCALE_ORIGIN_Z = 11
+        private const val ROTATION_ORIGIN_X = 12
+        private const val ROTATION_ORIGIN_Y = 13
+        private const val ROTATION_ORIGIN_Z = 14
+        private const val ROTATION_X = 15
+        private const val ROTATION_Y = 16
+        private const val ROTATION_Z = 17
+
+        private const val NUM_VALUES = 18
+
+        /**
+         * Value of [isLightweight] for new transform components.
+         */
+        @JvmStatic
+        var isLightweightByDefault = false
+    }
 }
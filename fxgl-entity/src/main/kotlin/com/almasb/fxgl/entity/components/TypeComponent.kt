@@ -44,6 +44,14 @@ class TypeComponent
         value = bundle.get("value")
     }
 
+    companion object {
+
+        /**
+         * @return true iff given type is the default type, i.e. an entity was not given a type
+         */
+        @JvmStatic fun isUntyped(type: Any?): Boolean = type is SObject
+    }
+
     private class SObject : Serializable {
         override fun toString() = "NONE"
 
@@ -80,10 +80,94 @@ class ViewComponent : Component() {
         viewRootNoTransform.opacityProperty().bind(viewRoot.opacityProperty())
     }
 
+    private val scale = Scale()
+    private val rz = Rotate(0.0, Rotate.Z_AXIS)
+    private val ry = Rotate(0.0, Rotate.Y_AXIS)
+    private val rx = Rotate(0.0, Rotate.X_AXIS)
+
+    private var isBoundToTransform = false
+
+    /**
+     * Version of the transform, last pushed to the view nodes.
+     */
+    private var syncedVersion = -1L
+
     override fun onAdded() {
-        viewRoot.translateXProperty().bind(entity.xProperty().subtract(entity.transformComponent.positionOriginXProperty()))
-        viewRoot.translateYProperty().bind(entity.yProperty().subtract(entity.transformComponent.positionOriginYProperty()))
-        viewRoot.translateZProperty().bind(entity.zProperty().subtract(entity.transformComponent.positionOriginZProperty()))
+        viewRoot.transforms.addAll(rz, ry, rx, scale)
+        devRoot.transforms.addAll(rz, ry, rx, scale)
+
+        syncTransform()
+    }
+
+    /**
+     * If the entity transform is lightweight, updates the view nodes from the transform values,
+     * only if they have changed since the last sync.
+     * Otherwise, the view nodes are bound to the transform properties and are always up to date.
+     * Called by the game scene once per frame for each entity in the scene, so it only needs to be called manually
+     * for entities outside of a game scene, or when the view needs to reflect the transform immediately.
+     * Switching between lightweight and normal transform takes effect on the next call.
+     */
+    fun syncTransform() {
+        val transform = entity.transformComponent
+
+        if (!transform.isLightweight) {
+            if (!isBoundToTransform)
+                bindTransform(transform)
+
+            return
+        }
+
+        if (isBoundToTransform)
+            unbindTransform()
+
+        if (syncedVersion == transform.version)
+            return
+
+        syncedVersion = transform.version
+
+        val translateX = transform.x - transform.positionOriginX
+        val translateY = transform.y - transform.positionOriginY
+        val translateZ = transform.z - transform.positionOriginZ
+
+        viewRoot.translateX = translateX
+        viewRoot.translateY = translateY
+        viewRoot.translateZ = translateZ
+
+        viewRootNoTransform.translateX = translateX
+        viewRootNoTransform.translateY = translateY
+        viewRootNoTransform.translateZ = translateZ
+
+        devRoot.translateX = translateX
+        devRoot.translateY = translateY
+        devRoot.translateZ = translateZ
+
+        scale.x = transform.scaleX
+        scale.y = transform.scaleY
+        scale.z = transform.scaleZ
+
+        scale.pivotX = transform.scaleOriginX
+        scale.pivotY = transform.scaleOriginY
+        scale.pivotZ = transform.scaleOriginZ
+
+        rz.angle = transform.angle
+        ry.angle = transform.rotationY
+        rx.angle = transform.rotationX
+
+        setPivot(rz, transform)
+        setPivot(ry, transform)
+        setPivot(rx, transform)
+    }
+
+    private fun setPivot(rotate: Rotate, transform: TransformComponent) {
+        rotate.pivotX = transform.rotationOriginX
+        rotate.pivotY = transform.rotationOriginY
+        rotate.pivotZ = transform.rotationOriginZ
+    }
+
+    private fun bindTransform(transform: TransformComponent) {
+        viewRoot.translateXProperty().bind(transform.xProperty().subtract(transform.positionOriginXProperty()))
+        viewRoot.translateYProperty().bind(transform.yProperty().subtract(transform.positionOriginYProperty()))
+        viewRoot.translateZProperty().bind(transform.zProperty().subtract(transform.positionOriginZProperty()))
 
         viewRootNoTransform.translateXProperty().bind(viewRoot.translateXProperty())
         viewRootNoTransform.translateYProperty().bind(viewRoot.translateYProperty())
@@ -93,39 +177,53 @@ class ViewComponent : Component() {
         devRoot.translateYProperty().bind(viewRoot.translateYProperty())
         devRoot.translateZProperty().bind(viewRoot.translateZProperty())
 
-        val scale = Scale()
-        scale.xProperty().bind(entity.transformComponent.scaleXProperty())
-        scale.yProperty().bind(entity.transformComponent.scaleYProperty())
-        scale.zProperty().bind(entity.transformComponent.scaleZProperty())
+        scale.xProperty().bind(transform.scaleXProperty())
+        scale.yProperty().bind(transform.scaleYProperty())
+        scale.zProperty().bind(transform.scaleZProperty())
 
-        scale.pivotXProperty().bind(entity.transformComponent.scaleOriginXProperty())
-        scale.pivotYProperty().bind(entity.transformComponent.scaleOriginYProperty())
-        scale.pivotZProperty().bind(entity.transformComponent.scaleOriginZProperty())
+        scale.pivotXProperty().bind(transform.scaleOriginXProperty())
+        scale.pivotYProperty().bind(transform.scaleOriginYProperty())
+        scale.pivotZProperty().bind(transform.scaleOriginZProperty())
 
-        val rz = Rotate()
-        rz.axis = Rotate.Z_AXIS
-        rz.angleProperty().bind(entity.transformComponent.angleProperty())
+        rz.angleProperty().bind(transform.angleProperty())
+        ry.angleProperty().bind(transform.rotationYProperty())
+        rx.angleProperty().bind(transform.rotationXProperty())
 
-        rz.pivotXProperty().bind(entity.transformComponent.rotationOriginXProperty())
-        rz.pivotYProperty().bind(entity.transformComponent.rotationOriginYProperty())
-        rz.pivotZProperty().bind(entity.transformComponent.rotationOriginZProperty())
+        for (rotate in arrayOf(rz, ry, rx)) {
+            rotate.pivotXProperty().bind(transform.rotationOriginXProperty())
+            rotate.pivotYProperty().bind(transform.rotationOriginYProperty())
+            rotate.pivotZProperty().bind(transform.rotationOriginZProperty())
+        }
 
-        val ry = Rotate(0.0, Rotate.Y_AXIS)
-        ry.angleProperty().bind(entity.transformComponent.rotationYProperty())
+        isBoundToTransform = true
+    }
 
-        ry.pivotXProperty().bind(entity.transformComponent.rotationOriginXProperty())
-        ry.pivotYProperty().bind(entity.transformComponent.rotationOriginYProperty())
-        ry.pivotZProperty().bind(entity.transformComponent.rotationOriginZProperty())
+    private fun unbindTransform() {
+        for (root in arrayOf(viewRoot, viewRootNoTransform, devRoot)) {
+            root.translateXProperty().unbind()
+            root.translateYProperty().unbind()
+            root.translateZProperty().unbind()
+        }
 
-        val rx = Rotate(0.0, Rotate.X_AXIS)
-        rx.angleProperty().bind(entity.transformComponent.rotationXProperty())
+        scale.xProperty().unbind()
+        scale.yProperty().unbind()
+        scale.zProperty().unbind()
 
-        rx.pivotXProperty().bind(entity.transformComponent.rotationOriginXProperty())
-        rx.pivotYProperty().bind(entity.transformComponent.rotationOriginYProperty())
-        rx.pivotZProperty().bind(entity.transformComponent.rotationOriginZProperty())
+        scale.pivotXProperty().unbind()
+        scale.pivotYProperty().unbind()
+        scale.pivotZProperty().unbind()
 
-        viewRoot.transforms.addAll(rz, ry, rx, scale)
-        devRoot.transforms.addAll(rz, ry, rx, scale)
+        for (rotate in arrayOf(rz, ry, rx)) {
+            rotate.angleProperty().unbind()
+            rotate.pivotXProperty().unbind()
+            rotate.pivotYProperty().unbind()
+            rotate.pivotZProperty().unbind()
+        }
+
+        isBoundToTransform = false
+
+        // values may have been pushed by the bindings, so push them all again
+        syncedVersion = -1L
     }
 
     override fun onUpdate(tpf: Double) {
@@ -0,0 +1,321 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity.level.tiled
+
+import com.almasb.fxgl.core.concurrent.Async
+import com.almasb.fxgl.entity.component.Component
+import com.almasb.fxgl.logging.Logger
+import javafx.geometry.BoundingBox
+import javafx.scene.Group
+import javafx.scene.image.ImageView
+import javafx.scene.image.WritableImage
+import javafx.scene.paint.Color
+import javafx.scene.shape.Rectangle
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import kotlin.math.floor
+
+/**
+ * View of an orthogonal tile layer that is too large to be drawn into a single image.
+ * The layer is split into square chunks of [chunkSize] pixels.
+ * Chunks near the visible area are drawn on background threads and attached once ready.
+ * Drawn chunks are kept in a cache, the least recently used chunks are dropped once
+ * the cache exceeds [budgetMB].
+ *
+ * The view must be updated every frame, see [ChunkedTileLayerComponent].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class ChunkedTileLayerView
+@JvmOverloads constructor(
+        private val loader: TilesetLoader,
+        private val layer: Layer,
+        tileWidth: Int,
+        tileHeight: Int,
+
+        /**
+         * Chunk width and height in pixels.
+         */
+        val chunkSize: Int = DEFAULT_CHUNK_SIZE,
+
+        /**
+         * Max memory used by drawn chunks, in MB.
+         * Chunks around the visible area are kept even if they exceed the budget.
+         */
+        val budgetMB: Int = DEFAULT_BUDGET_MB,
+
+        /**
+         * Chunks beyond the visible area by up to this many pixels are prepared in advance.
+         */
+        val prefetchMargin: Double = chunkSize.toDouble(),
+
+        private val executor: Executor = Async
+) : Group() {
+
+    companion object {
+        const val DEFAULT_CHUNK_SIZE = 1024
+        const val DEFAULT_BUDGET_MB = 256
+
+        private val log = Logger.get<ChunkedTileLayerView>()
+
+        /**
+         * Max chunks drawn at the same time, so that a large jump of the viewport does not flood the executor.
+         */
+        private val MAX_CHUNKS_IN_FLIGHT = maxOf(2, Runtime.getRuntime().availableProcessors() / 2)
+    }
+
+    val layerWidth = layer.width * tileWidth
+    val layerHeight = layer.height * tileHeight
+
+    val numChunksX = (layerWidth + chunkSize - 1) / chunkSize
+    val numChunksY = (layerHeight + chunkSize - 1) / chunkSize
+
+    private val budgetBytes = budgetMB * 1024L * 1024L
+
+    /**
+     * Drawn chunks, from least to most recently used.
+     */
+    private val chunks = LinkedHashMap<Int, Chunk>(64, 0.75f, true)
+
+    private val attached = ArrayList<Chunk>()
+
+    private val inFlight = HashSet<Int>()
+
+    /**
+     * Chunks drawn on background threads, waiting to be picked up on the next update.
+     */
+    private val completed = ConcurrentLinkedQueue<Chunk>()
+
+    private var usedBytes = 0L
+
+    @Volatile
+    private var isDisposed = false
+
+    // chunk range (inclusive) needed on the last update
+    private var minCX = 0
+    private var minCY = 0
+    private var maxCX = -1
+    private var maxCY = -1
+
+    /**
+     * Number of drawn chunks in the cache.
+     */
+    val numChunksLoaded: Int
+        get() = chunks.size
+
+    /**
+     * Number of chunks attached to this view.
+     */
+    val numChunksAttached: Int
+        get() = attached.size
+
+    /**
+     * Number of chunks being drawn.
+     */
+    val numChunksInFlight: Int
+        get() = inFlight.size
+
+    /**
+     * Memory used by drawn chunks, in bytes.
+     */
+    val memoryUsage: Long
+        get() = usedBytes
+
+    init {
+        // an invisible placeholder, so that bounds of this view cover the whole layer regardless of attached chunks
+        // (a shape without fill has empty bounds, invisible nodes are not rendered but still count towards bounds of the group)
+        children += Rectangle(layerWidth.toDouble(), layerHeight.toDouble(), Color.TRANSPARENT).also {
+            it.isVisible = false
+            it.isMouseTransparent = true
+        }
+    }
+
+    /**
+     * Updates chunks based on the visible area of the scene this view belongs to.
+     */
+    fun update() {
+        val scene = scene ?: return
+
+        val area = sceneToLocal(BoundingBox(0.0, 0.0, scene.width, scene.height)) ?: return
+
+        update(area.minX, area.minY, area.maxX, area.maxY)
+    }
+
+    /**
+     * Updates chunks given the visible area in local coordinates of this view.
+     * Attaches chunks drawn since the last update, starts drawing missing chunks near the area,
+     * detaches chunks that are no longer near it and evicts chunks if over budget.
+     */
+    fun update(minX: Double, minY: Double, maxX: Double, maxY: Double) {
+        if (isDisposed || numChunksX == 0 || numChunksY == 0)
+            return
+
+        minCX = chunkOf(minX - prefetchMargin, numChunksX)
+        minCY = chunkOf(minY - prefetchMargin, numChunksY)
+        maxCX = chunkOf(maxX + prefetchMargin, numChunksX)
+        maxCY = chunkOf(maxY + prefetchMargin, numChunksY)
+
+        // the area is outside of the layer
+        if (maxX + prefetchMargin < 0 || maxY + prefetchMargin < 0 || minX - prefetchMargin >= layerWidth || minY - prefetchMargin >= layerHeight) {
+            maxCX = minCX - 1
+            maxCY = minCY - 1
+        }
+
+        pollCompleted()
+
+        detachNotNeeded()
+
+        if (minCX <= maxCX) {
+            // visible chunks first, then the prefetch ring
+            requestChunks(chunkOf(minX, numChunksX), chunkOf(minY, numChunksY), chunkOf(maxX, numChunksX), chunkOf(maxY, numChunksY))
+            requestChunks(minCX, minCY, maxCX, maxCY)
+        }
+
+        evict()
+    }
+
+    /**
+     * Drops all chunks, chunks being drawn are discarded once done.
+     */
+    fun dispose() {
+        isDisposed = true
+
+        attached.forEach { children -= it.view }
+        attached.clear()
+        chunks.clear()
+        completed.clear()
+        usedBytes = 0
+    }
+
+    private fun pollCompleted() {
+        while (true) {
+            val chunk = completed.poll() ?: break
+
+            inFlight -= chunk.key
+
+            chunks[chunk.key] = chunk
+            usedBytes += chunk.bytes
+        }
+    }
+
+    private fun detachNotNeeded() {
+        attached.removeIf {
+            val isNeeded = isNeeded(it)
+
+            if (!isNeeded) {
+                it.isAttached = false
+                children -= it.view
+            }
+
+            !isNeeded
+        }
+    }
+
+    private fun requestChunks(minCX: Int, minCY: Int, maxCX: Int, maxCY: Int) {
+        for (cy in minCY..maxCY) {
+            for (cx in minCX..maxCX) {
+                val key = cy * numChunksX + cx
+
+                // get() also marks the chunk as recently used
+                val chunk = chunks[key]
+
+                if (chunk != null) {
+                    if (!chunk.isAttached) {
+                        chunk.isAttached = true
+                        attached += chunk
+                        children += chunk.view
+                    }
+                } else if (key !in inFlight && inFlight.size < MAX_CHUNKS_IN_FLIGHT) {
+                    inFlight += key
+                    executor.execute { draw(cx, cy) }
+                }
+            }
+        }
+    }
+
+    private fun evict() {
+        if (usedBytes <= budgetBytes)
+            return
+
+        val it = chunks.values.iterator()
+
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            val chunk = it.next()
+
+            if (isNeeded(chunk))
+                continue
+
+            it.remove()
+            usedBytes -= chunk.bytes
+        }
+    }
+
+    /**
+     * Called on a background thread.
+     */
+    private fun draw(cx: Int, cy: Int) {
+        if (isDisposed)
+            return
+
+        val x = cx * chunkSize
+        val y = cy * chunkSize
+        val w = minOf(chunkSize, layerWidth - x)
+        val h = minOf(chunkSize, layerHeight - y)
+
+        val chunk = Chunk(cy * numChunksX + cx, cx, cy, w, h)
+
+        try {
+            val image = WritableImage(w, h)
+
+            loader.drawLayer(layer, image, x, y)
+
+            chunk.view = ImageView(image).also {
+                it.translateX = x.toDouble()
+                it.translateY = y.toDouble()
+            }
+        } catch (e: Exception) {
+            log.warning("Failed to draw chunk ($cx, $cy) of layer ${layer.name}", e)
+
+            // an empty chunk, so that it is not requested again every frame
+            chunk.view = ImageView()
+        }
+
+        completed += chunk
+    }
+
+    private fun isNeeded(chunk: Chunk) = chunk.cx in minCX..maxCX && chunk.cy in minCY..maxCY
+
+    private fun chunkOf(value: Double, numChunks: Int): Int {
+        return floor(value / chunkSize).coerceIn(0.0, numChunks - 1.0).toInt()
+    }
+
+    private class Chunk(val key: Int, val cx: Int, val cy: Int, w: Int, h: Int) {
+
+        /**
+         * ARGB pixels.
+         */
+        val bytes = w.toLong() * h * 4
+
+        var isAttached = false
+
+        lateinit var view: ImageView
+    }
+}
+
+/**
+ * Updates [view] every frame.
+ */
+class ChunkedTileLayerComponent(val view: ChunkedTileLayerView) : Component() {
+
+    override fun onUpdate(tpf: Double) {
+        view.update()
+    }
+
+    override fun onRemoved() {
+        view.dispose()
+    }
+}
@@ -23,4 +23,27 @@ data class Layer(var width: Int = 0,
             var opacity: Float = 0.0f,
             var draworder: String = "") {
 
+    /**
+     * @return gid (including flip flags) of the tile at [index] in [data]
+     */
+    fun gidAt(index: Int): Long {
+        val d = data
+
+        // avoid boxing if data is stored in a primitive array
+        return if (d is GidList) d.gidAt(index) else d[index]
+    }
+}
+
+/**
+ * Tile layer data stored as unsigned 32-bit gids (including flip flags) in a primitive array,
+ * which takes several times less memory than a list of boxed values.
+ */
+internal class GidList(val gids: IntArray) : AbstractList<Long>(), RandomAccess {
+
+    override val size: Int
+        get() = gids.size
+
+    override fun get(index: Int): Long = gidAt(index)
+
+    fun gidAt(index: Int): Long = gids[index].toLong() and 0xFFFFFFFFL
 }
\ No newline at end of file
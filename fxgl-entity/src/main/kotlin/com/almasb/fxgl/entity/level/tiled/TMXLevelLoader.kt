@@ -19,11 +19,15 @@ import javafx.scene.shape.Polygon
 import javafx.scene.shape.Polyline
 import java.io.InputStream
 import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Path
 import java.util.*
 import java.util.stream.Collectors
 import java.util.zip.GZIPInputStream
 import java.util.zip.InflaterInputStream
 import javax.xml.namespace.QName
+import javax.xml.stream.XMLEventReader
 import javax.xml.stream.XMLInputFactory
 import javax.xml.stream.events.StartElement
 
@@ -42,14 +46,40 @@ class TMXLevelLoader
          * If true, tile layers will be loaded in parallel, but each layer will use its own image cache.
          * Setting to true _may_ improve loading performance if there are many large tiles.
          */
-        private val isParallel: Boolean = false
+        private val isParallel: Boolean = false,
+
+        /**
+         * Orthogonal tile layers wider or taller than this (in pixels) are split into chunks,
+         * which are drawn in the background as they approach the visible area, see [ChunkedTileLayerView].
+         * Smaller layers are drawn into a single image when loaded.
+         */
+        private val chunkedLayerThreshold: Int = 4096,
+
+        /**
+         * Max memory used by drawn chunks of each chunked layer, in MB.
+         */
+        private val chunkBudgetMB: Int = ChunkedTileLayerView.DEFAULT_BUDGET_MB,
+
+        /**
+         * If positive, object layer entities are not created when the level is loaded.
+         * Instead, the level contains an entity of type "TiledMapObjectSpawner",
+         * which creates this many object entities per frame once the level is set, see [TiledObjectSpawnerComponent].
+         */
+        private val objectsPerFrame: Int = 0,
+
+        /**
+         * If not null, parsed maps are cached in this directory in a binary form,
+         * so that subsequent loads of an unchanged map skip XML parsing, see [TiledMapCache].
+         * A cached map is used only if the source map has the same last modified time and length.
+         */
+        private val cacheDir: Path? = null
 ) : LevelLoader {
 
     private val log = Logger.get<TMXLevelLoader>()
 
     override fun load(url: URL, world: GameWorld): Level {
         try {
-            val map = url.openStream().use { parse(it) }
+            val map = if (cacheDir != null) loadCached(url, cacheDir) else url.openStream().use { parse(it) }
 
             log.debug("Parsed TiledMap: $url")
 
@@ -57,7 +87,11 @@ class TMXLevelLoader
 
             val tileLayerEntities = createTileLayerEntities(map, tilesetLoader)
 
-            val objectEntities = createObjectLayerEntities(map, tilesetLoader, world)
+            val objectEntities = if (objectsPerFrame > 0) {
+                listOf(createObjectSpawner(map, tilesetLoader, world))
+            } else {
+                createObjectLayerEntities(map, tilesetLoader, world)
+            }
 
             val level = Level(map.width * map.tilewidth, map.height * map.tileheight, tileLayerEntities + objectEntities)
 
@@ -78,6 +112,26 @@ class TMXLevelLoader
         }
     }
 
+    private fun loadCached(url: URL, cacheDir: Path): TiledMap {
+        val connection = url.openConnection()
+        val lastModified = connection.lastModified
+        val length = connection.contentLengthLong
+
+        val name = url.path.substringAfterLast("/")
+        val file = cacheDir.resolve("$name-${Integer.toHexString(url.toExternalForm().hashCode())}.bin")
+
+        TiledMapCache.read(file, lastModified, length)?.let {
+            log.debug("Read cached TiledMap: $file")
+            return it
+        }
+
+        val map = connection.getInputStream().use { parse(it) }
+
+        TiledMapCache.write(map, file, lastModified, length)
+
+        return map
+    }
+
     private fun createTileLayerEntities(map: TiledMap, loader: TilesetLoader): List<Entity> {
         log.debug("Creating tile layer entities")
 
@@ -96,7 +150,17 @@ class TMXLevelLoader
 
                         when (map.orientation) {
                             "orthogonal" -> {
-                                it.viewComponent.addChild(tilesetLoader.loadView(layer.name))
+                                val width = layer.width * map.tilewidth
+                                val height = layer.height * map.tileheight
+
+                                if (width > chunkedLayerThreshold || height > chunkedLayerThreshold) {
+                                    val view = ChunkedTileLayerView(tilesetLoader, layer, map.tilewidth, map.tileheight, budgetMB = chunkBudgetMB)
+
+                                    it.viewComponent.addChild(view)
+                                    it.addComponent(ChunkedTileLayerComponent(view))
+                                } else {
+                                    it.viewComponent.addChild(tilesetLoader.loadView(layer.name))
+                                }
                             }
 
                             "hexagonal" -> {
@@ -121,52 +185,66 @@ class TMXLevelLoader
 
         return map.layers.filter { it.type == "objectgroup" }
                 .flatMap { it.objects }
-                .map { tiledObject ->
-                    val data = SpawnData(
-                            tiledObject.x.toDouble(),
-                            // it appears that if object has non-zero gid then its y is flipped
-                            (tiledObject.y - if (tiledObject.gid == 0) 0 else tiledObject.height).toDouble()
-                    )
-
-                    // make data available when inside factory's spawn methods
-                    data.run {
-                        put("name", tiledObject.name)
-                        put("type", tiledObject.type)
-                        put("class", tiledObject.type)
-                        put("width", tiledObject.width)
-                        put("height", tiledObject.height)
-                        put("rotation", tiledObject.rotation)
-                        put("id", tiledObject.id)
-                        put("gid", tiledObject.gid)
-
-                        // parse text data if present
-                        tiledObject.textData?.let {
-                            put("text", it.text)
-                            put("color", it.color)
-                        }
+                .map { createObjectEntity(it, tilesetLoader, world) }
+    }
 
-                        tiledObject.properties.forEach {
-                            put(it.key, it.value)
-                        }
-                    }
+    private fun createObjectSpawner(map: TiledMap, tilesetLoader: TilesetLoader, world: GameWorld): Entity {
+        val objects = map.layers.filter { it.type == "objectgroup" }
+                .flatMap { it.objects }
 
-                    // we populate the entity properties in case the factory didn't make use of them
-                    world.create(tiledObject.type, data).also { e ->
-                        data.data.forEach {
-                            e.setProperty(it.key, it.value)
-                        }
-                        
-                        e.addComponent(IDComponent(tiledObject.name, tiledObject.id))
+        return Entity().also {
+            it.type = "TiledMapObjectSpawner"
+            it.addComponent(TiledObjectSpawnerComponent(objects, objectsPerFrame) { tiledObject ->
+                createObjectEntity(tiledObject, tilesetLoader, world)
+            })
+        }
+    }
 
-                        e.setPosition(data.x, data.y)
-                        e.rotation = tiledObject.rotation.toDouble()
+    private fun createObjectEntity(tiledObject: TiledObject, tilesetLoader: TilesetLoader, world: GameWorld): Entity {
+        val data = SpawnData(
+                tiledObject.x.toDouble(),
+                // it appears that if object has non-zero gid then its y is flipped
+                (tiledObject.y - if (tiledObject.gid == 0) 0 else tiledObject.height).toDouble()
+        )
+
+        // make data available when inside factory's spawn methods
+        data.run {
+            put("name", tiledObject.name)
+            put("type", tiledObject.type)
+            put("class", tiledObject.type)
+            put("width", tiledObject.width)
+            put("height", tiledObject.height)
+            put("rotation", tiledObject.rotation)
+            put("id", tiledObject.id)
+            put("gid", tiledObject.gid)
+
+            // parse text data if present
+            tiledObject.textData?.let {
+                put("text", it.text)
+                put("color", it.color)
+            }
 
-                        // non-zero gid means view is read from the tileset
-                        if (tiledObject.gid != 0) {
-                            e.viewComponent.addChild(tilesetLoader.loadView(tiledObject.gid, tiledObject.isFlippedHorizontal, tiledObject.isFlippedVertical))
-                        }
-                    }
-                }
+            tiledObject.properties.forEach {
+                put(it.key, it.value)
+            }
+        }
+
+        // we populate the entity properties in case the factory didn't make use of them
+        return world.create(tiledObject.type, data).also { e ->
+            data.data.forEach {
+                e.setProperty(it.key, it.value)
+            }
+            
+            e.addComponent(IDComponent(tiledObject.name, tiledObject.id))
+
+            e.setPosition(data.x, data.y)
+            e.rotation = tiledObject.rotation.toDouble()
+
+            // non-zero gid means view is read from the tileset
+            if (tiledObject.gid != 0) {
+                e.viewComponent.addChild(tilesetLoader.loadView(tiledObject.gid, tiledObject.isFlippedHorizontal, tiledObject.isFlippedVertical))
+            }
+        }
     }
 
     fun parse(inputStream: InputStream): TiledMap {
@@ -221,7 +299,7 @@ class TMXLevelLoader
                     }
 
                     "data" -> {
-                        parseData(currentLayer, eventReader.elementText, start)
+                        parseData(currentLayer, eventReader, start)
                     }
 
                     "objectgroup" -> {
@@ -354,14 +432,17 @@ class TMXLevelLoader
         layer.visible = start.getInt("visible") == 1
     }
 
-    private fun parseData(layer: Layer, data: String, start: StartElement) {
+    /**
+     * Layer data is streamed into a primitive array, without building the whole text of the element.
+     */
+    private fun parseData(layer: Layer, eventReader: XMLEventReader, start: StartElement) {
         when (start.getString("encoding")) {
             "csv" -> {
-                layer.data = data.replace("\n", "").split(",").map { it.trim().toLong() }
+                layer.data = GidList(readCSVData(eventReader, layer.width * layer.height))
             }
 
             "base64" -> {
-                val bytes = Base64.getDecoder().decode(data.trim())
+                val bytes = Base64.getMimeDecoder().decode(readText(eventReader))
 
                 val inputStream = when (start.getString("compression")) {
                     "zlib" -> {
@@ -378,25 +459,91 @@ class TMXLevelLoader
                     }
                 }
 
-                val longArray = arrayListOf<Long>()
+                // each gid is 4 bytes representing unsigned integer in little-endian,
+                // 3 most significant bits of which encode flipped tile state
+                val rawBytes = inputStream.use { it.readAllBytes() }
 
-                // Read 4 bytes representing unsigned integer from '.tmx' data and convert to long
-                // Preserves 3 most significant bit from UInt which encodes flipped tile state
-                inputStream.use {
-                    while (it.available() > 0) {
-                        val rawInt = it.readNBytes(4)
+                val gids = IntArray(rawBytes.size / 4)
 
-                        val value: Long = (rawInt[0].toLong() and 0xFF shl 0) or
-                                (rawInt[1].toLong() and 0xFF shl 8) or
-                                (rawInt[2].toLong() and 0xFF shl 16) or
-                                (rawInt[3].toLong() and 0xFF shl 24)
+                ByteBuffer.wrap(rawBytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(gids)
 
-                        longArray.add(value)
-                    }
+                layer.data = GidList(gids)
+            }
+
+            else -> {
+                // skip the element
+                eventReader.elementText
+            }
+        }
+    }
+
+    /**
+     * Reads comma separated unsigned integers until the end of current element.
+     * The text may be split into several character events at any point.
+     */
+    private fun readCSVData(eventReader: XMLEventReader, expectedSize: Int): IntArray {
+        var gids = IntArray(expectedSize)
+        var size = 0
+
+        var value = 0L
+        var hasDigits = false
+
+        fun add() {
+            if (size == gids.size) {
+                gids = gids.copyOf(maxOf(16, size * 2))
+            }
+
+            gids[size++] = value.toInt()
+
+            value = 0L
+            hasDigits = false
+        }
+
+        while (eventReader.hasNext()) {
+            val event = eventReader.nextEvent()
+
+            if (event.isEndElement)
+                break
+
+            if (!event.isCharacters)
+                continue
+
+            val text = event.asCharacters().data
+
+            for (i in text.indices) {
+                val c = text[i]
+
+                if (c in '0'..'9') {
+                    value = value * 10 + (c - '0')
+                    hasDigits = true
+                } else if (c == ',') {
+                    add()
                 }
-                layer.data = longArray
             }
         }
+
+        if (hasDigits) {
+            add()
+        }
+
+        return if (size == gids.size) gids else gids.copyOf(size)
+    }
+
+    private fun readText(eventReader: XMLEventReader): String {
+        val sb = StringBuilder()
+
+        while (eventReader.hasNext()) {
+            val event = eventReader.nextEvent()
+
+            if (event.isEndElement)
+                break
+
+            if (event.isCharacters) {
+                sb.append(event.asCharacters().data)
+            }
+        }
+
+        return sb.toString()
     }
 
     private fun parseObjectGroupLayer(layer: Layer, start: StartElement) {
@@ -0,0 +1,421 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity.level.tiled
+
+import com.almasb.fxgl.logging.Logger
+import javafx.scene.paint.Color
+import javafx.scene.shape.Polygon
+import javafx.scene.shape.Polyline
+import java.io.BufferedOutputStream
+import java.io.DataOutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+
+/**
+ * Compact binary form of a parsed [TiledMap], so that subsequent loads of the same map skip XML parsing.
+ * A cache file is valid only for the source with the same last modified time and length.
+ * Cache files are read via a memory-mapped buffer, layer data is copied in bulk into primitive arrays.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal object TiledMapCache {
+
+    private val log = Logger.get<TiledMapCache>()
+
+    private const val MAGIC = 0x544D5842 // TMXB
+    private const val FORMAT_VERSION = 1
+
+    private const val TYPE_INT: Byte = 0
+    private const val TYPE_BOOL: Byte = 1
+    private const val TYPE_FLOAT: Byte = 2
+    private const val TYPE_STRING: Byte = 3
+    private const val TYPE_COLOR: Byte = 4
+    private const val TYPE_POLYGON: Byte = 5
+    private const val TYPE_POLYLINE: Byte = 6
+
+    /**
+     * @return cached map or null if the cache file does not exist, is stale or cannot be read
+     */
+    fun read(file: Path, sourceLastModified: Long, sourceLength: Long): TiledMap? {
+        if (!Files.isRegularFile(file))
+            return null
+
+        return try {
+            FileChannel.open(file, StandardOpenOption.READ).use { channel ->
+                val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+
+                if (buffer.int != MAGIC || buffer.int != FORMAT_VERSION || buffer.long != sourceLastModified || buffer.long != sourceLength) {
+                    log.debug("Cache file is stale: $file")
+                    null
+                } else {
+                    readMap(buffer)
+                }
+            }
+        } catch (e: Exception) {
+            log.warning("Cannot read cache file: $file", e)
+            null
+        }
+    }
+
+    /**
+     * Writes [map] to [file] via a temporary file, so that a partially written file is never read.
+     * Failure to write is logged but not propagated, since the map is already loaded.
+     */
+    fun write(map: TiledMap, file: Path, sourceLastModified: Long, sourceLength: Long) {
+        var tmpFile: Path? = null
+
+        try {
+            file.toAbsolutePath().parent?.let { Files.createDirectories(it) }
+
+            tmpFile = Files.createTempFile(file.toAbsolutePath().parent, file.fileName.toString(), ".tmp")
+
+            DataOutputStream(BufferedOutputStream(Files.newOutputStream(tmpFile), 64 * 1024)).use {
+                it.writeInt(MAGIC)
+                it.writeInt(FORMAT_VERSION)
+                it.writeLong(sourceLastModified)
+                it.writeLong(sourceLength)
+
+                writeMap(it, map)
+            }
+
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING)
+
+            log.debug("Written cache file: $file")
+
+        } catch (e: Exception) {
+            log.warning("Cannot write cache file: $file", e)
+
+            tmpFile?.let { Files.deleteIfExists(it) }
+        }
+    }
+
+    private fun writeMap(out: DataOutputStream, map: TiledMap) {
+        out.writeInt(map.width)
+        out.writeInt(map.height)
+        out.writeInt(map.tilewidth)
+        out.writeInt(map.tileheight)
+        out.writeInt(map.nextobjectid)
+        out.writeInt(map.version)
+        out.writeInt(map.hexsidelength)
+        out.writeBoolean(map.infinite)
+        out.writeString(map.orientation)
+        out.writeString(map.backgroundcolor)
+        out.writeString(map.renderorder)
+        out.writeString(map.tiledversion)
+        out.writeString(map.type)
+        out.writeString(map.staggeraxis)
+        out.writeString(map.staggerindex)
+        out.writeProperties(map.properties, map.propertytypes)
+
+        out.writeInt(map.tilesets.size)
+        map.tilesets.forEach { writeTileset(out, it) }
+
+        out.writeInt(map.layers.size)
+        map.layers.forEach { writeLayer(out, it) }
+    }
+
+    private fun readMap(buffer: ByteBuffer): TiledMap {
+        val map = TiledMap()
+        map.width = buffer.int
+        map.height = buffer.int
+        map.tilewidth = buffer.int
+        map.tileheight = buffer.int
+        map.nextobjectid = buffer.int
+        map.version = buffer.int
+        map.hexsidelength = buffer.int
+        map.infinite = buffer.readBoolean()
+        map.orientation = buffer.readString()
+        map.backgroundcolor = buffer.readString()
+        map.renderorder = buffer.readString()
+        map.tiledversion = buffer.readString()
+        map.type = buffer.readString()
+        map.staggeraxis = buffer.readString()
+        map.staggerindex = buffer.readString()
+
+        val properties = hashMapOf<String, Any>()
+        val propertytypes = hashMapOf<String, String>()
+        buffer.readProperties(properties, propertytypes)
+        map.properties = properties
+        map.propertytypes = propertytypes
+
+        map.tilesets = List(buffer.int) { readTileset(buffer) }
+        map.layers = List(buffer.int) { readLayer(buffer) }
+
+        return map
+    }
+
+    private fun writeTileset(out: DataOutputStream, tileset: Tileset) {
+        out.writeInt(tileset.firstgid)
+        out.writeInt(tileset.tilewidth)
+        out.writeInt(tileset.tileheight)
+        out.writeInt(tileset.imagewidth)
+        out.writeInt(tileset.imageheight)
+        out.writeInt(tileset.margin)
+        out.writeInt(tileset.spacing)
+        out.writeInt(tileset.columns)
+        out.writeInt(tileset.tilecount)
+        out.writeString(tileset.image)
+        out.writeString(tileset.name)
+        out.writeString(tileset.transparentcolor)
+
+        out.writeInt(tileset.tiles.size)
+        tileset.tiles.forEach {
+            out.writeInt(it.id)
+            out.writeInt(it.imagewidth)
+            out.writeInt(it.imageheight)
+            out.writeString(it.image)
+            out.writeString(it.transparentcolor)
+        }
+    }
+
+    private fun readTileset(buffer: ByteBuffer): Tileset {
+        val tileset = Tileset()
+        tileset.firstgid = buffer.int
+        tileset.tilewidth = buffer.int
+        tileset.tileheight = buffer.int
+        tileset.imagewidth = buffer.int
+        tileset.imageheight = buffer.int
+        tileset.margin = buffer.int
+        tileset.spacing = buffer.int
+        tileset.columns = buffer.int
+        tileset.tilecount = buffer.int
+        tileset.image = buffer.readString()
+        tileset.name = buffer.readString()
+        tileset.transparentcolor = buffer.readString()
+
+        repeat(buffer.int) {
+            val tile = Tile()
+            tile.id = buffer.int
+            tile.imagewidth = buffer.int
+            tile.imageheight = buffer.int
+            tile.image = buffer.readString()
+            tile.transparentcolor = buffer.readString()
+
+            tileset.tiles.add(tile)
+        }
+
+        return tileset
+    }
+
+    private fun writeLayer(out: DataOutputStream, layer: Layer) {
+        out.writeString(layer.name)
+        out.writeString(layer.type)
+        out.writeString(layer.draworder)
+        out.writeInt(layer.width)
+        out.writeInt(layer.height)
+        out.writeInt(layer.x)
+        out.writeInt(layer.y)
+        out.writeBoolean(layer.visible)
+        out.writeFloat(layer.opacity)
+
+        out.writeInt(layer.data.size)
+        for (i in layer.data.indices) {
+            out.writeInt(layer.gidAt(i).toInt())
+        }
+
+        out.writeInt(layer.objects.size)
+        layer.objects.forEach { writeObject(out, it) }
+    }
+
+    private fun readLayer(buffer: ByteBuffer): Layer {
+        val layer = Layer()
+        layer.name = buffer.readString()
+        layer.type = buffer.readString()
+        layer.draworder = buffer.readString()
+        layer.width = buffer.int
+        layer.height = buffer.int
+        layer.x = buffer.int
+        layer.y = buffer.int
+        layer.visible = buffer.readBoolean()
+        layer.opacity = buffer.float
+
+        val gids = IntArray(buffer.int)
+        buffer.asIntBuffer().get(gids)
+        buffer.position(buffer.position() + gids.size * 4)
+
+        layer.data = GidList(gids)
+
+        layer.objects = MutableList(buffer.int) { readObject(buffer) }
+
+        return layer
+    }
+
+    private fun writeObject(out: DataOutputStream, obj: TiledObject) {
+        out.writeInt(obj.id)
+        out.writeInt(obj.width)
+        out.writeInt(obj.height)
+        out.writeInt(obj.x)
+        out.writeInt(obj.y)
+        out.writeInt(obj.gid)
+        out.writeFloat(obj.rotation)
+        out.writeBoolean(obj.visible)
+        out.writeBoolean(obj.isFlippedHorizontal)
+        out.writeBoolean(obj.isFlippedVertical)
+        out.writeString(obj.name)
+        out.writeString(obj.type)
+        out.writeString(obj.typeClass)
+
+        val textData = obj.textData
+
+        out.writeBoolean(textData != null)
+
+        if (textData != null) {
+            out.writeString(textData.text)
+            out.writeBoolean(textData.isWrap)
+            out.writeColor(textData.color)
+        }
+
+        out.writeProperties(obj.properties, obj.propertytypes)
+    }
+
+    private fun readObject(buffer: ByteBuffer): TiledObject {
+        val obj = TiledObject()
+        obj.id = buffer.int
+        obj.width = buffer.int
+        obj.height = buffer.int
+        obj.x = buffer.int
+        obj.y = buffer.int
+        obj.gid = buffer.int
+        obj.rotation = buffer.float
+        obj.visible = buffer.readBoolean()
+        obj.isFlippedHorizontal = buffer.readBoolean()
+        obj.isFlippedVertical = buffer.readBoolean()
+        obj.name = buffer.readString()
+        obj.type = buffer.readString()
+        obj.typeClass = buffer.readString()
+
+        if (buffer.readBoolean()) {
+            obj.textData = TextData(buffer.readString(), buffer.readBoolean(), buffer.readColor())
+        }
+
+        val properties = hashMapOf<String, Any>()
+        val propertytypes = hashMapOf<String, String>()
+        buffer.readProperties(properties, propertytypes)
+        obj.properties = properties
+        obj.propertytypes = propertytypes
+
+        return obj
+    }
+
+    private fun DataOutputStream.writeProperties(properties: Map<String, Any>, propertytypes: Map<String, String>) {
+        writeInt(properties.size)
+
+        properties.forEach { (name, value) ->
+            writeString(name)
+
+            when (value) {
+                is Int -> {
+                    writeByte(TYPE_INT.toInt())
+                    writeInt(value)
+                }
+
+                is Boolean -> {
+                    writeByte(TYPE_BOOL.toInt())
+                    writeBoolean(value)
+                }
+
+                is Float -> {
+                    writeByte(TYPE_FLOAT.toInt())
+                    writeFloat(value)
+                }
+
+                is String -> {
+                    writeByte(TYPE_STRING.toInt())
+                    writeString(value)
+                }
+
+                is Color -> {
+                    writeByte(TYPE_COLOR.toInt())
+                    writeColor(value)
+                }
+
+                is Polygon -> {
+                    writeByte(TYPE_POLYGON.toInt())
+                    writePoints(value.points)
+                }
+
+                is Polyline -> {
+                    writeByte(TYPE_POLYLINE.toInt())
+                    writePoints(value.points)
+                }
+
+                else -> throw IllegalArgumentException("Cannot cache property $name of type ${value.javaClass}")
+            }
+        }
+
+        writeInt(propertytypes.size)
+
+        propertytypes.forEach { (name, type) ->
+            writeString(name)
+            writeString(type)
+        }
+    }
+
+    private fun ByteBuffer.readProperties(properties: MutableMap<String, Any>, propertytypes: MutableMap<String, String>) {
+        repeat(int) {
+            val name = readString()
+
+            properties[name] = when (val type = get()) {
+                TYPE_INT -> int
+                TYPE_BOOL -> readBoolean()
+                TYPE_FLOAT -> float
+                TYPE_STRING -> readString()
+                TYPE_COLOR -> readColor()
+                TYPE_POLYGON -> Polygon(*readPoints())
+                TYPE_POLYLINE -> Polyline(*readPoints())
+                else -> throw IllegalArgumentException("Unknown property type: $type")
+            }
+        }
+
+        repeat(int) {
+            propertytypes[readString()] = readString()
+        }
+    }
+
+    private fun DataOutputStream.writePoints(points: List<Double>) {
+        writeInt(points.size)
+        points.forEach { writeDouble(it) }
+    }
+
+    private fun ByteBuffer.readPoints(): DoubleArray {
+        return DoubleArray(int) { double }
+    }
+
+    private fun DataOutputStream.writeColor(color: Color) {
+        writeDouble(color.red)
+        writeDouble(color.green)
+        writeDouble(color.blue)
+        writeDouble(color.opacity)
+    }
+
+    private fun ByteBuffer.readColor(): Color {
+        return Color.color(double, double, double, double)
+    }
+
+    /**
+     * Unlike writeUTF(), strings are not limited to 64KB.
+     */
+    private fun DataOutputStream.writeString(value: String) {
+        val bytes = value.toByteArray(Charsets.UTF_8)
+
+        writeInt(bytes.size)
+        write(bytes)
+    }
+
+    private fun ByteBuffer.readString(): String {
+        val bytes = ByteArray(int)
+        get(bytes)
+
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    private fun ByteBuffer.readBoolean(): Boolean = get() != 0.toByte()
+}
@@ -0,0 +1,51 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity.level.tiled
+
+import com.almasb.fxgl.entity.Entity
+import com.almasb.fxgl.entity.component.Component
+
+/**
+ * Creates entities of Tiled objects over several frames, [objectsPerFrame] per frame,
+ * and adds them to the world of the entity this component is attached to.
+ * The entity is removed from the world once all objects are spawned.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TiledObjectSpawnerComponent internal constructor(
+        private val objects: List<TiledObject>,
+        private val objectsPerFrame: Int,
+        private val factory: (TiledObject) -> Entity
+) : Component() {
+
+    /**
+     * Number of objects spawned so far.
+     */
+    var numSpawned = 0
+        private set
+
+    val numObjects: Int
+        get() = objects.size
+
+    val isDone: Boolean
+        get() = numSpawned == objects.size
+
+    override fun onUpdate(tpf: Double) {
+        val world = entity.world
+
+        val end = minOf(objects.size, numSpawned + objectsPerFrame)
+
+        while (numSpawned < end) {
+            world.addEntity(factory(objects[numSpawned]))
+            numSpawned++
+        }
+
+        if (isDone) {
+            entity.removeFromWorld()
+        }
+    }
+}
@@ -91,93 +91,128 @@ class TilesetLoader(private val map: TiledMap, private val mapURL: URL) {
 
         log.debug("Created buffer with size ${buffer.width}x${buffer.height}")
 
-        for (i in 0 until layer.data.size) {
-
-            val tempGid = layer.data.get(i)
-
-            // from https://doc.mapeditor.org/en/stable/reference/tmx-map-format/#tile-flipping
-            // Bit 32 (31th) is used for storing whether the tile is horizontally flipped,
-            // Bit 31 (30th) is used for vertically flipped,
-            // Bit 30 (29th) is used for diagonally flipped
-            val FLIPPED_HORIZONTALLY_FLAG = 1L shl 31
-            val FLIPPED_VERTICALLY_FLAG   = 1L shl 30
-            val FLIPPED_DIAGONALLY_FLAG   = 1L shl 29
+        drawLayer(layer, buffer, 0, 0)
 
-            val isFlippedHorizontal = tempGid and FLIPPED_HORIZONTALLY_FLAG != 0L
-            val isFlippedVertical = tempGid and FLIPPED_VERTICALLY_FLAG != 0L
-            val isFlippedDiagonal = tempGid and FLIPPED_DIAGONALLY_FLAG != 0L
-
-            // get rid of the metadata, leaving us with gid
-            var gid = (tempGid and (FLIPPED_HORIZONTALLY_FLAG or FLIPPED_VERTICALLY_FLAG or FLIPPED_DIAGONALLY_FLAG).inv()).toInt()
+        return ImageView(buffer)
+    }
 
-            // empty tile
-            if (gid == 0)
-                continue
+    /**
+     * Draws tiles of an orthogonal [layer] into [buffer], which represents the area of the layer
+     * starting at ([originX], [originY]) in pixels, with the size of [buffer].
+     * Tiles that only partially overlap the area are clipped.
+     * Can be called from a background thread.
+     */
+    fun drawLayer(layer: Layer, buffer: WritableImage, originX: Int, originY: Int) {
+        val bufferW = buffer.width.toInt()
+        val bufferH = buffer.height.toInt()
+
+        // tiles larger than map tiles extend right and down, so they may overlap the area from preceding cells
+        val maxTileW = map.tilesets.maxOfOrNull { it.tilewidth } ?: map.tilewidth
+        val maxTileH = map.tilesets.maxOfOrNull { it.tileheight } ?: map.tileheight
+        val extraX = (maxTileW + map.tilewidth - 1) / map.tilewidth - 1
+        val extraY = (maxTileH + map.tileheight - 1) / map.tileheight - 1
+
+        val minTileX = maxOf(0, originX / map.tilewidth - extraX)
+        val minTileY = maxOf(0, originY / map.tileheight - extraY)
+        val maxTileX = minOf(layer.width - 1, (originX + bufferW - 1) / map.tilewidth)
+        val maxTileY = minOf(layer.height - 1, (originY + bufferH - 1) / map.tileheight)
+
+        for (y in minTileY..maxTileY) {
+            for (x in minTileX..maxTileX) {
+                drawTile(layer.gidAt(y * layer.width + x), buffer, x * map.tilewidth - originX, y * map.tileheight - originY)
+            }
+        }
+    }
 
-            val tileset = findTileset(gid, map.tilesets)
+    /**
+     * Draws tile with [tempGid] (including flip flags) at ([dstX], [dstY]) in [buffer], clipped to [buffer].
+     */
+    private fun drawTile(tempGid: Long, buffer: WritableImage, dstX: Int, dstY: Int) {
+        // from https://doc.mapeditor.org/en/stable/reference/tmx-map-format/#tile-flipping
+        // Bit 32 (31th) is used for storing whether the tile is horizontally flipped,
+        // Bit 31 (30th) is used for vertically flipped,
+        // Bit 30 (29th) is used for diagonally flipped
+        val FLIPPED_HORIZONTALLY_FLAG = 1L shl 31
+        val FLIPPED_VERTICALLY_FLAG   = 1L shl 30
+        val FLIPPED_DIAGONALLY_FLAG   = 1L shl 29
+
+        val isFlippedHorizontal = tempGid and FLIPPED_HORIZONTALLY_FLAG != 0L
+        val isFlippedVertical = tempGid and FLIPPED_VERTICALLY_FLAG != 0L
+        val isFlippedDiagonal = tempGid and FLIPPED_DIAGONALLY_FLAG != 0L
+
+        // get rid of the metadata, leaving us with gid
+        var gid = (tempGid and (FLIPPED_HORIZONTALLY_FLAG or FLIPPED_VERTICALLY_FLAG or FLIPPED_DIAGONALLY_FLAG).inv()).toInt()
+
+        // empty tile
+        if (gid == 0)
+            return
 
-            // we offset because data is encoded as continuous
-            gid -= tileset.firstgid
+        val tileset = findTileset(gid, map.tilesets)
 
-            // image destination
-            val x = i % layer.width
-            val y = i / layer.width
+        // we offset because data is encoded as continuous
+        gid -= tileset.firstgid
 
-            val w = tileset.tilewidth
-            val h = tileset.tileheight
+        val w = tileset.tilewidth
+        val h = tileset.tileheight
 
-            var sourceImage: Image
-            var srcx: Int
-            var srcy: Int
+        // clip to buffer
+        val x0 = maxOf(dstX, 0)
+        val y0 = maxOf(dstY, 0)
+        val x1 = minOf(dstX + w, buffer.width.toInt())
+        val y1 = minOf(dstY + h, buffer.height.toInt())
 
-            if (tileset.isSpriteSheet) {
-                sourceImage = loadImage(tileset.image, tileset.transparentcolor, tileset.imagewidth, tileset.imageheight)
+        if (x0 >= x1 || y0 >= y1)
+            return
 
-                // image source
-                val tilex = gid % tileset.columns
-                val tiley = gid / tileset.columns
+        var sourceImage: Image
+        var srcx: Int
+        var srcy: Int
 
-                srcx = tilex * w + tileset.margin + tilex * tileset.spacing
-                srcy = tiley * h + tileset.margin + tiley * tileset.spacing
-
-                // If a tile of the sprite sheet needs to be flipped, crop the sub-texture
-                if (isFlippedHorizontal or isFlippedVertical or isFlippedDiagonal) {
-                    sourceImage = Texture(sourceImage).subTexture(Rectangle2D(srcx.toDouble(), srcy.toDouble(), w.toDouble(), h.toDouble())).image
-                    srcx = 0
-                    srcy = 0
-                }
-
-            } else {
+        if (tileset.isSpriteSheet) {
+            sourceImage = loadImage(tileset.image, tileset.transparentcolor, tileset.imagewidth, tileset.imageheight)
 
-                // tileset is a collection of images
-                val tile = tileset.tiles.find { it.id == gid }
-                        ?: throw IllegalArgumentException("Tile with id=$gid not found")
+            // image source
+            val tilex = gid % tileset.columns
+            val tiley = gid / tileset.columns
 
-                sourceImage = loadImage(tile.image, tile.transparentcolor, tile.imagewidth, tile.imageheight)
+            srcx = tilex * w + tileset.margin + tilex * tileset.spacing
+            srcy = tiley * h + tileset.margin + tiley * tileset.spacing
 
+            // If a tile of the sprite sheet needs to be flipped, crop the sub-texture
+            if (isFlippedHorizontal or isFlippedVertical or isFlippedDiagonal) {
+                sourceImage = Texture(sourceImage).subTexture(Rectangle2D(srcx.toDouble(), srcy.toDouble(), w.toDouble(), h.toDouble())).image
                 srcx = 0
                 srcy = 0
             }
 
-            if (isFlippedHorizontal) {
-                sourceImage = flipHorizontally(sourceImage)
-            }
+        } else {
 
-            if (isFlippedVertical) {
-                sourceImage = flipVertically(sourceImage)
-            }
+            // tileset is a collection of images
+            val tile = tileset.tiles.find { it.id == gid }
+                    ?: throw IllegalArgumentException("Tile with id=$gid not found")
 
-            if (isFlippedDiagonal) {
-                log.warning("Diagonally flipped tiles are not currently supported")
-            }
+            sourceImage = loadImage(tile.image, tile.transparentcolor, tile.imagewidth, tile.imageheight)
+
+            srcx = 0
+            srcy = 0
+        }
 
-            buffer.pixelWriter.setPixels(x * map.tilewidth, y * map.tileheight,
-                    w, h, sourceImage.pixelReader,
-                    srcx,
-                    srcy)
+        if (isFlippedHorizontal) {
+            sourceImage = flipHorizontally(sourceImage)
         }
 
-        return ImageView(buffer)
+        if (isFlippedVertical) {
+            sourceImage = flipVertically(sourceImage)
+        }
+
+        if (isFlippedDiagonal) {
+            log.warning("Diagonally flipped tiles are not currently supported")
+        }
+
+        buffer.pixelWriter.setPixels(x0, y0,
+                x1 - x0, y1 - y0, sourceImage.pixelReader,
+                srcx + x0 - dstX,
+                srcy + y0 - dstY)
     }
 
     fun loadViewHex(layerName: String): Node {
@@ -198,7 +233,7 @@ class TilesetLoader(private val map: TiledMap, private val mapURL: URL) {
 
         for (i in 0 until layer.data.size) {
 
-            var gid = layer.data.get(i).toInt()
+            var gid = layer.gidAt(i).toInt()
 
             // empty tile
             if (gid == 0)
@@ -334,7 +369,7 @@ class TilesetLoader(private val map: TiledMap, private val mapURL: URL) {
 
         for (i in 0 until layer.data.size) {
 
-            var gid = layer.data.get(i).toInt()
+            var gid = layer.gidAt(i).toInt()
 
             // empty tile
             if (gid == 0)
@@ -419,9 +454,13 @@ class TilesetLoader(private val map: TiledMap, private val mapURL: URL) {
     }
 
     private fun loadImage(tilesetImageName: String, transparentcolor: String, w: Int, h: Int): Image {
-        if (tilesetImageName in imageCache) {
-            return imageCache[tilesetImageName]!!
+        // chunks of a layer may be drawn on several threads
+        synchronized(imageCache) {
+            return imageCache[tilesetImageName] ?: loadImageImpl(tilesetImageName, transparentcolor, w, h)
         }
+    }
+
+    private fun loadImageImpl(tilesetImageName: String, transparentcolor: String, w: Int, h: Int): Image {
 
         val image = try {
             val ext = mapURL.toExternalForm().substringBeforeLast("/") + "/"
@@ -0,0 +1,73 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.particle
+
+import com.almasb.fxgl.core.util.EmptyRunnable
+import com.almasb.fxgl.entity.Entity
+import com.almasb.fxgl.entity.component.Component
+
+/**
+ * Allows adding particle effects to an entity, same as [ParticleComponent],
+ * but particles are stored in a [ParticleBuffer] and drawn to a single [ParticleCanvas],
+ * so large numbers of particles do not add scene graph nodes.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class BatchedParticleComponent(val emitter: ParticleEmitter) : Component() {
+
+    var onFinished: Runnable = EmptyRunnable
+
+    /**
+     * This is the entity whose view is used to render particles, see [ParticleComponent.parent].
+     */
+    val parent = Entity()
+
+    val buffer = ParticleBuffer()
+
+    private val canvas = ParticleCanvas()
+
+    val isEmitterPaused: Boolean
+        get() = emitter.isPaused
+
+    override fun onAdded() {
+        parent.viewComponent.addChild(canvas)
+    }
+
+    override fun onUpdate(tpf: Double) {
+        if (parent.world == null) {
+            parent.zIndex = entity.zIndex
+            entity.world.addEntity(parent)
+        }
+
+        emitter.emit(buffer, entity.x, entity.y)
+
+        buffer.update(tpf, emitter.onRemoveFunction)
+
+        canvas.draw(buffer)
+
+        if (buffer.isEmpty && emitter.isFinished) {
+            onFinished.run()
+        }
+    }
+
+    fun pauseEmitter() {
+        emitter.pause()
+    }
+
+    fun resumeEmitter() {
+        emitter.resume()
+    }
+
+    override fun onRemoved() {
+        buffer.clear()
+
+        parent.viewComponent.removeChild(canvas)
+        parent.removeFromWorld()
+    }
+
+    override fun isComponentInjectionRequired(): Boolean = false
+}
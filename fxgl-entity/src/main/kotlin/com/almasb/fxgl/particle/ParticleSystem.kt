@@ -17,25 +17,61 @@ import javafx.scene.layout.Pane
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
-class ParticleSystem : Updatable {
+class ParticleSystem
+@JvmOverloads constructor(
+
+        /**
+         * If true, particles of each emitter are stored in a [ParticleBuffer]
+         * and drawn to a single [ParticleCanvas], instead of a node per particle.
+         */
+        val isBatched: Boolean = false) : Updatable {
 
     val pane = Pane()
 
     private val emitters = hashMapOf<ParticleEmitter, Point2D>()
     private val particles = hashMapOf<ParticleEmitter, MutableList<Particle>>()
+    private val batches = hashMapOf<ParticleEmitter, Batch>()
 
     fun addParticleEmitter(emitter: ParticleEmitter, x: Double, y: Double) {
         emitters[emitter] = Point2D(x, y)
-        particles[emitter] = arrayListOf()
+
+        if (isBatched) {
+            val batch = Batch()
+            batches[emitter] = batch
+            pane.children += batch.canvas
+        } else {
+            particles[emitter] = arrayListOf()
+        }
     }
 
     fun removeParticleEmitter(emitter: ParticleEmitter) {
         emitters.remove(emitter)
-        particles.remove(emitter)?.let { it.forEach { Pools.free(it) } }
+
+        particles.remove(emitter)?.let {
+            it.forEach {
+                pane.children.remove(it.view)
+                Pools.free(it)
+            }
+        }
+
+        batches.remove(emitter)?.let {
+            pane.children.remove(it.canvas)
+            it.buffer.clear()
+        }
     }
 
     override fun onUpdate(tpf: Double) {
         emitters.forEach { (emitter, p) ->
+            if (isBatched) {
+                val batch = batches[emitter]!!
+
+                emitter.emit(batch.buffer, p.x, p.y)
+                batch.buffer.update(tpf, emitter.onRemoveFunction)
+                batch.canvas.draw(batch.buffer)
+
+                return@forEach
+            }
+
             val particlesList = particles[emitter]!!
 
             particlesList.addAll(emitter.emit(p.x, p.y))
@@ -48,7 +84,7 @@ class ParticleSystem : Updatable {
                     iter.remove()
 
                     pane.children.remove(particle.view)
-                    Pools.free(p)
+                    Pools.free(particle)
                 } else {
                     if (particle.view.parent == null)
                         pane.children.add(particle.view)
@@ -56,4 +92,9 @@ class ParticleSystem : Updatable {
             }
         }
     }
-}
\ No newline at end of file
+
+    private class Batch {
+        val buffer = ParticleBuffer()
+        val canvas = ParticleCanvas()
+    }
+}
@@ -6,6 +6,8 @@
 
 package com.almasb.fxgl.pathfinding.astar
 
+import com.almasb.fxgl.core.collection.grid.NeighborDirection
+
 /**
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
@@ -14,5 +16,6 @@ internal data class CacheKey(
         val startX: Int,
         val startY: Int,
         val endX: Int,
-        val endY: Int
-)
\ No newline at end of file
+        val endY: Int,
+        val neighborDirection: NeighborDirection
+)
@@ -47,6 +47,19 @@ sealed class BoundingShape(val size: Dimension2D) {
             return BoxShapeData(width, height)
         }
 
+        /**
+         * Constructs new capsule bounding shape with given width and height,
+         * i.e. a box whose shorter sides are replaced by semicircles.
+         * The capsule is horizontal if width is greater than height, otherwise vertical.
+         *
+         * @param width capsule width
+         * @param height capsule height
+         * @return capsule bounding shape
+         */
+        @JvmStatic fun capsule(width: Double, height: Double): BoundingShape {
+            return CapsuleShapeData(width, height)
+        }
+
         /**
          * Constructs new chain shaped bounding shape.
          * Note: chain shape can only be used with static objects.
@@ -151,6 +164,39 @@ class BoxShapeData(val width: Double, val height: Double) : BoundingShape(Dimens
     }
 }
 
+/**
+ * Box2D has no capsule shape, so the physics shape is an 8-vertex polygon that approximates the capsule.
+ * Hit box collisions ([Narrowphase]) use the exact capsule.
+ */
+class CapsuleShapeData(val width: Double, val height: Double) : BoundingShape(Dimension2D(width, height)) {
+
+    override fun toBox2DShape(box: HitBox, bboxComp: BoundingBoxComponent, conv: PhysicsUnitConverter): Shape {
+        val boundsCenterLocal = box.centerWorld.subtract(bboxComp.centerWorld)
+
+        val isHorizontal = box.width >= box.height
+        val radius = minOf(box.width, box.height) / 2
+        val halfLength = maxOf(box.width, box.height) / 2 - radius
+
+        // 4 points on each semicircle, from -90 to 90 degrees around the cap direction
+        val vertices = Array(8) { i ->
+            val sign = if (i < 4) 1 else -1
+            val angle = Math.toRadians(-90.0 + (i % 4) * 60.0)
+
+            val along = sign * (halfLength + radius * Math.cos(angle))
+            val across = sign * radius * Math.sin(angle)
+
+            val p = if (isHorizontal) Point2D(along, across) else Point2D(across, along)
+
+            conv.toVector(p.add(boundsCenterLocal))
+        }
+
+        val shape = PolygonShape()
+        shape.set(vertices)
+
+        return shape
+    }
+}
+
 class PolygonShapeData(size: Dimension2D, val points: Array<Point2D>) : BoundingShape(size) {
 
     override fun toBox2DShape(box: HitBox, bboxComp: BoundingBoxComponent, conv: PhysicsUnitConverter): Shape {
@@ -6,67 +6,139 @@
 
 package com.almasb.fxgl.physics
 
-import com.almasb.fxgl.core.collection.Array
-import com.almasb.fxgl.core.math.FXGLMath.max
-import com.almasb.fxgl.core.math.FXGLMath.min
+import com.almasb.fxgl.core.collection.LongMap
+import com.almasb.fxgl.core.collection.UnorderedArray
 import com.almasb.fxgl.entity.Entity
-import javafx.geometry.Point2D
+import kotlin.math.floor
 
 /**
+ * Uniform grid used by [CollisionDetectionStrategy.GRID_INDEXING] to only check entities that share a cell.
+ * Cells are keyed by a packed long (no boxing) and cells / proxies are pooled,
+ * so after warm-up a frame of insert() and clear() does not allocate.
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 internal class CollisionGrid(val cellWidth: Int, val cellHeight: Int) {
 
-    val cells = hashMapOf<Point2D, CollisionCell>()
+    private val cells = LongMap<CollisionCell>(256)
 
-    fun insert(e: Entity) {
-        if (e.boundingBoxComponent.hitBoxesProperty().isEmpty())
-            return
+    /**
+     * Cells that have at least one entity in the current frame.
+     */
+    val activeCells = UnorderedArray<CollisionCell>(256)
 
-        var box = e.boundingBoxComponent.hitBoxesProperty()[0]
+    private val freeCells = UnorderedArray<CollisionCell>(256)
 
-        var minX = box.fastMinX
-        var minY = box.fastMinY
-        var maxX = box.fastMaxX
-        var maxY = box.fastMaxY
+    private val usedProxies = UnorderedArray<CollisionProxy>(256)
+    private val freeProxies = UnorderedArray<CollisionProxy>(256)
 
-        for (i in 1 until e.boundingBoxComponent.hitBoxesProperty().size) {
-            box = e.boundingBoxComponent.hitBoxesProperty()[i]
+    init {
+        require(cellWidth > 0 && cellHeight > 0) { "Cell size must be > 0: $cellWidth x $cellHeight" }
+    }
 
-            minX = min(minX, box.fastMinX)
-            minY = min(minY, box.fastMinY)
+    /**
+     * Inserts an entity whose hit boxes have transforms applied into all cells covered by its hit boxes.
+     */
+    fun insert(e: Entity) {
+        val hitBoxes = e.boundingBoxComponent.hitBoxesProperty()
 
-            maxX = max(maxX, box.fastMaxX)
-            maxY = max(maxY, box.fastMaxY)
-        }
+        if (hitBoxes.isEmpty())
+            return
 
-        val tl = Point2D(minX.toDouble(), minY.toDouble())
-        val br = Point2D(maxX.toDouble(), maxY.toDouble())
+        var minX = Float.MAX_VALUE
+        var minY = Float.MAX_VALUE
+        var maxX = -Float.MAX_VALUE
+        var maxY = -Float.MAX_VALUE
+
+        for (i in hitBoxes.indices) {
+            // corners are rotated, so this also covers hit boxes of rotated entities
+            for (corner in hitBoxes[i].corners) {
+                minX = minOf(minX, corner.x)
+                minY = minOf(minY, corner.y)
+                maxX = maxOf(maxX, corner.x)
+                maxY = maxOf(maxY, corner.y)
+            }
+        }
 
-        val tlX = Math.floor(tl.x / cellWidth).toInt()
-        val tlY = Math.floor(tl.y / cellHeight).toInt()
+        val proxy = if (freeProxies.isEmpty) CollisionProxy() else freeProxies.pop()
+        proxy.entity = e
+        proxy.minCellX = floor(minX.toDouble() / cellWidth).toInt()
+        proxy.minCellY = floor(minY.toDouble() / cellHeight).toInt()
+        proxy.maxCellX = floor(maxX.toDouble() / cellWidth).toInt()
+        proxy.maxCellY = floor(maxY.toDouble() / cellHeight).toInt()
 
-        val brX = Math.ceil(br.x / cellWidth).toInt()
-        val brY = Math.ceil(br.y / cellHeight).toInt()
+        usedProxies.add(proxy)
 
-        for (x in tlX..brX) {
-            for (y in tlY..brY) {
-                val point = Point2D(x.toDouble(), y.toDouble())
+        for (y in proxy.minCellY..proxy.maxCellY) {
+            for (x in proxy.minCellX..proxy.maxCellX) {
+                val key = key(x, y)
 
-                var cell = cells[point]
+                var cell = cells.get(key)
 
                 if (cell == null) {
-                    cell = CollisionCell(x, y)
-                    cells[point] = cell
+                    cell = if (freeCells.isEmpty) CollisionCell() else freeCells.pop()
+                    cell.x = x
+                    cell.y = y
+
+                    cells.put(key, cell)
+                    activeCells.add(cell)
                 }
 
-                cell.entities.add(e)
+                cell.proxies.add(proxy)
             }
         }
     }
+
+    /**
+     * A pair of proxies can share multiple cells.
+     * To check each pair once, only the cell at the top-left corner of their shared cell range "owns" the pair.
+     *
+     * @return true if given cell is responsible for checking given pair
+     */
+    fun isOwner(cell: CollisionCell, p1: CollisionProxy, p2: CollisionProxy): Boolean {
+        return cell.x == maxOf(p1.minCellX, p2.minCellX) && cell.y == maxOf(p1.minCellY, p2.minCellY)
+    }
+
+    /**
+     * Returns all cells and proxies to their pools.
+     */
+    fun clear() {
+        for (i in 0 until activeCells.size()) {
+            val cell = activeCells[i]
+            cell.proxies.clear()
+            freeCells.add(cell)
+        }
+
+        activeCells.clear()
+        cells.clear()
+
+        for (i in 0 until usedProxies.size()) {
+            val proxy = usedProxies[i]
+            proxy.entity = null
+            freeProxies.add(proxy)
+        }
+
+        usedProxies.clear()
+    }
+
+    private fun key(x: Int, y: Int): Long = (x.toLong() shl 32) or (y.toLong() and 0xFFFFFFFFL)
 }
 
-internal class CollisionCell(val x: Int, val y: Int) {
-    val entities = Array<Entity>()
-}
\ No newline at end of file
+internal class CollisionCell {
+    var x = 0
+    var y = 0
+
+    val proxies = UnorderedArray<CollisionProxy>()
+}
+
+/**
+ * Entity and its covered cell range for the current frame.
+ */
+internal class CollisionProxy {
+    var entity: Entity? = null
+
+    var minCellX = 0
+    var minCellY = 0
+    var maxCellX = 0
+    var maxCellY = 0
+}
@@ -0,0 +1,110 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.physics
+
+import com.almasb.fxgl.core.collection.UnorderedPairMap
+
+/**
+ * Caches collision handler lookups per pair of entity types.
+ * Each entity type that has a handler is given a small int id, so that a lookup is a single array access.
+ * All other types (including untyped entities, which each have their own type object) share [NO_HANDLER],
+ * so the matrix is bounded by the number of handler types, not by the number of entity types.
+ * Types are registered via [addHandlerTypes] and keep their ids, so ids handed out earlier remain valid.
+ * Entries are filled lazily from [handlers] and must be [invalidate]d when handlers change.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class CollisionHandlerMatrix(private val handlers: UnorderedPairMap<Any, CollisionHandler>) {
+
+    companion object {
+
+        /**
+         * Id of all types that are not part of any collision handler.
+         */
+        const val NO_HANDLER = 0
+    }
+
+    private val typeIds = HashMap<Any, Int>()
+
+    private var types = arrayOfNulls<Any>(8)
+
+    private var capacity = 8
+
+    private var matrix = arrayOfNulls<CollisionHandler>(capacity * capacity)
+    private var known = BooleanArray(capacity * capacity)
+
+    /**
+     * @return id of given entity type or [NO_HANDLER] if given type was not registered
+     */
+    fun typeId(type: Any): Int {
+        return typeIds[type] ?: NO_HANDLER
+    }
+
+    /**
+     * Registers types of a collision handler and invalidates cached handlers.
+     */
+    fun addHandlerTypes(typeA: Any, typeB: Any) {
+        register(typeA)
+        register(typeB)
+
+        invalidate()
+    }
+
+    private fun register(type: Any) {
+        if (type in typeIds)
+            return
+
+        // id 0 is NO_HANDLER
+        val id = typeIds.size + 1
+
+        if (id == capacity) {
+            grow()
+        }
+
+        typeIds[type] = id
+        types[id] = type
+    }
+
+    /**
+     * @return collision handler for given type ids or null if no such handler exists
+     */
+    fun get(typeId1: Int, typeId2: Int): CollisionHandler? {
+        if (typeId1 == NO_HANDLER || typeId2 == NO_HANDLER)
+            return null
+
+        val index = typeId1 * capacity + typeId2
+
+        if (!known[index]) {
+            val handler = handlers.get(types[typeId1]!!, types[typeId2]!!)
+
+            val mirrorIndex = typeId2 * capacity + typeId1
+
+            matrix[index] = handler
+            matrix[mirrorIndex] = handler
+            known[index] = true
+            known[mirrorIndex] = true
+        }
+
+        return matrix[index]
+    }
+
+    /**
+     * Forgets cached handlers, type ids remain valid.
+     */
+    fun invalidate() {
+        known.fill(false)
+        matrix.fill(null)
+    }
+
+    private fun grow() {
+        capacity *= 2
+
+        types = types.copyOf(capacity)
+        matrix = arrayOfNulls(capacity * capacity)
+        known = BooleanArray(capacity * capacity)
+    }
+}
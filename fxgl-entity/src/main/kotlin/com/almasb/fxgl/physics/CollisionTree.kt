@@ -0,0 +1,229 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.physics
+
+import com.almasb.fxgl.core.collection.Array
+import com.almasb.fxgl.core.collection.UnorderedArray
+import com.almasb.fxgl.core.math.Vec2
+import com.almasb.fxgl.entity.Entity
+import com.almasb.fxgl.entity.components.CollidableComponent
+import com.almasb.fxgl.physics.box2d.callbacks.TreeCallback
+import com.almasb.fxgl.physics.box2d.collision.AABB
+import com.almasb.fxgl.physics.box2d.collision.broadphase.DynamicTree
+import com.almasb.fxgl.physics.box2d.dynamics.BodyType
+import java.util.*
+
+/**
+ * Broadphase used by [CollisionDetectionStrategy.DYNAMIC_TREE].
+ * Unlike [CollisionGrid], proxies persist between frames: each frame an entity's proxy is only
+ * re-inserted into the tree if its hit boxes have left the fattened AABB stored in the tree.
+ * Coordinates are in pixels.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class CollisionTree {
+
+    companion object {
+
+        /**
+         * How much (in pixels) a proxy AABB stored in the tree is larger than the entity.
+         */
+        private const val AABB_MARGIN = 4f
+    }
+
+    private val tree = DynamicTree()
+
+    private val proxies = IdentityHashMap<Entity, TreeProxy>()
+
+    private val allProxies = UnorderedArray<TreeProxy>(256)
+
+    /**
+     * Proxies of entities inserted in the current frame, in insertion order.
+     */
+    val activeProxies = UnorderedArray<TreeProxy>(256)
+
+    private val freeProxies = UnorderedArray<TreeProxy>(256)
+
+    private var frame = 0L
+
+    private val fatAABB = AABB()
+    private val displacement = Vec2()
+
+    private val queryCallback = QueryCallback()
+
+    /**
+     * Starts a new frame, after which all collidable entities are [insert]ed.
+     */
+    fun beginFrame() {
+        frame++
+        activeProxies.clear()
+    }
+
+    /**
+     * Inserts or moves an entity whose hit boxes have transforms applied.
+     *
+     * @return proxy of the entity or null if entity has no hit boxes
+     */
+    fun insert(e: Entity): TreeProxy? {
+        val hitBoxes = e.boundingBoxComponent.hitBoxesProperty()
+
+        if (hitBoxes.isEmpty())
+            return null
+
+        var minX = Float.MAX_VALUE
+        var minY = Float.MAX_VALUE
+        var maxX = -Float.MAX_VALUE
+        var maxY = -Float.MAX_VALUE
+
+        for (i in hitBoxes.indices) {
+            for (corner in hitBoxes[i].corners) {
+                minX = minOf(minX, corner.x)
+                minY = minOf(minY, corner.y)
+                maxX = maxOf(maxX, corner.x)
+                maxY = maxOf(maxY, corner.y)
+            }
+        }
+
+        val existing = proxies[e]
+        val proxy: TreeProxy
+
+        if (existing == null) {
+            proxy = if (freeProxies.isEmpty) TreeProxy() else freeProxies.pop()!!
+            proxy.entity = e
+            proxy.aabb.set(minX, minY, maxX, maxY)
+
+            fatAABB.set(minX - AABB_MARGIN, minY - AABB_MARGIN, maxX + AABB_MARGIN, maxY + AABB_MARGIN)
+            proxy.treeId = tree.createProxy(fatAABB, proxy)
+
+            proxies[e] = proxy
+            allProxies.add(proxy)
+        } else {
+            proxy = existing
+
+            displacement.set(minX - proxy.aabb.lowerBound.x, minY - proxy.aabb.lowerBound.y)
+
+            proxy.aabb.set(minX, minY, maxX, maxY)
+
+            // most entities move less than the margin per frame, so the tree is left as is
+            if (!tree.getFatAABB(proxy.treeId).contains(proxy.aabb)) {
+                fatAABB.set(minX - AABB_MARGIN, minY - AABB_MARGIN, maxX + AABB_MARGIN, maxY + AABB_MARGIN)
+                tree.moveProxy(proxy.treeId, fatAABB, displacement)
+            }
+        }
+
+        proxy.frame = frame
+        proxy.index = activeProxies.size()
+        activeProxies.add(proxy)
+
+        return proxy
+    }
+
+    /**
+     * Removes proxies of entities that were not inserted in the current frame,
+     * e.g. entities that were removed or are no longer collidable.
+     */
+    fun removeStale() {
+        var i = allProxies.size() - 1
+
+        while (i >= 0) {
+            val proxy = allProxies[i]
+
+            if (proxy.frame != frame) {
+                allProxies.removeIndex(i)
+                destroy(proxy)
+            }
+
+            i--
+        }
+    }
+
+    /**
+     * Adds to [result] proxies of the current frame whose AABB overlaps with that of [proxy]
+     * and that were inserted after [proxy], so that each pair is only found once.
+     */
+    fun query(proxy: TreeProxy, result: Array<TreeProxy>) {
+        queryCallback.proxy = proxy
+        queryCallback.result = result
+
+        tree.query(queryCallback, proxy.aabb)
+
+        queryCallback.proxy = null
+        queryCallback.result = null
+    }
+
+    fun clear() {
+        for (i in 0 until allProxies.size()) {
+            destroy(allProxies[i])
+        }
+
+        allProxies.clear()
+        activeProxies.clear()
+    }
+
+    private fun destroy(proxy: TreeProxy) {
+        tree.destroyProxy(proxy.treeId)
+        proxies.remove(proxy.entity)
+
+        proxy.reset()
+        freeProxies.add(proxy)
+    }
+
+    private fun AABB.set(minX: Float, minY: Float, maxX: Float, maxY: Float) {
+        lowerBound.set(minX, minY)
+        upperBound.set(maxX, maxY)
+    }
+
+    private inner class QueryCallback : TreeCallback {
+        var proxy: TreeProxy? = null
+        var result: Array<TreeProxy>? = null
+
+        override fun treeCallback(proxyId: Int): Boolean {
+            val other = tree.getUserData(proxyId) as TreeProxy
+            val current = proxy!!
+
+            // fat AABB in the tree overlaps, so check the actual AABB
+            if (other.frame == frame && other.index > current.index && AABB.testOverlap(current.aabb, other.aabb)) {
+                result!!.add(other)
+            }
+
+            return true
+        }
+    }
+}
+
+/**
+ * Entity and data cached once per frame, so that pair checks do not need component lookups.
+ */
+internal class TreeProxy {
+    var entity: Entity? = null
+
+    val aabb = AABB()
+
+    var treeId = -1
+    var frame = -1L
+    var index = 0
+
+    /**
+     * Id of entity type given by [CollisionHandlerMatrix].
+     */
+    var typeId = 0
+
+    /**
+     * Body type if entity has PhysicsComponent, null otherwise.
+     */
+    var bodyType: BodyType? = null
+
+    var collidable: CollidableComponent? = null
+
+    fun reset() {
+        entity = null
+        treeId = -1
+        frame = -1L
+        bodyType = null
+        collidable = null
+    }
+}
@@ -628,6 +628,117 @@ class GameWorldTest {
         assertThat(map[e1], `is`(c1))
     }
 
+    @Test
+    fun `Type view is updated when entities are added, removed or change type`() {
+        val view = gameWorld.getTypeView(TestType.T1)
+
+        val e1 = Entity()
+        e1.type = TestType.T1
+
+        val e2 = Entity()
+        e2.type = TestType.T2
+
+        val e3 = Entity()
+        e3.type = TestType.T1
+
+        gameWorld.addEntities(e1, e2, e3)
+
+        assertThat(view.toList(), contains(e1, e3))
+
+        e2.type = TestType.T1
+
+        assertThat(view.toList(), contains(e1, e2, e3))
+        assertThat(gameWorld.getEntitiesByType(TestType.T1, TestType.T2), contains(e1, e2, e3))
+
+        e1.type = TestType.T3
+        gameWorld.removeEntity(e3)
+
+        assertThat(view.size(), `is`(1))
+        assertThat(view.get(0), `is`(e2))
+        assertThat(gameWorld.getEntitiesByType(TestType.T3, TestType.T1), contains(e1, e2))
+
+        gameWorld.reset()
+
+        assertTrue(view.isEmpty)
+    }
+
+    @Test
+    fun `Component view is updated when components are added or removed`() {
+        val view = gameWorld.getComponentView(TestValueComponent::class.java)
+
+        val e1 = Entity()
+        val e2 = Entity()
+        val e3 = Entity()
+
+        gameWorld.addEntities(e1, e2, e3)
+
+        assertTrue(view.isEmpty)
+
+        e3.addComponent(TestValueComponent())
+        e1.addComponent(TestValueComponent())
+
+        // world order is kept regardless of when components were added
+        assertThat(view.toList(), contains(e1, e3))
+        assertThat(gameWorld.getEntitiesByComponent(TestValueComponent::class.java), contains(e1, e3))
+
+        e1.removeComponent(TestValueComponent::class.java)
+
+        assertThat(view.toList(), contains(e3))
+
+        gameWorld.removeEntity(e3)
+
+        assertTrue(view.isEmpty)
+    }
+
+    @Test
+    fun `By ID is updated when IDComponent is added or removed`() {
+        val e1 = Entity()
+        val e2 = Entity()
+        e2.addComponent(IDComponent("e", 1))
+
+        gameWorld.addEntities(e1, e2)
+
+        e1.addComponent(IDComponent("e", 1))
+
+        // e1 is first in world order
+        assertThat(gameWorld.getEntityByID("e", 1).get(), `is`(e1))
+
+        e1.removeComponent(IDComponent::class.java)
+
+        assertThat(gameWorld.getEntityByID("e", 1).get(), `is`(e2))
+
+        gameWorld.removeEntity(e2)
+
+        assertFalse(gameWorld.getEntityByID("e", 1).isPresent)
+    }
+
+    @Test
+    fun `By ID returns first entity in world order among duplicates`() {
+        val e1 = Entity()
+        val e2 = Entity()
+        val e3 = Entity()
+
+        gameWorld.addEntities(e1, e2, e3)
+
+        e3.addComponent(IDComponent("e", 1))
+        e2.addComponent(IDComponent("e", 1))
+        e1.addComponent(IDComponent("e", 1))
+
+        assertThat(gameWorld.getEntityByID("e", 1).get(), `is`(e1))
+
+        gameWorld.removeEntity(e2)
+
+        assertThat(gameWorld.getEntityByID("e", 1).get(), `is`(e1))
+
+        gameWorld.removeEntity(e1)
+
+        assertThat(gameWorld.getEntityByID("e", 1).get(), `is`(e3))
+
+        e3.removeComponent(IDComponent::class.java)
+
+        assertFalse(gameWorld.getEntityByID("e", 1).isPresent)
+    }
+
     @Test
     fun `Singleton`() {
         val e1 = Entity()
@@ -705,6 +816,42 @@ class GameWorldTest {
         )
     }
 
+    @Test
+    fun `Closest entities`() {
+        val e1 = Entity()
+        e1.x = 10.0
+        e1.y = 10.0
+
+        val e2 = Entity()
+        e2.x = 20.0
+        e2.y = 10.0
+
+        val e3 = Entity()
+        e3.x = 100.0
+        e3.y = 10.0
+
+        gameWorld.addEntities(e1, e2, e3)
+
+        val result = arrayListOf<Entity>()
+
+        gameWorld.getClosestEntities(e1, 2, Predicate { true }, result)
+        assertThat(result, contains(e2, e3))
+
+        e3.x = 15.0
+
+        result.clear()
+        gameWorld.getClosestEntities(e1, 2, Predicate { true }, result)
+        assertThat(result, contains(e3, e2))
+
+        result.clear()
+        gameWorld.getClosestEntities(0.0, 0.0, 5, Predicate { it !== e2 }, result)
+        assertThat(result, contains(e1, e3))
+
+        gameWorld.removeEntity(e3)
+
+        assertThat(gameWorld.getClosestEntity(e1, Predicate { true }).get(), `is`(e2))
+    }
+
     @Test
     fun `Filtered entities List`() {
         val e1 = Entity()
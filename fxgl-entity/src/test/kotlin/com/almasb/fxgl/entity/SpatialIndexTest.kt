@@ -0,0 +1,247 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.entity
+
+import com.almasb.fxgl.physics.BoundingShape
+import com.almasb.fxgl.physics.HitBox
+import javafx.beans.property.SimpleDoubleProperty
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.contains
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.function.Predicate
+import kotlin.random.Random
+
+/**
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class SpatialIndexTest {
+
+    private lateinit var index: SpatialIndex
+
+    @BeforeEach
+    fun setUp() {
+        index = SpatialIndex(32.0)
+    }
+
+    @Test
+    fun `Cell size must be positive`() {
+        assertThrows<IllegalArgumentException> {
+            SpatialIndex(0.0)
+        }
+    }
+
+    @Test
+    fun `Range query returns entities in insertion order`() {
+        val e1 = makeEntity(500.0, 500.0, 20.0)
+        val e2 = makeEntity(10.0, 10.0, 20.0)
+        val e3 = makeEntity(40.0, 40.0, 100.0)
+
+        index.add(e1)
+        index.add(e2)
+        index.add(e3)
+
+        assertThat(query(0.0, 0.0, 50.0, 50.0), contains(e2, e3))
+        assertThat(query(100.0, 100.0, 600.0, 600.0), contains(e1, e3))
+        assertThat(query(0.0, 0.0, 1000.0, 1000.0), contains(e1, e2, e3))
+        assertTrue(query(-100.0, -100.0, -50.0, -50.0).isEmpty())
+    }
+
+    @Test
+    fun `Index is updated when entity moves or changes size`() {
+        val e = makeEntity(0.0, 0.0, 10.0)
+
+        index.add(e)
+
+        assertThat(query(0.0, 0.0, 5.0, 5.0), contains(e))
+
+        e.setPosition(1000.0, 1000.0)
+
+        assertTrue(query(0.0, 0.0, 5.0, 5.0).isEmpty())
+        assertThat(query(995.0, 995.0, 1005.0, 1005.0), contains(e))
+
+        e.boundingBoxComponent.clearHitBoxes()
+        e.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(500.0, 500.0)))
+
+        assertThat(query(1400.0, 1400.0, 1401.0, 1401.0), contains(e))
+    }
+
+    @Test
+    fun `Index is updated when bound transform property changes`() {
+        val e = makeEntity(0.0, 0.0, 10.0)
+        val x = SimpleDoubleProperty(0.0)
+
+        e.xProperty().bind(x)
+
+        index.add(e)
+
+        x.value = 1000.0
+
+        assertThat(query(995.0, -5.0, 1005.0, 5.0), contains(e))
+
+        x.value = 2000.0
+
+        assertTrue(query(995.0, -5.0, 1005.0, 5.0).isEmpty())
+        assertThat(query(1995.0, -5.0, 2005.0, 5.0), contains(e))
+    }
+
+    @Test
+    fun `Removed entity is no longer returned`() {
+        val e = makeEntity(0.0, 0.0, 10.0)
+
+        index.add(e)
+        index.remove(e)
+
+        e.x = 5.0
+
+        assertThat(index.size(), `is`(0))
+        assertThat(index.numCells, `is`(0))
+        assertTrue(query(0.0, 0.0, 100.0, 100.0).isEmpty())
+    }
+
+    @Test
+    fun `Clear removes all entities`() {
+        index.add(makeEntity(0.0, 0.0, 10.0))
+        index.add(makeEntity(100.0, 0.0, 10.0))
+
+        index.clear()
+
+        assertThat(index.size(), `is`(0))
+        assertTrue(query(0.0, 0.0, 1000.0, 1000.0).isEmpty())
+    }
+
+    @Test
+    fun `Rotated entity is found in the area it sweeps`() {
+        val e = makeEntity(0.0, 0.0, 0.0)
+        e.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(100.0, 10.0)))
+        e.transformComponent.rotationOrigin = javafx.geometry.Point2D(0.0, 5.0)
+
+        index.add(e)
+
+        assertTrue(query(-5.0, 80.0, 5.0, 90.0).isEmpty())
+
+        e.rotation = 90.0
+
+        assertThat(query(-5.0, 80.0, 5.0, 90.0), contains(e))
+    }
+
+    @Test
+    fun `Point query`() {
+        val e1 = makeEntity(10.0, 10.0, 20.0)
+        val e2 = makeEntity(10.0, 10.0, 0.0)
+        val e3 = makeEntity(11.0, 10.0, 20.0)
+
+        index.add(e1)
+        index.add(e2)
+        index.add(e3)
+
+        val result = arrayListOf<Entity>()
+        index.queryPoint(10.0, 10.0, Predicate { true }, result)
+
+        assertThat(result, contains(e1, e2))
+    }
+
+    @Test
+    fun `Nearest query finds k closest in order of distance`() {
+        val entities = (0 until 10).map { makeEntity(it * 100.0, 0.0, 10.0) }
+        entities.forEach { index.add(it) }
+
+        val result = arrayListOf<Entity>()
+        index.queryNearest(320.0, 0.0, 3, null, Predicate { true }, result)
+
+        assertThat(result, contains(entities[3], entities[4], entities[2]))
+
+        result.clear()
+        index.queryNearest(320.0, 0.0, 3, entities[3], Predicate { it !== entities[4] }, result)
+
+        assertThat(result, contains(entities[2], entities[5], entities[1]))
+
+        result.clear()
+        index.queryNearest(0.0, 0.0, 100, null, Predicate { true }, result)
+
+        assertThat(result.size, `is`(10))
+    }
+
+    @Test
+    fun `Nearest query matches brute force`() {
+        val random = Random(7)
+
+        val entities = (0 until 500).map {
+            makeEntity(random.nextDouble(-2000.0, 2000.0), random.nextDouble(-2000.0, 2000.0), random.nextDouble(0.0, 80.0))
+        }
+        entities.forEach { index.add(it) }
+
+        // move some after insertion
+        entities.take(100).forEach { it.translate(random.nextDouble(-500.0, 500.0), random.nextDouble(-500.0, 500.0)) }
+
+        val result = arrayListOf<Entity>()
+
+        repeat(50) {
+            val x = random.nextDouble(-3000.0, 3000.0)
+            val y = random.nextDouble(-3000.0, 3000.0)
+
+            result.clear()
+            index.queryNearest(x, y, 5, null, Predicate { true }, result)
+
+            val expected = entities.sortedBy { (it.x - x) * (it.x - x) + (it.y - y) * (it.y - y) }.take(5)
+
+            assertThat(result, `is`(expected))
+        }
+    }
+
+    @Test
+    fun `Nearest query in a sparse world with fewer matches than k matches brute force`() {
+        val random = Random(11)
+
+        val entities = (0 until 40).map {
+            makeEntity(random.nextDouble(-200000.0, 200000.0), random.nextDouble(-200000.0, 200000.0), 10.0)
+        }
+        entities.forEach { index.add(it) }
+
+        // cells far away were occupied once
+        entities[0].translate(500000.0, 500000.0)
+        index.update()
+        entities[0].translate(-500000.0, -500000.0)
+
+        val matches = entities.filterIndexed { i, _ -> i % 4 == 0 }.toSet()
+
+        val result = arrayListOf<Entity>()
+
+        repeat(20) {
+            val x = random.nextDouble(-200000.0, 200000.0)
+            val y = random.nextDouble(-200000.0, 200000.0)
+
+            result.clear()
+            index.queryNearest(x, y, 15, null, Predicate { it in matches }, result)
+
+            val expected = matches.sortedBy { (it.x - x) * (it.x - x) + (it.y - y) * (it.y - y) }
+
+            assertThat(result, `is`(expected))
+        }
+    }
+
+    private fun query(minX: Double, minY: Double, maxX: Double, maxY: Double): List<Entity> {
+        val result = arrayListOf<Entity>()
+        index.queryRange(minX, minY, maxX, maxY, Predicate { true }, result)
+        return result
+    }
+
+    private fun makeEntity(x: Double, y: Double, size: Double): Entity {
+        val e = Entity()
+        e.setPosition(x, y)
+
+        if (size > 0) {
+            e.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(size, size)))
+        }
+
+        return e
+    }
+}
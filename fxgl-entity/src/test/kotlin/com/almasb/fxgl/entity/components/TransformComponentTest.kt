@@ -105,6 +105,90 @@ class TransformComponentTest {
         assertThat(c.rotationY, closeTo(33.69, 0.1))
     }
 
+    @Test
+    fun `Change listeners are notified of each change`() {
+        val c = TransformComponent()
+        var count = 0
+        val listener = Runnable { count++ }
+
+        c.addChangeListener(listener)
+
+        c.x = 10.0
+        c.x = 20.0
+        c.angle = 45.0
+        c.rotationOriginY = 5.0
+
+        assertThat(count, `is`(4))
+
+        // same value is not a change
+        c.x = 20.0
+
+        assertThat(count, `is`(4))
+
+        c.removeChangeListener(listener)
+        c.y = 10.0
+
+        assertThat(count, `is`(4))
+    }
+
+    @Test
+    fun `Version changes with values and properties`() {
+        val c = TransformComponent()
+
+        val version0 = c.version
+
+        // same value is not a change
+        c.x = 0.0
+        assertThat(c.version, `is`(version0))
+
+        c.translate(5.0, 5.0)
+        assertThat(c.version > version0, `is`(true))
+
+        // properties are created with current values
+        assertThat(c.xProperty().value, `is`(5.0))
+
+        val version1 = c.version
+
+        c.xProperty().value = 15.0
+
+        assertThat(c.x, `is`(15.0))
+        assertThat(c.version > version1, `is`(true))
+
+        val other = TransformComponent()
+        c.bindTranslation(other)
+
+        val version2 = c.version
+
+        other.y = 30.0
+
+        assertThat(c.y, `is`(30.0))
+        assertThat(c.version > version2, `is`(true))
+    }
+
+    @Test
+    fun `Direction is updated without properties`() {
+        val c = TransformComponent()
+        val c2 = TransformComponent()
+
+        c.lookRightBy(30.0)
+        c2.rotationYProperty().value = 30.0
+
+        assertThat(c.direction3D, `is`(c2.direction3D))
+        assertThat(c.direction3D.x, closeTo(0.5, 0.001))
+    }
+
+    @Test
+    fun `Origin properties`() {
+        val c = TransformComponent()
+        c.scaleOrigin3D = Point3D(1.0, 2.0, 3.0)
+        c.rotationOrigin3D = Point3D(4.0, 5.0, 6.0)
+        c.positionOriginZ = 7.0
+
+        assertThat(c.scaleOriginZProperty().value, `is`(3.0))
+        assertThat(c.rotationOriginYProperty().value, `is`(5.0))
+        assertThat(c.positionOriginZProperty().value, `is`(7.0))
+    }
+
     private fun areEqual(t1: TransformComponent, t2: TransformComponent): Boolean {
         return t1.x == t2.x && t1.y == t2.y
                 && t1.scaleX == t2.scaleX && t1.scaleY == t2.scaleY && t1.scaleOrigin == t2.scaleOrigin
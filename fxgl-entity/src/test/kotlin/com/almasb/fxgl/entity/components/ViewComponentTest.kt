@@ -18,6 +18,7 @@ import javafx.scene.shape.Circle
 import javafx.scene.shape.Rectangle
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.closeTo
 import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
@@ -222,6 +223,53 @@ class ViewComponentTest {
         assertThat(count, `is`(1))
     }
 
+    @Test
+    fun `View is bound to transform`() {
+        val rect = Rectangle()
+
+        val e = Entity()
+        e.viewComponent.addChild(rect)
+
+        e.setPosition(30.0, 40.0)
+        e.rotation = 90.0
+
+        assertThat(rect.parent.translateX, `is`(30.0))
+        assertThat(rect.parent.translateY, `is`(40.0))
+        assertThat(rect.parent.localToParent(10.0, 0.0).x, closeTo(30.0, 0.001))
+    }
+
+    @Test
+    fun `View of lightweight transform is updated on sync`() {
+        val rect = Rectangle()
+
+        val e = Entity()
+        e.viewComponent.addChild(rect)
+
+        // takes effect on next sync
+        e.transformComponent.isLightweight = true
+        e.viewComponent.syncTransform()
+
+        e.setPosition(30.0, 40.0)
+        e.rotation = 90.0
+
+        // not updated until synced
+        assertThat(rect.parent.translateX, `is`(0.0))
+
+        e.viewComponent.syncTransform()
+
+        assertThat(rect.parent.translateX, `is`(30.0))
+        assertThat(rect.parent.translateY, `is`(40.0))
+        assertThat(rect.parent.localToParent(10.0, 0.0).x, closeTo(30.0, 0.001))
+
+        // switch back to bindings
+        e.transformComponent.isLightweight = false
+        e.viewComponent.syncTransform()
+
+        e.translateX(5.0)
+
+        assertThat(rect.parent.translateX, `is`(35.0))
+    }
+
     companion object {
         @Suppress("UNUSED")
         @JvmStatic
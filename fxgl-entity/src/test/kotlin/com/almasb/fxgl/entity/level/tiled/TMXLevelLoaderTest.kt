@@ -22,10 +22,13 @@ import org.hamcrest.MatcherAssert.assertThat
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.io.TempDir
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.CsvSource
 import java.nio.file.Files
+import java.nio.file.Path
 import java.nio.file.Paths
+import java.util.concurrent.Executor
 
 /**
  *
@@ -190,6 +193,133 @@ class TMXLevelLoaderTest {
         assertThat(view.image.pixelReader.getColor(31,16), `is`((Color.TRANSPARENT)))
     }
 
+    @Test
+    fun `Load tmx level with large layers as chunks`() {
+        val world = GameWorld()
+        world.addEntityFactory(MyEntityFactory())
+
+        val level = TMXLevelLoader(false, 512).load(javaClass.getResource("sewers_v1_2_3.tmx"), world)
+
+        val layerEntities = level.entities.filter { it.type == "TiledMapLayer" }
+
+        assertThat(layerEntities.size, `is`(2))
+
+        layerEntities.forEach {
+            val view = it.getComponent(ChunkedTileLayerComponent::class.java).view
+
+            assertThat(view.layerWidth, `is`(24*64))
+            assertThat(view.layerHeight, `is`(24*64))
+            assertThat(view.boundsInLocal.width, `is`(24*64.0))
+        }
+    }
+
+    @Test
+    fun `Chunks of a layer have the same pixels as a single image`() {
+        val url = javaClass.getResource("sewers_v1_2_3.tmx")
+        val map = url.openStream().use { TMXLevelLoader().parse(it) }
+        val layer = map.layers.first { it.type == "tilelayer" }
+
+        val loader = TilesetLoader(map, url)
+        val image = (loader.loadView(layer.name) as ImageView).image
+
+        // draw chunks on the calling thread, 256x256 ARGB is 0.25 MB
+        val view = ChunkedTileLayerView(loader, layer, map.tilewidth, map.tileheight, 256, 1, 256.0, Executor { it.run() })
+
+        repeat(20) {
+            view.update(0.0, 0.0, 300.0, 300.0)
+        }
+
+        // visible chunks 0..1 plus prefetch margin, which exceed the budget but are needed
+        assertThat(view.numChunksAttached, `is`(9))
+        assertThat(view.numChunksLoaded, `is`(9))
+
+        view.children.filterIsInstance<ImageView>().forEach { chunk ->
+            val x0 = chunk.translateX.toInt()
+            val y0 = chunk.translateY.toInt()
+
+            for (y in 0 until chunk.image.height.toInt() step 7) {
+                for (x in 0 until chunk.image.width.toInt() step 7) {
+                    assertThat(chunk.image.pixelReader.getArgb(x, y), `is`(image.pixelReader.getArgb(x0 + x, y0 + y)))
+                }
+            }
+        }
+
+        repeat(20) {
+            view.update(1400.0, 1400.0, 1500.0, 1500.0)
+        }
+
+        // chunks no longer needed are evicted to fit the budget
+        assertThat(view.numChunksAttached, `is`(4))
+        assertThat(view.numChunksLoaded, `is`(4))
+        assertTrue(view.memoryUsage <= 1024 * 1024)
+    }
+
+    @Test
+    fun `Spawn objects over several frames`() {
+        val world = GameWorld()
+        world.addEntityFactory(MyEntityFactory())
+
+        val level = TMXLevelLoader(objectsPerFrame = 2).load(javaClass.getResource("sewers_v1_2_3.tmx"), world)
+
+        // 2 background tile layers + spawner
+        assertThat(level.entities.size, `is`(2 + 1))
+
+        world.setLevel(level)
+
+        val spawner = world.getSingleton { it.type == "TiledMapObjectSpawner" }.getComponent(TiledObjectSpawnerComponent::class.java)
+
+        assertThat(spawner.numObjects, `is`(5))
+        assertThat(world.getEntitiesByComponent(IDComponent::class.java).size, `is`(0))
+
+        world.onUpdate(0.016)
+
+        assertThat(world.getEntitiesByComponent(IDComponent::class.java).size, `is`(2))
+
+        world.onUpdate(0.016)
+        world.onUpdate(0.016)
+
+        assertTrue(spawner.isDone)
+        assertThat(world.getEntitiesByComponent(IDComponent::class.java).size, `is`(5))
+        assertFalse(world.getSingletonOptional { it.type == "TiledMapObjectSpawner" }.isPresent)
+    }
+
+    @Test
+    fun `Load tmx level from binary cache`(@TempDir cacheDir: Path) {
+        val url = javaClass.getResource("sewers_v1_2_3.tmx")
+        val map = url.openStream().use { TMXLevelLoader().parse(it) }
+
+        val world = GameWorld()
+        world.addEntityFactory(MyEntityFactory())
+
+        val level1 = TMXLevelLoader(cacheDir = cacheDir).load(url, world)
+
+        val cacheFiles = Files.list(cacheDir).use { it.toList() }
+
+        assertThat(cacheFiles.size, `is`(1))
+
+        val connection = url.openConnection()
+        val cachedMap = TiledMapCache.read(cacheFiles[0], connection.lastModified, connection.contentLengthLong)!!
+
+        assertThat(cachedMap.width, `is`(map.width))
+        assertThat(cachedMap.tilewidth, `is`(map.tilewidth))
+        assertThat(cachedMap.orientation, `is`(map.orientation))
+        assertThat(cachedMap.tilesets, `is`(map.tilesets))
+        assertThat(cachedMap.properties, `is`(map.properties))
+        assertThat(cachedMap.layers.map { it.name }, `is`(map.layers.map { it.name }))
+        assertThat(cachedMap.layers.map { it.data }, `is`(map.layers.map { it.data }))
+        assertThat(cachedMap.layers.flatMap { it.objects }.map { Point2D(it.x.toDouble(), it.y.toDouble()) },
+                `is`(map.layers.flatMap { it.objects }.map { Point2D(it.x.toDouble(), it.y.toDouble()) }))
+
+        // stale cache is not used
+        assertNull(TiledMapCache.read(cacheFiles[0], connection.lastModified + 1, connection.contentLengthLong))
+
+        val level2 = TMXLevelLoader(cacheDir = cacheDir).load(url, world)
+
+        assertThat(level2.width, `is`(level1.width))
+        assertThat(level2.entities.size, `is`(level1.entities.size))
+        assertThat(level2.entities.map { it.position }, `is`(level1.entities.map { it.position }))
+    }
+
     @Test
     fun `Load isometric tmx level`() {
         val world = GameWorld()
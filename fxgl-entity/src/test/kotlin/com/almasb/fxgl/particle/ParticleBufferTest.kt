@@ -0,0 +1,120 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.particle
+
+import javafx.geometry.Point2D
+import javafx.scene.paint.Color
+import javafx.util.Duration
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.closeTo
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+/**
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class ParticleBufferTest {
+
+    @Test
+    fun `Emit particles into buffer`() {
+        val emitter = ParticleEmitter()
+        emitter.maxEmissions = 2
+        emitter.numParticles = 300
+
+        val buffer = ParticleBuffer(16)
+
+        assertThat(emitter.emit(buffer, 10.0, 10.0), `is`(300))
+        assertThat(emitter.emit(buffer, 10.0, 10.0), `is`(300))
+
+        // max emissions reached
+        assertThat(emitter.emit(buffer, 10.0, 10.0), `is`(0))
+
+        assertThat(buffer.size(), `is`(600))
+        assertTrue(buffer.capacity >= 600)
+    }
+
+    @Test
+    fun `Particles move and die same as Particle`() {
+        val emitter = ParticleEmitter()
+        emitter.maxEmissions = 1
+        emitter.numParticles = 1
+        emitter.setVelocityFunction { Point2D(10.0, 0.0) }
+        emitter.setAccelerationFunction { Point2D(0.0, 2.0) }
+        emitter.setExpireFunction { Duration.seconds(2.0) }
+
+        val particle = emitter.emit(0.0, 0.0)[0]
+
+        emitter.maxEmissions = 2
+
+        val buffer = ParticleBuffer()
+        emitter.emit(buffer, 0.0, 0.0)
+
+        var numRemoved = 0
+
+        repeat(3) {
+            particle.update(0.5)
+            buffer.update(0.5) { numRemoved++ }
+
+            assertThat(buffer.getX(0), closeTo(particle.position.x.toDouble(), 0.0001))
+            assertThat(buffer.getY(0), closeTo(particle.position.y.toDouble(), 0.0001))
+            assertThat(buffer.getLife(0), closeTo(particle.life, 0.0001))
+        }
+
+        assertThat(numRemoved, `is`(0))
+
+        buffer.update(0.5) { numRemoved++ }
+
+        assertThat(numRemoved, `is`(1))
+        assertTrue(buffer.isEmpty)
+    }
+
+    @Test
+    fun `Control function changes velocity`() {
+        val emitter = ParticleEmitter()
+        emitter.numParticles = 5
+        emitter.setExpireFunction { Duration.seconds(10.0) }
+        emitter.setControl { it.acceleration.set(1f, 0f) }
+
+        val buffer = ParticleBuffer()
+        emitter.emit(buffer, 0.0, 0.0)
+
+        buffer.update(0.1) { }
+        buffer.update(0.1) { }
+
+        for (i in 0 until buffer.size()) {
+            assertThat(buffer.getX(i), `is`(3.0))
+        }
+    }
+
+    @Test
+    fun `Canvas covers particles`() {
+        val emitter = ParticleEmitter()
+        emitter.numParticles = 10
+        emitter.setSize(5.0, 5.0)
+        emitter.setColor(Color.RED)
+        emitter.setSpawnPointFunction { Point2D(it * 10.0, 0.0) }
+
+        val buffer = ParticleBuffer()
+        val canvas = ParticleCanvas()
+
+        emitter.emit(buffer, 100.0, 50.0)
+        buffer.update(0.016) { }
+        canvas.draw(buffer)
+
+        assertThat(canvas.layoutX, `is`(100.0))
+        assertThat(canvas.layoutY, `is`(50.0))
+        assertTrue(canvas.width >= 100.0)
+        assertTrue(canvas.height >= 10.0)
+
+        buffer.clear()
+        canvas.draw(buffer)
+
+        assertTrue(buffer.isEmpty)
+    }
+}
@@ -51,4 +51,26 @@ class ParticleSystemTest {
 
         system.removeParticleEmitter(emitter)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Batched particles are drawn to a single canvas`() {
+        val system = ParticleSystem(true)
+
+        val emitter = ParticleEmitter()
+        emitter.numParticles = 15
+        emitter.maxEmissions = 3
+
+        system.addParticleEmitter(emitter, 100.0, 100.0)
+
+        assertThat(system.pane.children.size, `is`(1))
+
+        system.onUpdate(0.5)
+        system.onUpdate(0.5)
+
+        assertThat(system.pane.children.size, `is`(1))
+
+        system.removeParticleEmitter(emitter)
+
+        assertThat(system.pane.children.size, `is`(0))
+    }
+}
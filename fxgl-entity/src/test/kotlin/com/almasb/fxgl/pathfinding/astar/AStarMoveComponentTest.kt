@@ -11,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertDoesNotThrow
 import java.util.*
+import java.util.concurrent.Executor
 
 class AStarMoveComponentTest {
 
@@ -94,6 +95,59 @@ class AStarMoveComponentTest {
         assertThat(currentCell.get().y, `is`(5))
     }
 
+    @Test
+    fun `Movements with other pathfinders`() {
+        listOf(JumpPointPathfinder(grid), HierarchicalPathfinder(grid, 4)).forEach { pathfinder ->
+            val entity = Entity()
+            val cellMove = CellMoveComponent(40, 40, 40 * 1.0)
+            val astarMove = AStarMoveComponent(grid, pathfinder)
+
+            entity.addComponent(cellMove)
+            entity.addComponent(astarMove)
+
+            assertThat(astarMove.grid, `is`(grid))
+
+            astarMove.moveToCell(7, 9)
+
+            do {
+                cellMove.onUpdate(STEP_SIZE)
+                astarMove.onUpdate(STEP_SIZE)
+            } while (!astarMove.isAtDestination)
+
+            assertThat(cellMove.cellX, `is`(7))
+            assertThat(cellMove.cellY, `is`(9))
+        }
+    }
+
+    @Test
+    fun `Movements with async pathfinder`() {
+        val asyncPathfinder = AsyncPathfinderComponent(grid, 8, 1, Executor { it.run() })
+
+        val entity = Entity()
+        val cellMove = CellMoveComponent(40, 40, 40 * 1.0)
+        val astarMove = AStarMoveComponent(asyncPathfinder)
+
+        entity.addComponent(cellMove)
+        entity.addComponent(astarMove)
+
+        assertThat(astarMove.grid, `is`(grid))
+
+        astarMove.moveToCell(7, 9)
+
+        // the path is not yet known, but the entity is not at destination
+        astarMove.onUpdate(STEP_SIZE)
+        assertFalse(astarMove.isAtDestination)
+
+        do {
+            asyncPathfinder.onUpdate(STEP_SIZE)
+            cellMove.onUpdate(STEP_SIZE)
+            astarMove.onUpdate(STEP_SIZE)
+        } while (!astarMove.isAtDestination)
+
+        assertThat(cellMove.cellX, `is`(7))
+        assertThat(cellMove.cellY, `is`(9))
+    }
+
     @Test
     fun `Random movements`() {
         aStarMoveComponent.moveToRandomCell()
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import java.util.function.Supplier
 
 class AStarPathfinderTest {
@@ -210,6 +211,54 @@ class AStarPathfinderTest {
         assertThat(last.y, `is`(5))
     }
 
+    @Test
+    fun `Search state of previous searches does not affect next search`() {
+        for (i in 0..4) grid[4, i].state = CellState.NOT_WALKABLE
+
+        val expected = pathfinder.findPath(3, 0, 5, 0)
+
+        // busy cells only apply to the search they are given to
+        val blocked = pathfinder.findPath(3, 0, 5, 0, listOf(grid[3, 1], grid[2, 0]))
+        assertTrue(blocked.isEmpty())
+
+        pathfinder.findPath(0, 0, 19, 19, NeighborDirection.EIGHT_DIRECTIONS)
+        pathfinder.findPath(19, 19, 0, 0)
+
+        assertThat(pathfinder.findPath(3, 0, 5, 0), `is`(expected))
+
+        // a fresh pathfinder finds the same path
+        assertThat(AStarPathfinder(grid).findPath(3, 0, 5, 0), `is`(expected))
+    }
+
+    @Test
+    fun `Costs and parents are set along the found path`() {
+        for (i in 0..4) grid[4, i].state = CellState.NOT_WALKABLE
+
+        val path = pathfinder.findPath(3, 0, 5, 0)
+
+        assertThat(grid[3, 0].parent == null, `is`(true))
+        assertThat(grid[3, 0].gCost, `is`(0))
+
+        var prev = grid[3, 0]
+
+        path.forEach {
+            assertThat(it.parent === prev, `is`(true))
+            assertThat(it.gCost, `is`(prev.gCost + 10 * it.movementCost))
+            assertThat(it.hCost, `is`(ManhattanDistance<AStarCell>().getCost(it.x, it.y, 5, 0)))
+
+            prev = it
+        }
+    }
+
+    @Test
+    fun `Searching a grid array other than the grid of the pathfinder is rejected`() {
+        val otherGrid = AStarGrid(GRID_SIZE, GRID_SIZE)
+
+        assertThrows<IllegalArgumentException> {
+            pathfinder.findPath(otherGrid.data, otherGrid[0, 0], otherGrid[5, 5])
+        }
+    }
+
     private fun assertPathEquals(path: List<AStarCell>, vararg points: Int) {
         val pointsList = points.toList().chunked(2) { it[0] to it[1] }
         val errorMsg = reportNotMatchingPaths(path, pointsList)
@@ -0,0 +1,181 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+package com.almasb.fxgl.pathfinding.astar
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection
+import com.almasb.fxgl.pathfinding.CellState
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.`is`
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.concurrent.Executor
+
+class AsyncPathfinderComponentTest {
+    private lateinit var grid: AStarGrid
+    private lateinit var pathfinder: AsyncPathfinderComponent<AStarCell>
+
+    private var numTasks = 0
+
+    @BeforeEach
+    fun setUp() {
+        grid = AStarGrid(GRID_SIZE, GRID_SIZE)
+        numTasks = 0
+
+        // runs tasks immediately, so results are ready on the next update
+        val executor = Executor {
+            numTasks++
+            it.run()
+        }
+
+        pathfinder = AsyncPathfinderComponent(grid, MAX_SEARCHES, 2, executor)
+    }
+
+    @Test
+    fun `Results are delivered on a later update`() {
+        var path: List<AStarCell>? = null
+
+        pathfinder.request(0, 0, 3, 0) { path = it }
+
+        assertTrue(path == null)
+
+        pathfinder.onUpdate(0.016)
+
+        assertTrue(path == null)
+
+        pathfinder.onUpdate(0.016)
+
+        assertThat(path!!.size, `is`(3))
+        assertThat(path!!.last(), `is`(grid[3, 0]))
+    }
+
+    @Test
+    fun `Number of searches per frame is bounded`() {
+        var numResults = 0
+
+        for (i in 0 until MAX_SEARCHES * 2 + 1) {
+            pathfinder.request(0, 0, i % GRID_SIZE, 1 + i / GRID_SIZE) { numResults++ }
+        }
+
+        pathfinder.onUpdate(0.016)
+        assertThat(pathfinder.numQueued, `is`(MAX_SEARCHES + 1))
+
+        pathfinder.onUpdate(0.016)
+        assertThat(numResults, `is`(MAX_SEARCHES))
+        assertThat(pathfinder.numQueued, `is`(1))
+
+        pathfinder.onUpdate(0.016)
+        pathfinder.onUpdate(0.016)
+        assertThat(numResults, `is`(MAX_SEARCHES * 2 + 1))
+
+        // searches of a frame are split into at most 2 tasks
+        assertThat(numTasks, `is`(5))
+    }
+
+    @Test
+    fun `Identical requests are merged`() {
+        val paths = arrayListOf<List<AStarCell>>()
+
+        repeat(3) {
+            pathfinder.request(0, 0, 5, 5) { paths += it }
+        }
+
+        pathfinder.request(0, 0, 5, 5, NeighborDirection.EIGHT_DIRECTIONS) { paths += it }
+
+        pathfinder.onUpdate(0.016)
+        pathfinder.onUpdate(0.016)
+
+        assertThat(numTasks, `is`(2))
+        assertThat(paths.size, `is`(4))
+        assertThat(paths[0].size, `is`(10))
+        assertThat(paths[3].size, `is`(5))
+
+        // each callback gets its own list
+        assertTrue(paths[0] !== paths[1])
+    }
+
+    @Test
+    fun `Cached paths are delivered without a search`() {
+        var path: List<AStarCell>? = null
+
+        pathfinder.request(0, 0, 5, 0) { path = it }
+        pathfinder.onUpdate(0.016)
+        pathfinder.onUpdate(0.016)
+
+        assertThat(numTasks, `is`(1))
+
+        path = null
+
+        pathfinder.request(0, 0, 5, 0) { path = it }
+        pathfinder.onUpdate(0.016)
+
+        assertThat(numTasks, `is`(1))
+        assertThat(path!!.size, `is`(5))
+    }
+
+    @Test
+    fun `Changed cells are visible to later searches`() {
+        var path: List<AStarCell> = emptyList()
+
+        pathfinder.request(0, 0, 5, 0) { path = it }
+        pathfinder.onUpdate(0.016)
+        pathfinder.onUpdate(0.016)
+
+        assertThat(path.size, `is`(5))
+
+        for (y in 0..3) {
+            grid[2, y].state = CellState.NOT_WALKABLE
+            pathfinder.onCellChanged(2, y)
+        }
+
+        pathfinder.request(0, 0, 5, 0) { path = it }
+        pathfinder.onUpdate(0.016)
+        pathfinder.onUpdate(0.016)
+
+        assertThat(path.size, `is`(13))
+        assertTrue(path.none { it.x == 2 && it.y <= 3 })
+
+        // unreachable
+        for (y in 0 until GRID_SIZE) {
+            grid[2, y].state = CellState.NOT_WALKABLE
+            pathfinder.onCellChanged(2, y)
+        }
+
+        pathfinder.request(0, 0, 5, 0) { path = it }
+        pathfinder.onUpdate(0.016)
+        pathfinder.onUpdate(0.016)
+
+        assertTrue(path.isEmpty())
+    }
+
+    @Test
+    fun `Unwalkable target or same cell returns empty path without a search`() {
+        grid[3, 3].state = CellState.NOT_WALKABLE
+
+        var numEmpty = 0
+
+        pathfinder.request(0, 0, 3, 3) { if (it.isEmpty()) numEmpty++ }
+        pathfinder.request(1, 1, 1, 1) { if (it.isEmpty()) numEmpty++ }
+
+        pathfinder.onUpdate(0.016)
+
+        assertThat(numEmpty, `is`(2))
+        assertThat(numTasks, `is`(0))
+    }
+
+    @Test
+    fun `Throw if max searches per frame is not positive`() {
+        assertThrows<IllegalArgumentException> {
+            AsyncPathfinderComponent(grid, 0, 1, Executor { it.run() })
+        }
+    }
+
+    companion object {
+        private const val GRID_SIZE = 20
+        private const val MAX_SEARCHES = 4
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+package com.almasb.fxgl.pathfinding.astar
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection
+import com.almasb.fxgl.entity.Entity
+import com.almasb.fxgl.pathfinding.CellMoveComponent
+import com.almasb.fxgl.pathfinding.CellState
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.`is`
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.*
+
+class FlowFieldTest {
+    private lateinit var grid: AStarGrid
+
+    @BeforeEach
+    fun setUp() {
+        grid = AStarGrid(GRID_SIZE, GRID_SIZE)
+    }
+
+    @Test
+    fun `Cost and next cell lead to target`() {
+        val field = FlowField(grid, 5, 0)
+
+        assertThat(field.getCost(5, 0), `is`(0))
+        assertThat(field.getCost(3, 0), `is`(2 * 10 * 30))
+        assertFalse(field.getNext(5, 0).isPresent)
+        assertThat(field.getNext(3, 0).get(), `is`(grid[4, 0]))
+
+        for (i in 0..4) grid[4, i].state = CellState.NOT_WALKABLE
+        for (i in 0..4) field.onCellChanged(4, i)
+
+        // same as the A* path in AStarPathfinderTest
+        assertThat(followPath(field, 3, 0).size, `is`(12))
+    }
+
+    @Test
+    fun `Diagonal moves`() {
+        val field = FlowField(grid, 5, 5, NeighborDirection.EIGHT_DIRECTIONS)
+
+        assertThat(field.getCost(0, 0), `is`(5 * 14 * 30))
+        assertThat(followPath(field, 0, 0).size, `is`(5))
+    }
+
+    @Test
+    fun `Unreachable cells have no next cell`() {
+        for (i in 0 until GRID_SIZE) grid[4, i].state = CellState.NOT_WALKABLE
+
+        val field = FlowField(grid, 5, 0)
+
+        assertFalse(field.isReachable(3, 0))
+        assertThat(field.getCost(3, 0), `is`(FlowField.UNREACHABLE))
+        assertFalse(field.getNext(3, 0).isPresent)
+
+        grid[4, 10].state = CellState.WALKABLE
+        field.onCellChanged(4, 10)
+
+        assertTrue(field.isReachable(3, 0))
+        assertThat(followPath(field, 3, 0).last(), `is`(grid[5, 0]))
+    }
+
+    @Test
+    fun `Incremental updates match a full rebuild`() {
+        val random = Random(13)
+
+        grid.forEach { if (random.nextDouble() < 0.3) it.state = CellState.NOT_WALKABLE }
+        grid[10, 10].state = CellState.WALKABLE
+
+        NeighborDirection.values().forEach { dir ->
+            val field = FlowField(grid, 10, 10, dir)
+            field.getCost(0, 0)
+
+            repeat(30) {
+                val x = random.nextInt(GRID_SIZE)
+                val y = random.nextInt(GRID_SIZE)
+
+                if (random.nextBoolean()) {
+                    grid[x, y].state = if (grid[x, y].isWalkable) CellState.NOT_WALKABLE else CellState.WALKABLE
+                } else {
+                    grid[x, y].movementCost = 1 + random.nextInt(5)
+                }
+
+                field.onCellChanged(x, y)
+
+                val expected = FlowField(grid, 10, 10, dir)
+
+                grid.forEach {
+                    assertThat(field.getCost(it.x, it.y), `is`(expected.getCost(it.x, it.y)))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Change target`() {
+        val field = FlowField(grid, 5, 0)
+        field.setTarget(0, 5)
+
+        assertThat(field.targetX, `is`(0))
+        assertThat(field.targetY, `is`(5))
+        assertThat(field.getCost(0, 0), `is`(5 * 10 * 30))
+
+        assertThrows<IllegalArgumentException> {
+            field.setTarget(GRID_SIZE, 0)
+        }
+    }
+
+    @Test
+    fun `Entities follow a shared flow field`() {
+        val field = FlowField(grid, 7, 9)
+
+        val components = listOf(0 to 0, 19 to 19, 10 to 0).map { (x, y) ->
+            val cellMove = CellMoveComponent(40, 40, 40 * 1.0)
+            val flowMove = FlowFieldMoveComponent(field)
+
+            val e = Entity()
+            e.addComponent(cellMove)
+            e.addComponent(flowMove)
+
+            cellMove.setPositionToCell(x, y)
+
+            cellMove to flowMove
+        }
+
+        repeat(2000) {
+            components.forEach { (cellMove, flowMove) ->
+                cellMove.onUpdate(0.016)
+                flowMove.onUpdate(0.016)
+            }
+        }
+
+        components.forEach { (cellMove, flowMove) ->
+            assertTrue(flowMove.isAtDestination)
+            assertThat(cellMove.cellX, `is`(7))
+            assertThat(cellMove.cellY, `is`(9))
+        }
+    }
+
+    private fun followPath(field: FlowField<AStarCell>, x: Int, y: Int): List<AStarCell> {
+        val path = arrayListOf<AStarCell>()
+
+        var next = field.getNext(x, y)
+
+        while (next.isPresent) {
+            path += next.get()
+            next = field.getNext(next.get().x, next.get().y)
+        }
+
+        return path
+    }
+
+    companion object {
+        private const val GRID_SIZE = 20
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+package com.almasb.fxgl.pathfinding.astar
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection
+import com.almasb.fxgl.pathfinding.CellState
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.`is`
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.*
+import kotlin.math.abs
+
+class HierarchicalPathfinderTest {
+    private lateinit var grid: AStarGrid
+    private lateinit var pathfinder: HierarchicalPathfinder<AStarCell>
+
+    @BeforeEach
+    fun setUp() {
+        grid = AStarGrid(GRID_SIZE, GRID_SIZE)
+        pathfinder = HierarchicalPathfinder(grid, CLUSTER_SIZE)
+    }
+
+    @Test
+    fun `Cluster size must be at least 2`() {
+        assertThrows<IllegalArgumentException> {
+            HierarchicalPathfinder(grid, 1)
+        }
+    }
+
+    @Test
+    fun `Find path within cluster`() {
+        val path = pathfinder.findPath(1, 1, 4, 1)
+
+        assertThat(path.map { it.x to it.y }, `is`(listOf(2 to 1, 3 to 1, 4 to 1)))
+    }
+
+    @Test
+    fun `Find path across clusters`() {
+        var path = pathfinder.findPath(0, 0, GRID_SIZE - 1, GRID_SIZE - 1)
+        assertValidPath(path, 0, 0, GRID_SIZE - 1, GRID_SIZE - 1, NeighborDirection.FOUR_DIRECTIONS)
+
+        path = pathfinder.findPath(0, 3, GRID_SIZE - 1, 3)
+        assertValidPath(path, 0, 3, GRID_SIZE - 1, 3, NeighborDirection.FOUR_DIRECTIONS)
+
+        path = pathfinder.findPath(0, 0, GRID_SIZE - 1, GRID_SIZE - 1, NeighborDirection.EIGHT_DIRECTIONS)
+        assertValidPath(path, 0, 0, GRID_SIZE - 1, GRID_SIZE - 1, NeighborDirection.EIGHT_DIRECTIONS)
+    }
+
+    @Test
+    fun `Find path with busy cells`() {
+        // single gap in a wall
+        for (y in 0 until GRID_SIZE) {
+            if (y != 10)
+                grid[12, y].state = CellState.NOT_WALKABLE
+        }
+
+        val path = pathfinder.findPath(2, 2, 20, 2)
+        assertValidPath(path, 2, 2, 20, 2, NeighborDirection.FOUR_DIRECTIONS)
+        assertTrue(grid[12, 10] in path)
+
+        assertTrue(pathfinder.findPath(2, 2, 20, 2, listOf(grid[12, 10])).isEmpty())
+    }
+
+    @Test
+    fun `Only changed clusters need to be repaired`() {
+        assertFalse(pathfinder.findPath(2, 2, 20, 2).isEmpty())
+
+        for (y in 0 until GRID_SIZE) {
+            grid[12, y].state = CellState.NOT_WALKABLE
+            pathfinder.onCellChanged(12, y)
+        }
+
+        assertTrue(pathfinder.findPath(2, 2, 20, 2).isEmpty())
+
+        grid[12, 30].state = CellState.WALKABLE
+        pathfinder.onCellChanged(12, 30)
+
+        val path = pathfinder.findPath(2, 2, 20, 2)
+        assertValidPath(path, 2, 2, 20, 2, NeighborDirection.FOUR_DIRECTIONS)
+        assertTrue(grid[12, 30] in path)
+    }
+
+    @Test
+    fun `Rebuild discards abstract graphs`() {
+        assertFalse(pathfinder.findPath(2, 2, 20, 2).isEmpty())
+
+        for (y in 0 until GRID_SIZE) {
+            grid[12, y].state = CellState.NOT_WALKABLE
+        }
+
+        pathfinder.rebuild()
+
+        assertTrue(pathfinder.findPath(2, 2, 20, 2).isEmpty())
+    }
+
+    @Test
+    fun `Finds path whenever AStar finds path on random grids`() {
+        val random = Random(42)
+
+        for (direction in NeighborDirection.values()) {
+            repeat(10) {
+                val randomGrid = AStarGrid(GRID_SIZE, GRID_SIZE)
+                randomGrid.forEach {
+                    if (random.nextDouble() < 0.3)
+                        it.state = CellState.NOT_WALKABLE
+                }
+
+                val hpa = HierarchicalPathfinder(randomGrid, CLUSTER_SIZE)
+                val astar = AStarPathfinder(randomGrid)
+
+                repeat(20) {
+                    val sx = random.nextInt(GRID_SIZE)
+                    val sy = random.nextInt(GRID_SIZE)
+                    val tx = random.nextInt(GRID_SIZE)
+                    val ty = random.nextInt(GRID_SIZE)
+
+                    val path = hpa.findPath(sx, sy, tx, ty, direction)
+                    val expected = astar.findPath(sx, sy, tx, ty, direction)
+
+                    assertThat(path.isEmpty(), `is`(expected.isEmpty()))
+
+                    if (path.isNotEmpty()) {
+                        assertValidPath(path, sx, sy, tx, ty, direction)
+                    }
+                }
+            }
+        }
+    }
+
+    private fun assertValidPath(path: List<AStarCell>, sx: Int, sy: Int, tx: Int, ty: Int, direction: NeighborDirection) {
+        var x = sx
+        var y = sy
+
+        path.forEach {
+            val dx = abs(it.x - x)
+            val dy = abs(it.y - y)
+
+            assertTrue(it.isWalkable)
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0)
+
+            if (direction == NeighborDirection.FOUR_DIRECTIONS)
+                assertThat(dx + dy, `is`(1))
+
+            x = it.x
+            y = it.y
+        }
+
+        assertThat(x, `is`(tx))
+        assertThat(y, `is`(ty))
+    }
+
+    companion object {
+        private const val GRID_SIZE = 40
+        private const val CLUSTER_SIZE = 8
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+package com.almasb.fxgl.pathfinding.astar
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection
+import com.almasb.fxgl.pathfinding.CellState
+import com.almasb.fxgl.pathfinding.heuristic.ManhattanDistance
+import com.almasb.fxgl.pathfinding.heuristic.OctileDistance
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.`is`
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.util.*
+import kotlin.math.abs
+
+class JumpPointPathfinderTest {
+    private lateinit var grid: AStarGrid
+    private lateinit var pathfinder: JumpPointPathfinder
+
+    @BeforeEach
+    fun setUp() {
+        grid = AStarGrid(GRID_SIZE, GRID_SIZE)
+        pathfinder = JumpPointPathfinder(grid)
+    }
+
+    @Test
+    fun `Find path`() {
+        var path = pathfinder.findPath(3, 0, 5, 0)
+        assertThat(path.map { it.x to it.y }, `is`(listOf(4 to 0, 5 to 0)))
+
+        for (i in 0..4) grid[4, i].state = CellState.NOT_WALKABLE
+
+        path = pathfinder.findPath(3, 0, 5, 0)
+        assertValidPath(path, 3, 0, 5, 0, NeighborDirection.FOUR_DIRECTIONS)
+        assertThat(path.size, `is`(12))
+
+        path = pathfinder.findPath(3, 0, 5, 0, NeighborDirection.EIGHT_DIRECTIONS)
+        assertValidPath(path, 3, 0, 5, 0, NeighborDirection.EIGHT_DIRECTIONS)
+        assertThat(path.size, `is`(10))
+
+        for (i in 0 until GRID_SIZE) grid[4, i].state = CellState.NOT_WALKABLE
+
+        assertTrue(pathfinder.findPath(3, 0, 5, 0).isEmpty())
+        assertTrue(pathfinder.findPath(3, 0, 5, 0, NeighborDirection.EIGHT_DIRECTIONS).isEmpty())
+    }
+
+    @Test
+    fun `Find path with busy cells`() {
+        grid[3, 0].state = CellState.NOT_WALKABLE
+        grid[3, 1].state = CellState.NOT_WALKABLE
+        grid[3, 2].state = CellState.NOT_WALKABLE
+        grid[3, 3].state = CellState.NOT_WALKABLE
+        grid[3, 5].state = CellState.NOT_WALKABLE
+        grid[1, 4].state = CellState.NOT_WALKABLE
+
+        var path = pathfinder.findPath(1, 1, 4, 5, ArrayList())
+        assertValidPath(path, 1, 1, 4, 5, NeighborDirection.FOUR_DIRECTIONS)
+        assertThat(path.size, `is`(7))
+
+        path = pathfinder.findPath(1, 1, 4, 5, listOf(grid[3, 4]))
+        assertValidPath(path, 1, 1, 4, 5, NeighborDirection.FOUR_DIRECTIONS)
+        assertThat(path.size, `is`(9))
+        assertTrue(grid[3, 4] !in path)
+
+        path = pathfinder.findPath(1, 1, 4, 5, NeighborDirection.EIGHT_DIRECTIONS, listOf(grid[3, 4]))
+        assertValidPath(path, 1, 1, 4, 5, NeighborDirection.EIGHT_DIRECTIONS)
+        assertTrue(grid[3, 4] !in path)
+    }
+
+    @Test
+    fun `No path to unwalkable target or to start`() {
+        grid[5, 5].state = CellState.NOT_WALKABLE
+
+        assertTrue(pathfinder.findPath(0, 0, 5, 5).isEmpty())
+        assertTrue(pathfinder.findPath(2, 2, 2, 2).isEmpty())
+    }
+
+    @Test
+    fun `Paths are shortest paths on random grids`() {
+        val random = Random(42)
+
+        repeat(20) {
+            val randomGrid = AStarGrid(GRID_SIZE, GRID_SIZE)
+            randomGrid.forEach {
+                if (random.nextDouble() < 0.3)
+                    it.state = CellState.NOT_WALKABLE
+            }
+
+            val jps = JumpPointPathfinder(randomGrid)
+
+            repeat(20) {
+                val sx = random.nextInt(GRID_SIZE)
+                val sy = random.nextInt(GRID_SIZE)
+                val tx = random.nextInt(GRID_SIZE)
+                val ty = random.nextInt(GRID_SIZE)
+
+                val path = jps.findPath(sx, sy, tx, ty)
+
+                if (sx == tx && sy == ty || !randomGrid[tx, ty].isWalkable) {
+                    assertTrue(path.isEmpty())
+                } else {
+                    // on a uniform cost grid in 4 directions, the number of moves is the cost
+                    assertThat(path.size, `is`(distance(randomGrid, sx, sy, tx, ty)))
+                }
+
+                if (path.isNotEmpty()) {
+                    assertValidPath(path, sx, sy, tx, ty, NeighborDirection.FOUR_DIRECTIONS)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Paths in 8 directions have optimal octile cost on random grids`() {
+        val random = Random(7)
+
+        repeat(20) {
+            val randomGrid = AStarGrid(GRID_SIZE, GRID_SIZE)
+            randomGrid.forEach {
+                if (random.nextDouble() < 0.3)
+                    it.state = CellState.NOT_WALKABLE
+            }
+
+            val jps = JumpPointPathfinder(randomGrid)
+
+            repeat(20) {
+                val sx = random.nextInt(GRID_SIZE)
+                val sy = random.nextInt(GRID_SIZE)
+                val tx = random.nextInt(GRID_SIZE)
+                val ty = random.nextInt(GRID_SIZE)
+
+                val path = jps.findPath(sx, sy, tx, ty, NeighborDirection.EIGHT_DIRECTIONS)
+
+                if (sx == tx && sy == ty || !randomGrid[tx, ty].isWalkable) {
+                    assertTrue(path.isEmpty())
+                } else {
+                    assertThat(octileCost(path, sx, sy), `is`(octileDistance(randomGrid, sx, sy, tx, ty)))
+                }
+
+                if (path.isNotEmpty()) {
+                    assertValidPath(path, sx, sy, tx, ty, NeighborDirection.EIGHT_DIRECTIONS)
+                }
+            }
+        }
+    }
+
+    /**
+     * @return cost of given path in 8 directions from source, with the weights of the default heuristics
+     */
+    private fun octileCost(path: List<AStarCell>, sx: Int, sy: Int): Int {
+        var x = sx
+        var y = sy
+        var cost = 0
+
+        path.forEach {
+            cost += if (it.x != x && it.y != y) DIAGONAL_COST else STRAIGHT_COST
+
+            x = it.x
+            y = it.y
+        }
+
+        return cost
+    }
+
+    /**
+     * Dijkstra in 8 directions (diagonal moves are allowed next to unwalkable cells, same as the pathfinders).
+     *
+     * @return cost of the cheapest path from source to target or 0 if target is unreachable
+     */
+    private fun octileDistance(grid: AStarGrid, sx: Int, sy: Int, tx: Int, ty: Int): Int {
+        val costs = HashMap<AStarCell, Int>()
+        val queue = PriorityQueue<Pair<AStarCell, Int>>(compareBy { it.second })
+
+        costs[grid[sx, sy]] = 0
+        queue.add(grid[sx, sy] to 0)
+
+        while (queue.isNotEmpty()) {
+            val (cell, cost) = queue.poll()
+
+            if (cost > costs[cell]!!)
+                continue
+
+            if (cell.x == tx && cell.y == ty)
+                return cost
+
+            for (dx in -1..1) {
+                for (dy in -1..1) {
+                    if (dx == 0 && dy == 0 || !grid.isWithin(cell.x + dx, cell.y + dy))
+                        continue
+
+                    val next = grid[cell.x + dx, cell.y + dy]
+
+                    if (!next.isWalkable)
+                        continue
+
+                    val nextCost = cost + if (dx != 0 && dy != 0) DIAGONAL_COST else STRAIGHT_COST
+
+                    if (nextCost < (costs[next] ?: Int.MAX_VALUE)) {
+                        costs[next] = nextCost
+                        queue.add(next to nextCost)
+                    }
+                }
+            }
+        }
+
+        return 0
+    }
+
+    /**
+     * @return number of moves in 4 directions from source to target or 0 if target is unreachable
+     */
+    private fun distance(grid: AStarGrid, sx: Int, sy: Int, tx: Int, ty: Int): Int {
+        val distances = HashMap<AStarCell, Int>()
+        val queue = LinkedList<AStarCell>()
+
+        distances[grid[sx, sy]] = 0
+        queue.add(grid[sx, sy])
+
+        while (queue.isNotEmpty()) {
+            val cell = queue.poll()
+
+            if (cell.x == tx && cell.y == ty)
+                return distances[cell]!!
+
+            grid.getNeighbors(cell.x, cell.y)
+                    .filter { it.isWalkable && it !in distances }
+                    .forEach {
+                        distances[it] = distances[cell]!! + 1
+                        queue.add(it)
+                    }
+        }
+
+        return 0
+    }
+
+    private fun assertValidPath(path: List<AStarCell>, sx: Int, sy: Int, tx: Int, ty: Int, direction: NeighborDirection) {
+        var x = sx
+        var y = sy
+
+        path.forEach {
+            val dx = abs(it.x - x)
+            val dy = abs(it.y - y)
+
+            assertTrue(it.isWalkable)
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0)
+
+            if (direction == NeighborDirection.FOUR_DIRECTIONS)
+                assertThat(dx + dy, `is`(1))
+
+            x = it.x
+            y = it.y
+        }
+
+        assertThat(x, `is`(tx))
+        assertThat(y, `is`(ty))
+    }
+
+    companion object {
+        private const val GRID_SIZE = 20
+
+        private val STRAIGHT_COST = ManhattanDistance<AStarCell>().weight
+        private val DIAGONAL_COST = OctileDistance<AStarCell>().diagonalWeight
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.physics
+
+import com.almasb.fxgl.entity.Entity
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class CollisionGridTest {
+
+    @Test
+    fun `Entity is inserted into all covered cells`() {
+        val grid = CollisionGrid(64, 64)
+
+        grid.insert(makeEntity(60.0, 0.0, 10.0))
+
+        assertThat(grid.activeCells.size(), `is`(2))
+    }
+
+    @Test
+    fun `Entity without hit boxes is ignored`() {
+        val grid = CollisionGrid(64, 64)
+
+        grid.insert(Entity())
+
+        assertTrue(grid.activeCells.isEmpty)
+    }
+
+    @Test
+    fun `Pair sharing several cells has exactly one owner cell`() {
+        val grid = CollisionGrid(64, 64)
+
+        // both cover 4 cells: (0,0), (1,0), (0,1), (1,1)
+        grid.insert(makeEntity(30.0, 30.0, 60.0))
+        grid.insert(makeEntity(40.0, 40.0, 60.0))
+
+        var numOwners = 0
+
+        for (i in 0 until grid.activeCells.size()) {
+            val cell = grid.activeCells[i]
+
+            assertThat(cell.proxies.size(), `is`(2))
+
+            if (grid.isOwner(cell, cell.proxies[0], cell.proxies[1]))
+                numOwners++
+        }
+
+        assertThat(numOwners, `is`(1))
+    }
+
+    @Test
+    fun `Cells are reused after clear`() {
+        val grid = CollisionGrid(64, 64)
+
+        grid.insert(makeEntity(0.0, 0.0, 10.0))
+
+        val cell = grid.activeCells[0]
+
+        grid.clear()
+
+        assertTrue(grid.activeCells.isEmpty)
+
+        grid.insert(makeEntity(500.0, 500.0, 10.0))
+
+        assertThat(grid.activeCells[0], sameInstance(cell))
+        assertThat(cell.x, `is`(7))
+        assertThat(cell.y, `is`(7))
+    }
+
+    @Test
+    fun `Cell size must be positive`() {
+        assertThrows<IllegalArgumentException> {
+            CollisionGrid(0, 64)
+        }
+    }
+
+    private fun makeEntity(x: Double, y: Double, size: Double): Entity {
+        val e = Entity()
+        e.setPosition(x, y)
+        e.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(size, size)))
+        e.boundingBoxComponent.applyTransformToHitBoxes()
+        return e
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.physics
+
+import com.almasb.fxgl.core.collection.UnorderedArray
+import com.almasb.fxgl.core.collection.UnorderedPairMap
+import com.almasb.fxgl.entity.Entity
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.contains
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class CollisionTreeTest {
+
+    @Test
+    fun `Each overlapping pair is found once`() {
+        val tree = CollisionTree()
+
+        tree.beginFrame()
+        val p1 = tree.insert(makeEntity(0.0, 0.0, 50.0))!!
+        val p2 = tree.insert(makeEntity(40.0, 40.0, 50.0))!!
+        val p3 = tree.insert(makeEntity(200.0, 200.0, 50.0))!!
+        tree.removeStale()
+
+        val result = UnorderedArray<TreeProxy>()
+
+        tree.query(p1, result)
+        assertThat(result.size(), `is`(1))
+        assertThat(result[0], sameInstance(p2))
+
+        result.clear()
+        tree.query(p2, result)
+        assertTrue(result.isEmpty)
+
+        result.clear()
+        tree.query(p3, result)
+        assertTrue(result.isEmpty)
+    }
+
+    @Test
+    fun `Proxies persist between frames and follow entities`() {
+        val tree = CollisionTree()
+
+        val e1 = makeEntity(0.0, 0.0, 50.0)
+        val e2 = makeEntity(1000.0, 0.0, 50.0)
+
+        tree.beginFrame()
+        val p1 = tree.insert(e1)!!
+        tree.insert(e2)
+        tree.removeStale()
+
+        e2.x = 30.0
+        e2.boundingBoxComponent.applyTransformToHitBoxes()
+
+        tree.beginFrame()
+        assertThat(tree.insert(e1), sameInstance(p1))
+        tree.insert(e2)
+        tree.removeStale()
+
+        val result = UnorderedArray<TreeProxy>()
+        tree.query(p1, result)
+
+        assertThat(result.size(), `is`(1))
+        assertThat(result[0].entity, sameInstance(e2))
+    }
+
+    @Test
+    fun `Entities not inserted in a frame are removed`() {
+        val tree = CollisionTree()
+
+        val e1 = makeEntity(0.0, 0.0, 50.0)
+        val e2 = makeEntity(10.0, 10.0, 50.0)
+
+        tree.beginFrame()
+        tree.insert(e1)
+        val p2 = tree.insert(e2)!!
+        tree.removeStale()
+
+        tree.beginFrame()
+        val p1 = tree.insert(e1)!!
+        tree.removeStale()
+
+        assertThat(tree.activeProxies.size(), `is`(1))
+        assertThat(p2.entity, nullValue())
+
+        val result = UnorderedArray<TreeProxy>()
+        tree.query(p1, result)
+
+        assertTrue(result.isEmpty)
+    }
+
+    @Test
+    fun `Entity without hit boxes is ignored`() {
+        val tree = CollisionTree()
+
+        tree.beginFrame()
+
+        assertNull(tree.insert(Entity()))
+        assertTrue(tree.activeProxies.isEmpty)
+    }
+
+    @Test
+    fun `Handler matrix caches handlers per type pair`() {
+        val handlers = UnorderedPairMap<Any, CollisionHandler>()
+        val matrix = CollisionHandlerMatrix(handlers)
+
+        val handler = object : CollisionHandler("A", "B") { }
+        handlers.put("A", "B", handler)
+        matrix.addHandlerTypes("A", "B")
+
+        val a = matrix.typeId("A")
+        val b = matrix.typeId("B")
+
+        assertThat(matrix.typeId("A"), `is`(a))
+        assertThat(matrix.get(a, b), sameInstance(handler))
+        assertThat(matrix.get(b, a), sameInstance(handler))
+        assertNull(matrix.get(a, a))
+
+        handlers.remove("A", "B")
+
+        // still cached
+        assertThat(matrix.get(a, b), sameInstance(handler))
+
+        matrix.invalidate()
+
+        assertNull(matrix.get(a, b))
+
+        // force the matrix to grow
+        repeat(20) { matrix.addHandlerTypes("type$it", "type$it") }
+
+        handlers.put("A", "B", handler)
+        assertThat(matrix.typeId("A"), `is`(a))
+        assertThat(matrix.get(a, b), sameInstance(handler))
+    }
+
+    @Test
+    fun `Types without handlers share one id`() {
+        val handlers = UnorderedPairMap<Any, CollisionHandler>()
+        val matrix = CollisionHandlerMatrix(handlers)
+
+        val handler = object : CollisionHandler("A", "B") { }
+        handlers.put("A", "B", handler)
+        matrix.addHandlerTypes("A", "B")
+
+        // e.g. untyped entities, each has its own type object
+        val ids = (0 until 10_000).map { matrix.typeId(Any()) }.distinct()
+
+        assertThat(ids, contains(CollisionHandlerMatrix.NO_HANDLER))
+        assertNull(matrix.get(matrix.typeId("A"), CollisionHandlerMatrix.NO_HANDLER))
+        assertNull(matrix.get(CollisionHandlerMatrix.NO_HANDLER, CollisionHandlerMatrix.NO_HANDLER))
+    }
+
+    private fun makeEntity(x: Double, y: Double, size: Double): Entity {
+        val e = Entity()
+        e.setPosition(x, y)
+        e.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(size, size)))
+        e.boundingBoxComponent.applyTransformToHitBoxes()
+        return e
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.physics
+
+import com.almasb.fxgl.entity.components.TransformComponent
+import javafx.geometry.Point2D
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.closeTo
+import org.hamcrest.Matchers.`is`
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.util.concurrent.ForkJoinPool
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class NarrowphaseTest {
+
+    private fun hitBox(shape: BoundingShape, x: Double, y: Double, angle: Double = 0.0): HitBox {
+        val box = HitBox(shape)
+        val t = TransformComponent(x, y, angle, 1.0, 1.0)
+        t.rotationOrigin = Point2D(shape.size.width / 2, shape.size.height / 2)
+
+        box.applyTransform(t)
+        return box
+    }
+
+    @Test
+    fun `Circles`() {
+        val result = CollisionResult()
+
+        val circle1 = hitBox(BoundingShape.circle(10.0), 0.0, 0.0)
+        val circle2 = hitBox(BoundingShape.circle(10.0), 15.0, 0.0)
+
+        assertTrue(Narrowphase.collide(circle1, circle2, result))
+        assertThat(result.boxA, `is`(circle1))
+        assertThat(result.boxB, `is`(circle2))
+        assertThat(result.normalX.toDouble(), closeTo(1.0, 0.001))
+        assertThat(result.normalY.toDouble(), closeTo(0.0, 0.001))
+        assertThat(result.depth.toDouble(), closeTo(5.0, 0.001))
+
+        // bounding boxes overlap at the corners, circles do not
+        val circle3 = hitBox(BoundingShape.circle(10.0), 16.0, 16.0)
+
+        assertTrue(SAT.isColliding(circle1, circle3))
+        assertFalse(Narrowphase.collide(circle1, circle3, result))
+    }
+
+    @Test
+    fun `Circle and rotated box`() {
+        val result = CollisionResult()
+
+        val circle = hitBox(BoundingShape.circle(10.0), 0.0, 0.0)
+        val box = hitBox(BoundingShape.box(20.0, 20.0), 18.0, 0.0)
+
+        assertTrue(Narrowphase.collide(circle, box, result))
+        assertThat(result.normalX.toDouble(), closeTo(1.0, 0.001))
+        assertThat(result.depth.toDouble(), closeTo(2.0, 0.001))
+
+        // the box rotated by 45 degrees around its center now only has a corner at x = 28 - 10 * sqrt(2) ~ 13.86
+        val rotatedBox = hitBox(BoundingShape.box(20.0, 20.0), 18.0, 0.0, 45.0)
+
+        assertTrue(Narrowphase.collide(circle, rotatedBox, result))
+        assertThat(result.depth.toDouble(), closeTo(20 - 13.858, 0.05))
+    }
+
+    @Test
+    fun `Overlapping boxes give axis of minimum overlap`() {
+        val result = CollisionResult()
+
+        val box1 = hitBox(BoundingShape.box(10.0, 10.0), 0.0, 0.0)
+        val box2 = hitBox(BoundingShape.box(8.0, 10.0), 1.0, 2.0)
+
+        assertTrue(Narrowphase.collide(box1, box2, result))
+        assertThat(result.normalX.toDouble(), closeTo(0.0, 0.001))
+        assertThat(result.normalY.toDouble(), closeTo(1.0, 0.001))
+        assertThat(result.depth.toDouble(), closeTo(8.0, 0.001))
+    }
+
+    @Test
+    fun `Capsules`() {
+        val result = CollisionResult()
+
+        // segment from (5, 5) to (25, 5) with radius 5
+        val capsule = hitBox(BoundingShape.capsule(30.0, 10.0), 0.0, 0.0)
+        val circle = hitBox(BoundingShape.circle(5.0), 26.0, 0.0)
+
+        assertTrue(Narrowphase.collide(capsule, circle, result))
+        assertThat(result.normalX.toDouble(), closeTo(1.0, 0.001))
+        assertThat(result.depth.toDouble(), closeTo(4.0, 0.001))
+
+        // inside the bounding box, but beyond the semicircle
+        val cornerCircle = hitBox(BoundingShape.circle(0.5), 29.0, 9.0)
+
+        assertTrue(SAT.isColliding(capsule, cornerCircle))
+        assertFalse(Narrowphase.collide(capsule, cornerCircle, result))
+
+        // vertical capsule, segment from (33, 5) to (33, 25) with radius 5
+        val capsule2 = hitBox(BoundingShape.capsule(10.0, 30.0), 28.0, 0.0)
+
+        assertTrue(Narrowphase.collide(capsule, capsule2, result))
+        assertThat(result.normalX.toDouble(), closeTo(1.0, 0.001))
+        assertThat(result.depth.toDouble(), closeTo(2.0, 0.001))
+    }
+
+    @Test
+    fun `Polygons`() {
+        val result = CollisionResult()
+
+        val triangle = hitBox(BoundingShape.polygon(0.0, 0.0, 20.0, 0.0, 0.0, 20.0), 0.0, 0.0)
+
+        assertFalse(Narrowphase.collide(triangle, hitBox(BoundingShape.box(5.0, 5.0), 11.0, 11.0), result))
+        assertTrue(Narrowphase.collide(triangle, hitBox(BoundingShape.box(5.0, 5.0), 9.0, 9.0), result))
+
+        assertThat(result.normalX.toDouble(), closeTo(Math.sqrt(0.5), 0.001))
+        assertThat(result.normalY.toDouble(), closeTo(Math.sqrt(0.5), 0.001))
+        assertThat(result.depth.toDouble(), closeTo(Math.sqrt(2.0), 0.001))
+    }
+
+    @Test
+    fun `Chains are hollow`() {
+        val result = CollisionResult()
+
+        val chain = hitBox(BoundingShape.chain(Point2D(0.0, 0.0), Point2D(100.0, 0.0), Point2D(100.0, 100.0), Point2D(0.0, 100.0)), 0.0, 0.0)
+
+        assertFalse(Narrowphase.collide(chain, hitBox(BoundingShape.circle(5.0), 45.0, 45.0), result))
+
+        // 3 pixels above the bottom segment
+        assertTrue(Narrowphase.collide(chain, hitBox(BoundingShape.circle(5.0), 45.0, 92.0), result))
+        assertThat(result.normalY.toDouble(), closeTo(-1.0, 0.001))
+        assertThat(result.depth.toDouble(), closeTo(2.0, 0.001))
+    }
+
+    @Test
+    fun `Batched mode gives same results as single pairs`() {
+        val shapes = listOf(
+                BoundingShape.circle(7.0),
+                BoundingShape.box(12.0, 8.0),
+                BoundingShape.capsule(20.0, 6.0),
+                BoundingShape.polygon(0.0, 0.0, 10.0, 2.0, 4.0, 12.0)
+        )
+
+        val pairs = (0 until 1000).map { i ->
+            val result = CollisionResult()
+            result.init(
+                    hitBox(shapes[i % shapes.size], (i * 7 % 50).toDouble(), (i * 13 % 50).toDouble(), (i * 17 % 360).toDouble()),
+                    hitBox(shapes[i / 4 % shapes.size], (i * 11 % 50).toDouble(), (i * 3 % 50).toDouble())
+            )
+            result
+        }
+
+        val hits = BooleanArray(pairs.size)
+
+        Narrowphase.collideAll(pairs, hits, ForkJoinPool(4))
+
+        var numHits = 0
+
+        pairs.forEachIndexed { i, pair ->
+            val result = CollisionResult()
+
+            assertThat(Narrowphase.collide(pair.boxA, pair.boxB, result), `is`(hits[i]))
+
+            if (hits[i]) {
+                numHits++
+
+                assertThat(pair.normalX, `is`(result.normalX))
+                assertThat(pair.normalY, `is`(result.normalY))
+                assertThat(pair.depth, `is`(result.depth))
+            }
+        }
+
+        assertTrue(numHits > 0)
+    }
+}
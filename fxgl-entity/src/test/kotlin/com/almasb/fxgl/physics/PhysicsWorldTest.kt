@@ -778,4 +778,100 @@ class PhysicsWorldTest {
             assertThat(numCollisions, `is`(970))
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Collision ends when entities move far apart`() {
+        CollisionDetectionStrategy.values().forEach { strategy ->
+            val pWorld = PhysicsWorld(720, 50.0, strategy)
+            val gWorld = GameWorld()
+
+            val e1 = Entity()
+            e1.type = EntityType.TYPE1
+            e1.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(40.0, 40.0)))
+            e1.addComponent(CollidableComponent(true))
+
+            val e2 = Entity()
+            e2.type = EntityType.TYPE2
+            e2.position = Point2D(20.0, 20.0)
+            e2.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(40.0, 40.0)))
+            e2.addComponent(CollidableComponent(true))
+
+            gWorld.addEntity(e1)
+            gWorld.addEntity(e2)
+
+            var collisionBeginCount = 0
+            var collisionEndCount = 0
+
+            pWorld.addCollisionHandler(object : CollisionHandler(EntityType.TYPE1, EntityType.TYPE2) {
+                override fun onCollisionBegin(a: Entity, b: Entity) {
+                    collisionBeginCount++
+                }
+
+                override fun onCollisionEnd(a: Entity, b: Entity) {
+                    collisionEndCount++
+                }
+            })
+
+            pWorld.onEntityAdded(e1)
+            pWorld.onEntityAdded(e2)
+            pWorld.onUpdate(0.016)
+
+            assertThat(collisionBeginCount, `is`(1))
+            assertThat(collisionEndCount, `is`(0))
+
+            // far enough to not share any broadphase cell or node
+            e2.position = Point2D(5000.0, 5000.0)
+
+            pWorld.onUpdate(0.016)
+
+            assertThat(collisionBeginCount, `is`(1))
+            assertThat(collisionEndCount, `is`(1))
+        }
+    }
+
+    @Test
+    fun `Entity removed by a handler does not begin collisions with other partners`() {
+        CollisionDetectionStrategy.values().forEach { strategy ->
+            val pWorld = PhysicsWorld(720, 50.0, strategy)
+            val gWorld = GameWorld()
+            gWorld.addWorldListener(pWorld)
+
+            val e1 = Entity()
+            e1.type = EntityType.TYPE1
+            e1.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(40.0, 40.0)))
+            e1.addComponent(CollidableComponent(true))
+
+            val partners = (1..2).map {
+                val e = Entity()
+                e.type = EntityType.TYPE2
+                e.position = Point2D(it * 10.0, it * 10.0)
+                e.boundingBoxComponent.addHitBox(HitBox(BoundingShape.box(40.0, 40.0)))
+                e.addComponent(CollidableComponent(true))
+                e
+            }
+
+            gWorld.addEntity(e1)
+            partners.forEach { gWorld.addEntity(it) }
+
+            var numBegin = 0
+            var numCollision = 0
+
+            pWorld.addCollisionHandler(object : CollisionHandler(EntityType.TYPE1, EntityType.TYPE2) {
+                override fun onCollisionBegin(a: Entity, b: Entity) {
+                    numBegin++
+                    gWorld.removeEntity(a)
+                }
+
+                override fun onCollision(a: Entity, b: Entity) {
+                    numCollision++
+                }
+            })
+
+            pWorld.onUpdate(0.016)
+
+            assertFalse(e1.isActive)
+            assertThat(numBegin, `is`(1))
+            assertThat(numCollision, `is`(0))
+        }
+    }
+}
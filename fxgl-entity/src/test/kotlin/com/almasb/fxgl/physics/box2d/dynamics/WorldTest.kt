@@ -7,6 +7,11 @@
 package com.almasb.fxgl.physics.box2d.dynamics
 
 import com.almasb.fxgl.core.math.Vec2
+import com.almasb.fxgl.physics.box2d.callbacks.ContactImpulse
+import com.almasb.fxgl.physics.box2d.callbacks.ContactListener
+import com.almasb.fxgl.physics.box2d.collision.Manifold
+import com.almasb.fxgl.physics.box2d.collision.shapes.PolygonShape
+import com.almasb.fxgl.physics.box2d.dynamics.contacts.Contact
 import com.almasb.fxgl.physics.box2d.dynamics.joints.RevoluteJointDef
 import org.hamcrest.CoreMatchers
 import org.hamcrest.CoreMatchers.*
@@ -43,4 +48,112 @@ class WorldTest {
 
         assertThat(world.jointCount, `is`(0))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Parallel solve gives same result as sequential solve`() {
+        val sequential = createPilesWorld()
+        val parallel = createPilesWorld()
+        parallel.isParallelSolve = true
+
+        val sequentialReports = arrayListOf<Body>()
+        val parallelReports = arrayListOf<Body>()
+
+        sequential.setContactListener(ReportListener(sequentialReports))
+        parallel.setContactListener(ReportListener(parallelReports))
+
+        repeat(120) {
+            sequential.step(1 / 60f, 8, 3)
+            parallel.step(1 / 60f, 8, 3)
+        }
+
+        assertThat(parallel.bodyCount, `is`(sequential.bodyCount))
+
+        for (i in 0 until sequential.bodyCount) {
+            val b1 = sequential.bodies[i]
+            val b2 = parallel.bodies[i]
+
+            assertThat(b2.position, `is`(b1.position))
+            assertThat(b2.angle, `is`(b1.angle))
+        }
+
+        assertTrue(sequentialReports.isNotEmpty())
+        assertThat(parallelReports.map { parallel.bodies.indexOf(it) }, `is`(sequentialReports.map { sequential.bodies.indexOf(it) }))
+    }
+
+    @Test
+    fun `Parallel solve reports in sequential order when some islands have joints`() {
+        val sequential = createPilesWorld(hasJoints = true)
+        val parallel = createPilesWorld(hasJoints = true)
+        parallel.isParallelSolve = true
+
+        val sequentialReports = arrayListOf<Body>()
+        val parallelReports = arrayListOf<Body>()
+
+        sequential.setContactListener(ReportListener(sequentialReports))
+        parallel.setContactListener(ReportListener(parallelReports))
+
+        repeat(120) {
+            sequential.step(1 / 60f, 8, 3)
+            parallel.step(1 / 60f, 8, 3)
+        }
+
+        assertThat(parallel.jointCount, `is`(5))
+
+        for (i in 0 until sequential.bodyCount) {
+            assertThat(parallel.bodies[i].position, `is`(sequential.bodies[i].position))
+        }
+
+        assertTrue(sequentialReports.isNotEmpty())
+        assertThat(parallelReports.map { parallel.bodies.indexOf(it) }, `is`(sequentialReports.map { sequential.bodies.indexOf(it) }))
+    }
+
+    /**
+     * @param hasJoints if true, every other pile has a joint between its two bottom bodies
+     */
+    private fun createPilesWorld(hasJoints: Boolean = false): World {
+        val world = World(Vec2(0f, -10f))
+
+        val ground = world.createBody(BodyDef())
+        ground.createFixture(PolygonShape().also { it.setAsBox(200f, 1f) }, 0f)
+
+        // each pile is a separate island, except for the shared static ground
+        for (pile in 0 until 10) {
+            val pileBodies = arrayListOf<Body>()
+
+            for (i in 0 until 5) {
+                val body = world.createBody(BodyDef().also {
+                    it.type = BodyType.DYNAMIC
+                    it.position = Vec2(-180f + pile * 40f, 2f + i * 2.1f)
+                })
+
+                body.createFixture(PolygonShape().also { it.setAsBox(1f, 1f) }, 1f)
+
+                pileBodies += body
+            }
+
+            if (hasJoints && pile % 2 == 0) {
+                val jointDef = RevoluteJointDef()
+                jointDef.initialize(pileBodies[0], pileBodies[1], Vec2(-180f + pile * 40f, 3.05f))
+
+                world.createJoint(jointDef)
+            }
+        }
+
+        return world
+    }
+
+    /**
+     * Records body A of each post solve callback and the order of callbacks.
+     */
+    private class ReportListener(private val reports: MutableList<Body>) : ContactListener {
+        override fun beginContact(contact: Contact) { }
+
+        override fun endContact(contact: Contact) { }
+
+        override fun preSolve(contact: Contact, oldManifold: Manifold) { }
+
+        override fun postSolve(contact: Contact, impulse: ContactImpulse) {
+            reports += contact.fixtureA.body
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.net;
+
+import com.almasb.fxgl.core.serialization.Bundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.almasb.fxgl.net.BundleEncoder.*;
+
+/**
+ * Decodes bundles encoded by {@link BundleEncoder}.
+ * Lists are decoded as {@link ArrayList}.
+ * Not thread-safe, the decoding buffers are reused.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class BundleDecoder {
+
+    /**
+     * Larger length prefixes are treated as corrupt data, so that a peer cannot make us allocate arbitrary amounts.
+     */
+    public static final int MAX_MESSAGE_SIZE = 64 * 1024 * 1024;
+
+    private final boolean isKeyTablePersistent;
+
+    private final List<String> keys = new ArrayList<>();
+
+    private byte[] frame = new byte[256];
+    private char[] chars = new char[64];
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    /**
+     * @param isKeyTablePersistent must be the same as that of the encoder
+     */
+    public BundleDecoder(boolean isKeyTablePersistent) {
+        this.isKeyTablePersistent = isKeyTablePersistent;
+    }
+
+    public Bundle decode(byte[] data) throws IOException {
+        return decode(data, 0, data.length);
+    }
+
+    public Bundle decode(byte[] data, int offset, int length) throws IOException {
+        buffer = data;
+        position = offset;
+        limit = offset + length;
+
+        try {
+            if (!isKeyTablePersistent) {
+                keys.clear();
+            }
+
+            var bundle = readBundle();
+
+            if (position != limit)
+                throw new IOException("Unexpected " + (limit - position) + " bytes after bundle");
+
+            return bundle;
+        } finally {
+            buffer = null;
+        }
+    }
+
+    /**
+     * Reads a bundle written by {@link BundleEncoder#encodeTo}.
+     */
+    public Bundle decodeFrom(DataInputStream in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0 || length > MAX_MESSAGE_SIZE)
+            throw new IOException("Invalid bundle length: " + length);
+
+        if (length > frame.length) {
+            frame = new byte[Math.max(length, frame.length * 2)];
+        }
+
+        in.readFully(frame, 0, length);
+
+        return decode(frame, 0, length);
+    }
+
+    private Bundle readBundle() throws IOException {
+        var bundle = new Bundle(readKey());
+
+        int size = readLength();
+
+        for (int i = 0; i < size; i++) {
+            String key = readKey();
+
+            bundle.put(key, (Serializable) readValue());
+        }
+
+        return bundle;
+    }
+
+    private String readKey() throws IOException {
+        int ref = readVarInt();
+
+        if (ref != 0) {
+            if (ref < 0 || ref > keys.size())
+                throw new IOException("Unknown key index: " + (ref - 1));
+
+            return keys.get(ref - 1);
+        }
+
+        var key = readString();
+
+        if (keys.size() < MAX_KEYS) {
+            keys.add(key);
+        }
+
+        return key;
+    }
+
+    private Object readValue() throws IOException {
+        byte tag = readByte();
+
+        switch (tag) {
+            case NULL:
+                return null;
+
+            case TRUE:
+                return Boolean.TRUE;
+
+            case FALSE:
+                return Boolean.FALSE;
+
+            case BYTE:
+                return readByte();
+
+            case SHORT:
+                return (short) unZigZag(readVarLong());
+
+            case CHAR:
+                return (char) readVarInt();
+
+            case INT:
+                return (int) unZigZag(readVarLong());
+
+            case LONG:
+                return unZigZag(readVarLong());
+
+            case FLOAT:
+                return Float.intBitsToFloat(readInt());
+
+            case DOUBLE:
+                return Double.longBitsToDouble(readLong());
+
+            case STRING:
+                return readString();
+
+            case BYTE_ARRAY: {
+                int length = readLength();
+                require(length);
+
+                var array = new byte[length];
+                System.arraycopy(buffer, position, array, 0, length);
+                position += length;
+                return array;
+            }
+
+            case INT_ARRAY: {
+                var array = new int[readLength()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = (int) unZigZag(readVarLong());
+                }
+                return array;
+            }
+
+            case LONG_ARRAY: {
+                var array = new long[readLength()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = unZigZag(readVarLong());
+                }
+                return array;
+            }
+
+            case DOUBLE_ARRAY: {
+                var array = new double[readLength()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = Double.longBitsToDouble(readLong());
+                }
+                return array;
+            }
+
+            case BUNDLE:
+                return readBundle();
+
+            case LIST: {
+                int size = readLength();
+                var list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            }
+
+            case SERIALIZABLE: {
+                int length = readLength();
+                require(length);
+
+                var in = new ObjectInputStream(new ByteArrayInputStream(buffer, position, length));
+                position += length;
+
+                try (in) {
+                    return in.readObject();
+                } catch (ClassNotFoundException | RuntimeException e) {
+                    throw new IOException("Failed to deserialize value", e);
+                }
+            }
+
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+
+    private String readString() throws IOException {
+        int utfLength = readLength();
+        require(utfLength);
+
+        if (chars.length < utfLength) {
+            chars = new char[Math.max(utfLength, chars.length * 2)];
+        }
+
+        var buf = buffer;
+        int pos = position;
+        int end = pos + utfLength;
+        int numChars = 0;
+
+        while (pos < end) {
+            int b = buf[pos++] & 0xFF;
+
+            if (b < 0x80) {
+                chars[numChars++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                if (pos + 1 > end)
+                    throw new IOException("Malformed string");
+
+                chars[numChars++] = (char) (((b & 0x1F) << 6) | (buf[pos++] & 0x3F));
+            } else if ((b & 0xF0) == 0xE0) {
+                if (pos + 2 > end)
+                    throw new IOException("Malformed string");
+
+                chars[numChars++] = (char) (((b & 0x0F) << 12) | ((buf[pos++] & 0x3F) << 6) | (buf[pos++] & 0x3F));
+            } else {
+                throw new IOException("Malformed string");
+            }
+        }
+
+        position = pos;
+
+        return new String(chars, 0, numChars);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return a non-negative length, which is validated against remaining bytes,
+     * since each element takes at least one byte
+     */
+    private int readLength() throws IOException {
+        int length = readVarInt();
+
+        if (length < 0 || length > limit - position)
+            throw new IOException("Invalid length: " + length);
+
+        return length;
+    }
+
+    private int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+    private byte readByte() throws IOException {
+        require(1);
+        return buffer[position++];
+    }
+
+    private int readInt() throws IOException {
+        require(4);
+
+        var buf = buffer;
+        int pos = position;
+        position += 4;
+
+        return ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16) | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+    }
+
+    private long readLong() throws IOException {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    private void require(int numBytes) throws IOException {
+        if (numBytes > limit - position)
+            throw new IOException("Unexpected end of data");
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.net;
+
+import com.almasb.fxgl.core.serialization.Bundle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a {@link Bundle} into a compact tagged binary format, decoded by {@link BundleDecoder}.
+ * Primitive wrappers, strings, byte/int/long/double arrays, nested bundles and lists are written directly,
+ * any other value falls back to Java serialization.
+ * Keys and bundle names are interned: only the first occurrence is written as a string,
+ * subsequent ones as an index.
+ *
+ * An encoder keeps its key table across messages only if created with isKeyTablePersistent = true,
+ * which requires every message to be decoded, in order, by a single decoder with the same setting,
+ * e.g. over a TCP stream.
+ * Not thread-safe, the encoding buffer is reused.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class BundleEncoder {
+
+    static final byte NULL = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = 2;
+    static final byte BYTE = 3;
+    static final byte SHORT = 4;
+    static final byte CHAR = 5;
+    static final byte INT = 6;
+    static final byte LONG = 7;
+    static final byte FLOAT = 8;
+    static final byte DOUBLE = 9;
+    static final byte STRING = 10;
+    static final byte BYTE_ARRAY = 11;
+    static final byte INT_ARRAY = 12;
+    static final byte DOUBLE_ARRAY = 13;
+    static final byte BUNDLE = 14;
+    static final byte LIST = 15;
+    static final byte SERIALIZABLE = 16;
+    static final byte LONG_ARRAY = 17;
+
+    /**
+     * Keys beyond this number are not interned, so that the table cannot grow indefinitely.
+     */
+    static final int MAX_KEYS = 4096;
+
+    private static final int FRAME_HEADER_SIZE = Integer.BYTES;
+
+    private final boolean isKeyTablePersistent;
+
+    private final Map<String, Integer> keys = new HashMap<>();
+
+    /**
+     * Keys added to the table by the message being encoded.
+     */
+    private final List<String> newKeys = new ArrayList<>();
+
+    private byte[] buffer = new byte[256];
+    private int position = 0;
+
+    public BundleEncoder(boolean isKeyTablePersistent) {
+        this.isKeyTablePersistent = isKeyTablePersistent;
+    }
+
+    /**
+     * @return a new array with encoded bundle
+     */
+    public byte[] encode(Bundle bundle) {
+        position = 0;
+        writeMessage(bundle);
+
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Writes [int length][encoded bundle] to given stream with a single write call.
+     */
+    public void encodeTo(Bundle bundle, OutputStream out) throws IOException {
+        position = FRAME_HEADER_SIZE;
+        writeMessage(bundle);
+
+        int length = position - FRAME_HEADER_SIZE;
+        buffer[0] = (byte) (length >>> 24);
+        buffer[1] = (byte) (length >>> 16);
+        buffer[2] = (byte) (length >>> 8);
+        buffer[3] = (byte) length;
+
+        out.write(buffer, 0, position);
+    }
+
+    private void writeMessage(Bundle bundle) {
+        if (!isKeyTablePersistent) {
+            keys.clear();
+        }
+
+        newKeys.clear();
+
+        try {
+            writeBundle(bundle);
+        } catch (RuntimeException e) {
+            // the message is not sent, so the decoder will not learn the keys it introduced
+            newKeys.forEach(keys::remove);
+            throw e;
+        }
+    }
+
+    private void writeBundle(Bundle bundle) {
+        writeKey(bundle.getName());
+
+        var data = bundle.getData();
+
+        writeVarInt(data.size());
+
+        for (var entry : data.entrySet()) {
+            writeKey(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    /**
+     * Writes index + 1 of a known key, or 0 followed by the key itself.
+     */
+    private void writeKey(String key) {
+        Integer index = keys.get(key);
+
+        if (index != null) {
+            writeVarInt(index + 1);
+            return;
+        }
+
+        writeVarInt(0);
+        writeString(key);
+
+        if (keys.size() < MAX_KEYS) {
+            keys.put(key, keys.size());
+            newKeys.add(key);
+        }
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            writeByte(NULL);
+        } else if (value instanceof Integer i) {
+            writeByte(INT);
+            writeVarLong(zigZag(i));
+        } else if (value instanceof Double d) {
+            writeByte(DOUBLE);
+            writeLong(Double.doubleToRawLongBits(d));
+        } else if (value instanceof String s) {
+            writeByte(STRING);
+            writeString(s);
+        } else if (value instanceof Boolean b) {
+            writeByte(b ? TRUE : FALSE);
+        } else if (value instanceof Bundle b) {
+            writeByte(BUNDLE);
+            writeBundle(b);
+        } else if (value instanceof Float f) {
+            writeByte(FLOAT);
+            writeInt(Float.floatToRawIntBits(f));
+        } else if (value instanceof Long l) {
+            writeByte(LONG);
+            writeVarLong(zigZag(l));
+        } else if (value instanceof Byte b) {
+            writeByte(BYTE);
+            writeByte(b);
+        } else if (value instanceof Short s) {
+            writeByte(SHORT);
+            writeVarLong(zigZag(s));
+        } else if (value instanceof Character c) {
+            writeByte(CHAR);
+            writeVarInt(c);
+        } else if (value instanceof byte[] array) {
+            writeByte(BYTE_ARRAY);
+            writeVarInt(array.length);
+            ensureCapacity(array.length);
+            System.arraycopy(array, 0, buffer, position, array.length);
+            position += array.length;
+        } else if (value instanceof int[] array) {
+            writeByte(INT_ARRAY);
+            writeVarInt(array.length);
+            for (int i : array) {
+                writeVarLong(zigZag(i));
+            }
+        } else if (value instanceof long[] array) {
+            writeByte(LONG_ARRAY);
+            writeVarInt(array.length);
+            for (long l : array) {
+                writeVarLong(zigZag(l));
+            }
+        } else if (value instanceof double[] array) {
+            writeByte(DOUBLE_ARRAY);
+            writeVarInt(array.length);
+            for (double d : array) {
+                writeLong(Double.doubleToRawLongBits(d));
+            }
+        } else if (value instanceof List<?> list) {
+            writeByte(LIST);
+            writeVarInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                writeValue(list.get(i));
+            }
+        } else {
+            writeByte(SERIALIZABLE);
+
+            byte[] bytes = serialize(value);
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private static byte[] serialize(Object value) {
+        if (!(value instanceof Serializable))
+            throw new IllegalArgumentException("Value is not serializable: " + value.getClass());
+
+        try {
+            var baos = new ByteArrayOutputStream();
+            try (var out = new ObjectOutputStream(baos)) {
+                out.writeObject(value);
+            }
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize " + value.getClass(), e);
+        }
+    }
+
+    /**
+     * Writes byte length, followed by chars encoded as in {@link java.io.DataOutput#writeUTF(String)},
+     * so that any string, incl. unpaired surrogates, can be decoded exactly.
+     */
+    private void writeString(String s) {
+        int length = s.length();
+        int utfLength = length;
+
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+
+            if (c >= 0x80 || c == 0) {
+                utfLength += c >= 0x800 ? 2 : 1;
+            }
+        }
+
+        writeVarInt(utfLength);
+        ensureCapacity(utfLength);
+
+        var buf = buffer;
+        int pos = position;
+
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+
+            if (c < 0x80 && c != 0) {
+                buf[pos++] = (byte) c;
+            } else if (c >= 0x800) {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        position = pos;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void ensureCapacity(int numBytes) {
+        if (position + numBytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + numBytes));
+        }
+    }
+}
@@ -79,14 +79,22 @@ public abstract class Connection<T> {
 
         try {
             messageQueue.put(message);
+
+            onMessageQueued();
         } catch (InterruptedException e) {
             log.warning("send() was interrupted while waiting for messageQueue to clear some space", e);
         }
     }
 
+    /**
+     * Called on the sending thread after a message was added to the message queue.
+     * Connections that do not have a dedicated send thread can use this to schedule the write.
+     */
+    protected void onMessageQueued() { }
+
     private boolean isJavaFXExceptionLogged = false;
 
-    void notifyMessageReceived(T message) {
+    protected final void notifyMessageReceived(T message) {
         // exceptions here should only occur if they were thrown at user level
         // during handling messages via onReceive()
 
@@ -7,6 +7,7 @@
 package com.almasb.fxgl.net;
 
 import com.almasb.fxgl.logging.Logger;
+import com.almasb.fxgl.net.nio.NIOConnection;
 import com.almasb.fxgl.net.tcp.TCPConnection;
 import com.almasb.fxgl.net.udp.UDPConnection;
 
@@ -58,6 +59,13 @@ public abstract class Endpoint<T> {
     }
 
     protected final void openTCPConnection(Socket socket, int connectionNum, Class<T> messageType) throws Exception {
+        openTCPConnection(socket, connectionNum, messageType, false);
+    }
+
+    /**
+     * @param isVirtualThreads if true, the send and receive threads of the connection are virtual threads
+     */
+    protected final void openTCPConnection(Socket socket, int connectionNum, Class<T> messageType, boolean isVirtualThreads) throws Exception {
         log.debug(getClass().getSimpleName() + " opening new connection (" + connectionNum + ") from " + socket.getInetAddress() + ":" + socket.getPort() + " type: " + messageType);
 
         socket.setTcpNoDelay(true);
@@ -69,7 +77,7 @@ public abstract class Endpoint<T> {
         var sendThreadName = getClass().getSimpleName() + "_SendThread-" + connectionNum;
         var recvThreadName = getClass().getSimpleName() + "_RecvThread-" + connectionNum;
 
-        new ConnectionThread(sendThreadName, () -> {
+        startThread(sendThreadName, isVirtualThreads, () -> {
 
             try {
                 var writer = Writers.INSTANCE.getTCPWriter(messageType, socket.getOutputStream());
@@ -82,9 +90,9 @@ public abstract class Endpoint<T> {
             } catch (Exception e) {
                 log.warning(sendThreadName + " crashed", e);
             }
-        }).start();
+        });
 
-        new ConnectionThread(recvThreadName, () -> {
+        startThread(recvThreadName, isVirtualThreads, () -> {
             try {
                 var reader = Readers.INSTANCE.getTCPReader(messageType, socket.getInputStream());
 
@@ -117,7 +125,7 @@ public abstract class Endpoint<T> {
             }
 
             onConnectionClosed(connection);
-        }).start();
+        });
     }
 
     protected final void openUDPConnection(UDPConnection<T> connection, Class<T> messageType) {
@@ -161,6 +169,16 @@ public abstract class Endpoint<T> {
         }).start();
     }
 
+    /**
+     * Unlike TCP and UDP connections, NIO connections have no threads of their own,
+     * so the caller is responsible for IO and for calling {@link #onConnectionClosed(Connection)}.
+     */
+    protected final void openNIOConnection(NIOConnection<T> connection) {
+        log.debug(getClass().getSimpleName() + " opening new NIO connection (" + connection.getConnectionNum() + ") from " + connection.getChannel().socket().getRemoteSocketAddress());
+
+        onConnectionOpened(connection);
+    }
+
     private void onConnectionOpened(Connection<T> connection) {
         log.debug(getClass().getSimpleName() + " successfully opened connection (" + connection.getConnectionNum() + ")");
 
@@ -188,6 +206,14 @@ public abstract class Endpoint<T> {
         return List.copyOf(connections);
     }
 
+    private static void startThread(String name, boolean isVirtual, Runnable action) {
+        if (isVirtual) {
+            Thread.ofVirtual().name(name).start(action);
+        } else {
+            new ConnectionThread(name, action).start();
+        }
+    }
+
     private static class ConnectionThread extends Thread {
 
         ConnectionThread(String name, Runnable action) {
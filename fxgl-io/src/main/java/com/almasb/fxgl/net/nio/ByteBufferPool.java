@@ -0,0 +1,56 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.net.nio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Reuses direct buffers of the same size, since allocating direct buffers is expensive.
+ * Not thread-safe, each selector loop has its own pool.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class ByteBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+
+    private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
+
+    ByteBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    int getNumPooled() {
+        return buffers.size();
+    }
+
+    /**
+     * @return a cleared buffer
+     */
+    ByteBuffer acquire() {
+        var buffer = buffers.pollLast();
+
+        if (buffer == null)
+            return ByteBuffer.allocateDirect(bufferSize);
+
+        buffer.clear();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (buffers.size() < maxPooled) {
+            buffers.addLast(buffer);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.net.nio;
+
+import com.almasb.fxgl.logging.Logger;
+import com.almasb.fxgl.net.Client;
+import com.almasb.fxgl.net.Connection;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A TCP client whose connection is served by a selector thread.
+ * Only compatible with {@link NIOServer}, since messages are framed differently.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class NIOClient<T> extends Client<T> {
+
+    private static final Logger log = Logger.get(NIOClient.class);
+
+    private String ip;
+    private int port;
+    private Class<T> messageType;
+
+    public NIOClient(String ip, int port, Class<T> messageType) {
+        this.ip = ip;
+        this.port = port;
+        this.messageType = messageType;
+    }
+
+    @Override
+    public void connect() {
+        log.debug("Connecting to " + ip + ":" + port + " type: " + messageType);
+
+        SocketChannel channel;
+
+        try {
+            channel = SocketChannel.open(new InetSocketAddress(ip, port));
+
+            log.debug("Created channel to " + ip + ":" + port);
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create a channel to address " + ip + " : " + port + " Error: " + e, e);
+        }
+
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            var loop = new SelectorLoop<>("NIOClient_SelectorThread-" + port, messageType, this::onConnectionClosed);
+            var connection = new NIOConnection<>(channel, 1, loop);
+
+            openNIOConnection(connection);
+
+            loop.register(connection);
+            loop.start();
+
+        } catch (Exception e) {
+            try {
+                channel.close();
+            } catch (Exception ignored) { }
+
+            throw new RuntimeException("Failed to open NIO connection to " + ip + ":" + port + " Error: " + e, e);
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        getConnections().forEach(Connection::terminate);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.net.nio;
+
+import com.almasb.fxgl.net.Connection;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A TCP connection whose IO is performed by the selector loop of its endpoint.
+ * send() never blocks, since the message queue is unbounded.
+ * The channel closing responsibility lies within the selector loop.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class NIOConnection<T> extends Connection<T> {
+
+    private final SocketChannel channel;
+    private final SelectorLoop<T> loop;
+
+    // the fields below are only accessed on the selector loop thread, except isWriteRequested
+
+    final AtomicBoolean isWriteRequested = new AtomicBoolean(false);
+
+    SelectionKey key = null;
+
+    boolean isClosed = false;
+
+    /**
+     * Encoded messages, ready to be written to channel.
+     */
+    final ArrayDeque<ByteBuffer> outgoing = new ArrayDeque<>();
+
+    /**
+     * Length prefix of the message being received.
+     */
+    final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+
+    /**
+     * Message being received, null while receiving header.
+     */
+    byte[] payload = null;
+    int payloadLength = 0;
+    int payloadPosition = 0;
+
+    /**
+     * Reused as {@link #payload} for small messages, created on first small message.
+     */
+    byte[] smallPayload = null;
+
+    NIOConnection(SocketChannel channel, int connectionNum, SelectorLoop<T> loop) {
+        super(connectionNum);
+        this.channel = channel;
+        this.loop = loop;
+
+        messageQueue = new LinkedBlockingQueue<>();
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return next queued message or null
+     */
+    T pollMessage() {
+        return messageQueue.poll();
+    }
+
+    void onMessageReceived(T message) {
+        notifyMessageReceived(message);
+    }
+
+    @Override
+    protected void onMessageQueued() {
+        if (isWriteRequested.compareAndSet(false, true)) {
+            loop.requestWrite(this);
+        }
+    }
+
+    @Override
+    protected boolean isClosedLocally() {
+        return !channel.isOpen();
+    }
+
+    @Override
+    protected void terminateImpl() {
+        loop.requestClose(this);
+    }
+}
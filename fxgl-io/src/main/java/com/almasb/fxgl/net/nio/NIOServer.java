@@ -0,0 +1,92 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.net.nio;
+
+import com.almasb.fxgl.logging.Logger;
+import com.almasb.fxgl.net.Server;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * A TCP server that serves all of its connections from a single selector thread,
+ * instead of two threads per connection.
+ * Only compatible with {@link NIOClient}, since messages are framed differently.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class NIOServer<T> extends Server<T> {
+
+    private static final Logger log = Logger.get(NIOServer.class);
+
+    private volatile boolean isStopped = false;
+
+    private int port;
+    private Class<T> messageType;
+
+    private volatile SelectorLoop<T> loop;
+
+    private int connectionNum = 1;
+
+    public NIOServer(int port, Class<T> messageType) {
+        this.port = port;
+        this.messageType = messageType;
+    }
+
+    @Override
+    protected void start() {
+        log.debug("Starting to listen at: " + port + " type: " + messageType);
+
+        try {
+            var serverChannel = ServerSocketChannel.open();
+
+            try {
+                serverChannel.bind(new InetSocketAddress(port));
+
+                loop = new SelectorLoop<>("NIOServer_SelectorThread-" + port, messageType, this::onConnectionClosed);
+                loop.listen(serverChannel, channel -> {
+                    var connection = new NIOConnection<>(channel, connectionNum++, loop);
+
+                    openNIOConnection(connection);
+
+                    loop.register(connection);
+                });
+            } catch (Exception e) {
+                serverChannel.close();
+                throw e;
+            }
+
+            loop.start();
+
+            if (isStopped) {
+                loop.stopListening();
+            }
+
+            onStartedListening();
+
+            loop.awaitStopListening();
+
+        } catch (Exception e) {
+            if (!isStopped) {
+                throw new RuntimeException("Failed to start: " + e.getMessage(), e);
+            }
+        }
+
+        onStoppedListening();
+    }
+
+    @Override
+    public void stop() {
+        isStopped = true;
+
+        var loop = this.loop;
+
+        if (loop != null) {
+            loop.stopListening();
+        }
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.net.nio;
+
+import com.almasb.fxgl.logging.Logger;
+import com.almasb.fxgl.net.BundleDecoder;
+import com.almasb.fxgl.net.Connection;
+import com.almasb.fxgl.net.Readers;
+import com.almasb.fxgl.net.UDPMessageRangeReader;
+import com.almasb.fxgl.net.UDPMessageReader;
+import com.almasb.fxgl.net.UDPMessageWriter;
+import com.almasb.fxgl.net.Writers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+/**
+ * Performs IO of all connections of an endpoint on a single thread.
+ * Messages are framed as [int length][payload], where payload is encoded by the
+ * byte array (UDP) codec of the message type, see {@link Writers} and {@link Readers}.
+ * All messages queued by the time the loop wakes up are written with a single gathering write.
+ * Received messages up to {@link #SMALL_PAYLOAD_SIZE} are read into a buffer reused by the connection
+ * and decoded from there if the reader supports it (see {@link UDPMessageRangeReader}).
+ *
+ * Message handlers (not FX) are called on the loop thread, so they should not block.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class SelectorLoop<T> implements Runnable {
+
+    private static final Logger log = Logger.get(SelectorLoop.class);
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    /**
+     * Larger length prefixes are treated as corrupt data, same limit as for streamed bundles.
+     */
+    static final int MAX_MESSAGE_SIZE = BundleDecoder.MAX_MESSAGE_SIZE;
+
+    /**
+     * Max length of a received message that is read into a reused buffer, larger messages get their own array.
+     */
+    static final int SMALL_PAYLOAD_SIZE = 4 * 1024;
+
+    private final String name;
+    private final Selector selector;
+
+    private final UDPMessageWriter<T> writer;
+    private final UDPMessageReader<T> reader;
+
+    private final Consumer<Connection<T>> onClosed;
+
+    private final ByteBufferPool pool = new ByteBufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * Outgoing buffers of a connection for a gathering write, grows as needed.
+     */
+    private ByteBuffer[] writeBuffers = new ByteBuffer[16];
+
+    private final Queue<NIOConnection<T>> pendingRegistrations = new ConcurrentLinkedQueue<>();
+    private final Queue<NIOConnection<T>> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final Queue<NIOConnection<T>> pendingCloses = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Only accessed on the loop thread.
+     */
+    private final List<NIOConnection<T>> connections = new ArrayList<>();
+
+    private ServerSocketChannel serverChannel = null;
+    private Consumer<SocketChannel> onAccepted = c -> {};
+
+    private volatile boolean isStopListeningRequested = false;
+    private final CountDownLatch stoppedListeningLatch = new CountDownLatch(1);
+
+    SelectorLoop(String name, Class<T> messageType, Consumer<Connection<T>> onClosed) throws IOException {
+        this.name = name;
+        this.onClosed = onClosed;
+
+        writer = Writers.INSTANCE.getUDPWriter(messageType);
+        reader = Readers.INSTANCE.getUDPReader(messageType);
+
+        selector = Selector.open();
+    }
+
+    /**
+     * Accept connections from given channel, must be called before {@link #start()}.
+     * The callback is called on the loop thread.
+     */
+    void listen(ServerSocketChannel serverChannel, Consumer<SocketChannel> onAccepted) throws IOException {
+        this.serverChannel = serverChannel;
+        this.onAccepted = onAccepted;
+
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    void start() {
+        var thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops accepting new connections, existing connections remain open.
+     * The loop finishes once no connections remain.
+     */
+    void stopListening() {
+        isStopListeningRequested = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Blocks until the loop stops accepting new connections.
+     */
+    void awaitStopListening() throws InterruptedException {
+        stoppedListeningLatch.await();
+    }
+
+    void register(NIOConnection<T> connection) {
+        pendingRegistrations.add(connection);
+        selector.wakeup();
+    }
+
+    void requestWrite(NIOConnection<T> connection) {
+        pendingWrites.add(connection);
+        selector.wakeup();
+    }
+
+    void requestClose(NIOConnection<T> connection) {
+        pendingCloses.add(connection);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (isRunning()) {
+                processPending();
+
+                if (!isRunning())
+                    break;
+
+                selector.select();
+
+                var iterator = selector.selectedKeys().iterator();
+
+                while (iterator.hasNext()) {
+                    var key = iterator.next();
+                    iterator.remove();
+
+                    if (!key.isValid())
+                        continue;
+
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        @SuppressWarnings("unchecked")
+                        var connection = (NIOConnection<T>) key.attachment();
+
+                        handle(connection, key);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warning(name + " crashed", e);
+        } finally {
+            stopListeningNow();
+
+            new ArrayList<>(connections).forEach(this::closeNow);
+
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.warning("IOException when closing selector: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean isRunning() {
+        return serverChannel != null || !connections.isEmpty() || !pendingRegistrations.isEmpty();
+    }
+
+    private void processPending() {
+        if (isStopListeningRequested) {
+            stopListeningNow();
+        }
+
+        NIOConnection<T> connection;
+
+        while ((connection = pendingRegistrations.poll()) != null) {
+            registerNow(connection);
+        }
+
+        while ((connection = pendingWrites.poll()) != null) {
+            // reset before draining, so that messages sent during the flush request another one
+            connection.isWriteRequested.set(false);
+
+            if (connection.key != null && !connection.isClosed) {
+                try {
+                    flush(connection);
+                } catch (IOException e) {
+                    onIOException(connection, e);
+                }
+            }
+        }
+
+        while ((connection = pendingCloses.poll()) != null) {
+            closeNow(connection);
+        }
+    }
+
+    private void stopListeningNow() {
+        if (serverChannel == null)
+            return;
+
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            log.warning("IOException when closing server channel: " + e.getMessage(), e);
+        }
+
+        serverChannel = null;
+        stoppedListeningLatch.countDown();
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+
+            while (serverChannel != null && (channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                onAccepted.accept(channel);
+            }
+        } catch (IOException e) {
+            log.warning("IOException when accepting connection: " + e.getMessage(), e);
+        }
+    }
+
+    private void registerNow(NIOConnection<T> connection) {
+        if (connection.isClosed)
+            return;
+
+        connections.add(connection);
+
+        try {
+            connection.key = connection.getChannel().register(selector, SelectionKey.OP_READ, connection);
+
+            // messages may have been sent before registration, e.g. in onConnected
+            flush(connection);
+        } catch (IOException e) {
+            onIOException(connection, e);
+        }
+    }
+
+    private void handle(NIOConnection<T> connection, SelectionKey key) {
+        try {
+            if (key.isReadable()) {
+                read(connection);
+            }
+
+            if (key.isValid() && key.isWritable() && !connection.isClosed) {
+                flush(connection);
+            }
+        } catch (IOException e) {
+            onIOException(connection, e);
+        }
+    }
+
+    private void onIOException(NIOConnection<T> connection, IOException e) {
+        if (connection.isConnected()) {
+            log.debug("Connection " + connection.getConnectionNum() + " was unexpectedly disconnected: " + e.getMessage());
+
+            connection.terminate();
+        }
+    }
+
+    /**
+     * Encodes all queued messages and writes as much as the channel accepts.
+     * If not everything was written, the rest is written once the channel is writable.
+     */
+    private void flush(NIOConnection<T> connection) throws IOException {
+        ByteBuffer buffer = null;
+
+        T message;
+
+        while ((message = connection.pollMessage()) != null) {
+            byte[] bytes;
+
+            try {
+                bytes = writer.write(message);
+            } catch (Exception e) {
+                log.warning("Failed to encode message, connection " + connection.getConnectionNum(), e);
+                continue;
+            }
+
+            buffer = ensureRemaining(connection, buffer, Integer.BYTES);
+            buffer.putInt(bytes.length);
+
+            int offset = 0;
+
+            while (offset < bytes.length) {
+                buffer = ensureRemaining(connection, buffer, 1);
+
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        if (buffer != null) {
+            buffer.flip();
+            connection.outgoing.addLast(buffer);
+        }
+
+        var outgoing = connection.outgoing;
+
+        if (!outgoing.isEmpty()) {
+            int count = outgoing.size();
+
+            if (writeBuffers.length < count) {
+                writeBuffers = new ByteBuffer[Math.max(count, writeBuffers.length * 2)];
+            }
+
+            // fills the given array, since it is large enough
+            outgoing.toArray(writeBuffers);
+
+            connection.getChannel().write(writeBuffers, 0, count);
+
+            // do not keep buffers of this connection alive
+            Arrays.fill(writeBuffers, 0, count, null);
+
+            while (!outgoing.isEmpty() && !outgoing.peekFirst().hasRemaining()) {
+                pool.release(outgoing.pollFirst());
+            }
+        }
+
+        int ops = outgoing.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+
+        if (connection.key.interestOps() != ops) {
+            connection.key.interestOps(ops);
+        }
+    }
+
+    /**
+     * @return given buffer if it has at least numBytes remaining, else a new buffer from pool
+     */
+    private ByteBuffer ensureRemaining(NIOConnection<T> connection, ByteBuffer buffer, int numBytes) {
+        if (buffer != null) {
+            if (buffer.remaining() >= numBytes)
+                return buffer;
+
+            buffer.flip();
+            connection.outgoing.addLast(buffer);
+        }
+
+        return pool.acquire();
+    }
+
+    private void read(NIOConnection<T> connection) throws IOException {
+        readBuffer.clear();
+
+        int numBytes = connection.getChannel().read(readBuffer);
+
+        if (numBytes == -1) {
+            log.debug("Connection " + connection.getConnectionNum() + " was correctly closed from remote endpoint.");
+
+            connection.terminate();
+            return;
+        }
+
+        readBuffer.flip();
+
+        var header = connection.header;
+
+        while (readBuffer.hasRemaining() && !connection.isClosed) {
+            if (connection.payload == null) {
+                while (readBuffer.hasRemaining() && header.hasRemaining()) {
+                    header.put(readBuffer.get());
+                }
+
+                if (header.hasRemaining())
+                    break;
+
+                int length = header.getInt(0);
+                header.clear();
+
+                if (length < 0 || length > MAX_MESSAGE_SIZE)
+                    throw new IOException("Invalid message length: " + length);
+
+                if (length <= SMALL_PAYLOAD_SIZE) {
+                    if (connection.smallPayload == null) {
+                        connection.smallPayload = new byte[SMALL_PAYLOAD_SIZE];
+                    }
+
+                    connection.payload = connection.smallPayload;
+                } else {
+                    connection.payload = new byte[length];
+                }
+
+                connection.payloadLength = length;
+                connection.payloadPosition = 0;
+            }
+
+            var payload = connection.payload;
+            int payloadLength = connection.payloadLength;
+
+            int length = Math.min(readBuffer.remaining(), payloadLength - connection.payloadPosition);
+            readBuffer.get(payload, connection.payloadPosition, length);
+            connection.payloadPosition += length;
+
+            if (connection.payloadPosition == payloadLength) {
+                connection.payload = null;
+
+                onPayloadReceived(connection, payload, payloadLength);
+            }
+        }
+    }
+
+    private void onPayloadReceived(NIOConnection<T> connection, byte[] payload, int length) {
+        T message;
+
+        try {
+            if (reader instanceof UDPMessageRangeReader<T> rangeReader) {
+                message = rangeReader.read(payload, 0, length);
+            } else {
+                // the reader may keep the array, so it cannot be the reused one
+                message = reader.read(payload == connection.smallPayload ? Arrays.copyOf(payload, length) : payload);
+            }
+        } catch (Exception e) {
+            log.warning("Connection " + connection.getConnectionNum() + " had unspecified error during receive()", e);
+
+            connection.terminate();
+            return;
+        }
+
+        connection.onMessageReceived(message);
+    }
+
+    private void closeNow(NIOConnection<T> connection) {
+        if (connection.isClosed)
+            return;
+
+        // deliver what was sent before terminate(), as far as the channel accepts without blocking
+        if (connection.key != null && connection.key.isValid()) {
+            try {
+                flush(connection);
+            } catch (IOException e) {
+                log.debug("Could not flush connection " + connection.getConnectionNum() + " before closing: " + e.getMessage());
+            }
+        }
+
+        connection.isClosed = true;
+
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+
+        try {
+            connection.getChannel().close();
+        } catch (IOException e) {
+            log.warning("IOException when closing channel: " + e.getMessage(), e);
+        }
+
+        connection.outgoing.forEach(pool::release);
+        connection.outgoing.clear();
+        connection.payload = null;
+
+        if (connections.remove(connection)) {
+            if (connection.isConnected()) {
+                connection.terminate();
+            }
+
+            onClosed.accept(connection);
+        }
+    }
+}
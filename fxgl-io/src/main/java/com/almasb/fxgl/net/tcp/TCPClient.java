@@ -24,11 +24,20 @@ public class TCPClient<T> extends Client<T> {
     private String ip;
     private int port;
     private Class<T> messageType;
+    private boolean isVirtualThreads;
 
     public TCPClient(String ip, int port, Class<T> messageType) {
+        this(ip, port, messageType, false);
+    }
+
+    /**
+     * @param isVirtualThreads if true, connections use virtual threads instead of platform threads
+     */
+    public TCPClient(String ip, int port, Class<T> messageType, boolean isVirtualThreads) {
         this.ip = ip;
         this.port = port;
         this.messageType = messageType;
+        this.isVirtualThreads = isVirtualThreads;
     }
 
     @Override
@@ -47,7 +56,7 @@ public class TCPClient<T> extends Client<T> {
         }
 
         try {
-            openTCPConnection(socket, 1, messageType);
+            openTCPConnection(socket, 1, messageType, isVirtualThreads);
         } catch (Exception e) {
             // in case we managed to partially open the connection
             disconnect();
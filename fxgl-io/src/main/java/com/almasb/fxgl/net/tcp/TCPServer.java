@@ -26,11 +26,20 @@ public final class TCPServer<T> extends Server<T> {
 
     private int port;
     private Class<T> messageType;
+    private boolean isVirtualThreads;
     private ServerSocket serverSocket;
 
     public TCPServer(int port, Class<T> messageType) {
+        this(port, messageType, false);
+    }
+
+    /**
+     * @param isVirtualThreads if true, connections use virtual threads instead of platform threads
+     */
+    public TCPServer(int port, Class<T> messageType, boolean isVirtualThreads) {
         this.port = port;
         this.messageType = messageType;
+        this.isVirtualThreads = isVirtualThreads;
     }
 
     @Override
@@ -47,7 +56,7 @@ public final class TCPServer<T> extends Server<T> {
             while (!isStopped) {
                 Socket socket = serverSocket.accept();
 
-                openTCPConnection(socket, connectionNum++, messageType);
+                openTCPConnection(socket, connectionNum++, messageType, isVirtualThreads);
             }
 
         } catch (Exception e) {
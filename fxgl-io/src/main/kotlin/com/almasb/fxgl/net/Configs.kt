@@ -11,12 +11,38 @@ package com.almasb.fxgl.net
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 
-data class ServerConfig<T>(
-        val messageType: Class<T>
+/**
+ * How TCP servers and clients perform IO.
+ */
+enum class TCPTransport {
+
+    /**
+     * Each connection has a send and a receive platform thread with blocking IO.
+     */
+    PLATFORM_THREADS,
+
+    /**
+     * Same as [PLATFORM_THREADS] but with virtual threads.
+     */
+    VIRTUAL_THREADS,
+
+    /**
+     * All connections of an endpoint are served by a single selector thread with non-blocking IO.
+     * Both endpoints must use this transport, since messages are framed differently.
+     */
+    NIO
+}
+
+data class ServerConfig<T>
+@JvmOverloads constructor(
+        val messageType: Class<T>,
+        val transport: TCPTransport = TCPTransport.PLATFORM_THREADS
 )
 
-data class ClientConfig<T>(
-        val messageType: Class<T>
+data class ClientConfig<T>
+@JvmOverloads constructor(
+        val messageType: Class<T>,
+        val transport: TCPTransport = TCPTransport.PLATFORM_THREADS
 )
 
 data class UDPServerConfig<T>
@@ -10,6 +10,8 @@ import com.almasb.fxgl.core.EngineService
 import com.almasb.fxgl.core.concurrent.IOTask
 import com.almasb.fxgl.core.serialization.Bundle
 import com.almasb.fxgl.logging.Logger
+import com.almasb.fxgl.net.nio.NIOClient
+import com.almasb.fxgl.net.nio.NIOServer
 import com.almasb.fxgl.net.tcp.TCPClient
 import com.almasb.fxgl.net.tcp.TCPServer
 import com.almasb.fxgl.net.udp.UDPClient
@@ -44,10 +46,16 @@ class NetService : EngineService() {
     }
 
     fun newTCPServer(port: Int): Server<Bundle> = TCPServer(port, Bundle::class.java)
-    fun <T> newTCPServer(port: Int, config: ServerConfig<T>): Server<T> = TCPServer(port, config.messageType)
+    fun <T> newTCPServer(port: Int, config: ServerConfig<T>): Server<T> = when (config.transport) {
+        TCPTransport.NIO -> NIOServer(port, config.messageType)
+        else -> TCPServer(port, config.messageType, config.transport == TCPTransport.VIRTUAL_THREADS)
+    }
 
     fun newTCPClient(ip: String, port: Int): Client<Bundle> = TCPClient(ip, port, Bundle::class.java)
-    fun <T> newTCPClient(ip: String, port: Int,  config: ClientConfig<T>): Client<T> = TCPClient(ip, port, config.messageType)
+    fun <T> newTCPClient(ip: String, port: Int,  config: ClientConfig<T>): Client<T> = when (config.transport) {
+        TCPTransport.NIO -> NIOClient(ip, port, config.messageType)
+        else -> TCPClient(ip, port, config.messageType, config.transport == TCPTransport.VIRTUAL_THREADS)
+    }
 
     fun newUDPServer(port: Int): Server<Bundle> = UDPServer(port, UDPServerConfig(Bundle::class.java))
     fun <T> newUDPServer(port: Int, config: UDPServerConfig<T>): Server<T> = UDPServer(port, config)
@@ -32,6 +32,15 @@ interface UDPMessageReader<T> {
     fun read(data: ByteArray): T
 }
 
+/**
+ * A reader that can decode a message from part of an array,
+ * which allows the caller to reuse the array for the next message.
+ * The returned message must not refer to the array.
+ */
+interface UDPMessageRangeReader<T> : UDPMessageReader<T> {
+    fun read(data: ByteArray, offset: Int, length: Int): T
+}
+
 object Readers {
     private val log = Logger.get(javaClass)
 
@@ -40,7 +49,7 @@ object Readers {
 
     init {
         addTCPReader(Bundle::class.java, object : TCPReaderFactory<Bundle> {
-            override fun create(input: InputStream): TCPMessageReader<Bundle> = BundleTCPMessageReader(input)
+            override fun create(input: InputStream): TCPMessageReader<Bundle> = BinaryBundleTCPMessageReader(input)
         })
 
         addTCPReader(ByteArray::class.java, object : TCPReaderFactory<ByteArray> {
@@ -51,7 +60,9 @@ object Readers {
             override fun create(input: InputStream): TCPMessageReader<String> = StringTCPMessageReader(input)
         })
 
-        addUDPReader(Bundle::class.java, BundleUDPMessageReader())
+        addUDPReader(Bundle::class.java, BinaryBundleUDPMessageReader())
+        addUDPReader(ByteArray::class.java, ByteArrayUDPMessageReader())
+        addUDPReader(String::class.java, StringUDPMessageReader())
     }
 
     fun <T> addTCPReader(type: Class<T>, factory: TCPReaderFactory<T>) {
@@ -88,6 +99,21 @@ object Readers {
     }
 }
 
+/**
+ * Reads bundles written by [BinaryBundleTCPMessageWriter].
+ */
+class BinaryBundleTCPMessageReader(stream: InputStream) : TCPMessageReader<Bundle> {
+    private val stream = DataInputStream(stream)
+    private val decoder = BundleDecoder(true)
+
+    override fun read(): Bundle {
+        return decoder.decodeFrom(stream)
+    }
+}
+
+/**
+ * Reads bundles written by [BundleTCPMessageWriter].
+ */
 class BundleTCPMessageReader(stream: InputStream) : TCPMessageReader<Bundle> {
     private val inputStream = ObjectInputStream(stream)
 
@@ -127,10 +153,46 @@ class StringTCPMessageReader(inputStream: InputStream) : TCPMessageReader<String
     }
 }
 
+/**
+ * Reads bundles written by [BinaryBundleUDPMessageWriter].
+ * Can be used from multiple threads.
+ */
+class BinaryBundleUDPMessageReader : UDPMessageRangeReader<Bundle> {
+
+    private val decoder = ThreadLocal.withInitial { BundleDecoder(false) }
+
+    override fun read(data: ByteArray): Bundle {
+        return decoder.get().decode(data)
+    }
+
+    override fun read(data: ByteArray, offset: Int, length: Int): Bundle {
+        return decoder.get().decode(data, offset, length)
+    }
+}
+
+/**
+ * Reads bundles written by [BundleUDPMessageWriter].
+ */
 class BundleUDPMessageReader : UDPMessageReader<Bundle> {
     override fun read(data: ByteArray): Bundle {
         ObjectInputStream(ByteArrayInputStream(data)).use {
             return it.readObject() as Bundle
         }
     }
-}
\ No newline at end of file
+}
+
+class ByteArrayUDPMessageReader : UDPMessageReader<ByteArray> {
+    override fun read(data: ByteArray): ByteArray {
+        return data
+    }
+}
+
+class StringUDPMessageReader : UDPMessageRangeReader<String> {
+    override fun read(data: ByteArray): String {
+        return String(data, Charsets.UTF_16)
+    }
+
+    override fun read(data: ByteArray, offset: Int, length: Int): String {
+        return String(data, offset, length, Charsets.UTF_16)
+    }
+}
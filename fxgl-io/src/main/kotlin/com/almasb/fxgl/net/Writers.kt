@@ -41,7 +41,7 @@ object Writers {
     init {
         // these are built-in writers
         addTCPWriter(Bundle::class.java, object : TCPWriterFactory<Bundle> {
-            override fun create(out: OutputStream): TCPMessageWriter<Bundle> = BundleTCPMessageWriter(out)
+            override fun create(out: OutputStream): TCPMessageWriter<Bundle> = BinaryBundleTCPMessageWriter(out)
         })
 
         addTCPWriter(ByteArray::class.java, object : TCPWriterFactory<ByteArray> {
@@ -52,7 +52,9 @@ object Writers {
             override fun create(out: OutputStream): TCPMessageWriter<String> = StringTCPMessageWriter(out)
         })
 
-        addUDPWriter(Bundle::class.java, BundleUDPMessageWriter())
+        addUDPWriter(Bundle::class.java, BinaryBundleUDPMessageWriter())
+        addUDPWriter(ByteArray::class.java, ByteArrayUDPMessageWriter())
+        addUDPWriter(String::class.java, StringUDPMessageWriter())
     }
 
     fun <T> addTCPWriter(type: Class<T>, factory: TCPWriterFactory<T>) {
@@ -90,6 +92,21 @@ object Writers {
     }
 }
 
+/**
+ * Writes bundles in the binary format of [BundleEncoder], with keys interned for the lifetime of the connection.
+ */
+class BinaryBundleTCPMessageWriter(private val out: OutputStream) : TCPMessageWriter<Bundle> {
+
+    private val encoder = BundleEncoder(true)
+
+    override fun write(message: Bundle) {
+        encoder.encodeTo(message, out)
+    }
+}
+
+/**
+ * Writes bundles using Java serialization.
+ */
 class BundleTCPMessageWriter(out: OutputStream) : TCPMessageWriter<Bundle> {
 
     private val out = ObjectOutputStream(out)
@@ -118,6 +135,23 @@ class StringTCPMessageWriter(out: OutputStream) : TCPMessageWriter<String> {
     }
 }
 
+/**
+ * Writes bundles in the binary format of [BundleEncoder], with keys interned per message,
+ * since datagrams may be lost or reordered.
+ * Can be used from multiple threads.
+ */
+class BinaryBundleUDPMessageWriter : UDPMessageWriter<Bundle> {
+
+    private val encoder = ThreadLocal.withInitial { BundleEncoder(false) }
+
+    override fun write(data: Bundle): ByteArray {
+        return encoder.get().encode(data)
+    }
+}
+
+/**
+ * Writes bundles using Java serialization.
+ */
 class BundleUDPMessageWriter : UDPMessageWriter<Bundle> {
     override fun write(data: Bundle): ByteArray {
         return toByteArray(data)
@@ -128,4 +162,16 @@ class BundleUDPMessageWriter : UDPMessageWriter<Bundle> {
         ObjectOutputStream(baos).use { it.writeObject(data) }
         return baos.toByteArray()
     }
-}
\ No newline at end of file
+}
+
+class ByteArrayUDPMessageWriter : UDPMessageWriter<ByteArray> {
+    override fun write(data: ByteArray): ByteArray {
+        return data
+    }
+}
+
+class StringUDPMessageWriter : UDPMessageWriter<String> {
+    override fun write(data: String): ByteArray {
+        return data.toByteArray(Charsets.UTF_16)
+    }
+}
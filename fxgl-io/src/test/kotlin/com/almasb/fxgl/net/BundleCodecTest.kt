@@ -0,0 +1,176 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+@file:Suppress("JAVA_MODULE_DOES_NOT_DEPEND_ON_MODULE")
+package com.almasb.fxgl.net
+
+import com.almasb.fxgl.core.serialization.Bundle
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.io.*
+import java.time.LocalDate
+
+/**
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class BundleCodecTest {
+
+    @Test
+    fun `Encode and decode all supported values`() {
+        val bundle = newBundle()
+
+        val result = BundleDecoder(false).decode(BundleEncoder(false).encode(bundle))
+
+        assertBundle(result)
+    }
+
+    @Test
+    fun `Keys are interned across messages in a stream`() {
+        val out = ByteArrayOutputStream()
+        val writer = BinaryBundleTCPMessageWriter(out)
+
+        writer.write(newBundle())
+        val firstSize = out.size()
+
+        writer.write(newBundle())
+        val secondSize = out.size() - firstSize
+
+        assertThat(secondSize, lessThan(firstSize))
+
+        val reader = BinaryBundleTCPMessageReader(ByteArrayInputStream(out.toByteArray()))
+
+        assertBundle(reader.read())
+        assertBundle(reader.read())
+
+        assertThrows<EOFException> {
+            reader.read()
+        }
+    }
+
+    @Test
+    fun `Binary datagram is smaller than Java serialization`() {
+        val bundle = Bundle("Update")
+        bundle.put("id", 3)
+        bundle.put("x", 10.0)
+        bundle.put("y", 25.5)
+
+        val binary = BinaryBundleUDPMessageWriter().write(bundle)
+        val java = BundleUDPMessageWriter().write(bundle)
+
+        assertThat(binary.size, lessThan(java.size / 4))
+
+        val result = BinaryBundleUDPMessageReader().read(binary)
+
+        assertThat(result.get<Int>("id"), `is`(3))
+        assertThat(result.get<Double>("x"), `is`(10.0))
+        assertThat(result.get<Double>("y"), `is`(25.5))
+    }
+
+    @Test
+    fun `Binary datagram can be read from part of a reused array`() {
+        val binary = BinaryBundleUDPMessageWriter().write(newBundle())
+
+        val data = ByteArray(binary.size + 10)
+        System.arraycopy(binary, 0, data, 5, binary.size)
+
+        val result = BinaryBundleUDPMessageReader().read(data, 5, binary.size)
+
+        // the array is reused for the next message
+        data.fill(0)
+
+        assertBundle(result)
+    }
+
+    @Test
+    fun `Failed encode does not corrupt the key table`() {
+        val encoder = BundleEncoder(true)
+        val decoder = BundleDecoder(true)
+        val out = ByteArrayOutputStream()
+
+        val bad = Bundle("Bad")
+        bad.put("key", arrayListOf(Any()))
+
+        assertThrows<IllegalArgumentException> {
+            encoder.encodeTo(bad, out)
+        }
+
+        val good = Bundle("Bad")
+        good.put("key", 1)
+
+        encoder.encodeTo(good, out)
+
+        val result = decoder.decodeFrom(DataInputStream(ByteArrayInputStream(out.toByteArray())))
+
+        assertThat(result.name, `is`("Bad"))
+        assertThat(result.get<Int>("key"), `is`(1))
+    }
+
+    @Test
+    fun `Truncated data throws IOException`() {
+        val bytes = BundleEncoder(false).encode(newBundle())
+
+        assertThrows<IOException> {
+            BundleDecoder(false).decode(bytes, 0, bytes.size - 1)
+        }
+    }
+
+    @Test
+    fun `Frame length above max message size throws IOException`() {
+        val out = ByteArrayOutputStream()
+        DataOutputStream(out).writeInt(BundleDecoder.MAX_MESSAGE_SIZE + 1)
+
+        assertThrows<IOException> {
+            BundleDecoder(false).decodeFrom(DataInputStream(ByteArrayInputStream(out.toByteArray())))
+        }
+    }
+
+    private fun newBundle(): Bundle {
+        val child = Bundle("Child")
+        child.put("int", 7)
+
+        val bundle = Bundle("Root")
+        bundle.put("int", -5)
+        bundle.put("long", Long.MAX_VALUE)
+        bundle.put("double", 3.25)
+        bundle.put("float", -1.5f)
+        bundle.put("boolean", true)
+        bundle.put("byte", (-3).toByte())
+        bundle.put("short", (-300).toShort())
+        bundle.put("char", 'c')
+        bundle.put("string", "Hello 世界 😀")
+        bundle.put("bytes", byteArrayOf(1, 2, 3))
+        bundle.put("ints", intArrayOf(-1, 0, Int.MAX_VALUE))
+        bundle.put("longs", longArrayOf(Long.MIN_VALUE, 0L, 300L))
+        bundle.put("doubles", doubleArrayOf(0.5, -0.0))
+        bundle.put("child", child)
+        bundle.put("list", arrayListOf(1, "two", 3.0))
+        bundle.put("date", LocalDate.of(2020, 1, 1))
+        return bundle
+    }
+
+    private fun assertBundle(bundle: Bundle) {
+        assertThat(bundle.name, `is`("Root"))
+        assertThat(bundle.data.size, `is`(16))
+        assertThat(bundle.get<Int>("int"), `is`(-5))
+        assertThat(bundle.get<Long>("long"), `is`(Long.MAX_VALUE))
+        assertThat(bundle.get<Double>("double"), `is`(3.25))
+        assertThat(bundle.get<Float>("float"), `is`(-1.5f))
+        assertThat(bundle.get<Boolean>("boolean"), `is`(true))
+        assertThat(bundle.get<Byte>("byte"), `is`((-3).toByte()))
+        assertThat(bundle.get<Short>("short"), `is`((-300).toShort()))
+        assertThat(bundle.get<Char>("char"), `is`('c'))
+        assertThat(bundle.get<String>("string"), `is`("Hello 世界 😀"))
+        assertThat(bundle.get<ByteArray>("bytes"), `is`(byteArrayOf(1, 2, 3)))
+        assertThat(bundle.get<IntArray>("ints"), `is`(intArrayOf(-1, 0, Int.MAX_VALUE)))
+        assertThat(bundle.get<LongArray>("longs"), `is`(longArrayOf(Long.MIN_VALUE, 0L, 300L)))
+        assertThat(bundle.get<DoubleArray>("doubles").toList(), `is`(listOf(0.5, -0.0)))
+        assertThat(bundle.get<Bundle>("child").name, `is`("Child"))
+        assertThat(bundle.get<Bundle>("child").get<Int>("int"), `is`(7))
+        assertThat(bundle.get<List<Any>>("list"), contains<Any>(1, "two", 3.0))
+        assertThat(bundle.get<LocalDate>("date"), `is`(LocalDate.of(2020, 1, 1)))
+    }
+}
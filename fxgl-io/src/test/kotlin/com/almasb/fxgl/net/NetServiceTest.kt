@@ -273,6 +273,166 @@ class NetServiceTest {
         }
     }
 
+    @Test
+    @EnabledIfEnvironmentVariable(named = "CI", matches = "true")
+    fun `NIO ByteArray message handler`() {
+        var count = 0
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2)) {
+            val server = net.newTCPServer(TEST_PORT, ServerConfig(ByteArray::class.java, TCPTransport.NIO))
+
+            server.setOnConnected {
+                count++
+
+                // messages sent before stop are delivered, since stop() keeps existing connections
+                it.send(LOREM_IPSUM.toByteArray(Charsets.UTF_8))
+
+                it.send(byteArrayOf())
+
+                it.send(LARGE_DATA)
+
+                Thread(Runnable {
+                    Thread.sleep(500)
+
+                    server.stop()
+                }).start()
+            }
+
+            val client = net.newTCPClient("localhost", TEST_PORT, ClientConfig(ByteArray::class.java, TCPTransport.NIO))
+
+            client.setOnConnected {
+                count++
+
+                it.addMessageHandler { _, message ->
+
+                    if (count == 2) {
+
+                        assertThat(String(message, Charsets.UTF_8), `is`(LOREM_IPSUM))
+                        count++
+                    } else if (count == 3) {
+
+                        assertThat(message.size, `is`(0))
+                        count++
+
+                    } else if (count == 4) {
+
+                        assertThat(message, `is`(LARGE_DATA))
+                        count++
+                    }
+                }
+            }
+
+            server.listeningProperty().addListener { _, _, isListening ->
+                if (isListening) {
+                    client.connectTask().run()
+                }
+            }
+
+            server.startTask()
+                    .onFailure { e -> fail { "Server Start failed $e" } }
+                    .run()
+
+            assertThat(count, `is`(5))
+
+            client.disconnect()
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "CI", matches = "true")
+    fun `NIO connection close is noticed by both endpoints`() {
+        val numDisconnected = AtomicInteger(0)
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2)) {
+            val server = net.newTCPServer(TEST_PORT, ServerConfig(String::class.java, TCPTransport.NIO))
+            val client = net.newTCPClient("localhost", TEST_PORT, ClientConfig(String::class.java, TCPTransport.NIO))
+
+            server.setOnConnected {
+                it.addMessageHandler { connection, message ->
+                    if (message == "bye") {
+                        connection.terminate()
+                    }
+                }
+            }
+
+            server.setOnDisconnected {
+                numDisconnected.incrementAndGet()
+                server.stop()
+            }
+
+            client.setOnConnected {
+                it.send("hello")
+                it.send("bye")
+            }
+
+            client.setOnDisconnected {
+                numDisconnected.incrementAndGet()
+            }
+
+            server.listeningProperty().addListener { _, _, isListening ->
+                if (isListening) {
+                    client.connectTask().run()
+                }
+            }
+
+            server.startTask()
+                    .onFailure { e -> fail { "Server Start failed $e" } }
+                    .run()
+
+            while (numDisconnected.get() < 2) {
+                Thread.sleep(10)
+            }
+
+            assertThat(server.connections.size, `is`(0))
+            assertThat(client.connections.size, `is`(0))
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "CI", matches = "true")
+    fun `TCP with virtual threads String message handler`() {
+        var count = 0
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2)) {
+            val server = net.newTCPServer(TEST_PORT, ServerConfig(String::class.java, TCPTransport.VIRTUAL_THREADS))
+
+            server.setOnConnected {
+                count++
+
+                Thread(Runnable {
+                    it.send("Hello world")
+
+                    Thread.sleep(500)
+
+                    server.stop()
+                }).start()
+            }
+
+            val client = net.newTCPClient("localhost", TEST_PORT, ClientConfig(String::class.java, TCPTransport.VIRTUAL_THREADS))
+
+            client.setOnConnected {
+                count++
+
+                it.addMessageHandler { _, message ->
+                    assertThat(message, `is`("Hello world"))
+                    count++
+                }
+            }
+
+            server.listeningProperty().addListener { _, _, isListening ->
+                if (isListening) {
+                    client.connectTask().run()
+                }
+            }
+
+            server.startTask()
+                    .onFailure { e -> fail { "Server Start failed $e" } }
+                    .run()
+
+            assertThat(count, `is`(3))
+        }
+    }
+
     @Test
     @EnabledIfEnvironmentVariable(named = "CI", matches = "true")
     fun `UDP Bundle message test`() {
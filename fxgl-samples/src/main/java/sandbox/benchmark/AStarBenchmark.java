@@ -0,0 +1,187 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.core.collection.grid.NeighborDirection;
+import com.almasb.fxgl.pathfinding.CellState;
+import com.almasb.fxgl.pathfinding.astar.AStarCell;
+import com.almasb.fxgl.pathfinding.astar.AStarGrid;
+import com.almasb.fxgl.pathfinding.astar.AStarPathfinder;
+import com.almasb.fxgl.pathfinding.heuristic.ManhattanDistance;
+import com.almasb.fxgl.pathfinding.heuristic.OctileDistance;
+
+import java.util.*;
+
+/**
+ * A headless benchmark that compares {@link AStarPathfinder} against the previous A* implementation
+ * (full grid reset per search, linear scan of a hash set for the minimum F cost), which is kept below as a baseline.
+ * Simulates a number of agents each requesting a path on a large map with random obstacles.
+ *
+ * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
+ */
+public class AStarBenchmark {
+
+    private static final int MAP_SIZE = 512;
+    private static final int NUM_AGENTS = 300;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        var grid = new AStarGrid(MAP_SIZE, MAP_SIZE);
+
+        var random = new Random(42);
+
+        grid.forEach(cell -> {
+            if (random.nextDouble() < 0.2) {
+                cell.setState(CellState.NOT_WALKABLE);
+            }
+        });
+
+        int[][] queries = new int[NUM_AGENTS][4];
+        for (int[] q : queries) {
+            q[0] = random.nextInt(MAP_SIZE);
+            q[1] = random.nextInt(MAP_SIZE);
+            q[2] = random.nextInt(MAP_SIZE);
+            q[3] = random.nextInt(MAP_SIZE);
+        }
+
+        var pathfinder = new AStarPathfinder<>(grid);
+        var baseline = new BaselineAStar(grid);
+
+        for (var direction : NeighborDirection.values()) {
+            System.out.println(direction + ", " + NUM_AGENTS + " paths on " + MAP_SIZE + "x" + MAP_SIZE);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                int found = 0;
+
+                for (int[] q : queries) {
+                    if (!baseline.findPath(grid.get(q[0], q[1]), grid.get(q[2], q[3]), direction).isEmpty())
+                        found++;
+                }
+
+                long baselineTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int found2 = 0;
+
+                for (int[] q : queries) {
+                    if (!pathfinder.findPath(q[0], q[1], q[2], q[3], direction).isEmpty())
+                        found2++;
+                }
+
+                long time = System.nanoTime() - start;
+
+                System.out.printf("round %d: baseline %8.2f ms, binary heap %8.2f ms (found %d / %d)%n",
+                        round, baselineTime / 1_000_000.0, time / 1_000_000.0, found, found2);
+            }
+        }
+    }
+
+    /**
+     * The A* implementation prior to the binary heap version.
+     */
+    private static final class BaselineAStar {
+
+        private final AStarGrid grid;
+
+        private final ManhattanDistance<AStarCell> defaultHeuristic = new ManhattanDistance<>();
+        private final OctileDistance<AStarCell> diagonalHeuristic = new OctileDistance<>();
+
+        BaselineAStar(AStarGrid grid) {
+            this.grid = grid;
+        }
+
+        List<AStarCell> findPath(AStarCell start, AStarCell target, NeighborDirection neighborDirection) {
+            if (start == target || target.getState() == CellState.NOT_WALKABLE)
+                return Collections.emptyList();
+
+            var heuristic = neighborDirection == NeighborDirection.FOUR_DIRECTIONS ? defaultHeuristic : diagonalHeuristic;
+
+            AStarCell[][] data = grid.getData();
+
+            for (int y = 0; y < data[0].length; y++) {
+                for (int x = 0; x < data.length; x++) {
+                    data[x][y].setHCost(heuristic.getCost(x, y, target.getX(), target.getY()));
+                    data[x][y].setParent(null);
+                    data[x][y].setGCost(0);
+                }
+            }
+
+            Set<AStarCell> open = new HashSet<>();
+            Set<AStarCell> closed = new HashSet<>();
+
+            AStarCell current = start;
+
+            boolean found = false;
+
+            while (!found && !closed.contains(target)) {
+                var neighbors = grid.getNeighbors(current.getX(), current.getY(), neighborDirection);
+                var node = current;
+                neighbors.removeIf(cell -> !grid.isTraversableInSingleMove(node, cell));
+
+                for (AStarCell neighbor : neighbors) {
+                    if (neighbor == target) {
+                        target.setParent(current);
+                        found = true;
+                        closed.add(target);
+                        break;
+                    }
+
+                    if (!closed.contains(neighbor)) {
+                        boolean isDiagonal = neighbor.getX() != current.getX() && neighbor.getY() != current.getY();
+
+                        int gCost = isDiagonal
+                                ? diagonalHeuristic.getDiagonalWeight()
+                                : defaultHeuristic.getWeight();
+
+                        int newGCost = current.getGCost() + gCost * neighbor.getMovementCost();
+
+                        if (open.contains(neighbor)) {
+                            if (newGCost < neighbor.getGCost()) {
+                                neighbor.setParent(current);
+                                neighbor.setGCost(newGCost);
+                            }
+                        } else {
+                            neighbor.setParent(current);
+                            neighbor.setGCost(newGCost);
+                            open.add(neighbor);
+                        }
+                    }
+                }
+
+                if (!found) {
+                    closed.add(current);
+                    open.remove(current);
+
+                    if (open.isEmpty())
+                        return Collections.emptyList();
+
+                    AStarCell acc = null;
+
+                    for (AStarCell a : open) {
+                        if (acc == null || a.getFCost() < acc.getFCost()) {
+                            acc = a;
+                        }
+                    }
+
+                    current = acc;
+                }
+            }
+
+            List<AStarCell> path = new ArrayList<>();
+
+            AStarCell tmp = target;
+            do {
+                path.add(tmp);
+                tmp = tmp.getParent();
+            } while (tmp != start);
+
+            Collections.reverse(path);
+            return path;
+        }
+    }
+}
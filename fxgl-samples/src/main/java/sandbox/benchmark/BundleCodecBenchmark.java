@@ -0,0 +1,141 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.core.serialization.Bundle;
+import com.almasb.fxgl.net.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A headless benchmark that compares the binary bundle codec against Java serialization,
+ * which was previously used to send bundles.
+ * Measures message size and encode + decode throughput of small replication messages,
+ * both for datagrams (UDP, one message per array) and streams (TCP, one stream per connection).
+ *
+ * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
+ */
+public class BundleCodecBenchmark {
+
+    private static final int NUM_MESSAGES = 100_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        var random = new Random(42);
+
+        List<Bundle> messages = new ArrayList<>();
+
+        for (int i = 0; i < NUM_MESSAGES; i++) {
+            messages.add(newReplicationMessage(random, i));
+        }
+
+        printSizes(messages.get(0));
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.printf("round %d: datagram  java %8.2f ms, binary %8.2f ms%n",
+                    round,
+                    timeDatagrams(messages, new BundleUDPMessageWriter(), new BundleUDPMessageReader()),
+                    timeDatagrams(messages, new BinaryBundleUDPMessageWriter(), new BinaryBundleUDPMessageReader()));
+
+            System.out.printf("round %d: stream    java %8.2f ms, binary %8.2f ms%n",
+                    round,
+                    timeStream(messages, false),
+                    timeStream(messages, true));
+        }
+    }
+
+    /**
+     * A typical entity state update.
+     */
+    private static Bundle newReplicationMessage(Random random, int id) {
+        var bundle = new Bundle("EntityUpdate");
+        bundle.put("id", id);
+        bundle.put("type", "enemy");
+        bundle.put("x", random.nextDouble() * 1000);
+        bundle.put("y", random.nextDouble() * 1000);
+        bundle.put("hp", random.nextInt(100));
+        bundle.put("isAlive", true);
+
+        var velocity = new Bundle("Velocity");
+        velocity.put("x", random.nextDouble());
+        velocity.put("y", random.nextDouble());
+
+        bundle.put("velocity", velocity);
+        return bundle;
+    }
+
+    private static void printSizes(Bundle message) throws Exception {
+        int javaDatagram = new BundleUDPMessageWriter().write(message).length;
+        int binaryDatagram = new BinaryBundleUDPMessageWriter().write(message).length;
+
+        System.out.println("datagram size: java " + javaDatagram + " bytes, binary " + binaryDatagram + " bytes");
+
+        for (var isBinary : new boolean[] { false, true }) {
+            var out = new ByteArrayOutputStream();
+            var writer = isBinary ? new BinaryBundleTCPMessageWriter(out) : new BundleTCPMessageWriter(out);
+
+            writer.write(message);
+            int first = out.size();
+
+            // a new instance with the same content, as would be sent next frame
+            writer.write(newReplicationMessage(new Random(0), 1));
+            int second = out.size() - first;
+
+            System.out.println("stream size (" + (isBinary ? "binary" : "java") + "): first message " + first + " bytes, next " + second + " bytes");
+        }
+    }
+
+    private static double timeDatagrams(List<Bundle> messages, UDPMessageWriter<Bundle> writer, UDPMessageReader<Bundle> reader) {
+        long start = System.nanoTime();
+        long check = 0;
+
+        for (var message : messages) {
+            Bundle result = reader.read(writer.write(message));
+            check += result.<Integer>get("id");
+        }
+
+        long time = System.nanoTime() - start;
+
+        if (check < 0)
+            System.out.println(check);
+
+        return time / 1_000_000.0;
+    }
+
+    private static double timeStream(List<Bundle> messages, boolean isBinary) throws Exception {
+        var out = new ByteArrayOutputStream(NUM_MESSAGES * 64);
+
+        long start = System.nanoTime();
+
+        TCPMessageWriter<Bundle> writer = isBinary ? new BinaryBundleTCPMessageWriter(out) : new BundleTCPMessageWriter(out);
+
+        for (var message : messages) {
+            writer.write(message);
+        }
+
+        var in = new ByteArrayInputStream(out.toByteArray());
+
+        TCPMessageReader<Bundle> reader = isBinary ? new BinaryBundleTCPMessageReader(in) : new BundleTCPMessageReader(in);
+
+        long check = 0;
+
+        for (int i = 0; i < messages.size(); i++) {
+            check += reader.read().<Integer>get("id");
+        }
+
+        long time = System.nanoTime() - start;
+
+        if (check < 0)
+            System.out.println(check);
+
+        return time / 1_000_000.0;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.input.Input;
+import com.almasb.fxgl.input.InputRecorder;
+import com.almasb.fxgl.input.InputReplay;
+import com.almasb.fxgl.input.UserAction;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * A headless benchmark that records one hour of input at 60 frames per second
+ * (key taps, mouse moves and clicks) to a file with {@link InputRecorder},
+ * then replays it with {@link InputReplay} as fast as possible.
+ * Reports the recording size and replay speed relative to real time.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class InputReplayBenchmark {
+
+    private static final int FRAMES = 60 * 60 * 60;
+
+    private static final KeyCode[] KEYS = { KeyCode.W, KeyCode.A, KeyCode.S, KeyCode.D, KeyCode.SPACE };
+
+    private static int count = 0;
+
+    public static void main(String[] args) throws IOException {
+        var file = Files.createTempFile("fxgl-input", ".bin");
+
+        try {
+            var input = newInput();
+            var random = new Random(0);
+
+            try (var recorder = new InputRecorder(Files.newOutputStream(file))) {
+                input.startRecording(recorder);
+
+                for (int frame = 0; frame < FRAMES; frame++) {
+                    // a key is tapped roughly every 10 frames and the mouse is clicked roughly every 30 frames
+                    if (random.nextInt(10) == 0) {
+                        var key = KEYS[random.nextInt(KEYS.length)];
+
+                        input.mockKeyPress(key);
+                        input.mockKeyRelease(key);
+                    }
+
+                    if (random.nextInt(30) == 0) {
+                        input.mockButtonPress(MouseButton.PRIMARY, random.nextInt(1280), random.nextInt(720));
+                        input.mockButtonRelease(MouseButton.PRIMARY);
+                    }
+
+                    input.update(1 / 60.0);
+                }
+
+                input.stopRecording();
+            }
+
+            int recordedCount = count;
+
+            System.out.printf("recording: %d frames, %d bytes (%.2f bytes / frame)%n",
+                    FRAMES, Files.size(file), Files.size(file) / (double) FRAMES);
+
+            for (int round = 0; round < 5; round++) {
+                count = 0;
+
+                var replayInput = newInput();
+
+                try (var replay = new InputReplay(Files.newInputStream(file))) {
+                    long start = System.nanoTime();
+
+                    long frames = replay.play(replayInput, replayInput::update);
+
+                    double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+                    System.out.printf("replay:    %d frames in %.3f s (%.0fx real time), actions match: %b%n",
+                            frames, seconds, frames * replay.getTpf() / seconds, count == recordedCount);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Input newInput() {
+        var input = new Input();
+
+        for (var key : KEYS) {
+            input.addAction(new UserAction("Key " + key) {
+                @Override
+                protected void onActionBegin() {
+                    count++;
+                }
+            }, key);
+        }
+
+        input.addAction(new UserAction("Shoot") {
+            @Override
+            protected void onActionBegin() {
+                count++;
+            }
+        }, MouseButton.PRIMARY);
+
+        return input;
+    }
+}
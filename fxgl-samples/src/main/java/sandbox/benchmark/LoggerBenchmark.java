@@ -0,0 +1,75 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.logging.AsyncFileOutput;
+import com.almasb.fxgl.logging.FileOutput;
+import com.almasb.fxgl.logging.Logger;
+import com.almasb.fxgl.logging.LoggerLevel;
+import com.almasb.fxgl.logging.LoggerOutput;
+
+import java.nio.file.Files;
+
+/**
+ * A headless benchmark that measures the cost of a single log call on the calling (game) thread,
+ * with {@link FileOutput}, which formats and keeps every message in memory on the calling thread,
+ * and {@link AsyncFileOutput}, which hands the message to a background writer thread.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class LoggerBenchmark {
+
+    private static final int WARMUP_CALLS = 100_000;
+    private static final int MEASURED_CALLS = 200_000;
+
+    // roughly a frame's worth of log calls, followed by a pause as in a game loop
+    private static final int CALLS_PER_BURST = 200;
+
+    public static void main(String[] args) throws Exception {
+        var dir = Files.createTempDirectory("fxgl-log-benchmark").toString() + "/";
+
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("round %d: FileOutput %6.0f ns / call, AsyncFileOutput (DROP) %6.0f ns / call, AsyncFileOutput (BLOCK) %6.0f ns / call%n",
+                    round,
+                    run(new FileOutput("sync", dir, 100)),
+                    run(new AsyncFileOutput("async", dir, 100, 10L * 1024 * 1024, 8192, 1000L, AsyncFileOutput.OverflowPolicy.DROP)),
+                    run(new AsyncFileOutput("async", dir, 100, 10L * 1024 * 1024, 8192, 1000L, AsyncFileOutput.OverflowPolicy.BLOCK)));
+        }
+    }
+
+    private static double run(LoggerOutput output) throws Exception {
+        var log = Logger.get(LoggerBenchmark.class);
+
+        Logger.addOutput(output, LoggerLevel.DEBUG);
+
+        long time = 0;
+
+        for (int i = 0; i < WARMUP_CALLS + MEASURED_CALLS; i++) {
+            long start = System.nanoTime();
+
+            log.debug("Entity spawned at frame " + i);
+
+            if (i >= WARMUP_CALLS) {
+                time += System.nanoTime() - start;
+            }
+
+            if (i % CALLS_PER_BURST == 0) {
+                Thread.sleep(1);
+            }
+        }
+
+        Logger.removeOutput(output, LoggerLevel.DEBUG);
+
+        if (output instanceof AsyncFileOutput async && async.getNumDropped() > 0) {
+            System.out.printf("(%d messages dropped)%n", async.getNumDropped());
+        }
+
+        output.close();
+
+        return time / (double) MEASURED_CALLS;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.entity.components.TransformComponent;
+import com.almasb.fxgl.physics.BoundingShape;
+import com.almasb.fxgl.physics.CollisionResult;
+import com.almasb.fxgl.physics.HitBox;
+import com.almasb.fxgl.physics.Narrowphase;
+import com.almasb.fxgl.physics.SAT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A headless benchmark that measures the cost of a hit box pair test with the oriented box check ({@link SAT}),
+ * the shape-accurate {@link Narrowphase} on the calling thread and its batched mode for different numbers of threads.
+ * Pairs are random circles, boxes, capsules and polygons close enough that their bounding boxes often overlap.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class NarrowphaseBenchmark {
+
+    private static final int NUM_PAIRS = 100_000;
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        List<CollisionResult> pairs = createPairs(new Random(0));
+        boolean[] hits = new boolean[pairs.size()];
+
+        System.out.printf("%-20s %12s %8s%n", "mode", "ns / pair", "hits");
+
+        System.out.printf("%-20s %12.1f %8d%n", "SAT (boxes)", run(() -> {
+            for (int i = 0; i < pairs.size(); i++) {
+                hits[i] = SAT.isColliding(pairs.get(i).getBoxA(), pairs.get(i).getBoxB());
+            }
+        }), count(hits));
+
+        System.out.printf("%-20s %12.1f %8d%n", "narrowphase", run(() -> {
+            for (int i = 0; i < pairs.size(); i++) {
+                CollisionResult pair = pairs.get(i);
+                hits[i] = Narrowphase.collide(pair.getBoxA(), pair.getBoxB(), pair);
+            }
+        }), count(hits));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            var pool = new ForkJoinPool(threads);
+
+            System.out.printf("%-20s %12.1f %8d%n", "batched, " + threads + " threads", run(() -> {
+                Narrowphase.collideAll(pairs, hits, pool);
+            }), count(hits));
+
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return average time per pair in nanoseconds
+     */
+    private static double run(Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+
+        return (System.nanoTime() - start) / (double) MEASURED_ROUNDS / NUM_PAIRS;
+    }
+
+    private static int count(boolean[] hits) {
+        int count = 0;
+
+        for (boolean hit : hits) {
+            if (hit) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static List<CollisionResult> createPairs(Random random) {
+        List<CollisionResult> pairs = new ArrayList<>(NUM_PAIRS);
+
+        for (int i = 0; i < NUM_PAIRS; i++) {
+            var pair = new CollisionResult();
+            pair.init(createHitBox(random), createHitBox(random));
+
+            pairs.add(pair);
+        }
+
+        return pairs;
+    }
+
+    private static HitBox createHitBox(Random random) {
+        BoundingShape shape = switch (random.nextInt(4)) {
+            case 0 -> BoundingShape.circle(5 + random.nextInt(10));
+            case 1 -> BoundingShape.box(10 + random.nextInt(20), 10 + random.nextInt(20));
+            case 2 -> BoundingShape.capsule(20 + random.nextInt(20), 10);
+            default -> BoundingShape.polygon(0, 0, 20, 5, 15, 20, 2, 12);
+        };
+
+        var box = new HitBox(shape);
+
+        var transform = new TransformComponent(random.nextInt(40), random.nextInt(40), random.nextInt(360), 1, 1);
+        box.applyTransform(transform);
+
+        return box;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.core.math.Vec2;
+import com.almasb.fxgl.physics.box2d.collision.shapes.PolygonShape;
+import com.almasb.fxgl.physics.box2d.dynamics.Body;
+import com.almasb.fxgl.physics.box2d.dynamics.BodyDef;
+import com.almasb.fxgl.physics.box2d.dynamics.BodyType;
+import com.almasb.fxgl.physics.box2d.dynamics.World;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A headless benchmark that compares sequential and parallel island solving of the jbox2d world
+ * for different body counts and numbers of threads.
+ * Bodies are grouped into independent piles of boxes, so each pile is an island.
+ * Sleeping is disabled, so that all islands are solved every step.
+ *
+ * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
+ */
+public class ParallelIslandsBenchmark {
+
+    private static final int PILE_HEIGHT = 10;
+
+    private static final int WARMUP_STEPS = 200;
+    private static final int MEASURED_STEPS = 300;
+
+    public static void main(String[] args) {
+        int[] bodyCounts = { 500, 2000, 8000 };
+
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%8s %8s %12s%n", "bodies", "threads", "ms / step");
+
+        for (int numBodies : bodyCounts) {
+            System.out.printf("%8d %8s %12.3f%n", numBodies, "seq", run(numBodies, null));
+
+            for (int threads = 1; threads <= cores; threads *= 2) {
+                var pool = new ForkJoinPool(threads);
+
+                System.out.printf("%8d %8d %12.3f%n", numBodies, threads, run(numBodies, pool));
+
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @param pool pool to solve islands with or null for sequential solving
+     * @return average time of a step in milliseconds
+     */
+    private static double run(int numBodies, ForkJoinPool pool) {
+        World world = createWorld(numBodies);
+
+        if (pool != null) {
+            world.setParallelSolve(true);
+            world.setParallelSolvePool(pool);
+        }
+
+        for (int i = 0; i < WARMUP_STEPS; i++) {
+            world.step(1 / 60f, 8, 3);
+        }
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < MEASURED_STEPS; i++) {
+            world.step(1 / 60f, 8, 3);
+        }
+
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_STEPS;
+    }
+
+    private static World createWorld(int numBodies) {
+        World world = new World(new Vec2(0, -10));
+        world.setAllowSleep(false);
+
+        int numPiles = numBodies / PILE_HEIGHT;
+
+        PolygonShape groundShape = new PolygonShape();
+        groundShape.setAsBox(numPiles * 2.5f, 1);
+
+        Body ground = world.createBody(new BodyDef());
+        ground.createFixture(groundShape, 0);
+
+        PolygonShape boxShape = new PolygonShape();
+        boxShape.setAsBox(0.5f, 0.5f);
+
+        for (int pile = 0; pile < numPiles; pile++) {
+            for (int i = 0; i < PILE_HEIGHT; i++) {
+                BodyDef def = new BodyDef();
+                def.setType(BodyType.DYNAMIC);
+                def.setPosition(new Vec2(-numPiles * 2.5f + pile * 5f, 1.5f + i * 1.05f));
+
+                world.createBody(def).createFixture(boxShape, 1);
+            }
+        }
+
+        return world;
+    }
+}
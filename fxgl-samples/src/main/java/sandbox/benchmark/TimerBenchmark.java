@@ -0,0 +1,152 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.time.Timer;
+import com.almasb.fxgl.time.TimerAction;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A headless benchmark that measures {@link Timer} with 100k concurrent actions at 60 frames per second:
+ * scheduling and running one-shot actions (e.g. damage-over-time ticks, cooldowns),
+ * cancelling them and updating repeating actions.
+ * For comparison, the previous approach (each action updated every frame in a copy-on-write list,
+ * expired actions removed one by one) is measured with 10k actions, since it is quadratic.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class TimerBenchmark {
+
+    private static final int NUM_ACTIONS = 100_000;
+    private static final int NUM_ACTIONS_LIST = 10_000;
+
+    private static final double TPF = 1 / 60.0;
+
+    private static int count = 0;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("round %d%n", round);
+
+            runOnce();
+            cancel();
+            repeating();
+            runOnceList();
+        }
+    }
+
+    private static void runOnce() {
+        var timer = new Timer();
+        var random = new Random(0);
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < NUM_ACTIONS; i++) {
+            timer.runOnceAfter(TimerBenchmark::onAction, Duration.seconds(random.nextDouble() * 10));
+        }
+
+        long scheduled = System.nanoTime();
+
+        int frames = run(timer);
+
+        System.out.printf("  one-shot:   %8.1f ns / schedule, %8.1f us / frame over %d frames%n",
+                (scheduled - start) / (double) NUM_ACTIONS,
+                (System.nanoTime() - scheduled) / 1000.0 / frames,
+                frames);
+    }
+
+    private static void cancel() {
+        var timer = new Timer();
+        var random = new Random(0);
+
+        List<TimerAction> actions = new ArrayList<>(NUM_ACTIONS);
+
+        for (int i = 0; i < NUM_ACTIONS; i++) {
+            actions.add(timer.runOnceAfter(TimerBenchmark::onAction, Duration.seconds(random.nextDouble() * 10)));
+        }
+
+        long start = System.nanoTime();
+
+        actions.forEach(TimerAction::expire);
+
+        System.out.printf("  cancel:     %8.1f ns / cancel%n", (System.nanoTime() - start) / (double) NUM_ACTIONS);
+    }
+
+    private static void repeating() {
+        var timer = new Timer();
+        var random = new Random(0);
+
+        for (int i = 0; i < NUM_ACTIONS; i++) {
+            timer.runAtInterval(TimerBenchmark::onAction, Duration.seconds(0.5 + random.nextDouble() * 1.5));
+        }
+
+        int frames = 600;
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < frames; i++) {
+            timer.update(TPF);
+        }
+
+        System.out.printf("  repeating:  %8.1f us / frame%n", (System.nanoTime() - start) / 1000.0 / frames);
+    }
+
+    /**
+     * Same as previous Timer.update(): each action is updated every frame and expired actions are removed one by one.
+     */
+    private static void runOnceList() {
+        // only used to create actions, which are then updated manually
+        var timer = new Timer();
+        var random = new Random(0);
+
+        var actions = new CopyOnWriteArrayList<TimerAction>();
+
+        for (int i = 0; i < NUM_ACTIONS_LIST; i++) {
+            actions.add(timer.runOnceAfter(TimerBenchmark::onAction, Duration.seconds(random.nextDouble() * 10)));
+        }
+
+        long start = System.nanoTime();
+
+        int frames = 0;
+
+        while (!actions.isEmpty()) {
+            actions.forEach(action -> {
+                action.update(TPF);
+
+                if (action.isExpired())
+                    actions.remove(action);
+            });
+
+            frames++;
+        }
+
+        System.out.printf("  list (%dk): %8.1f us / frame over %d frames%n",
+                NUM_ACTIONS_LIST / 1000,
+                (System.nanoTime() - start) / 1000.0 / frames,
+                frames);
+    }
+
+    private static int run(Timer timer) {
+        int frames = 0;
+
+        while (timer.getNumActions() > 0) {
+            timer.update(TPF);
+            frames++;
+        }
+
+        return frames;
+    }
+
+    private static void onAction() {
+        count++;
+    }
+}
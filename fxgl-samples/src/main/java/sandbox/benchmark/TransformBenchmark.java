@@ -0,0 +1,106 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.entity.Entity;
+import com.almasb.fxgl.entity.GameWorld;
+import com.almasb.fxgl.entity.components.TransformComponent;
+import com.almasb.fxgl.physics.BoundingShape;
+import com.almasb.fxgl.physics.HitBox;
+import javafx.scene.shape.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A headless benchmark that measures memory per entity (with a view and a hit box) in a game world
+ * and the cost of translating entities, including the view and game world (spatial index) update,
+ * with normal transforms (views and hit boxes are bound to transform properties)
+ * and lightweight transforms (views are updated once per frame, see {@link TransformComponent#isLightweight()}).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class TransformBenchmark {
+
+    private static final int NUM_ENTITIES = 20_000;
+
+    private static final int WARMUP_FRAMES = 100;
+    private static final int MEASURED_FRAMES = 300;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            run(false);
+            run(true);
+        }
+    }
+
+    private static void run(boolean isLightweight) {
+        TransformComponent.setLightweightByDefault(isLightweight);
+
+        long memoryBefore = usedMemory();
+
+        var world = new GameWorld();
+
+        List<Entity> entities = new ArrayList<>(NUM_ENTITIES);
+
+        for (int i = 0; i < NUM_ENTITIES; i++) {
+            var e = new Entity();
+            e.getViewComponent().addChild(new Rectangle(10, 10));
+            e.getBoundingBoxComponent().addHitBox(new HitBox(BoundingShape.box(10, 10)));
+
+            entities.add(e);
+            world.addEntity(e);
+        }
+
+        long bytesPerEntity = (usedMemory() - memoryBefore) / NUM_ENTITIES;
+
+        long time = 0;
+        double checksum = 0;
+
+        for (int frame = 0; frame < WARMUP_FRAMES + MEASURED_FRAMES; frame++) {
+            long start = System.nanoTime();
+
+            // a typical frame: entities move, the world is updated, then the game scene pushes changes to views
+            for (int i = 0; i < entities.size(); i++) {
+                entities.get(i).translate(1, 0.5);
+            }
+
+            world.onUpdate(1 / 60.0);
+
+            for (int i = 0; i < entities.size(); i++) {
+                entities.get(i).getViewComponent().syncTransform();
+            }
+
+            // collision checks then read world bounds
+            for (int i = 0; i < entities.size(); i++) {
+                checksum += entities.get(i).getBoundingBoxComponent().hitBoxesProperty().get(0).getMinXWorld();
+            }
+
+            if (frame >= WARMUP_FRAMES) {
+                time += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("%-12s %8d bytes / entity %10.1f ns / entity / frame (checksum %.0f)%n",
+                isLightweight ? "lightweight" : "normal",
+                bytesPerEntity,
+                time / (double) MEASURED_FRAMES / NUM_ENTITIES,
+                checksum);
+
+        TransformComponent.setLightweightByDefault(false);
+    }
+
+    private static long usedMemory() {
+        var runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
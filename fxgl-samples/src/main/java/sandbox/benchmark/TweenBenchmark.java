@@ -0,0 +1,109 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.animation.Animation;
+import com.almasb.fxgl.animation.AnimationBuilder;
+import com.almasb.fxgl.animation.TweenSystem;
+import com.almasb.fxgl.entity.Entity;
+import javafx.geometry.Point2D;
+import javafx.util.Duration;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A headless benchmark that spawns 10k translate tweens (e.g. damage numbers, particles, pickups)
+ * and runs them to the end at 60 frames per second,
+ * with one {@link Animation} per entity (built by {@link AnimationBuilder})
+ * and with a single {@link TweenSystem}.
+ * Reports the time per tween per frame and bytes allocated while spawning and running.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class TweenBenchmark {
+
+    private static final int NUM_TWEENS = 10_000;
+
+    private static final double TPF = 1 / 60.0;
+
+    // 2 seconds
+    private static final int FRAMES = 120;
+
+    public static void main(String[] args) {
+        List<Entity> entities = new ArrayList<>(NUM_TWEENS);
+
+        for (int i = 0; i < NUM_TWEENS; i++) {
+            entities.add(new Entity());
+        }
+
+        var tweens = new TweenSystem(NUM_TWEENS);
+
+        for (int round = 0; round < 5; round++) {
+            System.out.printf("round %d%n", round);
+
+            animations(entities);
+            tweens(entities, tweens);
+        }
+    }
+
+    private static void animations(List<Entity> entities) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        List<Animation<?>> animations = new ArrayList<>(NUM_TWEENS);
+
+        for (int i = 0; i < NUM_TWEENS; i++) {
+            var animation = new AnimationBuilder()
+                    .duration(Duration.seconds(FRAMES * TPF))
+                    .translate(entities.get(i))
+                    .from(new Point2D(0, 0))
+                    .to(new Point2D(i, i))
+                    .build();
+
+            animation.start();
+            animations.add(animation);
+        }
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (int i = 0; i < animations.size(); i++) {
+                animations.get(i).onUpdate(TPF);
+            }
+        }
+
+        report("animations", start, allocatedBefore);
+    }
+
+    private static void tweens(List<Entity> entities, TweenSystem tweens) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < NUM_TWEENS; i++) {
+            tweens.translate(entities.get(i), 0, 0, i, i, FRAMES * TPF);
+        }
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            tweens.onUpdate(TPF);
+        }
+
+        report("tween system", start, allocatedBefore);
+    }
+
+    private static void report(String name, long start, long allocatedBefore) {
+        System.out.printf("  %-12s %8.1f ns / tween / frame, %10d bytes allocated%n",
+                name,
+                (System.nanoTime() - start) / (double) FRAMES / NUM_TWEENS,
+                allocatedBytes() - allocatedBefore);
+    }
+
+    private static long allocatedBytes() {
+        var bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
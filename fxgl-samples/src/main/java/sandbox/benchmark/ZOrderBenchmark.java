@@ -0,0 +1,130 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package sandbox.benchmark;
+
+import com.almasb.fxgl.app.scene.GameScene;
+import com.almasb.fxgl.app.scene.GameView;
+import com.almasb.fxgl.entity.GameWorld;
+import com.almasb.fxgl.physics.PhysicsWorld;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A headless benchmark that measures the cost per frame of keeping game views in z order,
+ * as in a y-sorted scene where a fraction of views change z every frame.
+ * Compares incremental z-order maintenance in {@link GameScene} against the previous approach
+ * (copy all children, sort by z via node properties, setAll), which is kept below as a baseline.
+ *
+ * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
+ */
+public class ZOrderBenchmark {
+
+    private static final int NUM_VIEWS = 10_000;
+    private static final double CHANGED_FRACTION = 0.05;
+    private static final int MAX_Z = 2000;
+
+    private static final int WARMUP_FRAMES = 200;
+    private static final int MEASURED_FRAMES = 500;
+
+    public static void main(String[] args) {
+        System.out.printf("%d views, %.0f%% change z per frame%n", NUM_VIEWS, CHANGED_FRACTION * 100);
+
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("round %d: full sort %8.3f ms / frame, incremental %8.3f ms / frame%n",
+                    round,
+                    runFullSort(),
+                    runIncremental());
+        }
+    }
+
+    private static double runIncremental() {
+        var scene = new GameScene(1280, 720, new GameWorld(), new PhysicsWorld(720, 50.0));
+
+        var random = new Random(42);
+        var views = new ArrayList<GameView>();
+
+        for (int i = 0; i < NUM_VIEWS; i++) {
+            var view = new GameView(new Rectangle(10, 10), random.nextInt(MAX_Z));
+            views.add(view);
+            scene.addGameView(view);
+        }
+
+        scene.step(0.016);
+
+        long time = 0;
+
+        for (int frame = 0; frame < WARMUP_FRAMES + MEASURED_FRAMES; frame++) {
+            changeZ(views, random);
+
+            long start = System.nanoTime();
+
+            scene.step(0.016);
+
+            if (frame >= WARMUP_FRAMES) {
+                time += System.nanoTime() - start;
+            }
+        }
+
+        return time / 1_000_000.0 / MEASURED_FRAMES;
+    }
+
+    private static double runFullSort() {
+        var root = new Group();
+
+        var random = new Random(42);
+        var views = new ArrayList<GameView>();
+
+        for (int i = 0; i < NUM_VIEWS; i++) {
+            var view = new GameView(new Rectangle(10, 10), random.nextInt(MAX_Z));
+            view.getNode().getProperties().put("viewData", view);
+            views.add(view);
+            root.getChildren().add(view.getNode());
+        }
+
+        sortZ(root);
+
+        long time = 0;
+
+        for (int frame = 0; frame < WARMUP_FRAMES + MEASURED_FRAMES; frame++) {
+            changeZ(views, random);
+
+            long start = System.nanoTime();
+
+            sortZ(root);
+
+            if (frame >= WARMUP_FRAMES) {
+                time += System.nanoTime() - start;
+            }
+        }
+
+        return time / 1_000_000.0 / MEASURED_FRAMES;
+    }
+
+    private static void changeZ(List<GameView> views, Random random) {
+        int numChanged = (int) (views.size() * CHANGED_FRACTION);
+
+        for (int i = 0; i < numChanged; i++) {
+            var view = views.get(random.nextInt(views.size()));
+            view.setZ(random.nextInt(MAX_Z));
+        }
+    }
+
+    /**
+     * Previous GameScene.sortZ().
+     */
+    private static void sortZ(Group root) {
+        List<Node> tmp = new ArrayList<>(root.getChildren());
+        tmp.sort((n1, n2) -> Integer.compare(((GameView) n1.getProperties().get("viewData")).getZ(), ((GameView) n2.getProperties().get("viewData")).getZ()));
+
+        root.getChildren().setAll(tmp);
+    }
+}
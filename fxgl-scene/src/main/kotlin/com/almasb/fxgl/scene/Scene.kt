@@ -6,6 +6,7 @@
 
 package com.almasb.fxgl.scene
 
+import com.almasb.fxgl.animation.TweenSystem
 import com.almasb.fxgl.core.Updatable
 import com.almasb.fxgl.core.UpdatableRunner
 import com.almasb.fxgl.core.collection.Array
@@ -53,6 +54,12 @@ abstract class Scene : State<Scene>, UpdatableRunner {
      */
     val timer = Timer()
 
+    /**
+     * Tweens specific to this scene.
+     * They only run if this scene is active.
+     */
+    val tweens = TweenSystem()
+
     override val isSubState: Boolean = false
     override val isAllowConcurrency: Boolean = false
 
@@ -97,11 +104,12 @@ abstract class Scene : State<Scene>, UpdatableRunner {
 
     /**
      * Update this scene, which updates (in this order):
-     * input, timer, onUpdate() callback, listeners.
+     * input, timer, tweens, onUpdate() callback, listeners.
      */
     fun update(tpf: Double) {
         input.update(tpf)
         timer.update(tpf)
+        tweens.onUpdate(tpf)
         onUpdate(tpf)
 
         listeners.addAll(listenersToAdd)
@@ -134,7 +134,7 @@ public abstract class GameApplication {
     private void initLogger(ReadOnlyGameSettings settings) {
         // we write all logs to file but adjust console log level based on app mode
         if (settings.isFileSystemWriteAllowed() && settings.isDesktop() && !settings.isNative()) {
-            Logger.addOutput(new FileOutput("FXGL"), LoggerLevel.DEBUG);
+            Logger.addOutput(new AsyncFileOutput("FXGL"), LoggerLevel.DEBUG);
         }
         Logger.addOutput(new ConsoleOutput(), settings.getApplicationMode().getLoggerLevel());
 
@@ -25,11 +25,14 @@ internal class Engine(val settings: ReadOnlyGameSettings) {
 
     private val log = Logger.get(javaClass)
 
-    private val loop = LoopRunner(settings.ticksPerSecond) { loop(it) }
+    private val loop = LoopRunner(settings.ticksPerSecond, settings.fixedTimeStep, settings.maxStepsPerFrame) { loop(it) }
 
     val tpf: Double
         get() = loop.tpf
 
+    val interpolationAlpha: Double
+        get() = loop.alpha
+
     val cpuNanoTime: Long
         get() = loop.cpuNanoTime
 
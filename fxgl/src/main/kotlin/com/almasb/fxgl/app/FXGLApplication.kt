@@ -20,6 +20,7 @@ import com.almasb.fxgl.dsl.FXGL
 import com.almasb.fxgl.dsl.animationBuilder
 import com.almasb.fxgl.dsl.getGameController
 import com.almasb.fxgl.entity.GameWorld
+import com.almasb.fxgl.entity.components.TransformComponent
 import com.almasb.fxgl.event.EventBus
 import com.almasb.fxgl.input.Input
 import com.almasb.fxgl.input.InputSequence
@@ -453,12 +454,14 @@ class FXGLApplication : Application() {
             loadScene = sceneFactory.newLoadingScene()
             gameSceneRef = GameScene(settings.width, settings.height,
                     GameWorld(),
-                    PhysicsWorld(settings.height, settings.pixelsPerMeter, settings.collisionDetectionStrategy),
+                    PhysicsWorld(settings.height, settings.pixelsPerMeter, settings.collisionDetectionStrategy, settings.collisionGridCellSize),
                     settings.is3D
             )
 
             gameSceneRef.isSingleStep = settings.isSingleStep
 
+            TransformComponent.isLightweightByDefault = settings.isLightweightTransforms
+
             if (settings.isClickFeedbackEnabled) {
                 addClickFeedbackHandler()
             }
@@ -11,6 +11,7 @@ import javafx.animation.AnimationTimer
 import javafx.application.Platform
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
 import kotlin.system.measureNanoTime
 
 /**
@@ -18,6 +19,11 @@ import kotlin.system.measureNanoTime
  * Uses the number of JavaFX pulse calls per second (using a 2-sec buffer) to compute FPS.
  * Based on FPS, time per frame (tpf) is computed for the next 2 seconds.
  *
+ * If [fixedTimeStep] is set, tpf is always [fixedTimeStep] and each tick runs as many steps
+ * as the elapsed real time requires (up to [maxStepsPerFrame]), carrying the remainder to the next tick.
+ * A tick in which less than a full step has accumulated runs no steps, i.e. [runnable] is not called.
+ * The runner does not interpolate, it only exposes [alpha] for renderers that do.
+ *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 internal class LoopRunner(
@@ -29,6 +35,18 @@ internal class LoopRunner(
          */
         private val ticksPerSecond: Int = -1,
 
+        /**
+         * Simulation step in seconds.
+         * Any negative value or 0 means that the runner will run a single step per tick with estimated tpf.
+         */
+        private val fixedTimeStep: Double = 0.0,
+
+        /**
+         * Max number of steps per tick if [fixedTimeStep] is set, must be at least 1.
+         * Any time that could not be simulated in those steps is dropped.
+         */
+        private val maxStepsPerFrame: Int = 5,
+
         private val runnable: (Double) -> Unit) {
 
     private val log = Logger.get<LoopRunner>()
@@ -46,9 +64,34 @@ internal class LoopRunner(
     var cpuNanoTime = 0L
         private set
 
+    /**
+     * Fraction of a fixed time step that has elapsed since the last step, in [0, 1).
+     * Renderers can use it to interpolate between the last two simulated states.
+     * Always 0 if [fixedTimeStep] is not set.
+     */
+    var alpha = 0.0
+        private set
+
+    private val isFixedTimeStep = fixedTimeStep > 0
+
     private var lastFPSUpdateNanos = 0L
     private var fpsBuffer2sec = 0
 
+    private var lastTickNanos = 0L
+
+    /**
+     * Real time (in seconds) not yet simulated.
+     */
+    private var accumulator = 0.0
+
+    init {
+        require(maxStepsPerFrame >= 1) { "Max steps per frame must be at least 1: $maxStepsPerFrame" }
+
+        if (isFixedTimeStep) {
+            tpf = fixedTimeStep
+        }
+    }
+
     private val impl by lazy {
         if (ticksPerSecond <= 0) {
             log.debug("Initializing JavaFX AnimationTimerLoop")
@@ -85,6 +128,7 @@ internal class LoopRunner(
         impl.pause()
 
         lastFPSUpdateNanos = 0L
+        lastTickNanos = 0L
     }
 
     fun stop() {
@@ -100,7 +144,11 @@ internal class LoopRunner(
         }
 
         cpuNanoTime = measureNanoTime {
-            runnable(tpf)
+            if (isFixedTimeStep) {
+                runFixedSteps(now)
+            } else {
+                runnable(tpf)
+            }
         }
 
         fpsBuffer2sec++
@@ -116,9 +164,35 @@ internal class LoopRunner(
                 fps = 60
 
             // update tpf for the next 2 seconds
-            tpf = 1.0 / fps
+            if (!isFixedTimeStep) {
+                tpf = 1.0 / fps
+            }
         }
     }
+
+    private fun runFixedSteps(now: Long) {
+        // first tick after start or resume runs a single step
+        val elapsed = if (lastTickNanos == 0L) fixedTimeStep else (now - lastTickNanos) / 1_000_000_000.0
+        lastTickNanos = now
+
+        accumulator += elapsed
+
+        var steps = 0
+
+        while (accumulator >= fixedTimeStep && steps < maxStepsPerFrame) {
+            runnable(fixedTimeStep)
+
+            accumulator -= fixedTimeStep
+            steps++
+        }
+
+        // drop the time we could not keep up with, but keep the fraction of a step
+        if (accumulator >= fixedTimeStep) {
+            accumulator %= fixedTimeStep
+        }
+
+        alpha = accumulator / fixedTimeStep
+    }
 }
 
 private interface Loop {
@@ -156,8 +230,14 @@ private abstract class AnimationTimerLoop : Loop {
 }
 
 private abstract class ScheduledExecutorLoop(private val ticksPerSecond: Int) : Loop {
+    @Volatile
     private var isPaused = false
 
+    /**
+     * True while a tick is posted but not yet run, so that ticks do not pile up if the JavaFX thread stalls.
+     */
+    private val isTickPending = AtomicBoolean(false)
+
     private val executor = Executors.newSingleThreadScheduledExecutor()
 
     override fun start() {
@@ -165,9 +245,13 @@ private abstract class ScheduledExecutorLoop(private val ticksPerSecond: Int) :
         val period = (1_000_000_000.0 / ticksPerSecond).toLong()
 
         executor.scheduleAtFixedRate({
-            if (!isPaused) {
+            if (!isPaused && isTickPending.compareAndSet(false, true)) {
                 Platform.runLater {
-                    onTick(System.nanoTime())
+                    isTickPending.set(false)
+
+                    if (!isPaused) {
+                        onTick(System.nanoTime())
+                    }
                 }
             }
 
@@ -185,4 +269,4 @@ private abstract class ScheduledExecutorLoop(private val ticksPerSecond: Int) :
     override fun stop() {
         executor.shutdownNow()
     }
-}
\ No newline at end of file
+}
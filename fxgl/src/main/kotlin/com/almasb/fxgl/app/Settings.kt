@@ -200,6 +200,14 @@ class GameSettings(
 
         var isSingleStep: Boolean = false,
 
+        /**
+         * If true, entity transforms do not create JavaFX properties unless requested
+         * and entity views are updated from transforms once per frame instead of being bound to them.
+         * This reduces memory per entity and the cost of moving entities.
+         * See [com.almasb.fxgl.entity.components.TransformComponent.isLightweight].
+         */
+        var isLightweightTransforms: Boolean = false,
+
         var isPauseMusicWhenMinimized: Boolean = true,
 
         /**
@@ -250,6 +258,11 @@ class GameSettings(
 
         var collisionDetectionStrategy: CollisionDetectionStrategy = CollisionDetectionStrategy.BRUTE_FORCE,
 
+        /**
+         * Cell size in pixels used by [CollisionDetectionStrategy.GRID_INDEXING], default = 64.
+         */
+        var collisionGridCellSize: Int = CollisionDetectionStrategy.DEFAULT_GRID_CELL_SIZE,
+
         /**
          * Set how many real seconds are in 24 game hours, default = 60.
          */
@@ -269,6 +282,25 @@ class GameSettings(
          */
         var ticksPerSecond: Int = -1,
 
+        /**
+         * If greater than 0, the game is updated in steps of exactly this many seconds,
+         * independent of the frame rate. As many steps as needed to keep up with real time are run each frame,
+         * but no more than [maxStepsPerFrame], so that a slow frame does not cause more slow frames.
+         * A frame in which less than a full step has accumulated (e.g. a 144 Hz display with a 60 Hz step)
+         * does not update the game at all, so the scene is shown unchanged.
+         * FXGL does not interpolate views between steps: games that need smooth motion at display rates
+         * above the step rate must interpolate themselves, using FXGL.interpolationAlpha(),
+         * the part of a step not yet simulated.
+         * Default value is 0, which means the game is updated once per tick with variable time per frame.
+         */
+        var fixedTimeStep: Double = 0.0,
+
+        /**
+         * Max number of fixed time steps run in a single frame, must be at least 1.
+         * Only used if [fixedTimeStep] is set.
+         */
+        var maxStepsPerFrame: Int = 5,
+
         /**
          * How fast the 3D mouse movements are (example, rotating the camera).
          */
@@ -380,6 +412,7 @@ class GameSettings(
                 isFileSystemWriteAllowed,
                 isCloseConfirmation,
                 isSingleStep,
+                isLightweightTransforms,
                 isPauseMusicWhenMinimized,
                 applicationMode,
                 menuKey,
@@ -399,9 +432,12 @@ class GameSettings(
                 fontSizeScaleUI,
                 pixelsPerMeter,
                 collisionDetectionStrategy,
+                collisionGridCellSize,
                 secondsIn24h,
                 randomSeed,
                 ticksPerSecond,
+                fixedTimeStep,
+                maxStepsPerFrame,
                 userAppClass,
                 mouseSensitivity,
                 defaultLanguage,
@@ -531,6 +567,12 @@ class ReadOnlyGameSettings internal constructor(
 
         val isSingleStep: Boolean,
 
+        /**
+         * If true, entity transforms do not create JavaFX properties unless requested
+         * and entity views are updated from transforms once per frame instead of being bound to them.
+         */
+        val isLightweightTransforms: Boolean,
+
         val isPauseMusicWhenMinimized: Boolean,
 
         /**
@@ -574,6 +616,11 @@ class ReadOnlyGameSettings internal constructor(
 
         val collisionDetectionStrategy: CollisionDetectionStrategy,
 
+        /**
+         * Cell size in pixels used by [CollisionDetectionStrategy.GRID_INDEXING].
+         */
+        val collisionGridCellSize: Int,
+
         /**
          * Set how many real seconds are in 24 game hours, default = 60.
          */
@@ -583,6 +630,10 @@ class ReadOnlyGameSettings internal constructor(
 
         val ticksPerSecond: Int,
 
+        val fixedTimeStep: Double,
+
+        val maxStepsPerFrame: Int,
+
         val userAppClass: Class<*>,
 
         /**
@@ -20,6 +20,7 @@ import com.almasb.fxgl.logging.Logger
 import com.almasb.fxgl.physics.PhysicsWorld
 import com.almasb.fxgl.scene.Scene
 import com.almasb.fxgl.ui.UI
+import javafx.beans.property.ReadOnlyProperty
 import javafx.beans.property.SimpleIntegerProperty
 import javafx.beans.value.ChangeListener
 import javafx.collections.ObservableList
@@ -33,6 +34,7 @@ import javafx.scene.robot.Robot
 import javafx.scene.transform.Rotate
 import javafx.scene.transform.Scale
 import java.util.concurrent.Callable
+import kotlin.math.hypot
 
 /**
  * Represents the scene that shows entities on the screen during "play" mode.
@@ -68,12 +70,64 @@ internal constructor(width: Int, height: Int,
 
     private val entities = ArrayList<Entity>()
 
-    private var isZSortingNeeded = false
+    /**
+     * Children of [gameRoot], only modified through this object.
+     */
+    private val views = ZOrderedViews(gameRoot, isSorting = !is3D)
 
-    private val zChangeListener = ChangeListener<Number> { _, _, _ ->
-        isZSortingNeeded = true
+    private val zChangeListener = ChangeListener<Number> { z, _, _ ->
+        views.markChanged((z as ReadOnlyProperty<*>).bean as GameView)
     }
 
+    private var nextViewOrder = 0L
+
+    private val viewCuller = ViewCuller({ views.insert(it) }, { views.remove(it) })
+
+    /**
+     * If set to true, entity views outside the visible viewport area (extended by [viewCullingMargin])
+     * are detached from the scene graph, so that JavaFX does not process them.
+     * Views are attached again once they are within the area.
+     * Only applies to 2D games.
+     */
+    var isViewCulling = false
+        set(value) {
+            if (field == value)
+                return
+
+            field = value
+
+            if (value) {
+                entities.forEach { cullView(it.viewComponent) }
+            } else {
+                viewCuller.clear()
+
+                entities.forEach {
+                    val view = it.viewComponent.parent.properties["viewData"] as GameView?
+
+                    if (view != null && view !in views) {
+                        views.append(view)
+                    }
+                }
+            }
+        }
+
+    /**
+     * Distance (in game world pixels) beyond the visible viewport area within which views are not culled.
+     */
+    var viewCullingMargin = 64.0
+
+    /**
+     * Number of entity views attached after the last frame, if [isViewCulling] is on.
+     */
+    val numVisibleViews: Int
+        get() = viewCuller.numVisible
+
+    /**
+     * Number of entity views detached after the last frame, if [isViewCulling] is on.
+     */
+    val numCulledViews: Int
+        get() = viewCuller.size - viewCuller.numVisible
+
     /**
      * @return unmodifiable list of UI nodes
      */
@@ -229,9 +283,17 @@ internal constructor(width: Int, height: Int,
         physicsWorld.onUpdate(tpf)
         viewport.onUpdate(tpf)
 
-        if (!is3D && isZSortingNeeded) {
-            sortZ()
-            isZSortingNeeded = false
+        // views of lightweight transforms are not bound, so push all transform changes of this frame in one pass
+        for (i in entities.indices) {
+            entities[i].viewComponent.syncTransform()
+        }
+
+        if (!is3D && isViewCulling) {
+            updateViewCulling()
+        }
+
+        if (!is3D) {
+            views.update()
         }
 
         if (is3D) {
@@ -299,11 +361,36 @@ internal constructor(width: Int, height: Int,
         removeUINode(ui.root)
     }
 
+    private fun updateViewCulling() {
+        val w = viewport.width / viewport.getZoom()
+        val h = viewport.height / viewport.getZoom()
+
+        var minX = viewport.x
+        var minY = viewport.y
+        var maxX = minX + w
+        var maxY = minY + h
+
+        if (viewport.getAngle() != 0.0) {
+            // the area rotates around the unzoomed viewport center, so it stays within a circle around that center
+            val cx = viewport.x + viewport.width / 2
+            val cy = viewport.y + viewport.height / 2
+            val r = hypot(w, h) / 2 + hypot(cx - (minX + w / 2), cy - (minY + h / 2))
+
+            minX = cx - r
+            minY = cy - r
+            maxX = cx + r
+            maxY = cy + r
+        }
+
+        viewCuller.update(minX - viewCullingMargin, minY - viewCullingMargin, maxX + viewCullingMargin, maxY + viewCullingMargin)
+    }
+
     /**
      * Removes all nodes from the game view layer.
      */
     fun clearGameViews() {
-        gameRoot.children.clear()
+        viewCuller.clear()
+        views.clear()
     }
 
     /**
@@ -324,15 +411,6 @@ internal constructor(width: Int, height: Int,
         uiRoot.isMouseTransparent = b
     }
 
-    private fun sortZ() {
-        // it is important to sort in a different list since gameRoot is part of active scene graph
-        // and does not allow duplicates that may occur during sorting
-        val tmp = ArrayList(gameRoot.children)
-        tmp.sortBy { (it.properties["viewData"] as GameView).z }
-
-        gameRoot.children.setAll(tmp)
-    }
-
     /**
      * Resets game world, physics world, game timer.
      * Unbinds viewport, clears game views and UI nodes.
@@ -352,7 +430,8 @@ internal constructor(width: Int, height: Int,
         timer.clear()
 
         viewport.unbind()
-        gameRoot.children.clear()
+        viewCuller.clear()
+        views.clear()
         uiRoot.children.clear()
     }
 
@@ -369,16 +448,16 @@ internal constructor(width: Int, height: Int,
     fun addGameView(view: GameView) {
         view.zProperty.addListener(zChangeListener)
         view.node.properties["viewData"] = view
+        view.order = nextViewOrder++
 
-        gameRoot.children.add(view.node)
-
-        isZSortingNeeded = true
+        views.append(view)
     }
 
     fun removeGameView(view: GameView) {
         view.node.properties.clear()
 
-        gameRoot.children.remove(view.node)
+        viewCuller.remove(view)
+        views.remove(view)
     }
 
     private fun initView(viewComponent: ViewComponent) {
@@ -386,6 +465,20 @@ internal constructor(width: Int, height: Int,
         view.zProperty.bind(viewComponent.zIndexProperty)
 
         addGameView(view)
+
+        if (isViewCulling) {
+            cullView(viewComponent)
+        }
+    }
+
+    /**
+     * Detaches the entity view and lets the culler attach it when visible.
+     */
+    private fun cullView(viewComponent: ViewComponent) {
+        val view = viewComponent.parent.properties["viewData"] as GameView? ?: return
+
+        views.remove(view)
+        viewCuller.add(view)
     }
 
     private fun destroyView(viewComponent: ViewComponent) {
@@ -442,7 +535,21 @@ internal constructor(width: Int, height: Int,
 }
 
 class GameView(val node: Node, zIndex: Int) {
-    val zProperty = SimpleIntegerProperty(zIndex)
+    val zProperty = SimpleIntegerProperty(this, "z", zIndex)
+
+    /**
+     * Order in which the view was added, views with equal z are drawn in this order.
+     */
+    internal var order = 0L
+
+    /**
+     * The z this view was last placed with in game root, which may differ from [z] until the next frame.
+     */
+    internal var sortedZ = 0
+
+    internal var isPlaced = false
+
+    internal var isZChanged = false
 
     var z: Int
         get() = zProperty.value
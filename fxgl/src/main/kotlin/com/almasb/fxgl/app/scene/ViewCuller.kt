@@ -0,0 +1,344 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.app.scene
+
+import com.almasb.fxgl.core.collection.LongMap
+import com.almasb.fxgl.core.collection.UnorderedArray
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
+import kotlin.math.floor
+
+/**
+ * Keeps track of which game views overlap a rectangle (the visible viewport area),
+ * so that only those are attached to the scene graph.
+ * Views are stored in a uniform hash grid by the bounds of their node.
+ * A change to node bounds only marks the view dirty, dirty views are re-inserted on the next [update].
+ * Each update only visits cells within the rectangle and views that were visible on the last update.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class ViewCuller(
+
+        /**
+         * Called when a view becomes visible, its node should be attached to the scene graph.
+         */
+        private val onShow: (GameView) -> Unit,
+
+        /**
+         * Called when a view is no longer visible, its node should be detached from the scene graph.
+         */
+        private val onHide: (GameView) -> Unit,
+
+        private val cellSize: Double = DEFAULT_CELL_SIZE) {
+
+    companion object {
+        const val DEFAULT_CELL_SIZE = 256.0
+
+        /**
+         * Views covering more cells are not stored in the grid, but checked on every update.
+         */
+        private const val MAX_CELLS_PER_VIEW = 64
+
+        private fun key(cx: Int, cy: Int): Long = (cx.toLong() shl 32) or (cy.toLong() and 0xFFFFFFFFL)
+    }
+
+    private val entries = hashMapOf<GameView, Entry>()
+
+    private val cells = LongMap<UnorderedArray<Entry>>(256)
+    private val oversized = UnorderedArray<Entry>(16)
+    private val dirty = UnorderedArray<Entry>(64)
+
+    private var visible = ArrayList<Entry>()
+    private var nextVisible = ArrayList<Entry>()
+
+    private var stamp = 0
+
+    // extent (in cells) of all cells occupied since the last clear
+    private var minCellX = Int.MAX_VALUE
+    private var minCellY = Int.MAX_VALUE
+    private var maxCellX = Int.MIN_VALUE
+    private var maxCellY = Int.MIN_VALUE
+
+    /**
+     * Number of tracked views.
+     */
+    val size: Int
+        get() = entries.size
+
+    /**
+     * Number of tracked views visible after the last update.
+     */
+    val numVisible: Int
+        get() = visible.size
+
+    operator fun contains(view: GameView) = view in entries
+
+    /**
+     * Starts tracking [view], which is assumed to be detached.
+     * It is shown on the next update if visible.
+     */
+    fun add(view: GameView) {
+        if (view in entries)
+            return
+
+        val entry = Entry(view)
+        entries[view] = entry
+
+        view.node.boundsInParentProperty().addListener(entry)
+
+        entry.computeBounds()
+        insert(entry)
+    }
+
+    /**
+     * Stops tracking [view] without calling [onHide].
+     */
+    fun remove(view: GameView) {
+        val entry = entries.remove(view) ?: return
+
+        view.node.boundsInParentProperty().removeListener(entry)
+
+        if (entry.isDirty) {
+            dirty.removeValueByIdentity(entry)
+        }
+
+        if (entry.isVisible) {
+            visible.remove(entry)
+        }
+
+        erase(entry)
+    }
+
+    /**
+     * Stops tracking all views without calling [onHide].
+     */
+    fun clear() {
+        entries.values.forEach { it.view.node.boundsInParentProperty().removeListener(it) }
+        entries.clear()
+
+        for (i in 0 until cells.capacity()) {
+            cells.valueAt(i)?.clear()
+        }
+
+        cells.clear()
+        oversized.clear()
+        dirty.clear()
+        visible.clear()
+
+        minCellX = Int.MAX_VALUE
+        minCellY = Int.MAX_VALUE
+        maxCellX = Int.MIN_VALUE
+        maxCellY = Int.MIN_VALUE
+    }
+
+    /**
+     * Shows views that overlap given rectangle and hides those that no longer do.
+     */
+    fun update(minX: Double, minY: Double, maxX: Double, maxY: Double) {
+        updateDirty()
+
+        stamp++
+
+        val minCX = maxOf(cellOf(minX), minCellX)
+        val minCY = maxOf(cellOf(minY), minCellY)
+        val maxCX = minOf(cellOf(maxX), maxCellX)
+        val maxCY = minOf(cellOf(maxY), maxCellY)
+
+        val numCells = (maxCX - minCX + 1).toLong() * (maxCY - minCY + 1)
+
+        if (minCX <= maxCX && minCY <= maxCY) {
+            if (numCells > entries.size) {
+                // e.g. zoomed out far, visiting every view is cheaper than visiting every cell
+                entries.values.forEach { visit(it, minX, minY, maxX, maxY) }
+            } else {
+                for (cy in minCY..maxCY) {
+                    for (cx in minCX..maxCX) {
+                        val cell = cells.get(key(cx, cy)) ?: continue
+
+                        for (i in 0 until cell.size()) {
+                            visit(cell.get(i), minX, minY, maxX, maxY)
+                        }
+                    }
+                }
+            }
+        }
+
+        for (i in 0 until oversized.size()) {
+            visit(oversized.get(i), minX, minY, maxX, maxY)
+        }
+
+        // views visible on the last update that were not visited this time are no longer visible
+        visible.forEach {
+            if (it.visibleStamp != stamp) {
+                it.isVisible = false
+                onHide(it.view)
+            }
+        }
+
+        visible.clear()
+
+        val tmp = visible
+        visible = nextVisible
+        nextVisible = tmp
+    }
+
+    private fun visit(entry: Entry, minX: Double, minY: Double, maxX: Double, maxY: Double) {
+        if (entry.visibleStamp == stamp || !entry.overlaps(minX, minY, maxX, maxY))
+            return
+
+        entry.visibleStamp = stamp
+        nextVisible += entry
+
+        if (!entry.isVisible) {
+            entry.isVisible = true
+            onShow(entry.view)
+        }
+    }
+
+    private fun updateDirty() {
+        for (i in 0 until dirty.size()) {
+            val entry = dirty.get(i)
+            entry.isDirty = false
+
+            val oldMinCX = entry.minCX
+            val oldMinCY = entry.minCY
+            val oldMaxCX = entry.maxCX
+            val oldMaxCY = entry.maxCY
+            val wasEmpty = entry.isEmpty
+
+            entry.computeBounds()
+
+            if (wasEmpty != entry.isEmpty || oldMinCX != entry.minCX || oldMinCY != entry.minCY || oldMaxCX != entry.maxCX || oldMaxCY != entry.maxCY) {
+                eraseCells(entry, wasEmpty, oldMinCX, oldMinCY, oldMaxCX, oldMaxCY)
+                insert(entry)
+            }
+        }
+
+        dirty.clear()
+    }
+
+    private fun insert(entry: Entry) {
+        // a view without content is never visible
+        if (entry.isEmpty)
+            return
+
+        if (entry.isOversized) {
+            oversized.add(entry)
+            return
+        }
+
+        for (cy in entry.minCY..entry.maxCY) {
+            for (cx in entry.minCX..entry.maxCX) {
+                val key = key(cx, cy)
+                var cell = cells.get(key)
+
+                if (cell == null) {
+                    cell = UnorderedArray(8)
+                    cells.put(key, cell)
+                }
+
+                cell.add(entry)
+            }
+        }
+
+        minCellX = minOf(minCellX, entry.minCX)
+        minCellY = minOf(minCellY, entry.minCY)
+        maxCellX = maxOf(maxCellX, entry.maxCX)
+        maxCellY = maxOf(maxCellY, entry.maxCY)
+    }
+
+    private fun erase(entry: Entry) {
+        eraseCells(entry, entry.isEmpty, entry.minCX, entry.minCY, entry.maxCX, entry.maxCY)
+    }
+
+    private fun eraseCells(entry: Entry, isEmpty: Boolean, minCX: Int, minCY: Int, maxCX: Int, maxCY: Int) {
+        if (isEmpty)
+            return
+
+        if (isOversized(minCX, minCY, maxCX, maxCY)) {
+            oversized.removeValueByIdentity(entry)
+            return
+        }
+
+        for (cy in minCY..maxCY) {
+            for (cx in minCX..maxCX) {
+                val key = key(cx, cy)
+                val cell = cells.get(key) ?: continue
+
+                cell.removeValueByIdentity(entry)
+
+                if (cell.isEmpty) {
+                    cells.remove(key)
+                }
+            }
+        }
+    }
+
+    private fun isOversized(minCX: Int, minCY: Int, maxCX: Int, maxCY: Int): Boolean {
+        return (maxCX - minCX + 1).toLong() * (maxCY - minCY + 1) > MAX_CELLS_PER_VIEW
+    }
+
+    private fun cellOf(value: Double): Int {
+        val cell = floor(value / cellSize)
+
+        // clamp, so that infinite or huge bounds do not overflow
+        return cell.coerceIn(Int.MIN_VALUE / 2.0, Int.MAX_VALUE / 2.0).toInt()
+    }
+
+    private inner class Entry(val view: GameView) : InvalidationListener {
+
+        var isDirty = false
+        var isVisible = false
+        var visibleStamp = 0
+
+        var isEmpty = true
+
+        // node bounds in parent at the time of last update
+        var minX = 0.0
+        var minY = 0.0
+        var maxX = 0.0
+        var maxY = 0.0
+
+        var minCX = 0
+        var minCY = 0
+        var maxCX = 0
+        var maxCY = 0
+
+        val isOversized: Boolean
+            get() = isOversized(minCX, minCY, maxCX, maxCY)
+
+        override fun invalidated(observable: Observable) {
+            if (!isDirty) {
+                isDirty = true
+                dirty.add(this)
+            }
+        }
+
+        /**
+         * Reading the bounds also re-validates them, so that the next change fires an invalidation again.
+         */
+        fun computeBounds() {
+            val bounds = view.node.boundsInParent
+
+            isEmpty = bounds.isEmpty
+
+            minX = bounds.minX
+            minY = bounds.minY
+            maxX = bounds.maxX
+            maxY = bounds.maxY
+
+            minCX = cellOf(minX)
+            minCY = cellOf(minY)
+            maxCX = cellOf(maxX)
+            maxCY = cellOf(maxY)
+        }
+
+        fun overlaps(minX: Double, minY: Double, maxX: Double, maxY: Double): Boolean {
+            return !isEmpty && this.maxX >= minX && this.minX <= maxX && this.maxY >= minY && this.minY <= maxY
+        }
+    }
+}
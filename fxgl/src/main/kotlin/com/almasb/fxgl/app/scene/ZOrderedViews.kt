@@ -0,0 +1,197 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.app.scene
+
+import javafx.scene.Group
+
+/**
+ * Keeps view nodes in [root] ordered by z, then by the order views were added.
+ * All changes to children of [root] must go through this class.
+ * Views whose z changed are only moved on [update], so that a view changing z several times
+ * in a frame is moved once, and views whose z did not change are not touched.
+ *
+ * Children are split in two parts: placed views, which are sorted by the z they were placed with,
+ * followed by views appended since the last update.
+ *
+ * If [isSorting] is false (3D scenes, where z order does not apply), views are kept in the order they were added
+ * and no changes are tracked.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class ZOrderedViews(private val root: Group, private val isSorting: Boolean = true) {
+
+    /**
+     * Views of children in the same order, so that searching does not need to look up views of nodes.
+     */
+    private val views = ArrayList<GameView>()
+
+    private val changed = ArrayList<GameView>()
+
+    private var numAppended = 0
+
+    private val numPlaced: Int
+        get() = views.size - numAppended
+
+    val size: Int
+        get() = views.size
+
+    operator fun contains(view: GameView) = view.node.parent === root
+
+    /**
+     * Adds [view] to the end, it is moved to its place on the next update.
+     */
+    fun append(view: GameView) {
+        view.isPlaced = false
+
+        views += view
+        root.children += view.node
+        numAppended++
+
+        markChanged(view)
+    }
+
+    /**
+     * Adds [view] at its place.
+     */
+    fun insert(view: GameView) {
+        view.sortedZ = view.z
+        view.isPlaced = true
+
+        val index = lowerBound(view.sortedZ, view.order)
+
+        views.add(index, view)
+        root.children.add(index, view.node)
+    }
+
+    fun remove(view: GameView) {
+        if (view !in this)
+            return
+
+        var index = -1
+
+        if (view.isPlaced) {
+            val i = lowerBound(view.sortedZ, view.order)
+
+            if (i < numPlaced && views[i] === view) {
+                index = i
+            }
+        } else {
+            numAppended--
+        }
+
+        if (index == -1) {
+            index = views.lastIndexOf(view)
+        }
+
+        view.isPlaced = false
+
+        views.removeAt(index)
+        root.children.removeAt(index)
+    }
+
+    fun markChanged(view: GameView) {
+        if (!isSorting)
+            return
+
+        if (!view.isZChanged) {
+            view.isZChanged = true
+            changed += view
+        }
+    }
+
+    /**
+     * Moves views whose z changed, and views appended since the last update, to their place.
+     */
+    fun update() {
+        if (!isSorting || changed.isEmpty())
+            return
+
+        // if many views changed, a single sort is cheaper than moving them one by one
+        if (changed.size > views.size / 4) {
+            sortAll()
+            return
+        }
+
+        // appended views are all at the end
+        val appended = ArrayList(views.subList(numPlaced, views.size))
+
+        if (appended.isNotEmpty()) {
+            views.subList(numPlaced, views.size).clear()
+            root.children.remove(views.size, root.children.size)
+            numAppended = 0
+        }
+
+        changed.forEach {
+            it.isZChanged = false
+
+            if (it.isPlaced && it in this) {
+                remove(it)
+                insert(it)
+            }
+        }
+
+        changed.clear()
+
+        appended.forEach {
+            insert(it)
+        }
+    }
+
+    /**
+     * Removes all views.
+     */
+    fun clear() {
+        views.forEach { it.isPlaced = false }
+        views.clear()
+        root.children.clear()
+
+        changed.forEach { it.isZChanged = false }
+        changed.clear()
+
+        numAppended = 0
+    }
+
+    private fun sortAll() {
+        views.sortWith { view1, view2 ->
+            if (view1.z != view2.z) view1.z.compareTo(view2.z) else view1.order.compareTo(view2.order)
+        }
+
+        views.forEach {
+            it.sortedZ = it.z
+            it.isPlaced = true
+        }
+
+        // setAll() with a different list, since children are part of active scene graph
+        // and do not allow duplicates that may occur during sorting
+        root.children.setAll(views.map { it.node })
+
+        changed.forEach { it.isZChanged = false }
+        changed.clear()
+        numAppended = 0
+    }
+
+    /**
+     * @return index of the first placed view not less than given (z, order)
+     */
+    private fun lowerBound(z: Int, order: Long): Int {
+        var low = 0
+        var high = numPlaced
+
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            val view = views[mid]
+
+            if (view.sortedZ < z || (view.sortedZ == z && view.order < order)) {
+                low = mid + 1
+            } else {
+                high = mid
+            }
+        }
+
+        return low
+    }
+}
@@ -159,6 +159,15 @@ class DevService : EngineService() {
                     Polyline(*data.points.flatMap { listOf(it.x, it.y) }.toDoubleArray())
                 }
 
+                is CapsuleShapeData -> {
+                    val diameter = minOf(data.width, data.height)
+
+                    Rectangle(data.width, data.height).also {
+                        it.arcWidth = diameter
+                        it.arcHeight = diameter
+                    }
+                }
+
                 is Box3DShapeData -> {
                     // not implemented
                     Rectangle()
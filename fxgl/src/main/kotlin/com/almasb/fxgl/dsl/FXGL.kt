@@ -9,6 +9,7 @@ package com.almasb.fxgl.dsl
 
 import com.almasb.fxgl.achievement.AchievementService
 import com.almasb.fxgl.animation.AnimationBuilder
+import com.almasb.fxgl.animation.TweenSystem
 import com.almasb.fxgl.app.*
 import com.almasb.fxgl.app.services.FXGLAssetLoaderService
 import com.almasb.fxgl.app.services.IOTaskExecutorService
@@ -245,6 +246,15 @@ class FXGL private constructor() { companion object {
      */
     @JvmStatic fun tpf() = engine.tpf
 
+    /**
+     * Views are not interpolated by FXGL, this allows games to interpolate between the last two steps,
+     * e.g. in a JavaFX AnimationTimer, since frames without a full step do not update the game.
+     *
+     * @return fraction of a fixed time step elapsed since the last step, in [0, 1),
+     * or 0 if fixed time step is not set in settings
+     */
+    @JvmStatic fun interpolationAlpha() = engine.interpolationAlpha
+
     @JvmStatic fun cpuNanoTime() = engine.cpuNanoTime
 
     @JvmStatic fun getGameWorld() = getGameScene().gameWorld
@@ -257,6 +267,11 @@ class FXGL private constructor() { companion object {
      */
     @JvmStatic fun getGameTimer(): Timer = getGameScene().timer
 
+    /**
+     * @return play state tweens
+     */
+    @JvmStatic fun getGameTweens(): TweenSystem = getGameScene().tweens
+
     /**
      * @return 'always-on' (regardless of active scene) engine timer
      */
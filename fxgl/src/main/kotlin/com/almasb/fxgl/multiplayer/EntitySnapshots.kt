@@ -0,0 +1,289 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.multiplayer
+
+import com.almasb.fxgl.core.serialization.Bundle
+import com.almasb.fxgl.entity.Entity
+import kotlin.math.roundToInt
+
+internal const val SNAPSHOT_BUNDLE_NAME = "ENTITY_SNAPSHOT"
+internal const val SNAPSHOT_ACK_BUNDLE_NAME = "ENTITY_SNAPSHOT_ACK"
+
+private const val NONE = -1
+
+// field bits of a snapshot entry
+private const val FIELD_X = 1
+private const val FIELD_Y = 2
+private const val FIELD_Z = 4
+
+/**
+ * Replication state of an entity for a single connection.
+ * Positions are quantised, i.e. stored as multiples of precision.
+ */
+internal class ReplicatedEntity(val entity: Entity, val networkID: Long) {
+
+    /**
+     * Position known to the receiver, as acknowledged by the receiver.
+     */
+    var ackedX = 0
+    var ackedY = 0
+    var ackedZ = 0
+
+    /**
+     * Position sent in snapshot [sentSeq], which is not yet acknowledged.
+     */
+    var sentX = 0
+    var sentY = 0
+    var sentZ = 0
+    var sentSeq = NONE
+
+    /**
+     * Fields sent since the last acknowledgement.
+     * The receiver may hold any value sent since then, so these fields are resent until acknowledged,
+     * even if they are back at the acknowledged value.
+     */
+    var sentMask = 0
+}
+
+/**
+ * Builds entity snapshots for a single connection.
+ * A snapshot only contains the fields that differ from those acknowledged by the receiver (baseline)
+ * or were sent since the last acknowledgement,
+ * so that a lost snapshot does not need to be resent and an entity that did not change is not sent.
+ * Snapshots carry absolute quantised values, so the receiver can apply any snapshot
+ * newer than the last one it applied.
+ */
+internal class SnapshotSender(val precision: Double) {
+
+    val entities = ArrayList<ReplicatedEntity>()
+
+    /**
+     * Entities with unacknowledged sent values.
+     */
+    private val pending = ArrayList<ReplicatedEntity>()
+
+    private var nextSeq = 0
+
+    /**
+     * Time of the previous [nextSnapshot] call, whether or not a snapshot was built.
+     */
+    private var prevTime = Double.NaN
+
+    // reused between snapshots, copied into each snapshot since it is encoded on another thread
+    private var ids = LongArray(64)
+    private var masks = ByteArray(64)
+    private var values = IntArray(64 * 3)
+
+    /**
+     * The receiver is expected to spawn [entity] at its current position, which becomes the baseline.
+     */
+    fun add(entity: Entity, networkID: Long) {
+        val e = ReplicatedEntity(entity, networkID)
+        e.ackedX = quantize(entity.x)
+        e.ackedY = quantize(entity.y)
+        e.ackedZ = quantize(entity.z)
+
+        entities += e
+    }
+
+    /**
+     * Removes entities that are no longer active.
+     *
+     * @return network IDs of removed entities
+     */
+    fun removeInactive(): List<Long> {
+        if (entities.all { it.entity.isActive })
+            return emptyList()
+
+        val removed = entities.filter { !it.entity.isActive }
+
+        entities.removeAll(removed)
+        pending.removeAll(removed)
+
+        return removed.map { it.networkID }
+    }
+
+    /**
+     * Called once per tick at sender [time] (in seconds).
+     * Only entities within [interestRadius] of ([centerX], [centerY]) are included,
+     * unless [interestRadius] is infinite.
+     *
+     * @return next snapshot, or null if no entity of interest differs from baseline
+     */
+    fun nextSnapshot(time: Double, centerX: Double, centerY: Double, interestRadius: Double): Bundle? {
+        val seq = nextSeq
+        val prevTime = if (prevTime.isNaN()) time else prevTime
+        this.prevTime = time
+
+        val isInterestLimited = interestRadius != Double.POSITIVE_INFINITY
+        val radiusSquared = interestRadius * interestRadius
+
+        var numEntries = 0
+        var numValues = 0
+
+        for (e in entities) {
+            val entity = e.entity
+
+            if (isInterestLimited) {
+                val dx = entity.x - centerX
+                val dy = entity.y - centerY
+
+                if (dx * dx + dy * dy > radiusSquared)
+                    continue
+            }
+
+            val x = quantize(entity.x)
+            val y = quantize(entity.y)
+            val z = quantize(entity.z)
+
+            var mask = e.sentMask
+            if (x != e.ackedX) mask = mask or FIELD_X
+            if (y != e.ackedY) mask = mask or FIELD_Y
+            if (z != e.ackedZ) mask = mask or FIELD_Z
+
+            if (mask == 0)
+                continue
+
+            // keep the original sequence number while the value is unchanged, so that its ack is not outrun
+            if (e.sentSeq == NONE || x != e.sentX || y != e.sentY || z != e.sentZ) {
+                if (e.sentSeq == NONE) {
+                    pending += e
+                }
+
+                e.sentX = x
+                e.sentY = y
+                e.sentZ = z
+                e.sentSeq = seq
+            }
+
+            e.sentMask = mask
+
+            ensureCapacity(numEntries + 1, numValues + 3)
+
+            ids[numEntries] = e.networkID
+            masks[numEntries] = mask.toByte()
+            numEntries++
+
+            if (mask and FIELD_X != 0) values[numValues++] = x
+            if (mask and FIELD_Y != 0) values[numValues++] = y
+            if (mask and FIELD_Z != 0) values[numValues++] = z
+        }
+
+        if (numEntries == 0)
+            return null
+
+        nextSeq++
+
+        val bundle = Bundle(SNAPSHOT_BUNDLE_NAME)
+        bundle.put("seq", seq)
+        bundle.put("time", time)
+        bundle.put("prevTime", prevTime)
+        bundle.put("precision", precision)
+        bundle.put("ids", ids.copyOf(numEntries))
+        bundle.put("masks", masks.copyOf(numEntries))
+        bundle.put("values", values.copyOf(numValues))
+        return bundle
+    }
+
+    /**
+     * Values sent in snapshots up to and including [seq] become the baseline.
+     */
+    fun onAck(seq: Int) {
+        pending.removeIf { e ->
+            if (seq >= e.sentSeq) {
+                e.ackedX = e.sentX
+                e.ackedY = e.sentY
+                e.ackedZ = e.sentZ
+                e.sentSeq = NONE
+                e.sentMask = 0
+                true
+            } else {
+                false
+            }
+        }
+    }
+
+    private fun quantize(value: Double): Int = (value / precision).roundToInt()
+
+    private fun ensureCapacity(numEntries: Int, numValues: Int) {
+        if (numEntries > ids.size) {
+            ids = ids.copyOf(ids.size * 2)
+            masks = masks.copyOf(masks.size * 2)
+        }
+
+        if (numValues > values.size) {
+            values = values.copyOf(values.size * 2)
+        }
+    }
+}
+
+/**
+ * Applies snapshots built by [SnapshotSender] on the receiving endpoint.
+ * If [clock] is given, positions are buffered in [NetworkComponent] for interpolation,
+ * otherwise they are applied immediately.
+ */
+internal class SnapshotReceiver(private val clock: ReplicationClock? = null) {
+
+    private var lastSeq = NONE
+
+    /**
+     * Updates positions of known entities from given snapshot, received at [localTime] (in seconds).
+     * Entities that are no longer active are removed from [components].
+     *
+     * @return sequence number to acknowledge, or -1 if the snapshot is older than an applied one
+     */
+    fun apply(snapshot: Bundle, components: MutableMap<Long, NetworkComponent>, localTime: Double): Int {
+        val seq = snapshot.get<Int>("seq")
+
+        if (seq <= lastSeq)
+            return NONE
+
+        lastSeq = seq
+
+        val time = snapshot.get<Double>("time")
+        val prevTime = snapshot.get<Double>("prevTime")
+        val precision = snapshot.get<Double>("precision")
+        val ids = snapshot.get<LongArray>("ids")
+        val masks = snapshot.get<ByteArray>("masks")
+        val values = snapshot.get<IntArray>("values")
+
+        clock?.onSenderTime(time, localTime)
+
+        var index = 0
+
+        for (i in ids.indices) {
+            val mask = masks[i].toInt()
+
+            var component = components[ids[i]]
+
+            if (component != null && !component.entity.isActive) {
+                components.remove(ids[i])
+                component = null
+            }
+
+            // values are read regardless, so that the following entries are read correctly
+            var x = component?.replicatedX() ?: 0.0
+            var y = component?.replicatedY() ?: 0.0
+            var z = component?.replicatedZ() ?: 0.0
+
+            if (mask and FIELD_X != 0) x = values[index++] * precision
+            if (mask and FIELD_Y != 0) y = values[index++] * precision
+            if (mask and FIELD_Z != 0) z = values[index++] * precision
+
+            if (component == null || component.isPredicted)
+                continue
+
+            if (clock != null) {
+                component.onReplicatedPosition(time, prevTime, x, y, z)
+            } else {
+                component.entity.setPosition3D(x, y, z)
+            }
+        }
+
+        return seq
+    }
+}
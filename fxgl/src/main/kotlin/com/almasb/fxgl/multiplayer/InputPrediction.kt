@@ -0,0 +1,188 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.multiplayer
+
+import com.almasb.fxgl.core.serialization.Bundle
+import com.almasb.fxgl.entity.Entity
+import java.util.function.Supplier
+
+internal const val INPUT_COMMAND_BUNDLE_NAME = "INPUT_COMMAND"
+internal const val INPUT_ACK_BUNDLE_NAME = "INPUT_ACK"
+
+/**
+ * Max number of unacknowledged commands kept for replay, also max number of commands queued on the server.
+ */
+private const val MAX_PENDING_COMMANDS = 1024
+
+/**
+ * Max frame time of a single command, larger values are clamped.
+ */
+private const val MAX_COMMAND_TPF = 0.25
+
+/**
+ * Max server time that can be saved up for commands that arrive late, e.g. in a burst after network jitter.
+ * Must not be less than [MAX_COMMAND_TPF], otherwise such a command would never be processed.
+ */
+private const val MAX_TIME_BUDGET = 0.5
+
+/**
+ * Moves an entity according to an input command, sampled on the client for a single frame.
+ * Runs on both endpoints with the same commands, so given the same entity state,
+ * it must produce the same result on both.
+ */
+fun interface InputSimulation {
+
+    fun apply(entity: Entity, command: Bundle, tpf: Double)
+}
+
+/**
+ * Client side of input prediction.
+ * Each frame, a sampled command is numbered, applied locally to [entity] and sent to the server.
+ * When the server acknowledges a command with the authoritative position of [entity],
+ * the entity is reset to that position and commands not yet processed by the server are replayed.
+ */
+internal class InputPredictor(
+        val entity: Entity,
+        private val sampler: Supplier<Bundle?>,
+        private val simulation: InputSimulation
+) {
+
+    private class PendingCommand(val seq: Int, val command: Bundle, val tpf: Double)
+
+    private val pending = ArrayDeque<PendingCommand>()
+
+    private var nextSeq = 0
+
+    val numPendingCommands: Int
+        get() = pending.size
+
+    /**
+     * @return message to send, or null if no command was sampled this frame
+     */
+    fun update(tpf: Double): Bundle? {
+        val command = sampler.get() ?: return null
+
+        val seq = nextSeq++
+
+        // clamped the same way as on the server, so that a long frame is predicted correctly
+        val commandTpf = clampTpf(tpf)
+
+        simulation.apply(entity, command, commandTpf)
+
+        if (pending.size == MAX_PENDING_COMMANDS) {
+            pending.removeAt(0)
+        }
+
+        pending.add(PendingCommand(seq, command, commandTpf))
+
+        val message = Bundle(INPUT_COMMAND_BUNDLE_NAME)
+        message.put("seq", seq)
+        message.put("tpf", commandTpf)
+        message.put("command", command)
+        return message
+    }
+
+    fun onAck(message: Bundle) {
+        val seq = message.get<Int>("seq")
+
+        while (pending.isNotEmpty() && pending.first().seq <= seq) {
+            pending.removeAt(0)
+        }
+
+        entity.setPosition3D(message.get("x"), message.get("y"), message.get("z"))
+
+        pending.forEach {
+            simulation.apply(entity, it.command, it.tpf)
+        }
+    }
+}
+
+/**
+ * Server side of input prediction.
+ * Commands are applied to [entity] in the order they were sampled,
+ * each processed command being acknowledged with the resulting position.
+ * The frame time of commands is set by the client, so it is only trusted up to the time
+ * that has passed on the server, otherwise a client could move faster by reporting longer frames.
+ */
+internal class InputCommandReceiver(
+        val entity: Entity,
+        private val simulation: InputSimulation
+) {
+
+    private val queue = ArrayDeque<Bundle>()
+
+    /**
+     * Server time (in seconds) that queued commands can still use.
+     */
+    private var timeBudget = 0.0
+
+    var lastProcessedSeq = -1
+        private set
+
+    fun onCommand(message: Bundle) {
+        // a client sending faster than commands are processed only loses its excess commands
+        if (queue.size < MAX_PENDING_COMMANDS) {
+            queue.add(message)
+        }
+    }
+
+    /**
+     * Applies queued commands, as long as their total frame time does not exceed the time
+     * that has passed on the server. The rest remain queued for next frames.
+     *
+     * @param tpf time per frame of the server
+     * @return ack message to send, or null if no command was processed
+     */
+    fun update(tpf: Double): Bundle? {
+        timeBudget = minOf(timeBudget + tpf, MAX_TIME_BUDGET)
+
+        if (queue.isEmpty())
+            return null
+
+        val lastSeq = lastProcessedSeq
+
+        while (queue.isNotEmpty()) {
+            val message = queue.first()
+            val seq = message.get<Int>("seq")
+
+            // TCP keeps the order, but a reordered or duplicated (UDP) command is dropped
+            if (seq <= lastProcessedSeq) {
+                queue.removeAt(0)
+                continue
+            }
+
+            val commandTpf = clampTpf(message.get("tpf"))
+
+            if (commandTpf > timeBudget)
+                break
+
+            queue.removeAt(0)
+            timeBudget -= commandTpf
+
+            simulation.apply(entity, message.get("command"), commandTpf)
+            lastProcessedSeq = seq
+        }
+
+        if (lastProcessedSeq == lastSeq)
+            return null
+
+        val ack = Bundle(INPUT_ACK_BUNDLE_NAME)
+        ack.put("seq", lastProcessedSeq)
+        ack.put("x", entity.x)
+        ack.put("y", entity.y)
+        ack.put("z", entity.z)
+        return ack
+    }
+
+}
+
+private fun clampTpf(tpf: Double): Double {
+    if (tpf.isNaN())
+        return 0.0
+
+    return tpf.coerceIn(0.0, MAX_COMMAND_TPF)
+}
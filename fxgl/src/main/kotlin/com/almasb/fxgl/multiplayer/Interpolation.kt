@@ -0,0 +1,128 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.multiplayer
+
+/**
+ * Estimates the time of the sending endpoint from snapshot timestamps,
+ * so that replicated entities are rendered at sender time minus [delay].
+ * Times are in seconds.
+ */
+internal class ReplicationClock(val delay: Double) {
+
+    /**
+     * Sender time minus local time, which includes one-way latency.
+     */
+    private var offset = 0.0
+
+    private var isSynced = false
+
+    fun onSenderTime(senderTime: Double, localTime: Double) {
+        val sample = senderTime - localTime
+
+        if (!isSynced) {
+            offset = sample
+            isSynced = true
+        } else {
+            // smooth jitter, so that render time advances steadily
+            offset += (sample - offset) * 0.1
+        }
+    }
+
+    fun renderTime(localTime: Double): Double = localTime + offset - delay
+}
+
+/**
+ * Timestamped positions of a replicated entity, sampled by linear interpolation.
+ */
+internal class InterpolationBuffer(capacity: Int = 32) {
+
+    private val times = DoubleArray(capacity)
+    private val xs = DoubleArray(capacity)
+    private val ys = DoubleArray(capacity)
+    private val zs = DoubleArray(capacity)
+
+    private var start = 0
+
+    var size = 0
+        private set
+
+    val lastTime: Double
+        get() = times[index(size - 1)]
+
+    val lastX: Double
+        get() = xs[index(size - 1)]
+
+    val lastY: Double
+        get() = ys[index(size - 1)]
+
+    val lastZ: Double
+        get() = zs[index(size - 1)]
+
+    fun isEmpty() = size == 0
+
+    /**
+     * Samples older than the last one are ignored.
+     * If full, the oldest sample is dropped.
+     */
+    fun add(time: Double, x: Double, y: Double, z: Double) {
+        if (size > 0 && time <= lastTime)
+            return
+
+        if (size == times.size) {
+            start = index(1)
+            size--
+        }
+
+        val i = index(size)
+        times[i] = time
+        xs[i] = x
+        ys[i] = y
+        zs[i] = z
+        size++
+    }
+
+    /**
+     * Writes position at [time] to [out] (x, y, z), which is clamped to the buffered time range.
+     * Samples no longer needed for times after [time] are dropped.
+     *
+     * @return false if buffer is empty
+     */
+    fun sample(time: Double, out: DoubleArray): Boolean {
+        if (size == 0)
+            return false
+
+        // drop samples while the next one is also in the past
+        while (size > 1 && times[index(1)] <= time) {
+            start = index(1)
+            size--
+        }
+
+        val i0 = index(0)
+
+        if (size == 1 || time <= times[i0]) {
+            out[0] = xs[i0]
+            out[1] = ys[i0]
+            out[2] = zs[i0]
+            return true
+        }
+
+        val i1 = index(1)
+        val t = (time - times[i0]) / (times[i1] - times[i0])
+
+        out[0] = xs[i0] + (xs[i1] - xs[i0]) * t
+        out[1] = ys[i0] + (ys[i1] - ys[i0]) * t
+        out[2] = zs[i0] + (zs[i1] - zs[i0]) * t
+        return true
+    }
+
+    fun clear() {
+        start = 0
+        size = 0
+    }
+
+    private fun index(i: Int) = (start + i) % times.size
+}
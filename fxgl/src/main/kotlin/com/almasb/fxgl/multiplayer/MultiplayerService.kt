@@ -20,6 +20,7 @@ import com.almasb.fxgl.logging.Logger
 import com.almasb.fxgl.net.Connection
 import javafx.beans.property.ReadOnlyDoubleProperty
 import javafx.beans.property.ReadOnlyDoubleWrapper
+import java.util.function.Supplier
 
 /**
  * TODO: symmetric remove API, e.g. removeReplicationSender()
@@ -32,8 +33,25 @@ class MultiplayerService : EngineService() {
 
     private val replicatedEntitiesMap = hashMapOf<Connection<Bundle>, ConnectionData>()
 
+    /**
+     * Replicated positions are rounded to multiples of this value.
+     * Only applies to connections registered after the change.
+     */
+    var positionPrecision = 0.01
+
+    /**
+     * Replicated entities are rendered this many seconds behind the sender time,
+     * interpolating between received positions, so that motion is smooth under network jitter.
+     * The delay should cover a few sender ticks. Set to 0 to apply positions as soon as received.
+     * Only applies to entity replication receivers added after the change.
+     */
+    var interpolationDelay = 0.1
+
+    private val inputPredictors = arrayListOf<Pair<Connection<Bundle>, InputPredictor>>()
+    private val inputCommandReceivers = arrayListOf<Pair<Connection<Bundle>, InputCommandReceiver>>()
+
     fun registerConnection(connection: Connection<Bundle>) {
-        val data = ConnectionData(connection)
+        val data = ConnectionData(connection, positionPrecision)
         setUpNewConnection(data)
 
         replicatedEntitiesMap[connection] = data
@@ -49,6 +67,12 @@ class MultiplayerService : EngineService() {
             fire(data.connection, PongReplicationEvent(ping.timeSent, timeRecv))
         }
 
+        data.connection.addMessageHandlerFX { _, message ->
+            if (message.name == SNAPSHOT_ACK_BUNDLE_NAME) {
+                data.snapshotSender.onAck(message.get("seq"))
+            }
+        }
+
         data.eventBus.addEventHandler(ReplicationEvent.PONG) { pong ->
             val timeNow = System.nanoTime()
             val roundTripTime = timeNow - pong.timeSent
@@ -59,21 +83,46 @@ class MultiplayerService : EngineService() {
     }
 
     override fun onGameUpdate(tpf: Double) {
+        updateInputPrediction(tpf)
+
         if (replicatedEntitiesMap.isEmpty())
             return
 
         val now = System.nanoTime()
+        val time = now / 1_000_000_000.0
 
         // TODO: can (should) we move this to NetworkComponent to act on a per entity basis ...
         replicatedEntitiesMap.forEach { conn, data ->
             fire(conn, PingReplicationEvent(now))
 
-            if (data.entities.isNotEmpty()) {
-                updateReplicatedEntities(conn, data.entities)
+            if (data.snapshotSender.entities.isNotEmpty()) {
+                updateReplicatedEntities(data, time)
             }
         }
     }
 
+    /**
+     * Only entities within [radius] of [viewer] receive position updates via [connection].
+     * Entities outside keep their last replicated position on the other endpoint,
+     * and are updated again once they are within [radius].
+     */
+    fun setReplicationInterest(connection: Connection<Bundle>, viewer: Entity, radius: Double) {
+        val data = replicatedEntitiesMap[connection] ?: return
+
+        data.interestViewer = viewer
+        data.interestRadius = radius
+    }
+
+    /**
+     * All replicated entities receive position updates via [connection].
+     */
+    fun clearReplicationInterest(connection: Connection<Bundle>) {
+        val data = replicatedEntitiesMap[connection] ?: return
+
+        data.interestViewer = null
+        data.interestRadius = Double.POSITIVE_INFINITY
+    }
+
     /**
      * @return round-trip time from this endpoint to given [connection]
      */
@@ -82,25 +131,29 @@ class MultiplayerService : EngineService() {
         return replicatedEntitiesMap[connection]!!.ping.readOnlyProperty
     }
 
-    private fun updateReplicatedEntities(connection: Connection<Bundle>, entities: MutableList<Entity>) {
-        val events = arrayListOf<ReplicationEvent>()
+    /**
+     * Removals are sent as events, position changes since the acknowledged baseline as a snapshot.
+     */
+    private fun updateReplicatedEntities(data: ConnectionData, time: Double) {
+        val sender = data.snapshotSender
 
-        entities.forEach {
-            // TODO: if not present?
-            val networkID = it.getComponent(NetworkComponent::class.java).id
+        val removedIDs = sender.removeInactive()
 
-            if (it.isActive) {
-                events += EntityUpdateEvent(networkID, it.x, it.y, it.z)
-            } else {
-                events += EntityRemoveEvent(networkID)
-            }
+        if (removedIDs.isNotEmpty()) {
+            fire(data.connection, *removedIDs.map { EntityRemoveEvent(it) }.toTypedArray())
         }
 
-        if (events.isNotEmpty()) {
-            fire(connection, *events.toTypedArray())
+        val viewer = data.interestViewer
+
+        val snapshot = if (viewer != null && viewer.isActive) {
+            sender.nextSnapshot(time, viewer.x, viewer.y, data.interestRadius)
+        } else {
+            sender.nextSnapshot(time, 0.0, 0.0, Double.POSITIVE_INFINITY)
         }
 
-        entities.removeIf { !it.isActive }
+        if (snapshot != null && data.connection.isConnected) {
+            data.connection.send(snapshot)
+        }
     }
 
     fun spawn(connection: Connection<Bundle>, entity: Entity, entityName: String) {
@@ -115,14 +168,33 @@ class MultiplayerService : EngineService() {
 
         // TODO: if not available
         val data = replicatedEntitiesMap[connection]!!
-        data.entities += entity
+        data.snapshotSender.add(entity, networkComponent.id)
 
         fire(connection, event)
     }
 
     fun addEntityReplicationReceiver(connection: Connection<Bundle>, gameWorld: GameWorld) {
+        // network ID to entity, so that each update is resolved in O(1)
+        val entities = hashMapOf<Long, NetworkComponent>()
+
+        val clock = if (interpolationDelay > 0) ReplicationClock(interpolationDelay) else null
+        val snapshotReceiver = SnapshotReceiver(clock)
+
         connection.addMessageHandlerFX { _, message ->
 
+            if (message.name == SNAPSHOT_BUNDLE_NAME) {
+                val seq = snapshotReceiver.apply(message, entities, System.nanoTime() / 1_000_000_000.0)
+
+                if (seq >= 0 && connection.isConnected) {
+                    val ack = Bundle(SNAPSHOT_ACK_BUNDLE_NAME)
+                    ack.put("seq", seq)
+
+                    connection.send(ack)
+                }
+
+                return@addMessageHandlerFX
+            }
+
             handleIfReplicationBundle(message) { event ->
                 when (event) {
                     is EntitySpawnEvent -> {
@@ -133,23 +205,24 @@ class MultiplayerService : EngineService() {
 
                         // TODO: show warning if not present
                         e.getComponentOptional(NetworkComponent::class.java)
-                                .ifPresent { it.id = id }
+                                .ifPresent {
+                                    it.id = id
+                                    it.clock = clock
+
+                                    entities[id] = it
+                                }
                     }
 
                     is EntityUpdateEvent -> {
-                        val id = event.networkID
-
-                        gameWorld.getEntitiesByComponentMapped(NetworkComponent::class.java)
-                                .filterValues { it.id == id }
-                                .forEach { (e, _) -> e.setPosition3D(event.x, event.y, event.z) }
+                        entities[event.networkID]?.entity?.setPosition3D(event.x, event.y, event.z)
                     }
 
                     is EntityRemoveEvent -> {
-                        val id = event.networkID
-
-                        gameWorld.getEntitiesByComponentMapped(NetworkComponent::class.java)
-                                .filterValues { it.id == id }
-                                .forEach { (e, _) -> e.removeFromWorld() }
+                        entities.remove(event.networkID)?.let {
+                            if (it.entity.isActive) {
+                                it.entity.removeFromWorld()
+                            }
+                        }
                     }
                 }
             }
@@ -181,6 +254,69 @@ class MultiplayerService : EngineService() {
         })
     }
 
+    /**
+     * Client-side prediction of [entity], which is controlled by this endpoint but simulated by the other endpoint
+     * (the server), which calls [addPredictedInputReceiver].
+     * Each frame, [sampler] provides an input command (or null if there is no input),
+     * which is immediately applied to [entity] via [simulation] and sent to the server with a sequence number.
+     * When the server reports the authoritative position after processing a command,
+     * [entity] is moved there and the commands not yet processed by the server are applied again,
+     * so that input has no visible latency and mispredictions are corrected.
+     * Replicated positions of [entity] are ignored on this endpoint.
+     */
+    fun addPredictedInputSender(
+            connection: Connection<Bundle>,
+            entity: Entity,
+            sampler: Supplier<Bundle?>,
+            simulation: InputSimulation
+    ) {
+        entity.getComponentOptional(NetworkComponent::class.java).ifPresent { it.isPredicted = true }
+
+        val predictor = InputPredictor(entity, sampler, simulation)
+
+        inputPredictors += connection to predictor
+
+        connection.addMessageHandlerFX { _, message ->
+            if (message.name == INPUT_ACK_BUNDLE_NAME) {
+                predictor.onAck(message)
+            }
+        }
+    }
+
+    /**
+     * Server side of [addPredictedInputSender].
+     * Input commands received via [connection] are applied to [entity] via [simulation]
+     * in the order they were sampled, using the frame time of the client,
+     * so that the result matches the client prediction.
+     * The total frame time of applied commands is limited by the time that passes on this endpoint,
+     * so a client cannot move faster by reporting longer frames.
+     */
+    fun addPredictedInputReceiver(connection: Connection<Bundle>, entity: Entity, simulation: InputSimulation) {
+        val receiver = InputCommandReceiver(entity, simulation)
+
+        inputCommandReceivers += connection to receiver
+
+        connection.addMessageHandlerFX { _, message ->
+            if (message.name == INPUT_COMMAND_BUNDLE_NAME) {
+                receiver.onCommand(message)
+            }
+        }
+    }
+
+    private fun updateInputPrediction(tpf: Double) {
+        // predictors and receivers of closed connections are no longer needed
+        inputPredictors.removeIf { (connection, _) -> !connection.isConnected }
+        inputCommandReceivers.removeIf { (connection, _) -> !connection.isConnected }
+
+        inputPredictors.forEach { (connection, predictor) ->
+            predictor.update(tpf)?.let { connection.send(it) }
+        }
+
+        inputCommandReceivers.forEach { (connection, receiver) ->
+            receiver.update(tpf)?.let { connection.send(it) }
+        }
+    }
+
     fun addPropertyReplicationSender(connection: Connection<Bundle>, map: PropertyMap) {
         map.addListener(object : PropertyMapChangeListener {
             override fun onUpdated(propertyName: String, propertyValue: Any) {
@@ -277,8 +413,12 @@ class MultiplayerService : EngineService() {
         }
     }
 
-    private class ConnectionData(val connection: Connection<Bundle>) {
-        val entities = ArrayList<Entity>()
+    private class ConnectionData(val connection: Connection<Bundle>, positionPrecision: Double) {
+        val snapshotSender = SnapshotSender(positionPrecision)
+
+        var interestViewer: Entity? = null
+        var interestRadius = Double.POSITIVE_INFINITY
+
         val eventBus = EventBus().also { it.isLoggingEnabled = false }
 
         val pingBuffer = MovingAverageQueue(1000)
@@ -21,5 +21,59 @@ class NetworkComponent : Component() {
     var id: Long = uniqueID++
         internal set
 
+    /**
+     * If true, replicated positions are ignored on this endpoint, since the entity is moved locally
+     * by client-side prediction, see [MultiplayerService.addPredictedInputSender].
+     */
+    var isPredicted = false
+        internal set
+
+    /**
+     * Set by the entity replication receiver if replicated positions are interpolated.
+     */
+    internal var clock: ReplicationClock? = null
+
+    private val buffer = InterpolationBuffer()
+    private val sample = DoubleArray(3)
+
+    /**
+     * Buffers replicated position at [senderTime].
+     * The entity is assumed to have stayed at its last buffered position until [prevSenderTime],
+     * the previous tick of the sender, since unchanged positions are not sent.
+     */
+    internal fun onReplicatedPosition(senderTime: Double, prevSenderTime: Double, x: Double, y: Double, z: Double) {
+        if (prevSenderTime < senderTime) {
+            if (buffer.isEmpty()) {
+                buffer.add(prevSenderTime, entity.x, entity.y, entity.z)
+            } else if (buffer.lastTime < prevSenderTime) {
+                buffer.add(prevSenderTime, buffer.lastX, buffer.lastY, buffer.lastZ)
+            }
+        }
+
+        buffer.add(senderTime, x, y, z)
+    }
+
+    /**
+     * @return last replicated position, or the current one if none is buffered
+     */
+    internal fun replicatedX() = if (buffer.isEmpty()) entity.x else buffer.lastX
+    internal fun replicatedY() = if (buffer.isEmpty()) entity.y else buffer.lastY
+    internal fun replicatedZ() = if (buffer.isEmpty()) entity.z else buffer.lastZ
+
+    override fun onUpdate(tpf: Double) {
+        val clock = clock ?: return
+
+        interpolate(clock.renderTime(System.nanoTime() / 1_000_000_000.0))
+    }
+
+    internal fun interpolate(renderTime: Double) {
+        if (isPredicted)
+            return
+
+        if (buffer.sample(renderTime, sample)) {
+            entity.setPosition3D(sample[0], sample[1], sample[2])
+        }
+    }
+
     override fun isComponentInjectionRequired(): Boolean = false
-}
\ No newline at end of file
+}
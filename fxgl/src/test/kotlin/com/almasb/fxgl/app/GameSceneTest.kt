@@ -234,4 +234,119 @@ class GameSceneTest {
         assertThat(gameRoot.children[0], `is`(view1.node))
         assertThat(gameRoot.children[1], `is`(view2.node))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `View culling detaches entity views outside viewport`() {
+        val gameRoot = gameScene.contentRoot.children[0] as Group
+
+        gameScene.isViewCulling = true
+        gameScene.viewCullingMargin = 0.0
+
+        val e1 = Entity()
+        e1.viewComponent.addChild(Rectangle(10.0, 10.0))
+        e1.setPosition(100.0, 100.0)
+
+        val e2 = Entity()
+        e2.viewComponent.addChild(Rectangle(10.0, 10.0))
+        e2.setPosition(2000.0, 100.0)
+
+        world.addEntity(e1)
+        world.addEntity(e2)
+
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children, contains<Node>(e1.viewComponent.parent))
+        assertThat(gameScene.numVisibleViews, `is`(1))
+        assertThat(gameScene.numCulledViews, `is`(1))
+
+        // camera moves
+        gameScene.viewport.x = 1500.0
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children, contains<Node>(e2.viewComponent.parent))
+
+        // entity moves, views with equal z keep the order in which they were added
+        e1.x = 1600.0
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children, contains<Node>(e1.viewComponent.parent, e2.viewComponent.parent))
+        assertThat(gameScene.numCulledViews, `is`(0))
+
+        e1.x = 0.0
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children, contains<Node>(e2.viewComponent.parent))
+
+        gameScene.isViewCulling = false
+
+        assertThat(gameRoot.children.size, `is`(2))
+
+        world.removeEntity(e1)
+
+        assertThat(gameRoot.children, contains<Node>(e2.viewComponent.parent))
+    }
+
+    @Test
+    fun `Culled views are attached in z order`() {
+        val gameRoot = gameScene.contentRoot.children[0] as Group
+
+        gameScene.isViewCulling = true
+
+        val entities = listOf(3, 1, 2).map { z ->
+            Entity().also {
+                it.viewComponent.addChild(Rectangle(10.0, 10.0))
+                it.viewComponent.zIndex = z
+                it.setPosition(5000.0, 0.0)
+                world.addEntity(it)
+            }
+        }
+
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children.size, `is`(0))
+
+        entities[1].x = 10.0
+        gameScene.step(0.016)
+        entities[2].x = 20.0
+        entities[0].x = 30.0
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children.map { (it.properties["viewData"] as GameView).z }, contains(1, 2, 3))
+    }
+
+    @Test
+    fun `Views whose z changed are moved to keep z order`() {
+        val gameRoot = gameScene.contentRoot.children[0] as Group
+
+        val views = (0 until 10).map { GameView(Rectangle(), it) }
+        views.forEach { gameScene.addGameView(it) }
+
+        gameScene.step(0.016)
+
+        views[2].z = 20
+        views[7].z = -1
+
+        // not moved until next frame
+        assertThat(gameRoot.children[2], `is`(views[2].node))
+
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children.map { (it.properties["viewData"] as GameView).z }, contains(-1, 0, 1, 3, 4, 5, 6, 8, 9, 20))
+
+        // views with equal z keep the order in which they were added
+        views[9].z = 0
+        views[0].z = 1
+        views[1].z = 1
+        val view = GameView(Rectangle(), 0)
+        gameScene.addGameView(view)
+
+        gameScene.step(0.016)
+
+        assertThat(gameRoot.children.subList(0, 5), contains(views[7].node, views[9].node, view.node, views[0].node, views[1].node))
+
+        gameScene.removeGameView(views[3])
+
+        assertThat(gameRoot.children.size, `is`(10))
+        assertThat(gameRoot.children, not(hasItem(views[3].node)))
+    }
+}
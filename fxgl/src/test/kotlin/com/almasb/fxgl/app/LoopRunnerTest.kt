@@ -12,6 +12,7 @@ import org.hamcrest.MatcherAssert.assertThat
 import org.hamcrest.Matchers.*
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.condition.DisabledOnOs
 import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable
 import org.junit.jupiter.api.condition.OS
@@ -146,4 +147,34 @@ class LoopRunnerTest {
         assertThat(count2, greaterThan(0.0))
         assertThat(count2, lessThan(0.75))
     }
-}
\ No newline at end of file
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "CI", matches = "true")
+    fun `Fixed time step runs steps of equal length to match real time`() {
+        val steps = arrayListOf<Double>()
+
+        val loop = LoopRunner(fixedTimeStep = 0.01) {
+            assertTrue(Platform.isFxApplicationThread())
+            steps += it
+        }
+
+        loop.start()
+
+        Thread.sleep(1000)
+
+        loop.stop()
+
+        // 100 steps per second regardless of the display refresh rate
+        assertThat(steps.size.toDouble(), closeTo(100.0, 20.0))
+        assertThat(steps, everyItem(`is`(0.01)))
+        assertThat(loop.tpf, `is`(0.01))
+        assertThat(loop.alpha, both(greaterThanOrEqualTo(0.0)).and(lessThan(1.0)))
+    }
+
+    @Test
+    fun `Max steps per frame must be at least 1`() {
+        assertThrows<IllegalArgumentException> {
+            LoopRunner(fixedTimeStep = 0.01, maxStepsPerFrame = 0) { }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.multiplayer
+
+import com.almasb.fxgl.entity.Entity
+import com.almasb.fxgl.entity.GameWorld
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+/**
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class EntitySnapshotsTest {
+
+    private lateinit var world: GameWorld
+    private lateinit var sender: SnapshotSender
+    private lateinit var receiver: SnapshotReceiver
+
+    private lateinit var entity: Entity
+    private lateinit var remoteEntity: Entity
+    private lateinit var remoteEntities: MutableMap<Long, NetworkComponent>
+
+    @BeforeEach
+    fun setUp() {
+        world = GameWorld()
+        sender = SnapshotSender(0.01)
+        receiver = SnapshotReceiver()
+
+        entity = Entity()
+        entity.setPosition(10.0, 20.0)
+        world.addEntity(entity)
+
+        remoteEntity = Entity()
+        remoteEntity.setPosition(10.0, 20.0)
+        remoteEntity.addComponent(NetworkComponent())
+        world.addEntity(remoteEntity)
+
+        remoteEntities = hashMapOf(5L to remoteEntity.getComponent(NetworkComponent::class.java))
+
+        sender.add(entity, 5L)
+    }
+
+    @Test
+    fun `No snapshot if nothing changed since baseline`() {
+        assertThat(sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY), nullValue())
+    }
+
+    @Test
+    fun `Snapshot contains only changed fields with quantised values`() {
+        entity.x = 15.123
+
+        val snapshot = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        assertThat(snapshot.get<LongArray>("ids").toList(), contains(5L))
+        assertThat(snapshot.get<IntArray>("values").toList(), contains(1512))
+
+        val seq = receiver.apply(snapshot, remoteEntities, 0.0)
+
+        assertThat(seq, `is`(0))
+        assertThat(remoteEntity.x, closeTo(15.12, 0.0001))
+        assertThat(remoteEntity.y, `is`(20.0))
+    }
+
+    @Test
+    fun `Changes are resent until acknowledged`() {
+        entity.x = 15.0
+
+        val first = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        // first snapshot is lost
+        val second = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        assertThat(second.get<Int>("seq"), greaterThan(first.get<Int>("seq")))
+
+        val seq = receiver.apply(second, remoteEntities, 0.0)
+        sender.onAck(seq)
+
+        assertThat(remoteEntity.x, closeTo(15.0, 0.0001))
+        assertThat(sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY), nullValue())
+    }
+
+    @Test
+    fun `Older snapshots are ignored`() {
+        entity.x = 15.0
+        val first = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        entity.x = 17.0
+        val second = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        receiver.apply(second, remoteEntities, 0.0)
+
+        assertThat(receiver.apply(first, remoteEntities, 0.0), `is`(-1))
+        assertThat(remoteEntity.x, closeTo(17.0, 0.0001))
+    }
+
+    @Test
+    fun `Ack of an older snapshot does not complete newer changes`() {
+        entity.x = 15.0
+        val first = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        entity.x = 17.0
+        sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        sender.onAck(first.get("seq"))
+
+        val third = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        assertThat(third.get<IntArray>("values").toList(), contains(1700))
+    }
+
+    @Test
+    fun `Fields sent since last ack are resent even if back at baseline`() {
+        entity.x = 15.0
+        val first = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        receiver.apply(first, remoteEntities, 0.0)
+
+        // x is back at baseline, only y differs from it
+        entity.setPosition(10.0, 25.0)
+        val second = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        sender.onAck(receiver.apply(second, remoteEntities, 0.0))
+
+        assertThat(remoteEntity.x, closeTo(10.0, 0.0001))
+        assertThat(remoteEntity.y, closeTo(25.0, 0.0001))
+        assertThat(sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY), nullValue())
+    }
+
+    @Test
+    fun `Lost snapshot with value back at baseline is resent until acknowledged`() {
+        entity.x = 15.0
+        receiver.apply(sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!, remoteEntities, 0.0)
+
+        // second snapshot is lost
+        entity.x = 10.0
+        sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        val third = sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!
+
+        sender.onAck(receiver.apply(third, remoteEntities, 0.0))
+
+        assertThat(remoteEntity.x, closeTo(10.0, 0.0001))
+        assertThat(sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY), nullValue())
+    }
+
+    @Test
+    fun `Entities outside interest radius are not sent`() {
+        entity.x = 500.0
+
+        assertThat(sender.nextSnapshot(0.0, 0.0, 0.0, 100.0), nullValue())
+        assertThat(sender.nextSnapshot(0.0, 450.0, 0.0, 100.0), notNullValue())
+    }
+
+    @Test
+    fun `Inactive entities are removed`() {
+        world.removeEntity(entity)
+
+        assertThat(sender.removeInactive(), contains(5L))
+        assertThat(sender.entities.size, `is`(0))
+    }
+
+    @Test
+    fun `Interpolated positions are rendered behind sender time`() {
+        val clock = ReplicationClock(0.1)
+        val receiver = SnapshotReceiver(clock)
+        val component = remoteEntity.getComponent(NetworkComponent::class.java)
+        component.clock = clock
+
+        // sender ticks at 1.0 without changes, then moves the entity
+        assertThat(sender.nextSnapshot(1.0, 0.0, 0.0, Double.POSITIVE_INFINITY), nullValue())
+
+        entity.x = 20.0
+        receiver.apply(sender.nextSnapshot(1.1, 0.0, 0.0, Double.POSITIVE_INFINITY)!!, remoteEntities, 11.1)
+
+        // received positions are not applied immediately
+        assertThat(remoteEntity.x, `is`(10.0))
+
+        // local time 11.1 is sender time 1.1, rendered at 1.05
+        component.interpolate(clock.renderTime(11.15))
+        assertThat(remoteEntity.x, closeTo(15.0, 0.0001))
+
+        component.interpolate(clock.renderTime(11.2))
+        assertThat(remoteEntity.x, closeTo(20.0, 0.0001))
+
+        // no extrapolation past the last received position
+        component.interpolate(clock.renderTime(12.0))
+        assertThat(remoteEntity.x, closeTo(20.0, 0.0001))
+        assertThat(remoteEntity.y, `is`(20.0))
+    }
+
+    @Test
+    fun `Predicted entities ignore replicated positions`() {
+        val component = remoteEntity.getComponent(NetworkComponent::class.java)
+        component.isPredicted = true
+
+        entity.x = 15.0
+        receiver.apply(sender.nextSnapshot(0.0, 0.0, 0.0, Double.POSITIVE_INFINITY)!!, remoteEntities, 0.0)
+
+        assertThat(remoteEntity.x, `is`(10.0))
+    }
+}
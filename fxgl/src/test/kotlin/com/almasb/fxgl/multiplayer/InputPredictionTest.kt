@@ -0,0 +1,161 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.multiplayer
+
+import com.almasb.fxgl.core.serialization.Bundle
+import com.almasb.fxgl.entity.Entity
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.util.function.Supplier
+
+/**
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class InputPredictionTest {
+
+    private val simulation = InputSimulation { entity, command, tpf ->
+        entity.translateX(command.get<Double>("dx") * tpf)
+    }
+
+    private lateinit var clientEntity: Entity
+    private lateinit var serverEntity: Entity
+
+    private var dx: Double? = 100.0
+
+    private lateinit var predictor: InputPredictor
+    private lateinit var receiver: InputCommandReceiver
+
+    @BeforeEach
+    fun setUp() {
+        clientEntity = Entity()
+        serverEntity = Entity()
+
+        predictor = InputPredictor(clientEntity, Supplier { sample() }, simulation)
+        receiver = InputCommandReceiver(serverEntity, simulation)
+    }
+
+    private fun sample(): Bundle? {
+        val value = dx ?: return null
+
+        val command = Bundle("Move")
+        command.put("dx", value)
+        return command
+    }
+
+    @Test
+    fun `Input is applied locally before it is acknowledged`() {
+        val message = predictor.update(0.1)!!
+
+        assertThat(clientEntity.x, closeTo(10.0, 0.0001))
+        assertThat(serverEntity.x, `is`(0.0))
+
+        receiver.onCommand(message)
+        val ack = receiver.update(0.1)!!
+
+        assertThat(ack.get<Int>("seq"), `is`(0))
+        assertThat(serverEntity.x, closeTo(10.0, 0.0001))
+    }
+
+    @Test
+    fun `No command is sent without input`() {
+        dx = null
+
+        assertThat(predictor.update(0.1), nullValue())
+        assertThat(receiver.update(0.1), nullValue())
+    }
+
+    @Test
+    fun `Unacknowledged commands are replayed on top of authoritative state`() {
+        val first = predictor.update(0.1)!!
+        val second = predictor.update(0.1)!!
+        predictor.update(0.1)!!
+
+        assertThat(clientEntity.x, closeTo(30.0, 0.0001))
+
+        // server state differs, e.g. the entity was pushed
+        serverEntity.x = 50.0
+
+        receiver.onCommand(first)
+        receiver.onCommand(second)
+        predictor.onAck(receiver.update(0.2)!!)
+
+        // 70 after two commands, plus the third one
+        assertThat(clientEntity.x, closeTo(80.0, 0.0001))
+        assertThat(predictor.numPendingCommands, `is`(1))
+    }
+
+    @Test
+    fun `Duplicate commands are ignored`() {
+        val first = predictor.update(0.1)!!
+
+        receiver.onCommand(first)
+        receiver.onCommand(first)
+        receiver.update(0.1)
+
+        assertThat(serverEntity.x, closeTo(10.0, 0.0001))
+
+        receiver.onCommand(first)
+
+        assertThat(receiver.update(0.1), nullValue())
+        assertThat(receiver.lastProcessedSeq, `is`(0))
+    }
+
+    @Test
+    fun `Commands cannot use more time than has passed on the server`() {
+        receiver.onCommand(predictor.update(0.1)!!)
+        receiver.onCommand(predictor.update(0.1)!!)
+
+        // only one command fits into the server frame, the other one waits
+        receiver.update(0.1)
+
+        assertThat(serverEntity.x, closeTo(10.0, 0.0001))
+        assertThat(receiver.lastProcessedSeq, `is`(0))
+
+        receiver.update(0.1)
+
+        assertThat(serverEntity.x, closeTo(20.0, 0.0001))
+        assertThat(receiver.lastProcessedSeq, `is`(1))
+    }
+
+    @Test
+    fun `Frame time of a command is clamped`() {
+        val message = predictor.update(0.1)!!
+        message.put("tpf", 1000.0)
+
+        receiver.onCommand(message)
+        receiver.update(1000.0)
+
+        // 0.25 sec max per command
+        assertThat(serverEntity.x, closeTo(25.0, 0.0001))
+
+        val invalid = predictor.update(0.1)!!
+        invalid.put("tpf", Double.NaN)
+
+        receiver.onCommand(invalid)
+        receiver.update(0.1)
+
+        assertThat(serverEntity.x, closeTo(25.0, 0.0001))
+        assertThat(receiver.lastProcessedSeq, `is`(1))
+    }
+
+    @Test
+    fun `Long client frame is predicted as the server applies it`() {
+        val message = predictor.update(1.0)!!
+
+        // 0.25 sec max per command
+        assertThat(clientEntity.x, closeTo(25.0, 0.0001))
+
+        receiver.onCommand(message)
+        predictor.onAck(receiver.update(1.0)!!)
+
+        assertThat(serverEntity.x, closeTo(25.0, 0.0001))
+        assertThat(clientEntity.x, closeTo(25.0, 0.0001))
+    }
+}